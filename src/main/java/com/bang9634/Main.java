@@ -4,6 +4,8 @@ import com.bang9634.config.Config;
 import com.bang9634.controller.AppController;
 import com.bang9634.util.constants.ConfigConstants;
 
+import java.io.IOException;
+
 /**
  * TODO: 테스트 코드 만들기
  */
@@ -46,6 +48,14 @@ public class Main {
             if (!ConfigConstants.TRUE.equals(keepLogin)) {
                 Config.setConfig(ConfigConstants.SERVICE_KEY, "");
             }
+            /** 요청 한도의 일일 사용량은 주기적으로만 저장하므로 마지막 값을 Config에 넘긴다. */
+            AppController.flushRateLimiterUsage();
+            /** Config는 파일 쓰기를 모아서 나중에 하므로, 종료 전에 남은 변경을 파일에 반영한다. */
+            try {
+                Config.flush();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
         }));
         
         AppController.run();
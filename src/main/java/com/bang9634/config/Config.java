@@ -1,98 +1,148 @@
 package com.bang9634.config;
 
 import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import com.bang9634.util.constants.ConfigConstants;
 
 /**
  * serviceKey와 같은 설정을 불러오는 클래스. <p>
- * 
+ *
  * macOS기준 <p>
  * 사용자 home 디렉토리 내부에 .weather_config 파일이 존재해야한다. <p>
- * SERVICE_KEY=(인증 키) 작성 시 프로그램에서 인증 키를 인식하여 활성화된 인증 키라면 
+ * SERVICE_KEY=(인증 키) 작성 시 프로그램에서 인증 키를 인식하여 활성화된 인증 키라면
  * 프로그램이 정상적으로 빌드된다. 그렇지 않다면 부적절한 서비스 키 메세지를 출력한다.
+ * <p>
+ * 설정 파일은 처음 접근할 때 한 번만 읽어 메모리에 보관하며, getConfig는 메모리에서 값을 읽는다.
+ * setConfig는 메모리의 설정을 바로 바꾸고, 파일 쓰기는 잠시 뒤 한 번에 모아서(write-behind) 임시 파일에 쓴 뒤
+ * 원자적으로 교체한다. 프로그램 종료 전처럼 즉시 반영해야 하면 {@link #flush()}를 호출한다.
+ * 편집기 등 외부에서 설정 파일을 수정하면 파일 감시 스레드가 이를 감지하여 메모리의 설정을 다시 읽는다.
  */
 public class Config {
     /** 저장할 Config File의 이름 */
     private static final String CONFIG_FILENAME = ".weather_config";
     /** 사용자 홈 디렉토리 경로에 CONFIG_FILENAME 이름인 파일 객체 */
     private static final File CONFIG_FILE = new File(System.getProperty("user.home"), CONFIG_FILENAME);
+    /** 파일 쓰기를 모으는 시간(ms). 이 시간 안의 setConfig 호출은 한 번의 쓰기로 반영된다. */
+    private static final long WRITE_BEHIND_DELAY_MILLIS = 200;
+    private static final String CONFIG_COMMENT = "Weather API Config";
 
-    /** 
+    /** 메모리에 보관한 설정. 변경할 때는 복사본을 만들어 교체하므로 읽는 쪽은 잠금이 필요 없다. */
+    private static volatile Properties snapshot;
+    /** 파일에 아직 쓰지 않은 변경 */
+    private static final Map<String, String> pendingChanges = new HashMap<>();
+    /** 마지막으로 읽거나 쓴 파일의 수정 시각. 자신이 쓴 변경을 외부 수정으로 오인하지 않도록 비교한다. */
+    private static FileTime knownModifiedTime;
+    private static ScheduledFuture<?> pendingWrite;
+
+    /** 파일 쓰기와 파일 감시를 실행하는 데몬 스레드 */
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "config-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static Thread watcher;
+
+    /**
      * 홈 디렉토리에 Config File 파일을 불러온 props 프로퍼티를 반환한다. <p>
-     * 
+     *
+     * 메모리에 보관한 설정의 복사본을 반환하므로, 반환된 객체를 수정해도 설정에는 반영되지 않는다.
+     *
      * @return  Config File 내용을 불러온 props 객체를 반환한다. Config File이 존재하지 않으면
      *          빈 props를 반환한다.
      */
     public static Properties loadConfig() throws IOException {
         Properties props = new Properties();
-        /** FileReader로 configFile을 읽어온다. 이후 읽어온 파일을 props객체로 불러온다. */
-        if (CONFIG_FILE.exists()) {
-            try (FileReader reader = new FileReader(CONFIG_FILE)) {
-                props.load(reader);
-            }
-        }   
+        props.putAll(snapshot());
         return props;
     }
 
     /**
      * 사용자 홈 디렉토리에 .weather_config 파일이 존재하지 않으면 config파일을 생성한다.
-     * 
+     *
      * @exception   IOException
      *              Config 파일 생성에 실패 시 예외를 던진다.
      */
     public static void constructConfig() throws IOException {
         if (CONFIG_FILE.exists()) return;
-        Properties props = new Properties();
-        props.setProperty(ConfigConstants.SERVICE_KEY, "");
-        try (FileWriter writer = new FileWriter(CONFIG_FILE)) {
-            props.store(writer, "Weather API Config");
+        synchronized (Config.class) {
+            Properties props = copyOfSnapshot();
+            props.putIfAbsent(ConfigConstants.SERVICE_KEY, "");
+            snapshot = props;
+            writeFile(props);
         }
     }
 
     /**
      * 사용자 홈 디렉토리에 존재하는 .weather_config에 key, value값을 받아 set한다. <p>
      * Config 파일에는 (key)=(value) 방식으로 저장된다.
-     * 
+     * <p>
+     * 메모리의 설정은 즉시 바뀌며, 파일에는 잠시 뒤 다른 변경과 함께 기록된다.
+     *
      * @param   key
      *          Config 파일에 저장할 key를 매개변수로 받는다.
      * @param   value
      *          해당하는 key에 value를 저장한다.
      */
     public static void setConfig(String key, String value) {
-        try {
-            Properties props = loadConfig();
-            props.setProperty(key, value);
-            try (FileWriter writer = new FileWriter(CONFIG_FILE)) {
-                props.store(writer, "Weather API Config");
+        setConfig(Map.of(key, value));
+    }
+
+    /**
+     * 여러 key, value값을 한 번에 set한다. <p>
+     * 모든 값이 함께 메모리에 반영되고, 파일에도 한 번의 쓰기로 기록된다.
+     *
+     * @param   values
+     *          Config 파일에 저장할 key와 value
+     */
+    public static void setConfig(Map<String, String> values) {
+        synchronized (Config.class) {
+            Properties props = copyOfSnapshot();
+            props.putAll(values);
+            snapshot = props;
+            pendingChanges.putAll(values);
+            if (pendingWrite == null || pendingWrite.isDone()) {
+                pendingWrite = WRITER.schedule(Config::flushQuietly, WRITE_BEHIND_DELAY_MILLIS, TimeUnit.MILLISECONDS);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
         }
     }
 
-    /** 
+    /**
+     * 아직 파일에 쓰지 않은 변경을 즉시 파일에 기록한다. <p>
+     * 프로그램 종료 시점처럼 쓰기를 기다릴 수 없는 경우 호출한다.
+     *
+     * @exception   IOException
+     *              Config 파일 쓰기에 실패 시 예외를 던진다.
+     */
+    public static void flush() throws IOException {
+        synchronized (Config.class) {
+            if (pendingChanges.isEmpty()) return;
+            writeFile(snapshot);
+            pendingChanges.clear();
+        }
+    }
+
+    /**
      * Config 파일로부터 매개변수 key에 해당하는 값을 String타입으로 반환한다.
      * 매개변수 key와 일치하는 값이 없을 경우 디폴트 값으로 ""를 반환한다.
-     * 
+     *
      * @param   key
      *          Config파일에서 불러오고자 하는 값의 key를 인자로 넘긴다.
      * @return  Config 파일에서 매개변수 key에 해당하는 값을 반환한다.
      */
     public static String getConfig(String key) {
-        try {
-            Properties config = Config.loadConfig();
-            return config.getProperty(key, "");
-        } catch (IOException e) {
-            e.printStackTrace();
-            return "";
-        }
+        return snapshot().getProperty(key, "");
     }
 
-    /** 
+    /**
      * .weather_config 파일 유무를 참 거짓으로 반환한다.
-     * 
+     *
      * @return  .weather_config 파일이 존재하면 true, 존재하지않으면 false를 반환한다.
      */
     public static boolean isConfigFileExists() {
@@ -101,19 +151,146 @@ public class Config {
 
     /**
      * 사용자 홈 디렉토리에 존재하는 Config File 객체를 반환한다.
-     * 
+     *
      * @return  Config File객체를 반환한다.
      */
     public static File getConfigFile() {
         return CONFIG_FILE;
     }
-    
+
     /**
      * 사용자 홈 디렉토리의 Config File의 절대 경로를 반환한다.
-     * 
+     *
      * @return  Config File의 절대 경로를 반환한다.
      */
     public static String getConfigFilePath() {
         return CONFIG_FILE.getAbsolutePath();
     }
-}
\ No newline at end of file
+
+    /**
+     * 메모리의 설정을 반환한다. 처음 호출될 때 파일을 읽고 파일 감시를 시작한다.
+     */
+    private static Properties snapshot() {
+        Properties props = snapshot;
+        if (props != null) return props;
+        synchronized (Config.class) {
+            if (snapshot == null) {
+                snapshot = readFile();
+                startWatcher();
+            }
+            return snapshot;
+        }
+    }
+
+    private static Properties copyOfSnapshot() {
+        Properties props = new Properties();
+        props.putAll(snapshot());
+        return props;
+    }
+
+    /**
+     * 설정 파일을 읽는다. 파일이 없거나 읽을 수 없으면 빈 설정을 반환한다.
+     */
+    private static Properties readFile() {
+        Properties props = new Properties();
+        /** FileReader로 configFile을 읽어온다. 이후 읽어온 파일을 props객체로 불러온다. */
+        if (CONFIG_FILE.exists()) {
+            try (FileReader reader = new FileReader(CONFIG_FILE)) {
+                props.load(reader);
+                knownModifiedTime = Files.getLastModifiedTime(CONFIG_FILE.toPath());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        return props;
+    }
+
+    /**
+     * 설정을 같은 디렉토리의 임시 파일에 쓴 뒤 원자적으로 교체한다.
+     * 도중에 종료되어도 기존 설정 파일은 온전히 남는다.
+     */
+    private static void writeFile(Properties props) throws IOException {
+        Path target = CONFIG_FILE.toPath();
+        Path temp = target.resolveSibling(CONFIG_FILENAME + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temp)) {
+            props.store(writer, CONFIG_COMMENT);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        knownModifiedTime = Files.getLastModifiedTime(target);
+    }
+
+    private static void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 설정 파일이 있는 디렉토리를 감시하는 데몬 스레드를 시작한다.
+     * 파일 감시를 지원하지 않는 환경에서는 감시 없이 동작한다.
+     */
+    private static void startWatcher() {
+        if (watcher != null) return;
+        Path directory = CONFIG_FILE.toPath().toAbsolutePath().getParent();
+        WatchService watchService;
+        try {
+            watchService = directory.getFileSystem().newWatchService();
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException | UnsupportedOperationException e) {
+            e.printStackTrace();
+            return;
+        }
+        watcher = new Thread(() -> watch(watchService), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * 설정 파일의 생성/수정 이벤트를 받아 외부에서 수정된 경우 메모리의 설정을 다시 읽는다.
+     */
+    private static void watch(WatchService watchService) {
+        while (true) {
+            WatchKey watchKey;
+            try {
+                watchKey = watchService.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            boolean changed = false;
+            for (WatchEvent<?> event : watchKey.pollEvents()) {
+                if (event.context() instanceof Path path && CONFIG_FILENAME.equals(path.toString())) {
+                    changed = true;
+                }
+            }
+            if (changed) {
+                reloadIfModifiedExternally();
+            }
+            if (!watchKey.reset()) return;
+        }
+    }
+
+    /**
+     * 파일의 수정 시각이 마지막으로 읽거나 쓴 시각과 다르면 다시 읽는다.
+     * 아직 쓰지 않은 변경이 있으면 외부 수정 내용 위에 다시 적용하여 잃지 않도록 한다.
+     */
+    private static void reloadIfModifiedExternally() {
+        synchronized (Config.class) {
+            try {
+                if (!CONFIG_FILE.exists()) return;
+                FileTime modifiedTime = Files.getLastModifiedTime(CONFIG_FILE.toPath());
+                if (modifiedTime.equals(knownModifiedTime)) return;
+            } catch (IOException e) {
+                return;
+            }
+            Properties reloaded = readFile();
+            reloaded.putAll(pendingChanges);
+            snapshot = reloaded;
+        }
+    }
+}
@@ -3,15 +3,31 @@ package com.bang9634.controller;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 import com.bang9634.config.Config;
 import com.bang9634.gui.NavigationManager;
 import com.bang9634.gui.WeatherDisplayGUI;
+import com.bang9634.provider.RateLimiter;
+import com.bang9634.provider.ResilientWeatherProvider;
 import com.bang9634.provider.WeatherProvider;
 import com.bang9634.provider.impl.PublicDataPortalProvider;
 import com.bang9634.provider.parser.WeatherDataParser;
+import com.bang9634.service.BatchWeatherFetcher;
+import com.bang9634.service.ForecastCache;
 import com.bang9634.service.ServiceKeyValidator;
 import com.bang9634.service.WeatherService;
+import com.bang9634.storage.ForecastStore;
+import com.bang9634.util.CommonUtils;
 import com.bang9634.util.constants.ConfigConstants;
+import com.bang9634.util.constants.WeatherConstants;
+import com.bang9634.util.reader.GridCoordinateCatalog;
 
 /**
  * AppController는 애플리케이션의 주요 흐름을 제어하는 클래스.
@@ -28,7 +44,9 @@ import com.bang9634.util.constants.ConfigConstants;
  *   <li>{@link #goToServiceKeyInput()} - 서비스 키 입력 화면을 표시한다.</li>
  *   <li>{@link #goToWeatherDisplay()} - 날씨 정보 표시 화면을 초기화하고 표시한다.</li>
  *   <li>{@link #initializeServices(String)} - WeatherService 및 Provider를 초기화한다.</li>
+ *   <li>{@link #createBatchWeatherFetcher(int, double)} - 일괄 조회용 BatchWeatherFetcher를 생성한다.</li>
  *   <li>{@link #isServiceKeyValid(String)} - 서비스 키의 유효성을 검사한다.</li>
+ *   <li>{@link #isRecentlyValidated(String)} - 최근에 검증된 서비스 키인지 확인한다.</li>
  * </ul>
  *
  * <b>사용 예시:</b>
@@ -41,25 +59,58 @@ import com.bang9634.util.constants.ConfigConstants;
 public class AppController {
     private static final NavigationManager navigationManager = new NavigationManager();
     private static final WeatherDataParser weatherDataParser = new WeatherDataParser();
+    /** 서비스 키 검증 결과를 재사용하는 기본 기간(분) */
+    private static final long DEFAULT_KEY_VALIDATION_TTL_MINUTES = 24 * 60;
     private static WeatherService weatherService;
+    /** 일괄 조회용(BACKGROUND) WeatherService. 화면 조회와 요청 한도, 예보 캐시를 공유한다. */
+    private static WeatherService backgroundWeatherService;
+    /** 서비스를 다시 초기화해도 유지되는 예보 캐시. 파일에 저장된 예보를 처음 생성할 때 불러온다. */
+    private static ForecastCache forecastCache;
+    /** 서비스 키 검증과 화면 조회가 함께 사용하는 요청 한도 */
+    private static RateLimiter rateLimiter;
 
-    /** 프로그램 흐름을 시작한다. */
+    /** 
+     * 프로그램 흐름을 시작한다. <p>
+     * 서비스 키 검증(네트워크 통신)과 병행하여 기본 지역의 좌표 트리를 백그라운드에서 미리 불러온다.
+     */
     public static void run() {
+        GridCoordinateCatalog.getInstance().prefetch(WeatherConstants.DEFAULT_REGION);
         goToInitialScreen();
     }
 
     /** 
      * 초기 화면을 띄운다 <p>
      * serviceKey의 유효성을 판단해 ServiceKeyInput 혹은 WeatherDisplay로 이동한다.
+     * <p>
+     * 최근에 검증된 서비스 키라면 검증 요청 없이 바로 WeatherDisplay로 이동하므로, 파일에 저장된 예보가 있으면
+     * 네트워크 요청 없이 화면이 표시된다. 그렇지 않으면 검증 요청을 비동기로 보내고 호출 스레드는 바로 반환한다.
+     * 검증에 사용한 응답은 예보 캐시에 저장되어 초기 화면의 같은 요청을 대신한다.
+     * <p>
+     * 서비스 키 오류로 실패한 경우에만 ServiceKeyInput으로 이동한다. 네트워크 장애, 요청 한도 초과 등으로
+     * 검증하지 못했으면 저장된 키를 그대로 두고 WeatherDisplay로 이동하며, 검증 결과는 기록하지 않는다.
      */
     private static void goToInitialScreen() {
         String serviceKey = Config.getConfig(ConfigConstants.SERVICE_KEY);
-        if (!isServiceKeyValid(serviceKey)) {
+        if (serviceKey.isEmpty()) {
             goToServiceKeyInput();
-        } else {
-            initializeServices(serviceKey);
+            return;
+        }
+        initializeServices(serviceKey);
+        if (isRecentlyValidated(serviceKey)) {
             goToWeatherDisplay();
+            return;
         }
+        weatherService.validateServiceKeyAsync().whenComplete((valid, e) -> {
+            if (e != null) {
+                e.printStackTrace();
+                goToWeatherDisplay();
+            } else if (valid) {
+                markValidated(serviceKey);
+                goToWeatherDisplay();
+            } else {
+                goToServiceKeyInput();
+            }
+        });
     }
 
     /** 
@@ -122,22 +173,116 @@ public class AppController {
      * <p>
      * 서비스 키를 매개변수로 받아 WeatherProvider를 생성하고,
      * WeatherService를 초기화한다.
+     * 예보 캐시 크기는 Config의 FORECAST_CACHE_SIZE 값을 사용하며, 없으면 기본값을 사용한다.
+     * 예보 캐시는 사용자 홈 디렉토리의 {@link ForecastStore} 파일에 저장되므로,
+     * 프로그램을 다시 실행해도 만료되지 않은 예보는 네트워크 요청 없이 바로 표시된다.
+     * 외부 API 요청은 Config의 RATE_LIMIT_PER_SECOND, RATE_LIMIT_BURST, DAILY_QUOTA로 제한된다.
+     * 화면 조회는 INTERACTIVE, 일괄 조회는 BACKGROUND 우선순위로 같은 요청 한도를 나누어 쓴다.
      * 
      * @param   serviceKey
      *          서비스 키를 매개변수로 받아 WeatherProvider를 생성하고,
      *          WeatherService를 초기화한다.
      */
     public static void initializeServices(String serviceKey) {
-        WeatherProvider weatherProvider = new PublicDataPortalProvider(serviceKey);
-        weatherService = new WeatherService(weatherProvider, weatherDataParser);
+        weatherService = new WeatherService(createProvider(serviceKey, RateLimiter.Priority.INTERACTIVE),
+                weatherDataParser, getForecastCache());
+        backgroundWeatherService = new WeatherService(createProvider(serviceKey, RateLimiter.Priority.BACKGROUND),
+                weatherDataParser, getForecastCache());
+    }
+
+    /**
+     * 여러 격자를 일괄 조회하는 BatchWeatherFetcher를 생성한다.
+     * <p>
+     * 일괄 조회는 BACKGROUND 우선순위로 요청 한도의 허가를 받으므로, 버킷과 일일 할당량의 INTERACTIVE 몫을 남겨두어
+     * 일괄 조회 중에도 화면 조회가 밀리거나 할당량 부족으로 거절되지 않는다. 예보 캐시는 화면 조회와 공유한다.
+     *
+     * @param   maxConcurrency
+     *          동시에 진행할 최대 요청 수
+     * @param   maxRequestsPerSecond
+     *          초당 최대 요청 시작 수, 0 이하이면 요청 한도만 적용한다.
+     * @return  BatchWeatherFetcher 객체
+     * @throws  IllegalStateException
+     *          {@link #initializeServices(String)} 전에 호출한 경우
+     */
+    public static BatchWeatherFetcher createBatchWeatherFetcher(int maxConcurrency, double maxRequestsPerSecond) {
+        if (backgroundWeatherService == null) {
+            throw new IllegalStateException("서비스가 초기화되지 않았습니다.");
+        }
+        return new BatchWeatherFetcher(backgroundWeatherService, maxConcurrency, maxRequestsPerSecond);
+    }
+
+    /**
+     * 공유 요청 한도를 적용한 WeatherProvider를 생성한다.
+     * <p>
+     * 재시도와 헤징으로 보내는 요청도 모두 요청 한도에 포함되도록, ResilientWeatherProvider가 시도마다 허가를 받는다.
+     * 시도별 제한 시간은 허가를 받은 뒤부터 재므로, 요청 한도 때문에 기다린 시간은 외부 API 장애로 취급되지 않는다.
+     * 
+     * @param   serviceKey
+     *          서비스 키
+     * @param   priority
+     *          요청 한도에서 허가를 받을 우선순위
+     * @return  재시도, 헤징, 회로 차단기와 요청 한도가 적용된 WeatherProvider
+     */
+    private static WeatherProvider createProvider(String serviceKey, RateLimiter.Priority priority) {
+        return new ResilientWeatherProvider(new PublicDataPortalProvider(serviceKey),
+                ResilientWeatherProvider.Policy.defaults(), getRateLimiter(), priority);
+    }
+
+    /**
+     * 애플리케이션에서 공유하는 요청 한도를 반환한다. 처음 호출될 때 Config 값으로 생성한다.
+     * 
+     * @return  RateLimiter 객체
+     */
+    private static synchronized RateLimiter getRateLimiter() {
+        if (rateLimiter == null) {
+            rateLimiter = RateLimiter.fromConfig();
+        }
+        return rateLimiter;
+    }
+
+    /**
+     * 공유 요청 한도의 일일 사용량을 Config에 반영한다. 프로그램 종료 전 {@link Config#flush()}보다 먼저 호출한다.
+     * 요청 한도가 아직 생성되지 않았으면 아무것도 하지 않는다.
+     */
+    public static synchronized void flushRateLimiterUsage() {
+        if (rateLimiter != null) {
+            rateLimiter.flushUsage();
+        }
+    }
+
+    /**
+     * 애플리케이션에서 공유하는 예보 캐시를 반환한다. 처음 호출될 때 파일 저장소와 함께 생성한다.
+     * 
+     * @return  ForecastCache 객체
+     */
+    private static synchronized ForecastCache getForecastCache() {
+        if (forecastCache == null) {
+            int size = getForecastCacheSize();
+            forecastCache = new ForecastCache(size, new ForecastStore(ForecastStore.defaultFile(), size,
+                    Clock.system(WeatherConstants.KMA_ZONE)));
+        }
+        return forecastCache;
+    }
+
+    /**
+     * Config에 설정된 예보 캐시 크기를 반환한다.
+     * 
+     * @return  FORECAST_CACHE_SIZE 값, 설정되지 않았거나 올바르지 않으면 ForecastCache.DEFAULT_MAX_ENTRIES
+     */
+    private static int getForecastCacheSize() {
+        String value = Config.getConfig(ConfigConstants.FORECAST_CACHE_SIZE);
+        if (!CommonUtils.isNumeric(value)) return ForecastCache.DEFAULT_MAX_ENTRIES;
+        int size = (int) Double.parseDouble(value);
+        return size > 0 ? size : ForecastCache.DEFAULT_MAX_ENTRIES;
     }
 
     /**
      * 서비스 키의 유효성을 검증한다.
      * <p>
      * 서비스 키가 유효한지 확인하기 위해 WeatherService를 생성하고,
-     * getWeather 메소드를 호출한다.
-     * 만약 예외가 발생하지 않으면 유효한 서비스 키로 간주한다.
+     * 기본 위치의 예보를 요청한다.
+     * 만약 예외가 발생하지 않으면 유효한 서비스 키로 간주하고 검증 결과를 Config에 기록한다.
+     * 임시 서비스도 공유 예보 캐시를 사용하므로, 검증에 사용한 응답은 이후 초기 화면 표시에 재사용된다.
      * 
      * @param   serviceKey
      *         서비스 키를 매개변수로 받아 유효성을 검증한다.
@@ -145,8 +290,68 @@ public class AppController {
      *          서비스 키가 유효하면 true, 그렇지 않으면 false를 반환한다
      */
     private static boolean isServiceKeyValid(String serviceKey) {
-        WeatherProvider tempProvider = new PublicDataPortalProvider(serviceKey);
-        WeatherService tempService = new WeatherService(tempProvider, weatherDataParser);
-        return tempService.isServiceKeyValid();
+        WeatherProvider tempProvider = createProvider(serviceKey, RateLimiter.Priority.INTERACTIVE);
+        WeatherService tempService = new WeatherService(tempProvider, weatherDataParser, getForecastCache());
+        boolean valid = tempService.isServiceKeyValid();
+        if (valid) markValidated(serviceKey);
+        return valid;
+    }
+
+    /**
+     * 서비스 키가 Config의 KEY_VALIDATION_TTL_MINUTES(기본 24시간) 안에 검증되었는지 확인한다.
+     * <p>
+     * Config에는 서비스 키 대신 SHA-256 해시와 검증 시각을 기록하므로, 다른 키로 바뀌면 다시 검증한다.
+     * 
+     * @param   serviceKey
+     *          확인할 서비스 키
+     * @return  검증 기간 안에 검증된 키라면 true
+     */
+    private static boolean isRecentlyValidated(String serviceKey) {
+        long validatedAt;
+        try {
+            validatedAt = Long.parseLong(Config.getConfig(ConfigConstants.VALIDATED_AT));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (!hashKey(serviceKey).equals(Config.getConfig(ConfigConstants.VALIDATED_KEY_HASH))) return false;
+        long elapsed = System.currentTimeMillis() - validatedAt;
+        return elapsed >= 0 && elapsed < getKeyValidationTtlMillis();
+    }
+
+    /**
+     * 서비스 키의 검증 결과를 Config에 기록한다.
+     * 
+     * @param   serviceKey
+     *          검증에 성공한 서비스 키
+     */
+    private static void markValidated(String serviceKey) {
+        Config.setConfig(Map.of(
+            ConfigConstants.VALIDATED_KEY_HASH, hashKey(serviceKey),
+            ConfigConstants.VALIDATED_AT, String.valueOf(System.currentTimeMillis())
+        ));
+    }
+
+    /**
+     * Config에 설정된 검증 결과 재사용 기간을 반환한다. 0이면 매번 검증한다.
+     * 
+     * @return  KEY_VALIDATION_TTL_MINUTES 값(ms), 설정되지 않았거나 올바르지 않으면 기본값
+     */
+    private static long getKeyValidationTtlMillis() {
+        long minutes;
+        try {
+            minutes = Long.parseLong(Config.getConfig(ConfigConstants.KEY_VALIDATION_TTL_MINUTES));
+        } catch (NumberFormatException e) {
+            minutes = DEFAULT_KEY_VALIDATION_TTL_MINUTES;
+        }
+        return TimeUnit.MINUTES.toMillis(minutes >= 0 ? minutes : DEFAULT_KEY_VALIDATION_TTL_MINUTES);
+    }
+
+    private static String hashKey(String serviceKey) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(serviceKey.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
\ No newline at end of file
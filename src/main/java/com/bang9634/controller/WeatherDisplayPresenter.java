@@ -1,34 +1,61 @@
 package com.bang9634.controller;
 
-import com.bang9634.gui.WeatherDisplayGUI;
-import com.bang9634.model.FcstData;
+import com.bang9634.gui.WeatherDisplayView;
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.GridCell;
 import com.bang9634.service.WeatherService;
-import com.bang9634.util.reader.GridCoordinateReader;
+import com.bang9634.util.constants.MsgConstants;
+import com.bang9634.util.constants.WeatherConstants;
+import com.bang9634.util.reader.AddressSearchIndex;
+import com.bang9634.util.reader.GridCoordinateCatalog;
 
 import javax.swing.*;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
- * WeatherDisplayGUI(View)의 모든 로직과 상태를 관리하는 Presenter.
+ * WeatherDisplayView(View)의 모든 로직과 상태를 관리하는 Presenter.
  * <p>
  * MVP(Model-View-Presenter) 아키텍처의 'Presenter' 역할. View(GUI)와 Model(Service) 사이의 중재자다.
  * View로부터 사용자 입력을 받아 비즈니스 로직(Service)을 호출하고, 그 결과를 다시 View에 반영하는 모든 책임을 진다.
  * 이 패턴으로 View는 화면 그리는 '멍청한(Dumb)' 역할에만 집중. 비즈니스 로직과 UI가 명확히 분리되어 테스트와 유지보수가 쉬워진다.
+ * <p>
+ * 상위 지역이 바뀌면 하위 콤보박스의 목록과 선택을 Presenter가 정해 View에 한 번에 전달하고,
+ * 최종 선택된 동/읍/면의 날씨만 조회한다. 목록 갱신 때문에 중간 지역의 날씨를 조회하는 일은 없다.
+ * <p>
+ * 콤보박스를 키보드로 훑는 것처럼 선택이 빠르게 바뀌면, 마지막 선택 후 debounce 시간 동안 변경이 없을 때 한 번만 조회한다.
+ * 새 조회를 시작하거나 다른 지역이 선택되면 진행 중인 조회는 취소하며(HTTP 요청까지 취소된다),
+ * 늦게 도착한 이전 조회의 결과는 요청 번호로 걸러 View에 그리지 않는다.
+ * 모든 상태는 EDT에서만 읽고 쓴다.
  *
  * <ul>
- *   <li>{@link #setView(WeatherDisplayGUI)} - 상호작용할 View를 설정한다.</li>
+ *   <li>{@link #setView(WeatherDisplayView)} - 상호작용할 View를 설정한다.</li>
  *   <li>{@link #loadInitialData()} - 초기 날씨 데이터를 로드하고 View를 설정한다.</li>
  *   <li>{@link #onRegionSelected(String)} - '시/도' 콤보박스 선택 이벤트를 처리한다.</li>
  *   <li>{@link #onCitySelected(String, String)} - '시/군/구' 콤보박스 선택 이벤트를 처리한다.</li>
  *   <li>{@link #onLocationChanged(String, String, String)} - '동/읍/면' 콤보박스 선택 이벤트 처리하여 날씨를 갱신한다.</li>
- *   <li>{@link #fetchAndUpdateWeather(int, int)} - 날씨 정보를 비동기로 가져와 View를 업데이트한다.</li>
+ *   <li>{@link #onSearch(String)} - 주소 검색어와 가장 가까운 지역을 콤보박스에 선택하고 날씨를 갱신한다.</li>
+ *   <li>{@link #fetchAndUpdateWeather(GridCell)} - 날씨 정보를 비동기로 가져와 View를 업데이트한다.</li>
  * </ul>
  *
  * @author  bangdeokjae
  */
 public class WeatherDisplayPresenter {
+    /** 기본 debounce 시간 (ms) */
+    public static final int DEFAULT_DEBOUNCE_MILLIS = 250;
+
     private final WeatherService weatherService;
-    private WeatherDisplayGUI view;
+    private final GridCoordinateCatalog coordinateCatalog = GridCoordinateCatalog.getInstance();
+    private WeatherDisplayView view;
+    /** 마지막 선택 후 일정 시간이 지나면 조회를 시작하는 타이머 */
+    private final Timer debounceTimer;
+    /** debounce 대기 중인 조회 격자 */
+    private GridCell pendingCell;
+    /** 진행 중인 조회와 그 격자 */
+    private CompletableFuture<FcstSeries> inFlight;
+    private GridCell inFlightCell;
+    /** 마지막 조회의 요청 번호. 이 번호와 다른 조회의 결과는 버린다. */
+    private long requestSequence;
 
     /**
      * 의존성 주입(DI)으로 WeatherService를 받아 Presenter 생성한다.
@@ -40,7 +67,21 @@ public class WeatherDisplayPresenter {
      *          날씨 데이터 조회 등 비즈니스 로직을 처리하는 서비스 객체
      */
     public WeatherDisplayPresenter(WeatherService weatherService) {
+        this(weatherService, DEFAULT_DEBOUNCE_MILLIS);
+    }
+
+    /**
+     * debounce 시간을 지정하여 Presenter를 생성한다.
+     *
+     * @param   weatherService
+     *          날씨 데이터 조회 등 비즈니스 로직을 처리하는 서비스 객체
+     * @param   debounceMillis
+     *          마지막 지역 선택 후 조회를 시작할 때까지 기다리는 시간 (ms)
+     */
+    public WeatherDisplayPresenter(WeatherService weatherService, int debounceMillis) {
         this.weatherService = weatherService;
+        this.debounceTimer = new Timer(debounceMillis, e -> firePendingFetch());
+        this.debounceTimer.setRepeats(false);
     }
 
     /**
@@ -49,30 +90,35 @@ public class WeatherDisplayPresenter {
      * AppController가 호출하고, 이 연결로 Presenter는 View 상태를 바꾸고, View는 사용자 이벤트를 Presenter에게 전달 가능하다.
      * 
      * @param   view  
-     *          화면 표시를 담당하며 Presenter와 상호작용할 WeatherDisplayGUI 인스턴스
+     *          화면 표시를 담당하며 Presenter와 상호작용할 View 인스턴스
      */
-    public void setView(WeatherDisplayGUI view) {
+    public void setView(WeatherDisplayView view) {
         this.view = view;
     }
 
     /**
      * 사용자가 '시/도' 콤보박스 선택 시 이벤트를 처리한다.
      * <p>
-     * 선택된 '시/도'에 맞는 '시/군/구' 목록을 GridCoordinateReader에서 찾아 View에게 콤보박스 갱신을 지시한다.
+     * 선택된 '시/도'에 맞는 '시/군/구' 목록을 GridCoordinateCatalog에서 찾아 첫 항목을 선택한 채로 View에 전달하고,
+     * 이어서 그 '시/군/구'의 '동/읍/면' 목록을 전달한 뒤 첫 '동/읍/면'의 날씨를 한 번 조회한다.
+     * 목록은 좌표 인덱스를 그대로 읽는 List이므로 복사되지 않는다.
      * 
      * @param   region    
      *          View의 콤보박스에서 사용자가 선택한 '시/도' 이름
      */
     public void onRegionSelected(String region) {
         if (region == null) return;
-        Map<String, Map<String, int[]>> cityMap = GridCoordinateReader.ADDRESS_COORD_TREE.get(region);
-        view.updateCityComboBox(cityMap.keySet().toArray(new String[0]));
+        List<String> cities = coordinateCatalog.getCityList(region);
+        String city = cities.isEmpty() ? null : cities.get(0);
+        view.showCities(cities, city);
+        showStreets(region, city);
     }
 
     /**
      * 사용자가 '시/군/구' 콤보박스 선택 시 이벤트를 처리한다.
      * <p>
-     * 선택된 '시/도'와 '시/군/구'에 맞는 '동/읍/면' 목록을 조회, View에게 콤보박스 갱신을 지시한다.
+     * 선택된 '시/도'와 '시/군/구'에 맞는 '동/읍/면' 목록을 조회, View에게 콤보박스 갱신을 지시하고
+     * 첫 '동/읍/면'의 날씨를 조회한다.
      * 
      * @param   region    
      *          선택된 '시/도' 이름
@@ -81,14 +127,31 @@ public class WeatherDisplayPresenter {
      */
     public void onCitySelected(String region, String city) {
         if (region == null || city == null) return;
-        Map<String, int[]> streetMap = GridCoordinateReader.ADDRESS_COORD_TREE.get(region).get(city);
-        view.updateStreetComboBox(streetMap.keySet().toArray(new String[0]));
+        showStreets(region, city);
     }
 
     /**
-     * 사용자가 최종 지역('동/읍/면') 선택 시, 해당 지역의 날씨 정보 조회를 트리거한다.
+     * '동/읍/면' 목록을 첫 항목을 선택한 채로 View에 전달하고, 그 지역의 날씨를 조회한다.
+     *
+     * @param   region
+     *          선택된 '시/도' 이름
+     * @param   city
+     *          선택된 '시/군/구' 이름, 없으면 빈 목록을 전달한다.
+     */
+    private void showStreets(String region, String city) {
+        List<String> streets = city != null ? coordinateCatalog.getStreetList(region, city) : List.of();
+        String street = streets.isEmpty() ? null : streets.get(0);
+        view.showStreets(streets, street);
+        onLocationChanged(region, city, street);
+    }
+
+    /**
+     * 사용자가 최종 지역('동/읍/면') 선택 시, 해당 지역의 날씨 정보 조회를 예약한다.
      * <p>
-     * 선택된 지역의 격자 좌표(nx, ny)를 찾아, {@link #fetchAndUpdateWeather} 메서드를 호출하여 실제 데이터 조회를 시작한다.
+     * 선택된 지역의 격자 좌표(nx, ny)를 찾아, debounce 시간 뒤에 {@link #fetchAndUpdateWeather} 메서드로 실제 데이터 조회를 시작한다.
+     * 그 전에 다른 지역이 선택되면 예약을 새 지역으로 바꾸고 시간을 다시 잰다.
+     * 다른 격자의 조회가 진행 중이면 바로 취소하고, 같은 격자의 조회가 진행 중이면 그 결과를 기다린다.
+     * 같은 격자에 속한 다른 동/읍/면을 이미 조회했다면 WeatherService가 보관한 결과를 재사용한다.
      * 
      * @param   region    
      *          선택된 '시/도' 이름
@@ -99,49 +162,118 @@ public class WeatherDisplayPresenter {
      */
     public void onLocationChanged(String region, String city, String street) {
         if (region == null || city == null || street == null) return;
-        int[] coord = GridCoordinateReader.ADDRESS_COORD_TREE.get(region).get(city).get(street);
-        fetchAndUpdateWeather(coord[0], coord[1]);
+        int[] coord = coordinateCatalog.getCoordinate(region, city, street);
+        if (coord == null) return;
+        scheduleFetch(GridCell.of(coord));
+    }
+
+    /**
+     * 사용자가 주소 검색어를 입력했을 때, 가장 점수가 높은 주소를 선택하고 그 지역의 날씨 조회를 예약한다.
+     * <p>
+     * 검색은 {@link AddressSearchIndex}로 하므로 초성("ㅊㅅ")이나 입력 중인 음절("창시"), 여러 단계의 이름("종로 창신")으로도 찾는다.
+     * 찾은 주소의 '시/도', '시/군/구', '동/읍/면' 콤보박스를 한 번에 교체하므로 선택 이벤트는 발생하지 않으며,
+     * 날씨는 콤보박스로 선택할 때와 같이 debounce 시간 뒤에 한 번 조회한다. 검색 색인은 처음 검색할 때 만든다.
+     *
+     * @param   query
+     *          검색어
+     * @return  일치하는 주소가 있어 선택했으면 true
+     */
+    public boolean onSearch(String query) {
+        List<AddressSearchIndex.Result> results = coordinateCatalog.getSearchIndex().search(query, 1);
+        if (results.isEmpty()) return false;
+        AddressSearchIndex.Result result = results.get(0);
+        view.showRegion(result.region());
+        view.showCities(coordinateCatalog.getCityList(result.region()), result.city());
+        view.showStreets(coordinateCatalog.getStreetList(result.region(), result.city()), result.street());
+        scheduleFetch(result.cell());
+        return true;
     }
 
     /**
      * AppController가 호출. 초기 화면 데이터 로드 및 설정한다.
      * <p>
-     * 기본 위치(서울) 날씨를 불러오고, 콤보박스도 초기 상태(서울특별시)로 설정, 사용자에게 완전한 초기 화면 제공한다.
+     * 콤보박스를 초기 상태(서울특별시)로 설정하고, 그때 선택된 동/읍/면의 날씨를 한 번 불러와 사용자에게 완전한 초기 화면 제공한다.
+     * 초기 조회는 debounce 시간을 기다리지 않고 바로 시작한다.
      */
     public void loadInitialData() {
-        fetchAndUpdateWeather(60, 127);
-        onRegionSelected("서울특별시");
+        view.showRegion(WeatherConstants.DEFAULT_REGION);
+        onRegionSelected(WeatherConstants.DEFAULT_REGION);
+        if (debounceTimer.isRunning()) {
+            debounceTimer.stop();
+            firePendingFetch();
+        }
+    }
+
+    /**
+     * 격자의 조회를 debounce 시간 뒤로 예약한다.
+     *
+     * @param   cell
+     *          날씨를 조회할 예보지점 격자
+     */
+    private void scheduleFetch(GridCell cell) {
+        if (inFlight != null && cell.equals(inFlightCell)) {
+            /** 진행 중인 조회의 격자로 돌아왔으면 새로 조회하지 않는다. */
+            debounceTimer.stop();
+            pendingCell = null;
+            return;
+        }
+        cancelInFlight();
+        pendingCell = cell;
+        view.showLoadingState();
+        debounceTimer.restart();
+    }
+
+    /** debounce 시간이 지나면 예약된 격자의 조회를 시작한다. */
+    private void firePendingFetch() {
+        GridCell cell = pendingCell;
+        pendingCell = null;
+        if (cell != null) fetchAndUpdateWeather(cell);
+    }
+
+    /** 진행 중인 조회를 취소하고, 이미 도착한 결과도 그리지 않도록 요청 번호를 올린다. */
+    private void cancelInFlight() {
+        requestSequence++;
+        if (inFlight != null) {
+            inFlight.cancel(true);
+            inFlight = null;
+            inFlightCell = null;
+        }
     }
 
     /**
      * 특정 좌표의 날씨 데이터를 비동기로 가져와 View를 업데이트하는 핵심 로직이다.
      * <p>
-     * 네트워크 통신은 오래 걸릴 수 있으니 SwingWorker로 백그라운드 스레드에서 API를 호출한다.
+     * 네트워크 통신은 오래 걸릴 수 있으니 {@link WeatherService#getWeatherAsync(GridCell)}로 비동기 호출한다.
+     * SwingWorker는 기본 실행기가 스레드 10개로 제한되어 느린 응답 뒤에 요청이 줄을 서므로 사용하지 않고,
+     * 블로킹 I/O는 ProviderExecutors의 실행기(기본 가상 스레드)에서 처리된다.
      * 이걸로 통신 중 GUI 멈춤(Freezing) 현상 방지, 사용자 경험을 향상시킨다.
-     * 작업 전 View에 로딩 상태 표시, 작업 끝나면 결과 받아 View에 데이터 그리며, 예외 터지면 잡아서 사용자에게 에러 메시지 표시하도록 지시한다.
+     * 작업 전 View에 로딩 상태 표시, 작업 끝나면 EDT에서 결과를 View에 그리며, 예외 터지면 잡아서 출력하고
+     * View에 오류 상태를 표시한다. 로딩 상태가 그대로 남아 있지 않도록, 마지막 조회의 실패는 항상 View에 전달된다.
+     * <p>
+     * 조회마다 요청 번호를 매기고, 결과가 도착했을 때 더 새로운 조회가 시작되었으면 그 결과는 버린다.
+     * 따라서 응답이 요청 순서와 다르게 도착해도 마지막 조회의 결과만 View에 그려진다.
      * 
-     * @param   nx    
-     *          날씨를 조회할 예보지점의 X 좌표
-     * @param   ny    
-     *          날씨를 조회할 예보지점의 Y 좌표
+     * @param   cell    
+     *          날씨를 조회할 예보지점 격자
      */
-    private void fetchAndUpdateWeather(int nx, int ny) {
+    private void fetchAndUpdateWeather(GridCell cell) {
+        cancelInFlight();
+        long sequence = requestSequence;
         view.showLoadingState();
-        new SwingWorker<FcstData, Void>() {
-            @Override
-            protected FcstData doInBackground() throws Exception {
-                return weatherService.getWeather(String.valueOf(nx), String.valueOf(ny));
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    FcstData data = get();
-                    view.setWeatherData(data);
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
+        CompletableFuture<FcstSeries> request = weatherService.getWeatherAsync(cell);
+        inFlight = request;
+        inFlightCell = cell;
+        request.whenComplete((series, e) -> SwingUtilities.invokeLater(() -> {
+            /** 취소되었거나 더 새로운 조회가 시작되었으면 결과를 버린다. */
+            if (sequence != requestSequence) return;
+            inFlight = null;
+            inFlightCell = null;
+            if (e != null) {
+                e.printStackTrace();
+                view.showErrorState(MsgConstants.MSG_WEATHER_LOAD_FAIL);
+                return;
             }
-        }.execute();
+            view.setWeatherData(series);
+        }));
     }
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.bang9634.gui;
+
+import javax.swing.AbstractListModel;
+import javax.swing.ComboBoxModel;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 이름 목록을 복사하지 않고 그대로 보여주는 읽기 전용 콤보박스 모델.
+ * <p>
+ * DefaultComboBoxModel은 항목을 하나씩 추가할 때마다 이벤트를 발생시키고, 첫 항목이 추가되면 선택까지 바뀌어
+ * 콤보박스의 ActionEvent가 항목 수만큼 Presenter로 전달될 수 있다. 이 모델은 목록과 선택 항목을 생성할 때 한 번에 정하므로,
+ * {@link javax.swing.JComboBox#setModel}로 교체하면 목록 전체가 한 번에 바뀌고 ActionEvent는 발생하지 않는다.
+ * 이후에는 사용자의 선택 변경만 이벤트로 전달된다.
+ * <p>
+ * 목록은 {@link com.bang9634.util.reader.GridCoordinateCatalog#getCityList(String)}처럼 좌표 인덱스를 직접 읽는
+ * 읽기 전용 List를 그대로 사용한다.
+ *
+ * @author bangdeokjae
+ */
+public class NameListComboBoxModel extends AbstractListModel<String> implements ComboBoxModel<String> {
+    private final List<String> names;
+    private Object selectedItem;
+
+    /**
+     * 이름 목록과 처음 선택할 항목으로 모델을 생성한다.
+     *
+     * @param   names
+     *          표시할 이름 목록 (변경되지 않아야 한다)
+     * @param   selectedItem
+     *          처음 선택할 항목, 선택하지 않으면 null
+     */
+    public NameListComboBoxModel(List<String> names, String selectedItem) {
+        this.names = names;
+        this.selectedItem = selectedItem;
+    }
+
+    @Override
+    public int getSize() {
+        return names.size();
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        return names.get(index);
+    }
+
+    @Override
+    public Object getSelectedItem() {
+        return selectedItem;
+    }
+
+    @Override
+    public void setSelectedItem(Object anItem) {
+        if (Objects.equals(selectedItem, anItem)) return;
+        selectedItem = anItem;
+        fireContentsChanged(this, -1, -1);
+    }
+}
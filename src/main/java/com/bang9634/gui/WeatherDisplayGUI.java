@@ -2,15 +2,18 @@ package com.bang9634.gui;
 
 import com.bang9634.config.Config;
 import com.bang9634.controller.WeatherDisplayPresenter;
-import com.bang9634.model.FcstData;
+import com.bang9634.model.FcstCategory;
+import com.bang9634.model.FcstSeries;
 import com.bang9634.util.constants.ConfigConstants;
 import com.bang9634.util.constants.MsgConstants;
-import com.bang9634.util.reader.GridCoordinateReader;
+import com.bang9634.util.constants.WeatherConstants;
+import com.bang9634.util.reader.GridCoordinateCatalog;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * 기상 예보 정보를 보여주는 화면(GUI) 클래스.
@@ -18,16 +21,21 @@ import java.util.Map;
  * MVP 패턴의 'View' 역할. 그저 화면을 그리고, 사용자 입력을 Presenter에게 전달하는 역할만 한다.
  * 날씨 데이터가 무슨 의미인지, 콤보박스 선택 시 뭘 해야 하는지 전혀 모른다.
  * 모든 로직은 Presenter가 처리하고, 이 클래스는 그저 Presenter가 시키는 대로 화면을 갱신만 한다.
+ * <p>
+ * 콤보박스 목록은 {@link NameListComboBoxModel}을 교체하는 방식으로 바꾸므로, 목록 갱신 중에는 선택 이벤트가
+ * Presenter로 전달되지 않고 사용자의 선택만 전달된다.
  * 
  * @author  bangdeokjae
  */
-public class WeatherDisplayGUI extends JFrame {
+public class WeatherDisplayGUI extends JFrame implements WeatherDisplayView {
     private JTextArea textArea;                                 /** 기상 정보를 출력할 텍스트 에어리어 */
     private JButton initServiceKeyButton;                       /** 서비스키 초기화 버튼 */
     private Runnable onNext;                                    /** 인증 성공 후 다음 동작을 실행할 코드 블럭 */        
+    private JTextField searchField;                             /** 주소 검색 입력창 */
     private JComboBox<String> regionCoordComboBox;              /** 시/도 콤보박스 */
     private JComboBox<String> cityCoordComboBox;                /** 시/군/구 콤보박스 */
     private JComboBox<String> streetCoordComboBox;              /** 동/읍/면 콤보박스 */
+    private List<String> regions;                               /** 시/도 이름 목록 */
     private WeatherDisplayPresenter weatherDisplayPresenter;    /** 기상 예보 정보를 처리하는 Presenter */
 
     /**
@@ -77,18 +85,29 @@ public class WeatherDisplayGUI extends JFrame {
     /**
      * 날씨 데이터를 텍스트 영역에 표시한다.
      * <p>
-     * FcstData 객체를 받아, 그 안의 데이터를 문자열로 변환하여 textArea에 설정한다.
+     * FcstSeries의 가장 이른 예보 시각을 골라, 예보일자와 예보시각 뒤에 카테고리 순서대로 값을 한 줄씩 textArea에 설정한다.
+     * 값은 {@link FcstSeries#format(FcstCategory, int)}가 파싱 때 기록한 숫자와 결측값 표시로 만들므로 문자열을 다시 변환하지 않는다.
      * 이 메서드는 Presenter가 날씨 데이터를 가져온 후 호출된다.
      *
-     * @param   fcstData   
-     *          날씨 예보 데이터를 담고 있는 FcstData 객체
+     * @param   series   
+     *          날씨 예보 데이터를 담고 있는 FcstSeries 객체
      */
-    public void setWeatherData(FcstData fcstData) {
+    @Override
+    public void setWeatherData(FcstSeries series) {
+        if (series.isEmpty()) {
+            textArea.setText("");
+            return;
+        }
+        int slot = 0;
         StringBuilder sb = new StringBuilder();
-        for (Map.Entry<String, String> entry : fcstData.data.entrySet()) {
-            sb.append(entry.getKey())
+        sb.append(WeatherConstants.LABEL_FCST_DATE).append(" : ").append(series.fcstDateAt(slot)).append("\n");
+        sb.append(WeatherConstants.LABEL_FCST_TIME).append(" : ").append(String.format("%04d", series.fcstTimeAt(slot))).append("\n");
+        for (FcstCategory category : FcstCategory.values()) {
+            String value = series.format(category, slot);
+            if (value == null) continue;
+            sb.append(category.label())
                 .append(" : ")
-                .append(entry.getValue())
+                .append(value)
                 .append("\n");
         }
         textArea.setText(sb.toString());
@@ -98,26 +117,20 @@ public class WeatherDisplayGUI extends JFrame {
      * 컴포넌트들을 초기화한다.
      * <p>
      * 화면에 표시할 텍스트 영역, 버튼, 콤보박스 등을 생성하고 기본 설정을 적용한다.
+     * 첫 화면을 빨리 띄우기 위해 시/도 목록만 채우고, 시/군/구와 동/읍/면 콤보박스는
+     * Presenter의 초기 데이터 로드 시점에 채워진다.
      */
     private void initComponents() {
         textArea = new JTextArea();     
         textArea.setEditable(false);
         textArea.setFont(new Font("AppleGothic", Font.PLAIN, 12));
         initServiceKeyButton = new JButton(MsgConstants.BUTTON_INIT_SERVICE_KEY);
-        regionCoordComboBox = new JComboBox<>(GridCoordinateReader.ADDRESS_COORD_TREE
-            .keySet()
-            .toArray(new String[0]));
-
-        cityCoordComboBox = new JComboBox<>(GridCoordinateReader.ADDRESS_COORD_TREE
-            .get(regionCoordComboBox.getSelectedItem())
-            .keySet()
-            .toArray(new String[0]));
-
-        streetCoordComboBox = new JComboBox<>(GridCoordinateReader.ADDRESS_COORD_TREE
-            .get(regionCoordComboBox.getSelectedItem())
-            .get(cityCoordComboBox.getSelectedItem())
-            .keySet()
-            .toArray(new String[0]));
+        searchField = new JTextField();
+        searchField.setToolTipText(MsgConstants.MSG_SEARCH_ADDRESS);
+        regions = Arrays.asList(GridCoordinateCatalog.getInstance().getRegions());
+        regionCoordComboBox = new JComboBox<>(new NameListComboBoxModel(regions, regions.isEmpty() ? null : regions.get(0)));
+        cityCoordComboBox = new JComboBox<>(new NameListComboBoxModel(List.of(), null));
+        streetCoordComboBox = new JComboBox<>(new NameListComboBoxModel(List.of(), null));
     }
 
     /**
@@ -127,6 +140,7 @@ public class WeatherDisplayGUI extends JFrame {
      */
     private void initListeners() {
         initServiceKeyButton.addActionListener(this::onInitServiceKey);
+        searchField.addActionListener(this::onSearch);
         regionCoordComboBox.addActionListener(this::onRegionSelected);
         cityCoordComboBox.addActionListener(this::onCitySelected);
         streetCoordComboBox.addActionListener(this::onStreetSelected);
@@ -148,7 +162,7 @@ public class WeatherDisplayGUI extends JFrame {
     /**
      * 콤보 박스 패널을 생성한다.
      * <p>
-     * 시/도, 시/군/구, 동/읍/면 콤보박스를 세로로 배치하여 사용자에게 지역 선택 UI를 제공한다.
+     * 주소 검색 입력창과 시/도, 시/군/구, 동/읍/면 콤보박스를 세로로 배치하여 사용자에게 지역 선택 UI를 제공한다.
      *
      * @return  구성된 콤보 박스 패널 객체
      */
@@ -156,16 +170,19 @@ public class WeatherDisplayGUI extends JFrame {
         JPanel comboBoxPanel = new JPanel();
         comboBoxPanel.setLayout(new BoxLayout(comboBoxPanel, BoxLayout.Y_AXIS));
         comboBoxPanel.setAlignmentY(Component.TOP_ALIGNMENT);
+        searchField.setAlignmentX(Component.LEFT_ALIGNMENT);
         regionCoordComboBox.setAlignmentX(Component.LEFT_ALIGNMENT);
         cityCoordComboBox.setAlignmentX(Component.LEFT_ALIGNMENT);
         streetCoordComboBox.setAlignmentX(Component.LEFT_ALIGNMENT);
 
+        comboBoxPanel.add(searchField);
+        comboBoxPanel.add(Box.createVerticalStrut(4));
         comboBoxPanel.add(regionCoordComboBox);
         comboBoxPanel.add(Box.createVerticalStrut(4));
         comboBoxPanel.add(cityCoordComboBox);
         comboBoxPanel.add(Box.createVerticalStrut(4));
         comboBoxPanel.add(streetCoordComboBox);
-        comboBoxPanel.setMaximumSize(new Dimension(200, 150));
+        comboBoxPanel.setMaximumSize(new Dimension(200, 180));
         comboBoxPanel.add(Box.createVerticalGlue());
         comboBoxPanel.setBorder(BorderFactory.createEmptyBorder(10,10,10,10));
         return comboBoxPanel;
@@ -223,34 +240,48 @@ public class WeatherDisplayGUI extends JFrame {
         if (onNext != null) onNext.run();
     }
 
+    /**
+     * 시/도 콤보 박스의 선택을 바꾼다.
+     * <p>
+     * 같은 목록의 새 모델로 교체하므로 선택 이벤트가 발생하지 않는다.
+     *
+     * @param   region
+     *          선택할 시/도 이름
+     */
+    @Override
+    public void showRegion(String region) {
+        regionCoordComboBox.setModel(new NameListComboBoxModel(regions, region));
+    }
+
     /**
      * 콤보 박스에 시/군/구 정보를 업데이트한다.
      * <p>
-     * 지역 선택 콤보 박스에서 선택된 지역에 따라 시/군/구 콤보 박스의 내용을 갱신한다.
+     * 지역 선택 콤보 박스에서 선택된 지역에 따라 시/군/구 콤보 박스의 모델을 한 번에 교체한다.
+     * 항목을 하나씩 추가하지 않으므로 갱신 중에 선택 이벤트가 발생하지 않는다.
      *
      * @param   cities    
-     *          시/군/구 정보 배열
+     *          시/군/구 이름 목록
+     * @param   selected
+     *          선택할 시/군/구 이름
      */
-    public void updateCityComboBox(String[] cities) {
-        cityCoordComboBox.removeAllItems();
-        for (String city : cities) {
-            cityCoordComboBox.addItem(city);
-        }
+    @Override
+    public void showCities(List<String> cities, String selected) {
+        cityCoordComboBox.setModel(new NameListComboBoxModel(cities, selected));
     }
 
     /**
      * 콤보 박스에 동/읍/면 정보를 업데이트한다.
      * <p>
-     * 도시/구/동 콤보 박스에서 선택된 도시/구에 따라 동/읍/면 콤보 박스의 내용을 갱신한다.
+     * 도시/구/동 콤보 박스에서 선택된 도시/구에 따라 동/읍/면 콤보 박스의 모델을 한 번에 교체한다.
      *
      * @param   streets
-     *          동/읍/면 정보 배열
+     *          동/읍/면 이름 목록
+     * @param   selected
+     *          선택할 동/읍/면 이름
      */
-    public void updateStreetComboBox(String[] streets) {
-        streetCoordComboBox.removeAllItems();
-        for (String street : streets) {
-            streetCoordComboBox.addItem(street);
-        }
+    @Override
+    public void showStreets(List<String> streets, String selected) {
+        streetCoordComboBox.setModel(new NameListComboBoxModel(streets, selected));
     }
 
     /**
@@ -258,12 +289,39 @@ public class WeatherDisplayGUI extends JFrame {
      * <p>
      * 날씨 정보를 불러오는 중임을 사용자에게 알리는 메시지를 텍스트 영역에 표시한다.
      */
+    @Override
     public void showLoadingState() {
-        textArea.setText("날씨 정보를 불러오는 중");
+        textArea.setText(MsgConstants.MSG_WEATHER_LOADING);
     }
 
+    /**
+     * 오류 상태를 표시한다.
+     * <p>
+     * 날씨 정보를 불러오지 못했음을 알리는 메시지를 텍스트 영역에 표시한다.
+     *
+     * @param   message
+     *          표시할 메시지
+     */
+    @Override
+    public void showErrorState(String message) {
+        textArea.setText(message);
+    }
 
 
+    /**
+     * 사용자가 주소 검색 입력창에서 Enter를 눌렀을 때 이벤트를 처리한다.
+     * <p>
+     * 입력한 검색어를 Presenter에게 전달한다. 일치하는 주소가 없으면 경고음만 낸다.
+     *
+     * @param   e
+     *          액션 이벤트 객체 (사용 안 함)
+     */
+    private void onSearch(ActionEvent e) {
+        if (!weatherDisplayPresenter.onSearch(searchField.getText())) {
+            Toolkit.getDefaultToolkit().beep();
+        }
+    }
+
     /**
      * 사용자가 '시/도' 콤보박스 선택 시 이벤트를 처리한다.
      * <p>
@@ -0,0 +1,63 @@
+package com.bang9634.gui;
+
+import com.bang9634.model.FcstSeries;
+
+import java.util.List;
+
+/**
+ * WeatherDisplayPresenter가 제어하는 날씨 화면(View)의 인터페이스.
+ * <p>
+ * Presenter는 이 인터페이스로만 화면을 갱신하므로, 실제 창({@link WeatherDisplayGUI}) 없이도
+ * Presenter의 동작을 확인할 수 있다.
+ *
+ * @author bangdeokjae
+ */
+public interface WeatherDisplayView {
+
+    /**
+     * 날씨 데이터를 표시한다. 예보 시각이 여러 개이면 가장 이른 시각의 예보를 표시한다.
+     *
+     * @param   series
+     *          날씨 예보 데이터를 담고 있는 FcstSeries 객체
+     */
+    void setWeatherData(FcstSeries series);
+
+    /** 날씨 정보를 불러오는 중임을 표시한다. */
+    void showLoadingState();
+
+    /**
+     * 날씨 정보를 불러오지 못했음을 표시한다.
+     *
+     * @param   message
+     *          표시할 메시지
+     */
+    void showErrorState(String message);
+
+    /**
+     * '시/도' 콤보박스의 선택을 바꾼다. 선택 이벤트는 발생하지 않는다.
+     *
+     * @param   region
+     *          선택할 '시/도' 이름
+     */
+    void showRegion(String region);
+
+    /**
+     * '시/군/구' 콤보박스의 목록과 선택을 한 번에 교체한다. 선택 이벤트는 발생하지 않는다.
+     *
+     * @param   cities
+     *          '시/군/구' 이름 목록
+     * @param   selected
+     *          선택할 '시/군/구' 이름, 없으면 null
+     */
+    void showCities(List<String> cities, String selected);
+
+    /**
+     * '동/읍/면' 콤보박스의 목록과 선택을 한 번에 교체한다. 선택 이벤트는 발생하지 않는다.
+     *
+     * @param   streets
+     *          '동/읍/면' 이름 목록
+     * @param   selected
+     *          선택할 '동/읍/면' 이름, 없으면 null
+     */
+    void showStreets(List<String> streets, String selected);
+}
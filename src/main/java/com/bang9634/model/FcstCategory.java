@@ -0,0 +1,142 @@
+package com.bang9634.model;
+
+/**
+ * 단기예보 자료구분코드(category)를 나타내는 열거형.
+ * <p>
+ * 선언 순서는 기상청 응답에서 한 예보 시각의 항목이 나오는 순서와 같다.
+ * 예보 값을 카테고리별 배열로 보관하는 {@link FcstSeries}와 코드값 변환 테이블을 가진
+ * {@link com.bang9634.util.mapper.FcstCodeMapper}에서 ordinal을 배열 인덱스로 사용한다.
+ * <p>
+ * 파서는 {@link #fromChars(char[], int, int)}로 토큰의 문자 배열에서 String을 만들지 않고 카테고리를 찾는다.
+ * 표시 이름(label)은 문자열 리터럴이므로 intern되어 모든 예보가 같은 객체를 공유한다.
+ *
+ * @author bangdeokjae
+ */
+public enum FcstCategory {
+    TMP("1시간 기온(°C)", 0, false, false),
+    UUU("풍속(동서성분)(m/s)", 1, false, false),
+    VVV("풍속(남북성분)(m/s)", 1, false, false),
+    VEC("풍향(deg)", 0, false, false),
+    WSD("풍속(m/s)", 1, false, false),
+    SKY("하늘상태", 0, false, true), // 값의 매핑 테이블 존재
+    PTY("강수형태", 0, false, true), // 값의 매핑 테이블 존재
+    POP("강수확률(%)", 0, false, false),
+    WAV("파고(M)", 1, false, false),
+    PCP("1시간 강수량(범주:1mm)", 1, true, false),
+    REH("습도(%)", 0, false, false),
+    SNO("1시간 신적설(범주:1cm)", 1, true, false),
+    TMN("일 최저기온(°C)", 1, false, false),
+    TMX("일 최고기온(°C)", 1, false, false);
+
+    /** values()는 호출할 때마다 배열을 복사하므로 한 번만 만들어 둔다. */
+    private static final FcstCategory[] VALUES = values();
+
+    /** 화면에 표시할 카테고리 이름 */
+    private final String label;
+    /** 화면에 표시할 때의 소수점 자릿수 */
+    private final int decimals;
+    /** "강수없음", "1mm 미만"처럼 범주형 문자열로 오는 카테고리인지 여부 */
+    private final boolean textual;
+    /** 값이 코드(예: PTY 0~4)이며 매핑 테이블로 표시 문자열을 찾는 카테고리인지 여부 */
+    private final boolean coded;
+    /** 3글자 코드를 long 하나로 묶은 값. 문자 배열과 비교할 때 사용한다. */
+    private final long packedCode;
+
+    FcstCategory(String label, int decimals, boolean textual, boolean coded) {
+        this.label = label;
+        this.decimals = decimals;
+        this.textual = textual;
+        this.coded = coded;
+        this.packedCode = pack(name().charAt(0), name().charAt(1), name().charAt(2));
+    }
+
+    /** @return  화면에 표시할 카테고리 이름 */
+    public String label() {
+        return label;
+    }
+
+    /** @return  화면에 표시할 때의 소수점 자릿수 */
+    public int decimals() {
+        return decimals;
+    }
+
+    /** @return  범주형 문자열로 오는 카테고리(PCP, SNO)이면 true */
+    public boolean isTextual() {
+        return textual;
+    }
+
+    /** @return  값이 코드이며 매핑 테이블로 변환하는 카테고리(PTY, SKY)이면 true */
+    public boolean isCoded() {
+        return coded;
+    }
+
+    /** @return  카테고리 수 */
+    public static int count() {
+        return VALUES.length;
+    }
+
+    /**
+     * ordinal에 해당하는 카테고리를 반환한다.
+     *
+     * @param   ordinal
+     *          카테고리 ordinal
+     * @return  FcstCategory
+     */
+    public static FcstCategory ofOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    /**
+     * 자료구분코드 문자열에 해당하는 카테고리를 반환한다.
+     *
+     * @param   code
+     *          자료구분코드 (예: "TMP")
+     * @return  FcstCategory, 알 수 없는 코드이면 null
+     */
+    public static FcstCategory fromCode(String code) {
+        if (code == null) return null;
+        return switch (code) {
+            case "TMP" -> TMP;
+            case "UUU" -> UUU;
+            case "VVV" -> VVV;
+            case "VEC" -> VEC;
+            case "WSD" -> WSD;
+            case "SKY" -> SKY;
+            case "PTY" -> PTY;
+            case "POP" -> POP;
+            case "WAV" -> WAV;
+            case "PCP" -> PCP;
+            case "REH" -> REH;
+            case "SNO" -> SNO;
+            case "TMN" -> TMN;
+            case "TMX" -> TMX;
+            default -> null;
+        };
+    }
+
+    /**
+     * 문자 배열의 일부에 해당하는 카테고리를 반환한다.
+     * <p>
+     * Jackson JsonParser의 getTextCharacters()처럼 토큰의 문자 배열을 그대로 받아, String을 만들지 않고 찾는다.
+     *
+     * @param   chars
+     *          문자 배열
+     * @param   offset
+     *          코드 시작 위치
+     * @param   length
+     *          코드 길이
+     * @return  FcstCategory, 알 수 없는 코드이면 null
+     */
+    public static FcstCategory fromChars(char[] chars, int offset, int length) {
+        if (length != 3) return null;
+        long packed = pack(chars[offset], chars[offset + 1], chars[offset + 2]);
+        for (FcstCategory category : VALUES) {
+            if (category.packedCode == packed) return category;
+        }
+        return null;
+    }
+
+    private static long pack(char c0, char c1, char c2) {
+        return ((long) c0 << 32) | ((long) c1 << 16) | c2;
+    }
+}
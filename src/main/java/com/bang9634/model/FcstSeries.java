@@ -0,0 +1,528 @@
+package com.bang9634.model;
+
+import com.bang9634.util.constants.MsgConstants;
+import com.bang9634.util.mapper.FcstCodeMapper;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * 한 발표시각의 전체 예보 기간을 카테고리별 기본형 배열로 보관하는 열(column) 기반 시계열 클래스.
+ * <p>
+ * 예보 시각(슬롯)은 시간 순으로 정렬되어 있으며, 각 카테고리({@link FcstCategory})마다 슬롯 수 길이의
+ * float 배열 하나에 값을 보관한다. 값은 파싱 시점에 한 번만 숫자로 변환하고, 값의 존재 여부와
+ * 결측값(-900 이하 또는 900 이상) 여부도 이때 비트 집합으로 기록한다.
+ * 따라서 "앞으로 24시간의 최고 기온" 같은 질의는 문자열을 다시 파싱하지 않고 배열만 순회한다.
+ * <p>
+ * PCP(강수량), SNO(신적설)처럼 범주형 문자열로 오는 값은 원래 문자열을 함께 보관하고,
+ * 숫자 배열에는 구간의 대표값을 기록한다.
+ * <ul>
+ *   <li>"강수없음", "적설없음" : 0</li>
+ *   <li>"1mm 미만" : 상한의 절반 (0.5)</li>
+ *   <li>"30.0~50.0mm" : 구간의 중앙값 (40)</li>
+ *   <li>"50.0mm 이상", "1.0mm" : 해당 값</li>
+ * </ul>
+ * <p>
+ * 화면 표시, 예보 캐시({@link com.bang9634.service.ForecastCache}), 파일 저장소가 모두 이 구조를 그대로 사용한다.
+ * 화면에 표시할 문자열은 {@link #format(FcstCategory, int)}가 기록된 숫자와 결측값 비트로 만들므로,
+ * 표시할 때 문자열을 숫자로 다시 변환하지 않는다.
+ * <p>
+ * 이 클래스는 스레드 안전하지 않으며, 파싱이 끝난 뒤에는 읽기 전용으로 사용한다.
+ * 캐시에 저장된 뒤에는 여러 스레드가 동시에 읽는다.
+ *
+ * @author bangdeokjae
+ */
+public class FcstSeries {
+    /** 배열의 초기 슬롯 수. 단기예보는 보통 3~4일치 1시간 간격이므로 필요하면 늘린다. */
+    private static final int INITIAL_CAPACITY = 32;
+    /** 결측값 판별 기준. 이 값 이상 또는 음수 이 값 이하이면 결측값이다. */
+    private static final float MISSING_THRESHOLD = 900f;
+
+    /** 슬롯 수 */
+    private int size;
+    /** 슬롯별 예보일자 (yyyyMMdd) */
+    private int[] fcstDates = new int[INITIAL_CAPACITY];
+    /** 슬롯별 예보시각 (HHmm) */
+    private short[] fcstTimes = new short[INITIAL_CAPACITY];
+    /** [카테고리 ordinal][슬롯] 예보 값 */
+    private final float[][] values = new float[FcstCategory.count()][INITIAL_CAPACITY];
+    /** [카테고리 ordinal] 값이 존재하는 슬롯 */
+    private final BitSet[] present = new BitSet[FcstCategory.count()];
+    /** [카테고리 ordinal] 값이 존재하고 결측값이 아닌 슬롯 */
+    private final BitSet[] valid = new BitSet[FcstCategory.count()];
+    /** [카테고리 ordinal][슬롯] 범주형 카테고리의 원래 문자열. 범주형이 아닌 카테고리는 null이다. */
+    private final String[][] texts = new String[FcstCategory.count()][];
+
+    /** 직전에 기록한 예보일자/예보시각과 슬롯. 같은 시각의 item이 연속으로 오므로 슬롯 탐색을 건너뛴다. */
+    private int lastFcstDate;
+    private int lastFcstTime;
+    private int lastSlot = -1;
+
+    /**
+     * 빈 시계열을 생성한다.
+     */
+    public FcstSeries() {
+        for (FcstCategory category : FcstCategory.values()) {
+            int c = category.ordinal();
+            present[c] = new BitSet();
+            valid[c] = new BitSet();
+            if (category.isTextual()) texts[c] = new String[INITIAL_CAPACITY];
+        }
+    }
+
+    /**
+     * 예보 값 하나를 기록한다. 해당 예보 시각의 슬롯이 없으면 새로 만든다.
+     * <p>
+     * 값은 이 시점에 한 번만 숫자로 변환되며, 숫자로 변환할 수 없는 값은 기록하지 않는다.
+     *
+     * @param   fcstDate
+     *          예보일자 (yyyyMMdd)
+     * @param   fcstTime
+     *          예보시각 (HHmm)
+     * @param   category
+     *          카테고리
+     * @param   fcstValue
+     *          응답의 예보 값 문자열
+     */
+    public void put(String fcstDate, String fcstTime, FcstCategory category, String fcstValue) {
+        put(Integer.parseInt(fcstDate), Integer.parseInt(fcstTime), category, fcstValue);
+    }
+
+    /**
+     * 숫자로 변환된 예보일자/예보시각으로 예보 값 하나를 기록한다.
+     * <p>
+     * 파서가 토큰의 문자 배열에서 일자와 시각을 바로 읽은 경우 사용한다.
+     *
+     * @param   fcstDate
+     *          예보일자 (yyyyMMdd)
+     * @param   fcstTime
+     *          예보시각 (HHmm)
+     * @param   category
+     *          카테고리
+     * @param   fcstValue
+     *          응답의 예보 값 문자열
+     */
+    public void put(int fcstDate, int fcstTime, FcstCategory category, String fcstValue) {
+        float value = category.isTextual() ? parseAmount(fcstValue)
+                    : category.isCoded() ? parseCode(fcstValue)
+                    : parseNumber(fcstValue);
+        if (Float.isNaN(value)) return;
+
+        int slot = put(fcstDate, fcstTime, category, value);
+        if (texts[category.ordinal()] != null) texts[category.ordinal()][slot] = fcstValue.intern();
+    }
+
+    /**
+     * 이미 숫자로 변환된 예보 값 하나를 기록한다.
+     * <p>
+     * 저장소에서 읽은 값처럼 원래 문자열이 없는 경우 사용한다. 범주형 카테고리(PCP, SNO)는 대표값만 기록된다.
+     *
+     * @param   fcstDate
+     *          예보일자 (yyyyMMdd)
+     * @param   fcstTime
+     *          예보시각 (HHmm)
+     * @param   category
+     *          카테고리
+     * @param   value
+     *          예보 값 (결측값은 응답의 값 그대로)
+     * @return  값을 기록한 슬롯 번호
+     */
+    public int put(int fcstDate, int fcstTime, FcstCategory category, float value) {
+        int slot;
+        if (lastSlot >= 0 && fcstDate == lastFcstDate && fcstTime == lastFcstTime) {
+            slot = lastSlot;
+        } else {
+            slot = slotFor(fcstDate, fcstTime);
+            lastFcstDate = fcstDate;
+            lastFcstTime = fcstTime;
+            lastSlot = slot;
+        }
+
+        int c = category.ordinal();
+        values[c][slot] = value;
+        present[c].set(slot);
+        valid[c].set(slot, value > -MISSING_THRESHOLD && value < MISSING_THRESHOLD);
+        return slot;
+    }
+
+    /** @return  슬롯(예보 시각) 수 */
+    public int size() {
+        return size;
+    }
+
+    /** @return  슬롯이 하나도 없으면 true */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param   slot
+     *          슬롯 번호
+     * @return  슬롯의 예보일자 (yyyyMMdd)
+     */
+    public int fcstDateAt(int slot) {
+        checkSlot(slot);
+        return fcstDates[slot];
+    }
+
+    /**
+     * @param   slot
+     *          슬롯 번호
+     * @return  슬롯의 예보시각 (HHmm)
+     */
+    public int fcstTimeAt(int slot) {
+        checkSlot(slot);
+        return fcstTimes[slot];
+    }
+
+    /**
+     * @param   slot
+     *          슬롯 번호
+     * @return  슬롯의 예보 일시
+     */
+    public LocalDateTime dateTimeAt(int slot) {
+        checkSlot(slot);
+        int date = fcstDates[slot];
+        int time = fcstTimes[slot];
+        return LocalDateTime.of(date / 10000, date / 100 % 100, date % 100, time / 100, time % 100);
+    }
+
+    /**
+     * 주어진 일시 이후(포함)의 첫 번째 슬롯을 찾는다.
+     *
+     * @param   dateTime
+     *          기준 일시
+     * @return  첫 번째 슬롯 번호, 모든 슬롯이 기준 일시보다 이르면 size()
+     */
+    public int indexOf(LocalDateTime dateTime) {
+        long key = slotKey(
+            dateTime.getYear() * 10000 + dateTime.getMonthValue() * 100 + dateTime.getDayOfMonth(),
+            dateTime.getHour() * 100 + dateTime.getMinute()
+        );
+        int index = search(key);
+        return index >= 0 ? index : -(index + 1);
+    }
+
+    /**
+     * @param   category
+     *          카테고리
+     * @param   slot
+     *          슬롯 번호
+     * @return  슬롯에 카테고리 값이 있으면 true (결측값 포함)
+     */
+    public boolean isPresent(FcstCategory category, int slot) {
+        checkSlot(slot);
+        return present[category.ordinal()].get(slot);
+    }
+
+    /**
+     * @param   category
+     *          카테고리
+     * @param   slot
+     *          슬롯 번호
+     * @return  슬롯의 카테고리 값이 결측값이면 true
+     */
+    public boolean isMissing(FcstCategory category, int slot) {
+        checkSlot(slot);
+        int c = category.ordinal();
+        return present[c].get(slot) && !valid[c].get(slot);
+    }
+
+    /**
+     * @param   category
+     *          카테고리
+     * @param   slot
+     *          슬롯 번호
+     * @return  슬롯의 카테고리 값, 값이 없으면 NaN. 결측값은 응답의 값(예: -999) 그대로 반환한다.
+     */
+    public float value(FcstCategory category, int slot) {
+        checkSlot(slot);
+        int c = category.ordinal();
+        return present[c].get(slot) ? values[c][slot] : Float.NaN;
+    }
+
+    /**
+     * 범주형 카테고리(PCP, SNO)의 원래 문자열을 반환한다.
+     *
+     * @param   category
+     *          카테고리
+     * @param   slot
+     *          슬롯 번호
+     * @return  원래 문자열, 범주형이 아니거나 원래 문자열 없이 기록된 값이면 null
+     */
+    public String text(FcstCategory category, int slot) {
+        checkSlot(slot);
+        String[] column = texts[category.ordinal()];
+        return column != null ? column[slot] : null;
+    }
+
+    /**
+     * 슬롯 구간에서 결측값을 제외한 카테고리 값의 최댓값을 구한다.
+     *
+     * @param   category
+     *          카테고리
+     * @param   fromSlot
+     *          시작 슬롯 (포함)
+     * @param   toSlot
+     *          끝 슬롯 (제외)
+     * @return  최댓값, 구간에 값이 없으면 NaN
+     */
+    public float max(FcstCategory category, int fromSlot, int toSlot) {
+        int c = category.ordinal();
+        float[] column = values[c];
+        float max = Float.NaN;
+        int end = Math.min(toSlot, size);
+        for (int i = valid[c].nextSetBit(Math.max(fromSlot, 0)); i >= 0 && i < end; i = valid[c].nextSetBit(i + 1)) {
+            if (!(column[i] <= max)) max = column[i];
+        }
+        return max;
+    }
+
+    /**
+     * 슬롯 구간에서 결측값을 제외한 카테고리 값의 최솟값을 구한다.
+     *
+     * @param   category
+     *          카테고리
+     * @param   fromSlot
+     *          시작 슬롯 (포함)
+     * @param   toSlot
+     *          끝 슬롯 (제외)
+     * @return  최솟값, 구간에 값이 없으면 NaN
+     */
+    public float min(FcstCategory category, int fromSlot, int toSlot) {
+        int c = category.ordinal();
+        float[] column = values[c];
+        float min = Float.NaN;
+        int end = Math.min(toSlot, size);
+        for (int i = valid[c].nextSetBit(Math.max(fromSlot, 0)); i >= 0 && i < end; i = valid[c].nextSetBit(i + 1)) {
+            if (!(column[i] >= min)) min = column[i];
+        }
+        return min;
+    }
+
+    /**
+     * 주어진 일시부터 일정 기간 동안 카테고리 값의 최댓값을 구한다.
+     * <p>
+     * 예: {@code series.max(FcstCategory.TMP, now, Duration.ofHours(24))}는 앞으로 24시간의 최고 기온이다.
+     *
+     * @param   category
+     *          카테고리
+     * @param   from
+     *          시작 일시 (포함)
+     * @param   duration
+     *          기간
+     * @return  최댓값, 기간에 값이 없으면 NaN
+     */
+    public float max(FcstCategory category, LocalDateTime from, Duration duration) {
+        return max(category, indexOf(from), indexOf(from.plus(duration)));
+    }
+
+    /**
+     * 주어진 일시부터 일정 기간 동안 카테고리 값의 최솟값을 구한다.
+     *
+     * @param   category
+     *          카테고리
+     * @param   from
+     *          시작 일시 (포함)
+     * @param   duration
+     *          기간
+     * @return  최솟값, 기간에 값이 없으면 NaN
+     */
+    public float min(FcstCategory category, LocalDateTime from, Duration duration) {
+        return min(category, indexOf(from), indexOf(from.plus(duration)));
+    }
+
+    /**
+     * 슬롯의 카테고리 값을 화면에 표시할 문자열로 반환한다.
+     * <p>
+     * 범주형 카테고리(PCP, SNO)는 원래 문자열, 코드 카테고리(PTY, SKY)는 매핑 테이블의 이름,
+     * 결측값은 {@link MsgConstants#MSG_MISSING_VALUE}, 그 외에는 카테고리의 소수점 자릿수로 반올림한 값을 반환한다.
+     *
+     * @param   category
+     *          카테고리
+     * @param   slot
+     *          슬롯 번호
+     * @return  표시할 문자열, 값이 없으면 null
+     */
+    public String format(FcstCategory category, int slot) {
+        checkSlot(slot);
+        int c = category.ordinal();
+        if (!present[c].get(slot)) return null;
+        if (!valid[c].get(slot)) return MsgConstants.MSG_MISSING_VALUE;
+        float value = values[c][slot];
+        if (texts[c] != null && texts[c][slot] != null) return texts[c][slot];
+        if (category.isCoded()) return FcstCodeMapper.decode(category, (int) value);
+        if (category.decimals() == 0) return String.valueOf(Math.round(value));
+        return String.valueOf(Math.round(value * 10) / 10.0);
+    }
+
+    /**
+     * 배열 크기를 슬롯 수에 맞게 줄인다.
+     * <p>
+     * 화면 표시용 조회처럼 슬롯이 몇 개뿐인 예보를 캐시에 오래 보관할 때, 초기 용량만큼의 빈 배열을 남기지 않는다.
+     * 이후에도 값을 기록할 수 있으며, 필요하면 다시 늘어난다.
+     */
+    public void trimToSize() {
+        int capacity = Math.max(size, 1);
+        if (fcstDates.length == capacity) return;
+        fcstDates = Arrays.copyOf(fcstDates, capacity);
+        fcstTimes = Arrays.copyOf(fcstTimes, capacity);
+        for (int c = 0; c < values.length; c++) {
+            values[c] = Arrays.copyOf(values[c], capacity);
+            if (texts[c] != null) texts[c] = Arrays.copyOf(texts[c], capacity);
+        }
+    }
+
+    /**
+     * 예보 시각에 해당하는 슬롯을 찾고, 없으면 시간 순서에 맞게 새 슬롯을 만든다.
+     * <p>
+     * 응답의 item은 시간 순으로 오므로 대부분 마지막 슬롯이거나 그 뒤에 추가된다.
+     */
+    private int slotFor(int fcstDate, int fcstTime) {
+        long key = slotKey(fcstDate, fcstTime);
+        if (size == 0 || key > slotKey(fcstDates[size - 1], fcstTimes[size - 1])) {
+            ensureCapacity(size + 1);
+            fcstDates[size] = fcstDate;
+            fcstTimes[size] = (short) fcstTime;
+            return size++;
+        }
+        int index = search(key);
+        if (index >= 0) return index;
+        return insertSlot(-(index + 1), fcstDate, fcstTime);
+    }
+
+    /**
+     * 슬롯 중간에 새 슬롯을 끼워 넣는다. 뒤쪽 슬롯의 값과 비트를 한 칸씩 민다.
+     */
+    private int insertSlot(int at, int fcstDate, int fcstTime) {
+        ensureCapacity(size + 1);
+        System.arraycopy(fcstDates, at, fcstDates, at + 1, size - at);
+        System.arraycopy(fcstTimes, at, fcstTimes, at + 1, size - at);
+        for (int c = 0; c < values.length; c++) {
+            System.arraycopy(values[c], at, values[c], at + 1, size - at);
+            if (texts[c] != null) System.arraycopy(texts[c], at, texts[c], at + 1, size - at);
+            shiftBits(present[c], at);
+            shiftBits(valid[c], at);
+        }
+        fcstDates[at] = fcstDate;
+        fcstTimes[at] = (short) fcstTime;
+        size++;
+        if (lastSlot >= at) lastSlot = -1;
+        return at;
+    }
+
+    /**
+     * at 이후의 비트를 한 칸씩 뒤로 민다.
+     */
+    private void shiftBits(BitSet bits, int at) {
+        for (int i = size - 1; i >= at; i--) {
+            bits.set(i + 1, bits.get(i));
+        }
+        bits.clear(at);
+    }
+
+    /**
+     * 정렬된 슬롯에서 키를 이진 탐색한다.
+     *
+     * @return  찾으면 슬롯 번호, 없으면 -(삽입 위치) - 1
+     */
+    private int search(long key) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midKey = slotKey(fcstDates[mid], fcstTimes[mid]);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= fcstDates.length) return;
+        int newCapacity = Math.max(capacity, fcstDates.length * 2);
+        fcstDates = Arrays.copyOf(fcstDates, newCapacity);
+        fcstTimes = Arrays.copyOf(fcstTimes, newCapacity);
+        for (int c = 0; c < values.length; c++) {
+            values[c] = Arrays.copyOf(values[c], newCapacity);
+            if (texts[c] != null) texts[c] = Arrays.copyOf(texts[c], newCapacity);
+        }
+    }
+
+    private void checkSlot(int slot) {
+        if (slot < 0 || slot >= size) {
+            throw new IndexOutOfBoundsException("slot " + slot + ", size " + size);
+        }
+    }
+
+    private static long slotKey(int fcstDate, int fcstTime) {
+        return fcstDate * 10000L + fcstTime;
+    }
+
+    /**
+     * 숫자 예보 값을 변환한다.
+     *
+     * @return  변환한 값, 숫자가 아니면 NaN
+     */
+    private static float parseNumber(String fcstValue) {
+        try {
+            return Float.parseFloat(fcstValue);
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+
+    /**
+     * PTY, SKY의 코드값을 변환한다.
+     *
+     * @return  코드값, 정수가 아니면 NaN
+     */
+    private static float parseCode(String fcstValue) {
+        try {
+            return FcstCodeMapper.parseCode(fcstValue);
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+
+    /**
+     * PCP, SNO의 범주형 문자열을 구간의 대표값으로 변환한다.
+     *
+     * @return  대표값, 숫자를 찾을 수 없으면 NaN
+     */
+    private static float parseAmount(String fcstValue) {
+        if (fcstValue.endsWith("없음")) return 0f;
+        int tilde = fcstValue.indexOf('~');
+        if (tilde >= 0) {
+            return (leadingNumber(fcstValue, 0) + leadingNumber(fcstValue, tilde + 1)) / 2f;
+        }
+        float amount = leadingNumber(fcstValue, 0);
+        if (fcstValue.endsWith("미만")) return amount / 2f;
+        return amount;
+    }
+
+    /**
+     * from 위치부터 시작하는 숫자(부호, 소수점 포함)를 읽는다.
+     *
+     * @return  읽은 값, 숫자가 없으면 NaN
+     */
+    private static float leadingNumber(String s, int from) {
+        int end = from;
+        while (end < s.length()) {
+            char ch = s.charAt(end);
+            if ((ch >= '0' && ch <= '9') || ch == '.' || (ch == '-' && end == from)) {
+                end++;
+            } else {
+                break;
+            }
+        }
+        return end > from ? parseNumber(s.substring(from, end)) : Float.NaN;
+    }
+}
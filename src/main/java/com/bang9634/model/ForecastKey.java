@@ -0,0 +1,40 @@
+package com.bang9634.model;
+
+/**
+ * 예보 조회 결과를 식별하는 키 클래스.
+ * <p>
+ * 기상청 단기예보는 발표일자(base_date)와 발표시각(base_time), 격자(nx, ny)가 같으면 응답이 같다.
+ * 예보 캐시와 중복 요청 제거에서 이 네 값을 하나의 키로 사용한다.
+ *
+ * @param   baseDate
+ *          발표일자 (yyyyMMdd)
+ * @param   baseTime
+ *          발표시각 (HHmm)
+ * @param   nx
+ *          예보지점 X 좌표
+ * @param   ny
+ *          예보지점 Y 좌표
+ * @author  bangdeokjae
+ */
+public record ForecastKey(String baseDate, String baseTime, int nx, int ny) {
+
+    /**
+     * 발표일자, 발표시각과 격자로부터 ForecastKey를 생성한다.
+     *
+     * @param   baseDate
+     *          발표일자 (yyyyMMdd)
+     * @param   baseTime
+     *          발표시각 (HHmm)
+     * @param   cell
+     *          예보 격자
+     * @return  ForecastKey 객체
+     */
+    public static ForecastKey of(String baseDate, String baseTime, GridCell cell) {
+        return new ForecastKey(baseDate, baseTime, cell.nx(), cell.ny());
+    }
+
+    /** @return  이 키의 예보 격자 */
+    public GridCell cell() {
+        return new GridCell(nx, ny);
+    }
+}
@@ -0,0 +1,27 @@
+package com.bang9634.model;
+
+/**
+ * 기상청 단기예보 격자(5km) 한 칸을 나타내는 클래스.
+ * <p>
+ * 여러 동/읍/면이 같은 (nx, ny) 격자에 속할 수 있으며, 같은 격자의 예보는 동일하다.
+ * 예보 조회와 캐시의 키로 사용하여 같은 격자에 대한 중복 요청을 하나로 합친다.
+ *
+ * @param   nx
+ *          예보지점 X 좌표
+ * @param   ny
+ *          예보지점 Y 좌표
+ * @author  bangdeokjae
+ */
+public record GridCell(int nx, int ny) {
+
+    /**
+     * GridCoordinateReader 등에서 사용하는 [nx, ny] 배열로부터 GridCell을 생성한다.
+     *
+     * @param   coord
+     *          [nx, ny] 좌표 배열
+     * @return  해당 좌표의 GridCell 객체
+     */
+    public static GridCell of(int[] coord) {
+        return new GridCell(coord[0], coord[1]);
+    }
+}
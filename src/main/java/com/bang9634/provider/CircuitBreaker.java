@@ -0,0 +1,104 @@
+package com.bang9634.provider;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 연속된 실패가 일정 횟수를 넘으면 외부 API 요청을 잠시 막는 회로 차단기.
+ * <ul>
+ *   <li>{@link State#CLOSED} - 요청을 보낸다. 일시적 오류가 failureThreshold번 연속되면 OPEN이 된다.</li>
+ *   <li>{@link State#OPEN} - openDuration 동안 요청을 보내지 않는다. 그 뒤 첫 요청은 시험 요청으로 허용되고 HALF_OPEN이 된다.</li>
+ *   <li>{@link State#HALF_OPEN} - 시험 요청 하나만 진행 중인 상태. 성공하면 CLOSED, 실패하면 다시 OPEN이 된다.
+ *       시험 요청이 결과 없이 끝나면(취소, 요청 한도 초과) {@link #releaseProbe()}로 OPEN으로 돌아가
+ *       다음 요청이 바로 시험 요청이 된다.</li>
+ * </ul>
+ * 상태는 CAS로 바꾸므로 잠금 없이 여러 스레드가 공유할 수 있다.
+ *
+ * @see ResilientWeatherProvider
+ * @author bangdeokjae
+ */
+public class CircuitBreaker {
+    /** 회로 차단기 상태 */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long openedAt;
+
+    /**
+     * CircuitBreaker 생성자.
+     *
+     * @param   failureThreshold
+     *          OPEN으로 바뀌는 연속 실패 횟수
+     * @param   openDuration
+     *          OPEN 상태를 유지할 시간
+     */
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        if (failureThreshold <= 0) {
+            throw new IllegalArgumentException("failureThreshold는 1 이상이어야 합니다 : " + failureThreshold);
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * 요청을 보내도 되는지 확인한다. OPEN 상태에서 openDuration이 지났으면 이 호출을 시험 요청으로 허용한다.
+     *
+     * @return  요청을 보내도 되면 true
+     */
+    public boolean allowRequest() {
+        State current = state.get();
+        if (current == State.CLOSED) return true;
+        if (current == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    /** 요청이 성공했음(또는 서버가 정상 응답했음)을 기록한다. */
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    /** 요청이 일시적 오류로 실패했음을 기록한다. */
+    public void onFailure() {
+        if (state.get() == State.HALF_OPEN) {
+            open(State.HALF_OPEN);
+            return;
+        }
+        if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open(State.CLOSED);
+        }
+    }
+
+    /**
+     * 시험 요청이 서버의 상태를 확인하지 못하고 끝났음을 기록한다.
+     * <p>
+     * 취소되었거나 요청 한도로 보내지 못한 시험 요청은 성공도 실패도 아니므로, HALF_OPEN을 OPEN으로 되돌리되
+     * 차단 시각은 그대로 두어 다음 요청을 바로 시험 요청으로 허용한다. HALF_OPEN이 아니면 아무것도 하지 않는다.
+     */
+    public void releaseProbe() {
+        state.compareAndSet(State.HALF_OPEN, State.OPEN);
+    }
+
+    private void open(State from) {
+        /** 상태보다 시각을 먼저 기록하여, OPEN을 본 스레드가 이전 시각으로 판단하지 않도록 한다. */
+        if (state.get() == from) {
+            openedAt = System.nanoTime();
+            state.compareAndSet(from, State.OPEN);
+        }
+    }
+
+    /** @return  현재 상태 */
+    public State getState() {
+        return state.get();
+    }
+}
@@ -0,0 +1,93 @@
+package com.bang9634.provider;
+
+import com.bang9634.config.Config;
+import com.bang9634.util.constants.ConfigConstants;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WeatherProvider의 블로킹 I/O를 실행할 실행기(Executor)를 만드는 클래스.
+ * <p>
+ * 실행 모드는 두 가지이다.
+ * <ul>
+ *   <li>{@link Mode#VIRTUAL} - 작업마다 가상 스레드(virtual thread)를 만든다.
+ *       블로킹 중에는 캐리어 스레드를 반납하므로 수천 개의 요청을 동시에 기다려도 스레드가 고갈되지 않는다.</li>
+ *   <li>{@link Mode#PLATFORM} - 고정 크기 플랫폼 스레드 풀을 사용한다.</li>
+ * </ul>
+ * 모드는 Config의 FETCH_EXECUTOR 값("virtual" 또는 "platform")으로 선택하며, 설정이 없으면 VIRTUAL을 사용한다.
+ * <p>
+ * 애플리케이션 전역에서는 {@link #shared()}가 반환하는 하나의 실행기를 공유한다.
+ *
+ * @author bangdeokjae
+ */
+public class ProviderExecutors {
+    /** PLATFORM 모드의 스레드 수 */
+    public static final int PLATFORM_THREADS = 10;
+
+    /** 실행 모드 */
+    public enum Mode {
+        PLATFORM,
+        VIRTUAL;
+
+        /**
+         * Config 값을 실행 모드로 변환한다.
+         *
+         * @param   value
+         *          "virtual" 또는 "platform" (대소문자 무시)
+         * @return  해당 모드, 알 수 없는 값이면 VIRTUAL
+         */
+        public static Mode parse(String value) {
+            return "platform".equalsIgnoreCase(value != null ? value.trim() : null) ? PLATFORM : VIRTUAL;
+        }
+    }
+
+    /** 지연 초기화 홀더. 처음 사용할 때 Config를 읽어 공유 실행기를 만든다. */
+    private static class Holder {
+        private static final ExecutorService SHARED = create(configuredMode());
+    }
+
+    /**
+     * 애플리케이션 전역에서 공유하는 실행기를 반환한다.
+     *
+     * @return  Config에 설정된 모드의 공유 실행기
+     */
+    public static ExecutorService shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * Config에 설정된 실행 모드를 반환한다.
+     *
+     * @return  FETCH_EXECUTOR 값에 해당하는 모드
+     */
+    public static Mode configuredMode() {
+        return Mode.parse(Config.getConfig(ConfigConstants.FETCH_EXECUTOR));
+    }
+
+    /**
+     * 지정한 모드의 실행기를 새로 만든다.
+     *
+     * @param   mode
+     *          실행 모드
+     * @return  생성된 실행기. 사용이 끝나면 호출자가 종료해야 한다.
+     */
+    public static ExecutorService create(Mode mode) {
+        if (mode == Mode.VIRTUAL) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("weather-fetch-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(PLATFORM_THREADS, daemonThreadFactory());
+    }
+
+    /** 프로그램 종료를 막지 않는 데몬 플랫폼 스레드 팩토리 */
+    private static ThreadFactory daemonThreadFactory() {
+        AtomicInteger count = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, "weather-fetch-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.bang9634.provider;
+
+/**
+ * {@link RateLimiter}가 요청을 거절할 때 던지는 예외.
+ * <p>
+ * 일일 할당량을 모두 사용했거나 허가까지 너무 오래 기다려야 하는 경우 발생한다.
+ * 외부 API를 호출하지 않은 채 거절된 것이므로, 호출자는 즉시 재시도하지 않아야 한다.
+ *
+ * @see RateLimiter
+ * @author bangdeokjae
+ */
+public class RateLimitExceededException extends Exception {
+    private static final long serialVersionUID = 1L;
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
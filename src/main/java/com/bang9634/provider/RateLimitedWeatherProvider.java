@@ -0,0 +1,133 @@
+package com.bang9634.provider;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * 요청 전에 {@link RateLimiter}의 허가를 받는 WeatherProvider 데코레이터.
+ * <p>
+ * 같은 RateLimiter를 우선순위가 다른 여러 데코레이터가 공유할 수 있다. 예를 들어 화면 조회용 서비스는
+ * {@link RateLimiter.Priority#INTERACTIVE}, 일괄 조회용 서비스는 {@link RateLimiter.Priority#BACKGROUND}로
+ * 같은 서비스 키의 한도를 나누어 쓴다.
+ * <p>
+ * 동기 호출은 허가까지 호출 스레드에서 기다리고, 비동기 호출은 스레드를 점유하지 않고 지연 실행기로 요청을 미룬다.
+ * 거절된 요청은 {@link RateLimitExceededException}으로 실패하며 외부 API를 호출하지 않는다.
+ * 비동기 호출의 결과를 취소하면, 허가를 기다리는 중이면 요청을 보내지 않고 이미 보냈으면 그 요청도 취소한다.
+ * 보내지 않은 요청은 일일 할당량에서 차감하지 않는다.
+ * <p>
+ * 사용 예시:
+ * <pre>
+ *     RateLimiter limiter = RateLimiter.fromConfig();
+ *     WeatherProvider provider = new PublicDataPortalProvider(serviceKey);
+ *     WeatherProvider interactive = new RateLimitedWeatherProvider(provider, limiter, RateLimiter.Priority.INTERACTIVE);
+ *     WeatherProvider background = new RateLimitedWeatherProvider(provider, limiter, RateLimiter.Priority.BACKGROUND);
+ * </pre>
+ *
+ * @see RateLimiter
+ * @author bangdeokjae
+ */
+public class RateLimitedWeatherProvider implements WeatherProvider {
+    private final WeatherProvider delegate;
+    private final RateLimiter rateLimiter;
+    private final RateLimiter.Priority priority;
+
+    /**
+     * RateLimitedWeatherProvider 생성자.
+     *
+     * @param   delegate
+     *          실제 요청을 보낼 WeatherProvider
+     * @param   rateLimiter
+     *          요청 허가를 받을 RateLimiter. 여러 데코레이터가 공유할 수 있다.
+     * @param   priority
+     *          이 데코레이터가 보내는 요청의 우선순위
+     */
+    public RateLimitedWeatherProvider(WeatherProvider delegate, RateLimiter rateLimiter, RateLimiter.Priority priority) {
+        this.delegate = delegate;
+        this.rateLimiter = rateLimiter;
+        this.priority = priority;
+    }
+
+    @Override
+    public String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny,
+                                      int pageNo, int numOfRows) throws Exception {
+        rateLimiter.acquire(priority);
+        return delegate.fetchRawWeatherData(baseDate, baseTime, nx, ny, pageNo, numOfRows);
+    }
+
+    @Override
+    public CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny,
+                                                              int pageNo, int numOfRows) {
+        return withPermit(rateLimiter, priority,
+                () -> delegate.fetchRawWeatherDataAsync(baseDate, baseTime, nx, ny, pageNo, numOfRows));
+    }
+
+    /**
+     * 허가를 비동기로 받은 뒤 send로 요청을 보낸다.
+     * <p>
+     * 결과를 취소하면 허가 대기를 멈추고, 이미 보낸 요청도 취소한다. 허가를 받았지만 요청을 보내지 않은 경우
+     * (허가 직후 취소되었거나 send가 예외를 던진 경우) 일일 할당량을 되돌린다.
+     *
+     * @param   rateLimiter
+     *          허가를 받을 RateLimiter
+     * @param   priority
+     *          요청 우선순위
+     * @param   send
+     *          허가 후 요청을 보내는 코드 블럭
+     * @return  send가 반환한 요청의 결과로 완료되는 CompletableFuture
+     */
+    static CompletableFuture<String> withPermit(RateLimiter rateLimiter, RateLimiter.Priority priority,
+                                                Supplier<CompletableFuture<String>> send) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<Void> permit = rateLimiter.acquireAsync(priority);
+        /** 호출자가 결과를 취소하면 허가 대기를 멈춘다. */
+        result.whenComplete((body, e) -> {
+            if (e != null) permit.cancel(true);
+        });
+        permit.whenComplete((ignored, e) -> {
+            if (e != null) {
+                result.completeExceptionally(unwrap(e));
+                return;
+            }
+            /** 허가 직후 취소되었으면 요청을 보내지 않는다. */
+            if (result.isDone()) {
+                rateLimiter.releasePermit();
+                return;
+            }
+            CompletableFuture<String> call;
+            try {
+                call = send.get();
+            } catch (RuntimeException sendError) {
+                rateLimiter.releasePermit();
+                result.completeExceptionally(sendError);
+                return;
+            }
+            call.whenComplete((body, callError) -> {
+                if (callError == null) {
+                    result.complete(body);
+                } else {
+                    result.completeExceptionally(unwrap(callError));
+                }
+            });
+            /** 호출자가 결과를 취소하면 보낸 요청도 취소한다. */
+            result.whenComplete((body, resultError) -> {
+                if (resultError != null && !call.isDone()) call.cancel(true);
+            });
+        });
+        return result;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        return e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+    }
+
+    /** @return  요청 허가를 받는 RateLimiter */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /** @return  이 데코레이터가 보내는 요청의 우선순위 */
+    public RateLimiter.Priority getPriority() {
+        return priority;
+    }
+}
@@ -0,0 +1,402 @@
+package com.bang9634.provider;
+
+import com.bang9634.config.Config;
+import com.bang9634.util.CommonUtils;
+import com.bang9634.util.constants.ConfigConstants;
+import com.bang9634.util.constants.WeatherConstants;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 공공데이터포털 API 요청 수를 제한하는 토큰 버킷과 일일 할당량 계수기.
+ * <p>
+ * 공공데이터포털은 서비스 키마다 일일 트래픽 한도를 두므로, 일괄 조회가 한도를 소진하거나 서버에서 제한되지 않도록
+ * 요청 전에 {@link #acquire(Priority)} 또는 {@link #acquireAsync(Priority)}로 허가를 받는다.
+ * <ul>
+ *   <li>토큰 버킷 - 초당 permitsPerSecond개씩 채워지고 최대 burst개까지 쌓인다.
+ *       GCRA(Generic Cell Rate Algorithm) 방식으로 "다음 토큰이 채워지는 이론상 시각" 하나만 보관하며,
+ *       CAS로 갱신하므로 잠금 없이 여러 스레드가 공유할 수 있다.</li>
+ *   <li>일일 할당량 - 기상청 기준(KST) 날짜별 허가 수를 센다. 날짜와 개수를 하나의 long에 담아 CAS로 갱신하므로
+ *       자정이 지나면 별도의 초기화 작업 없이 다시 0부터 센다.
+ *       {@link #fromConfig()}로 만든 RateLimiter는 사용량을 Config의 DAILY_QUOTA_USAGE("epoch day:개수")에 저장하고
+ *       생성할 때 오늘의 사용량을 불러오므로, 프로그램을 다시 실행해도 그날 사용한 할당량이 이어진다.
+ *       저장은 허가 경로가 아닌 별도 스레드에서 주기적으로 하고, 종료할 때 {@link #flushUsage()}로 마지막 값을 남긴다.</li>
+ * </ul>
+ * <p>
+ * {@link Priority#INTERACTIVE} 요청은 다음 빈 자리를 예약하고 그 시각까지 기다린다.
+ * {@link Priority#BACKGROUND} 요청은 미래의 자리를 예약하지 않고, 버킷의 interactiveReserve개와 일일 할당량의 일부를
+ * 남기고도 지금 허가할 수 있을 때까지 다시 시도한다. 따라서 일괄 조회가 밀려 있어도
+ * 화면에서 보낸 INTERACTIVE 요청은 그 뒤에 줄 서지 않고 앞서 처리된다.
+ * <p>
+ * 허가까지 maxWait보다 오래 기다려야 하거나 일일 할당량을 모두 사용했으면 {@link RateLimitExceededException}으로 거절한다.
+ *
+ * @see RateLimitedWeatherProvider
+ * @author bangdeokjae
+ */
+public class RateLimiter {
+    /** 기본 초당 요청 수 */
+    public static final double DEFAULT_PERMITS_PER_SECOND = 10;
+    /** 기본 버킷 크기 */
+    public static final int DEFAULT_BURST = 10;
+    /** 기본 일일 할당량 (공공데이터포털 단기예보 개발계정 기준) */
+    public static final long DEFAULT_DAILY_QUOTA = 10_000;
+    /** 기본 최대 대기 시간 */
+    public static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(30);
+    /** BACKGROUND 요청이 사용할 수 없는 일일 할당량 비율 */
+    private static final double INTERACTIVE_QUOTA_RATIO = 0.05;
+    /** 일일 사용량을 Config에 저장하는 간격(초) */
+    private static final long USAGE_SAVE_INTERVAL_SECONDS = 5;
+
+    /** 일일 사용량을 주기적으로 저장하는 데몬 스레드 */
+    private static final ScheduledExecutorService USAGE_WRITER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rate-limiter-usage-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** 요청 우선순위 */
+    public enum Priority {
+        /** 사용자가 화면에서 보낸 요청. 버킷과 할당량을 모두 사용할 수 있다. */
+        INTERACTIVE,
+        /** 미리 불러오기, 일괄 조회 등의 요청. INTERACTIVE 요청 몫을 남겨두어야 허가된다. */
+        BACKGROUND
+    }
+
+    private final long intervalNanos;
+    private final int burst;
+    private final int interactiveReserve;
+    private final long dailyQuota;
+    private final long interactiveQuotaReserve;
+    private final long maxWaitNanos;
+    private final Clock clock;
+
+    /** 다음 토큰이 채워지는 이론상 시각(System.nanoTime 기준) */
+    private final AtomicLong theoreticalArrivalNanos = new AtomicLong(System.nanoTime());
+    /** 상위 32비트는 epoch day, 하위 32비트는 그날 허가한 요청 수 */
+    private final AtomicLong dailyUsage = new AtomicLong();
+    /** 일일 사용량을 저장할 Config 키. null이면 저장하지 않는다. */
+    private volatile String usageConfigKey;
+    /** 마지막으로 Config에 저장한 dailyUsage 값. this로 잠그고 읽고 쓴다. */
+    private long savedUsage;
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder delayNanos = new LongAdder();
+
+    /**
+     * 기본 설정으로 RateLimiter를 생성한다.
+     */
+    public RateLimiter() {
+        this(DEFAULT_PERMITS_PER_SECOND, DEFAULT_BURST, DEFAULT_DAILY_QUOTA, DEFAULT_MAX_WAIT,
+                Clock.system(WeatherConstants.KMA_ZONE));
+    }
+
+    /**
+     * RateLimiter 생성자.
+     *
+     * @param   permitsPerSecond
+     *          초당 허가 수
+     * @param   burst
+     *          한 번에 연속으로 허가할 수 있는 최대 수(버킷 크기)
+     * @param   dailyQuota
+     *          하루 최대 허가 수, 0 이하이면 제한하지 않는다.
+     * @param   maxWait
+     *          허가를 기다릴 최대 시간. 이보다 오래 기다려야 하면 거절한다.
+     * @param   clock
+     *          일일 할당량의 날짜를 판단할 시계
+     */
+    public RateLimiter(double permitsPerSecond, int burst, long dailyQuota, Duration maxWait, Clock clock) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond는 0보다 커야 합니다 : " + permitsPerSecond);
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("burst는 1 이상이어야 합니다 : " + burst);
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burst = burst;
+        this.interactiveReserve = burst / 4;
+        this.dailyQuota = dailyQuota;
+        this.interactiveQuotaReserve = (long) (dailyQuota * INTERACTIVE_QUOTA_RATIO);
+        this.maxWaitNanos = maxWait.toNanos();
+        this.clock = clock;
+    }
+
+    /**
+     * Config의 RATE_LIMIT_PER_SECOND, RATE_LIMIT_BURST, DAILY_QUOTA 값으로 RateLimiter를 생성한다.
+     * 설정되지 않았거나 올바르지 않은 값은 기본값을 사용하며, DAILY_QUOTA가 0 이하이면 일일 할당량을 제한하지 않는다.
+     * <p>
+     * 일일 사용량은 Config의 DAILY_QUOTA_USAGE에 저장하고, 저장된 값이 오늘 날짜이면 이어서 센다.
+     * 허가할 때마다 저장하지 않고 {@value #USAGE_SAVE_INTERVAL_SECONDS}초마다 바뀐 경우에만 저장하므로,
+     * 종료할 때는 {@link #flushUsage()}를 호출해야 한다. 비정상 종료 직전의 몇 초 동안의 사용량은 빠질 수 있다.
+     *
+     * @return  생성된 RateLimiter
+     */
+    public static RateLimiter fromConfig() {
+        RateLimiter limiter = new RateLimiter(
+            configValue(ConfigConstants.RATE_LIMIT_PER_SECOND, DEFAULT_PERMITS_PER_SECOND),
+            (int) configValue(ConfigConstants.RATE_LIMIT_BURST, DEFAULT_BURST),
+            dailyQuotaValue(Config.getConfig(ConfigConstants.DAILY_QUOTA)),
+            DEFAULT_MAX_WAIT,
+            Clock.system(WeatherConstants.KMA_ZONE));
+        limiter.restoreUsage(Config.getConfig(ConfigConstants.DAILY_QUOTA_USAGE));
+        synchronized (limiter) {
+            limiter.savedUsage = limiter.dailyUsage.get();
+        }
+        limiter.usageConfigKey = ConfigConstants.DAILY_QUOTA_USAGE;
+        USAGE_WRITER.scheduleWithFixedDelay(limiter::flushUsage,
+                USAGE_SAVE_INTERVAL_SECONDS, USAGE_SAVE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        return limiter;
+    }
+
+    /**
+     * 요청 하나의 허가를 받을 때까지 호출 스레드에서 기다린다.
+     *
+     * @param   priority
+     *          요청 우선순위
+     * @throws  RateLimitExceededException
+     *          일일 할당량을 모두 사용했거나 maxWait보다 오래 기다려야 하는 경우
+     * @throws  InterruptedException
+     *          기다리는 중 인터럽트된 경우. 차감한 일일 할당량은 되돌린다.
+     */
+    public void acquire(Priority priority) throws RateLimitExceededException, InterruptedException {
+        reserveQuota(priority);
+        long start = System.nanoTime();
+        long waitNanos;
+        try {
+            while ((waitNanos = tryReserve(priority, start)) > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+                if (priority == Priority.INTERACTIVE) break;
+            }
+        } catch (InterruptedException e) {
+            /** 허가를 받지 못하고 중단되었으므로 요청도 보내지 않는다. */
+            releaseQuota();
+            throw e;
+        }
+        recordGranted(start);
+    }
+
+    /**
+     * 요청 하나의 허가를 비동기로 받는다. 기다리는 동안 스레드를 점유하지 않는다.
+     *
+     * @param   priority
+     *          요청 우선순위
+     * @return  허가되면 완료되는 CompletableFuture.
+     *          거절되면 {@link RateLimitExceededException}으로 예외 완료된다.
+     *          허가 전에 취소하면 차감한 일일 할당량을 되돌린다.
+     */
+    public CompletableFuture<Void> acquireAsync(Priority priority) {
+        try {
+            reserveQuota(priority);
+        } catch (RateLimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<Void> permit = new CompletableFuture<>();
+        acquireAsync(priority, System.nanoTime(), permit);
+        return permit;
+    }
+
+    private void acquireAsync(Priority priority, long start, CompletableFuture<Void> permit) {
+        if (permit.isDone()) {
+            releaseQuota();
+            return;
+        }
+        long waitNanos;
+        try {
+            waitNanos = tryReserve(priority, start);
+        } catch (RateLimitExceededException e) {
+            permit.completeExceptionally(e);
+            return;
+        }
+        if (waitNanos == 0) {
+            grant(start, permit);
+            return;
+        }
+        Executor delayedExecutor = CompletableFuture.delayedExecutor(waitNanos, TimeUnit.NANOSECONDS);
+        if (priority == Priority.INTERACTIVE) {
+            /** INTERACTIVE는 이미 예약한 시각이 되면 허가된다. */
+            delayedExecutor.execute(() -> grant(start, permit));
+        } else {
+            delayedExecutor.execute(() -> acquireAsync(priority, start, permit));
+        }
+    }
+
+    /**
+     * 버킷에서 허가를 시도한다.
+     * <p>
+     * INTERACTIVE 요청은 다음 빈 자리를 예약하고 그 시각까지의 대기 시간을 반환한다(반환 후 대기하면 허가된 것이다).
+     * BACKGROUND 요청은 interactiveReserve개를 남기고도 지금 허가할 수 있을 때만 예약하며, 그렇지 않으면 예약하지 않고
+     * 다시 시도할 때까지의 시간을 반환한다. BACKGROUND 요청이 미래의 자리를 미리 차지하지 않으므로,
+     * 일괄 조회가 밀려 있어도 INTERACTIVE 요청은 그 뒤에 줄 서지 않는다.
+     *
+     * @return  0이면 허가, 양수이면 기다릴 시간(나노초)
+     */
+    private long tryReserve(Priority priority, long start) throws RateLimitExceededException {
+        boolean background = priority == Priority.BACKGROUND;
+        long usableBurst = background ? burst - interactiveReserve : burst;
+        while (true) {
+            long now = System.nanoTime();
+            long tat = theoreticalArrivalNanos.get();
+            long newTat = Math.max(tat, now) + intervalNanos;
+            long waitNanos = Math.max(0, newTat - usableBurst * intervalNanos - now);
+            if (now + waitNanos - start > maxWaitNanos) {
+                releaseQuota();
+                rejected.increment();
+                throw new RateLimitExceededException("요청 한도 초과 : " + (maxWaitNanos / 1_000_000) + "ms 안에 허가되지 않습니다.");
+            }
+            if (background && waitNanos > 0) return waitNanos;
+            if (theoreticalArrivalNanos.compareAndSet(tat, newTat)) return waitNanos;
+        }
+    }
+
+    /** 허가를 전달한다. 그 사이 취소되었으면 일일 할당량을 되돌린다. */
+    private void grant(long start, CompletableFuture<Void> permit) {
+        if (permit.complete(null)) {
+            recordGranted(start);
+        } else {
+            releaseQuota();
+        }
+    }
+
+    private void recordGranted(long start) {
+        granted.increment();
+        long waitedNanos = System.nanoTime() - start;
+        if (waitedNanos > intervalNanos / 2) {
+            delayed.increment();
+            delayNanos.add(waitedNanos);
+        }
+    }
+
+    /**
+     * 오늘의 일일 할당량에서 하나를 차감한다. 날짜가 바뀌었으면 새 날짜의 1번째 요청으로 센다.
+     */
+    private void reserveQuota(Priority priority) throws RateLimitExceededException {
+        if (dailyQuota <= 0) return;
+        long limit = priority == Priority.BACKGROUND ? dailyQuota - interactiveQuotaReserve : dailyQuota;
+        long today = LocalDate.now(clock).toEpochDay();
+        while (true) {
+            long usage = dailyUsage.get();
+            long count = (usage >>> 32) == today ? (usage & 0xFFFFFFFFL) : 0;
+            if (count >= limit) {
+                rejected.increment();
+                throw new RateLimitExceededException("일일 요청 할당량을 모두 사용했습니다 : " + count + "/" + dailyQuota);
+            }
+            if (dailyUsage.compareAndSet(usage, (today << 32) | (count + 1))) return;
+        }
+    }
+
+    /** 버킷에서 거절된 요청의 할당량을 되돌린다. 그 사이 날짜가 바뀌었으면 되돌리지 않는다. */
+    private void releaseQuota() {
+        if (dailyQuota <= 0) return;
+        long today = LocalDate.now(clock).toEpochDay();
+        while (true) {
+            long usage = dailyUsage.get();
+            if ((usage >>> 32) != today || (usage & 0xFFFFFFFFL) == 0) return;
+            if (dailyUsage.compareAndSet(usage, usage - 1)) return;
+        }
+    }
+
+    /**
+     * 저장된 일일 사용량("epoch day:개수")을 불러온다. 오늘 날짜가 아니거나 올바르지 않은 값이면 무시한다.
+     *
+     * @param   value
+     *          {@link #usageValue()}로 저장한 값
+     */
+    void restoreUsage(String value) {
+        if (dailyQuota <= 0 || value == null) return;
+        String[] parts = value.split(":");
+        if (parts.length != 2 || !CommonUtils.isNumeric(parts[0]) || !CommonUtils.isNumeric(parts[1])) return;
+        long day = (long) Double.parseDouble(parts[0]);
+        long count = (long) Double.parseDouble(parts[1]);
+        if (day != LocalDate.now(clock).toEpochDay() || count <= 0) return;
+        dailyUsage.set((day << 32) | Math.min(count, 0xFFFFFFFFL));
+    }
+
+    /** @return  오늘의 일일 사용량을 "epoch day:개수" 형식으로 반환한다. */
+    String usageValue() {
+        return LocalDate.now(clock).toEpochDay() + ":" + getQuotaUsedToday();
+    }
+
+    /**
+     * 마지막 저장 이후 일일 사용량이 바뀌었으면 Config에 저장한다.
+     * <p>
+     * {@link #fromConfig()}로 만든 RateLimiter는 주기적으로 이 메소드를 호출하며, 허가 경로에서는 호출하지 않는다.
+     * 프로그램 종료 전에 호출하면 마지막 사용량을 남길 수 있다. Config에 저장하지 않는 RateLimiter이면 아무것도 하지 않는다.
+     */
+    public void flushUsage() {
+        String key = usageConfigKey;
+        if (key == null) return;
+        synchronized (this) {
+            long usage = dailyUsage.get();
+            if (usage == savedUsage) return;
+            Config.setConfig(key, usageValue());
+            savedUsage = usage;
+        }
+    }
+
+    /**
+     * 허가를 받았지만 요청을 보내지 않은 경우 차감한 일일 할당량을 되돌린다.
+     * 허가 직후 호출자가 취소했거나, 요청을 만드는 중 오류가 발생한 경우에 호출한다.
+     */
+    public void releasePermit() {
+        releaseQuota();
+    }
+
+    /** @return  허가한 요청 수 (대기 후 허가 포함) */
+    public long getGrantedCount() {
+        return granted.sum();
+    }
+
+    /** @return  대기 후 허가한 요청 수 */
+    public long getDelayedCount() {
+        return delayed.sum();
+    }
+
+    /** @return  거절한 요청 수 (대기 시간 초과와 할당량 초과) */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /** @return  허가된 요청이 기다린 시간의 합(나노초) */
+    public long getTotalDelayNanos() {
+        return delayNanos.sum();
+    }
+
+    /** @return  오늘 사용한 일일 할당량 */
+    public long getQuotaUsedToday() {
+        long usage = dailyUsage.get();
+        return (usage >>> 32) == LocalDate.now(clock).toEpochDay() ? (usage & 0xFFFFFFFFL) : 0;
+    }
+
+    /** @return  하루 최대 허가 수, 0 이하이면 제한하지 않는다. */
+    public long getDailyQuota() {
+        return dailyQuota;
+    }
+
+    /**
+     * DAILY_QUOTA 설정값을 일일 할당량으로 바꾼다.
+     *
+     * @return  설정되지 않았거나 숫자가 아니면 기본값, 0 이하이면 0(제한하지 않음)
+     */
+    static long dailyQuotaValue(String value) {
+        if (!CommonUtils.isNumeric(value)) return DEFAULT_DAILY_QUOTA;
+        double parsed = Double.parseDouble(value);
+        return parsed > 0 ? (long) parsed : 0;
+    }
+
+    private static double configValue(String key, double defaultValue) {
+        String value = Config.getConfig(key);
+        if (!CommonUtils.isNumeric(value)) return defaultValue;
+        double parsed = Double.parseDouble(value);
+        return parsed > 0 ? parsed : defaultValue;
+    }
+}
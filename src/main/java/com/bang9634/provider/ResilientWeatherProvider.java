@@ -0,0 +1,401 @@
+package com.bang9634.provider;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 외부 API의 지연과 일시적 오류로부터 호출자를 보호하는 WeatherProvider 데코레이터.
+ * <ul>
+ *   <li>시도별 제한 시간 - 각 시도는 attemptTimeout 안에 끝나지 않으면 TimeoutException으로 실패하고,
+ *       진행 중인 HTTP 요청은 취소된다.</li>
+ *   <li>재시도 - 일시적 오류({@link WeatherApiException#isTransient()}, 제한 시간 초과, 입출력 오류)는
+ *       지수 백오프에 전체 지터(full jitter)를 더한 간격으로 maxAttempts번까지 다시 시도한다.
+ *       인증키 오류, NODATA처럼 다시 시도해도 같은 결과인 오류는 바로 실패한다.</li>
+ *   <li>헤징(hedging) - 시도가 최근 성공 응답 지연의 p95보다 오래 걸리면 같은 요청을 하나 더 보내고,
+ *       먼저 성공한 응답을 사용한다. 나머지 요청은 취소한다.</li>
+ *   <li>회로 차단기 - 일시적 오류가 연속되면 {@link CircuitBreaker}가 열려 요청을 보내지 않고
+ *       {@link WeatherApiException.ErrorType#CIRCUIT_OPEN} 예외로 바로 실패한다.
+ *       WeatherService는 이 경우 마지막으로 받은 예보를 대신 표시한다.</li>
+ * </ul>
+ * 따라서 한 번의 호출은 대략 maxAttempts * attemptTimeout + 백오프 합계 안에 끝난다.
+ * 대기는 모두 지연 실행기로 처리하므로 스레드를 점유하지 않는다.
+ * <p>
+ * {@link RateLimiter}를 함께 지정하면 첫 시도, 재시도, 헤징 요청이 모두 각각 허가를 받은 뒤에 보내진다.
+ * 시도별 제한 시간과 헤징 기준 지연은 허가를 받은 뒤부터 재므로, 요청 한도 때문에 기다린 시간은 외부 API의 지연으로
+ * 취급되지 않는다. 허가를 받지 못한 시도는 {@link RateLimitExceededException}으로 바로 실패하며,
+ * 다시 시도하지 않고 회로 차단기에도 기록하지 않는다.
+ *
+ * @see CircuitBreaker
+ * @see WeatherApiException
+ * @author bangdeokjae
+ */
+public class ResilientWeatherProvider implements WeatherProvider {
+    /** 헤징 기준 지연을 계산할 최근 성공 응답 수 */
+    private static final int LATENCY_WINDOW = 128;
+    /** 헤징을 시작하기 위한 최소 표본 수 */
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    /** p95를 다시 계산하는 표본 간격 */
+    private static final int PERCENTILE_REFRESH = 16;
+
+    /**
+     * 재시도, 헤징, 회로 차단기 설정.
+     *
+     * @param   attemptTimeout
+     *          시도 하나의 제한 시간
+     * @param   maxAttempts
+     *          최대 시도 횟수 (첫 시도 포함)
+     * @param   baseBackoff
+     *          첫 재시도 전 최대 대기 시간. 재시도마다 두 배가 된다.
+     * @param   maxBackoff
+     *          재시도 전 최대 대기 시간의 상한
+     * @param   hedging
+     *          헤징 사용 여부
+     * @param   minHedgeDelay
+     *          헤징 요청을 보내기 전 최소 대기 시간
+     * @param   failureThreshold
+     *          회로 차단기가 열리는 연속 실패 횟수
+     * @param   openDuration
+     *          회로 차단기가 열려 있는 시간
+     */
+    public record Policy(Duration attemptTimeout, int maxAttempts, Duration baseBackoff, Duration maxBackoff,
+                         boolean hedging, Duration minHedgeDelay, int failureThreshold, Duration openDuration) {
+        public Policy {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("maxAttempts는 1 이상이어야 합니다 : " + maxAttempts);
+            }
+        }
+
+        /**
+         * 기본 설정을 반환한다. 시도당 5초, 3회 시도, 백오프 200ms~2s, 헤징 사용(최소 100ms),
+         * 연속 5회 실패 시 30초간 차단한다.
+         *
+         * @return  기본 Policy
+         */
+        public static Policy defaults() {
+            return new Policy(Duration.ofSeconds(5), 3, Duration.ofMillis(200), Duration.ofSeconds(2),
+                    true, Duration.ofMillis(100), 5, Duration.ofSeconds(30));
+        }
+    }
+
+    private final WeatherProvider delegate;
+    private final Policy policy;
+    private final CircuitBreaker circuitBreaker;
+    /** 시도마다 허가를 받을 RateLimiter, 없으면 null */
+    private final RateLimiter rateLimiter;
+    private final RateLimiter.Priority priority;
+
+    /** 최근 성공 응답 지연(나노초) 링 버퍼 */
+    private final AtomicLongArray latencies = new AtomicLongArray(LATENCY_WINDOW);
+    private final AtomicLong latencySamples = new AtomicLong();
+    /** 헤징 기준 지연(나노초). 표본이 부족하면 0이다. */
+    private volatile long hedgeDelayNanos;
+
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+
+    /**
+     * 기본 설정으로 ResilientWeatherProvider를 생성한다.
+     *
+     * @param   delegate
+     *          실제 요청을 보낼 WeatherProvider
+     */
+    public ResilientWeatherProvider(WeatherProvider delegate) {
+        this(delegate, Policy.defaults());
+    }
+
+    /**
+     * ResilientWeatherProvider 생성자.
+     *
+     * @param   delegate
+     *          실제 요청을 보낼 WeatherProvider
+     * @param   policy
+     *          재시도, 헤징, 회로 차단기 설정
+     */
+    public ResilientWeatherProvider(WeatherProvider delegate, Policy policy) {
+        this(delegate, policy, null, null);
+    }
+
+    /**
+     * 시도마다 요청 한도의 허가를 받는 ResilientWeatherProvider를 생성한다.
+     *
+     * @param   delegate
+     *          실제 요청을 보낼 WeatherProvider
+     * @param   policy
+     *          재시도, 헤징, 회로 차단기 설정
+     * @param   rateLimiter
+     *          시도마다 허가를 받을 RateLimiter, null이면 제한하지 않는다.
+     * @param   priority
+     *          허가를 받을 때의 우선순위
+     */
+    public ResilientWeatherProvider(WeatherProvider delegate, Policy policy,
+                                    RateLimiter rateLimiter, RateLimiter.Priority priority) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.circuitBreaker = new CircuitBreaker(policy.failureThreshold(), policy.openDuration());
+        this.rateLimiter = rateLimiter;
+        this.priority = priority;
+    }
+
+    @Override
+    public String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny,
+                                      int pageNo, int numOfRows) throws Exception {
+        try {
+            return fetchRawWeatherDataAsync(baseDate, baseTime, nx, ny, pageNo, numOfRows).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny,
+                                                              int pageNo, int numOfRows) {
+        if (!circuitBreaker.allowRequest()) {
+            shortCircuited.increment();
+            return CompletableFuture.failedFuture(circuitOpen());
+        }
+        Request request = new Request(baseDate, baseTime, nx, ny, pageNo, numOfRows);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        attempt(request, 1, result);
+        return result;
+    }
+
+    /**
+     * n번째 시도를 보내고, 일시적 오류로 실패하면 백오프 뒤 다음 시도를 예약한다.
+     */
+    private void attempt(Request request, int attemptNo, CompletableFuture<String> result) {
+        CompletableFuture<String> current = hedgedAttempt(request);
+        /** 호출자가 결과를 취소하면 진행 중인 시도도 취소한다. */
+        result.whenComplete((body, e) -> {
+            if (e != null) current.cancel(true);
+        });
+        current.whenComplete((body, e) -> {
+            if (e == null) {
+                circuitBreaker.onSuccess();
+                result.complete(body);
+                return;
+            }
+            Throwable cause = unwrap(e);
+            /** 취소되었거나 요청 한도로 보내지 못한 시도는 서버 상태와 무관하므로, 시험 요청이었다면 반납만 한다. */
+            if (cause instanceof CancellationException || cause instanceof RateLimitExceededException) {
+                circuitBreaker.releaseProbe();
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (!WeatherApiException.isTransientFailure(cause)) {
+                /** 서버가 응답은 했으므로 회로 차단기에는 성공으로 기록한다. */
+                circuitBreaker.onSuccess();
+                result.completeExceptionally(cause);
+                return;
+            }
+            circuitBreaker.onFailure();
+            if (attemptNo >= policy.maxAttempts() || result.isDone()) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            if (!circuitBreaker.allowRequest()) {
+                shortCircuited.increment();
+                result.completeExceptionally(circuitOpen());
+                return;
+            }
+            retries.increment();
+            CompletableFuture.delayedExecutor(backoffNanos(attemptNo), TimeUnit.NANOSECONDS)
+                .execute(() -> attempt(request, attemptNo + 1, result));
+        });
+    }
+
+    /**
+     * 요청 하나를 보내고, 헤징 기준 지연 안에 끝나지 않으면 같은 요청을 하나 더 보낸다.
+     * 먼저 성공한 응답으로 완료되며, 모두 실패하면 첫 요청의 예외로 실패한다.
+     */
+    private CompletableFuture<String> hedgedAttempt(Request request) {
+        CompletableFuture<Void> primarySent = new CompletableFuture<>();
+        CompletableFuture<String> primary = send(request, primarySent);
+        long delayNanos = hedgeDelayNanos;
+        if (!policy.hedging() || delayNanos == 0) return primary;
+
+        CompletableFuture<String> winner = new CompletableFuture<>();
+        AtomicReferenceArray<CompletableFuture<String>> sent = new AtomicReferenceArray<>(2);
+        AtomicReferenceArray<Throwable> errors = new AtomicReferenceArray<>(2);
+        AtomicInteger outstanding = new AtomicInteger(1);
+
+        sent.set(0, primary);
+        primary.whenComplete((body, e) -> onHedgeComplete(winner, sent, errors, outstanding, 0, body, e));
+        /** 헤징 기준 지연은 첫 요청을 실제로 보낸 뒤부터 잰다. */
+        primarySent.thenRun(() -> CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS).execute(() -> {
+            if (winner.isDone()) return;
+            outstanding.incrementAndGet();
+            hedges.increment();
+            CompletableFuture<String> hedge = send(request, new CompletableFuture<>());
+            sent.set(1, hedge);
+            hedge.whenComplete((body, e) -> onHedgeComplete(winner, sent, errors, outstanding, 1, body, e));
+            if (winner.isDone()) hedge.cancel(true);
+        }));
+        /** 취소되거나 실패한 경우 아직 진행 중인 요청을 모두 취소한다. */
+        winner.whenComplete((body, e) -> {
+            if (e == null) return;
+            for (int i = 0; i < sent.length(); i++) {
+                CompletableFuture<String> pending = sent.get(i);
+                if (pending != null) pending.cancel(true);
+            }
+        });
+        return winner;
+    }
+
+    private void onHedgeComplete(CompletableFuture<String> winner, AtomicReferenceArray<CompletableFuture<String>> sent,
+                                 AtomicReferenceArray<Throwable> errors, AtomicInteger outstanding,
+                                 int index, String body, Throwable e) {
+        if (e == null) {
+            if (winner.complete(body)) {
+                if (index == 1) hedgeWins.increment();
+                /** 늦은 요청은 취소하여 연결을 돌려받는다. */
+                CompletableFuture<String> other = sent.get(1 - index);
+                if (other != null) other.cancel(true);
+            }
+            return;
+        }
+        errors.set(index, unwrap(e));
+        if (outstanding.decrementAndGet() == 0) {
+            Throwable primaryError = errors.get(0);
+            winner.completeExceptionally(primaryError != null ? primaryError : errors.get(index));
+        }
+    }
+
+    /**
+     * 요청 한도의 허가를 받은 뒤 요청 하나를 제한 시간을 걸어 보내고, 성공하면 응답 지연을 기록한다.
+     * 제한 시간과 응답 지연은 허가를 받아 실제로 보낸 시점부터 잰다.
+     *
+     * @param   request
+     *          보낼 요청
+     * @param   sentSignal
+     *          요청을 실제로 보내면 완료할 future
+     */
+    private CompletableFuture<String> send(Request request, CompletableFuture<Void> sentSignal) {
+        if (rateLimiter != null) {
+            return RateLimitedWeatherProvider.withPermit(rateLimiter, priority, () -> sendNow(request, sentSignal));
+        }
+        try {
+            return sendNow(request, sentSignal);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<String> sendNow(Request request, CompletableFuture<Void> sentSignal) {
+        attempts.increment();
+        long start = System.nanoTime();
+        CompletableFuture<String> call = delegate.fetchRawWeatherDataAsync(request.baseDate(), request.baseTime(),
+                request.nx(), request.ny(), request.pageNo(), request.numOfRows());
+        sentSignal.complete(null);
+        CompletableFuture<String> sent = call.orTimeout(policy.attemptTimeout().toNanos(), TimeUnit.NANOSECONDS)
+            .whenComplete((body, e) -> {
+                if (e == null) {
+                    recordLatency(System.nanoTime() - start);
+                } else if (unwrap(e) instanceof TimeoutException) {
+                    timeouts.increment();
+                }
+            });
+        /** 헤징에서 진 요청이 취소되면 Provider의 요청도 취소한다. */
+        sent.whenComplete((body, e) -> {
+            if (e != null && !call.isDone()) call.cancel(true);
+        });
+        return sent;
+    }
+
+    /**
+     * 성공 응답 지연을 기록하고, 일정 간격마다 헤징 기준(p95)을 다시 계산한다.
+     */
+    private void recordLatency(long nanos) {
+        long sample = latencySamples.getAndIncrement();
+        latencies.set((int) (sample % LATENCY_WINDOW), nanos);
+        long count = sample + 1;
+        if (count >= MIN_LATENCY_SAMPLES && count % PERCENTILE_REFRESH == 0) {
+            int size = (int) Math.min(count, LATENCY_WINDOW);
+            long[] window = new long[size];
+            for (int i = 0; i < size; i++) window[i] = latencies.get(i);
+            Arrays.sort(window);
+            long p95 = window[(int) Math.ceil(size * 0.95) - 1];
+            hedgeDelayNanos = Math.max(p95, policy.minHedgeDelay().toNanos());
+        }
+    }
+
+    /**
+     * attemptNo번째 실패 후의 대기 시간. 0 ~ min(maxBackoff, baseBackoff * 2^(attemptNo-1)) 사이의 임의 값이다.
+     */
+    private long backoffNanos(int attemptNo) {
+        long ceiling = Math.min(policy.maxBackoff().toNanos(),
+                policy.baseBackoff().toNanos() << Math.min(attemptNo - 1, 20));
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    private static WeatherApiException circuitOpen() {
+        return new WeatherApiException(WeatherApiException.ErrorType.CIRCUIT_OPEN, null,
+                "API 호출 실패 : 연속된 오류로 요청을 잠시 중단했습니다.");
+    }
+
+    /** @return  회로 차단기 */
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /** @return  보낸 요청 수 (재시도, 헤징 포함) */
+    public long getAttemptCount() {
+        return attempts.sum();
+    }
+
+    /** @return  재시도 횟수 */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /** @return  시도별 제한 시간을 넘긴 요청 수 */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /** @return  헤징 요청 수 */
+    public long getHedgeCount() {
+        return hedges.sum();
+    }
+
+    /** @return  헤징 요청이 먼저 성공한 횟수 */
+    public long getHedgeWinCount() {
+        return hedgeWins.sum();
+    }
+
+    /** @return  회로 차단기가 열려 보내지 않은 호출 수 */
+    public long getShortCircuitCount() {
+        return shortCircuited.sum();
+    }
+
+    /** @return  현재 헤징 기준 지연(ms), 표본이 부족하면 0 */
+    public long getHedgeDelayMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(hedgeDelayNanos);
+    }
+
+    /** 재시도와 헤징에 다시 사용할 요청 파라미터 */
+    private record Request(String baseDate, String baseTime, String nx, String ny, int pageNo, int numOfRows) {}
+}
@@ -0,0 +1,134 @@
+package com.bang9634.provider;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 공공데이터포털 API가 오류를 응답했을 때 던지는 예외.
+ * <p>
+ * 응답의 결과 코드(resultCode 또는 XML의 returnReasonCode)와 HTTP 상태를 {@link ErrorType}으로 분류하여,
+ * 호출자가 다시 시도할 가치가 있는 일시적 오류인지({@link #isTransient()}) 판단할 수 있도록 한다.
+ * 서버 내부 오류, 응답 지연, 게이트웨이 오류는 일시적 오류이고, 인증키 오류, 잘못된 요청, 데이터 없음(NODATA)은
+ * 다시 시도해도 같은 결과이므로 일시적 오류가 아니다.
+ * <p>
+ * 기존 호출자와의 호환을 위해 IllegalArgumentException을 상속한다.
+ *
+ * @see com.bang9634.provider.impl.PublicDataPortalProvider
+ * @author bangdeokjae
+ */
+public class WeatherApiException extends IllegalArgumentException {
+    private static final long serialVersionUID = 1L;
+
+    /** 오류 분류 */
+    public enum ErrorType {
+        /** 인증키가 등록되지 않았거나 만료, 사용 정지된 경우 (20, 21, 30, 31, 32, 33) */
+        SERVICE_KEY(false),
+        /** 요청한 발표시각의 예보가 아직 없는 경우 (03 NODATA_ERROR) */
+        NO_DATA(false),
+        /** 요청 파라미터가 잘못된 경우 (10, 11, 12) */
+        INVALID_REQUEST(false),
+        /** 서비스 키의 요청 한도를 넘은 경우 (22) */
+        QUOTA_EXCEEDED(false),
+        /** 서버 내부 오류, 응답 지연, HTTP 5xx (01, 02, 04, 05) */
+        SERVER_ERROR(true),
+        /** 연속된 실패로 회로 차단기가 열려 요청을 보내지 않은 경우 */
+        CIRCUIT_OPEN(true),
+        /** 분류할 수 없는 오류 (99 등) */
+        UNKNOWN(true);
+
+        private final boolean transientError;
+
+        ErrorType(boolean transientError) {
+            this.transientError = transientError;
+        }
+
+        /**
+         * 공공데이터포털 결과 코드를 오류 분류로 변환한다.
+         *
+         * @param   resultCode
+         *          resultCode 또는 returnReasonCode (예: "03")
+         * @return  해당하는 오류 분류, 알 수 없는 코드이면 UNKNOWN
+         */
+        public static ErrorType fromResultCode(String resultCode) {
+            if (resultCode == null) return UNKNOWN;
+            return switch (resultCode.trim()) {
+                case "01", "02", "04", "05" -> SERVER_ERROR;
+                case "03" -> NO_DATA;
+                case "10", "11", "12" -> INVALID_REQUEST;
+                case "20", "21", "30", "31", "32", "33" -> SERVICE_KEY;
+                case "22" -> QUOTA_EXCEEDED;
+                default -> UNKNOWN;
+            };
+        }
+    }
+
+    private final ErrorType errorType;
+    private final String resultCode;
+
+    /**
+     * WeatherApiException 생성자.
+     *
+     * @param   errorType
+     *          오류 분류
+     * @param   resultCode
+     *          응답의 결과 코드, 없으면 null
+     * @param   message
+     *          오류 메세지
+     */
+    public WeatherApiException(ErrorType errorType, String resultCode, String message) {
+        super(message);
+        this.errorType = errorType;
+        this.resultCode = resultCode;
+    }
+
+    /** @return  오류 분류 */
+    public ErrorType getErrorType() {
+        return errorType;
+    }
+
+    /** @return  응답의 결과 코드, 없으면 null */
+    public String getResultCode() {
+        return resultCode;
+    }
+
+    /** @return  다시 시도하면 성공할 수 있는 일시적 오류이면 true */
+    public boolean isTransient() {
+        return errorType.transientError;
+    }
+
+    /**
+     * 예외와 그 원인 중에 외부 API의 일시적 장애를 나타내는 예외가 있는지 확인한다.
+     * <p>
+     * 일시적 오류인 WeatherApiException, 제한 시간 초과, 입출력 오류가 해당한다.
+     * 요청 한도 초과와 취소는 외부 API의 장애가 아니므로 해당하지 않는다.
+     *
+     * @param   e
+     *          확인할 예외
+     * @return  일시적 장애이면 true
+     */
+    public static boolean isTransientFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WeatherApiException apiException) return apiException.isTransient();
+            if (cause instanceof RateLimitExceededException || cause instanceof CancellationException) return false;
+            if (cause instanceof TimeoutException || cause instanceof IOException) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 예외와 그 원인 중에 서비스 키 오류({@link ErrorType#SERVICE_KEY})를 나타내는 예외가 있는지 확인한다.
+     * <p>
+     * 일시적 장애, 요청 한도 초과, 회로 차단처럼 키와 관계없는 실패로는 서비스 키가 잘못되었다고 판단하지 않는다.
+     *
+     * @param   e
+     *          확인할 예외
+     * @return  서비스 키 오류이면 true
+     */
+    public static boolean isServiceKeyFailure(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof WeatherApiException apiException) return apiException.errorType == ErrorType.SERVICE_KEY;
+        }
+        return false;
+    }
+}
@@ -1,5 +1,8 @@
 package com.bang9634.provider;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * WeatherProvider 인터페이스는 기상 데이터를 제공하는 클래스들이 구현해야 하는 메서드를 정의한다.
  * <p>
@@ -8,22 +11,31 @@ package com.bang9634.provider;
  * 주요 메서드:
  * <ul>
  *   <li>{@link #fetchRawWeatherData(String, String, String, String)}
- *       - 외부 API를 호출하여 날씨 데이터를 가져온다.</li>
+ *       - 외부 API를 호출하여 날씨 데이터(첫 페이지)를 가져온다.</li>
+ *   <li>{@link #fetchRawWeatherData(String, String, String, String, int, int)}
+ *       - 페이지 번호와 페이지 크기를 지정하여 날씨 데이터를 가져온다.</li>
+ *   <li>{@link #fetchRawWeatherDataAsync(String, String, String, String)}
+ *       - 외부 API를 비동기로 호출하여 날씨 데이터를 가져온다.</li>
+ *   <li>{@link #fetchRawWeatherDataAsync(String, String, String, String, int, int)}
+ *       - 페이지를 지정하여 비동기로 날씨 데이터를 가져온다.</li>
  * </ul>
  * <p>
  * 이 인터페이스를 구현하는 클래스는 기상청의 공공 데이터 포털 API와 같은 외부 API를 사용하여
  * 날씨 데이터를 요청하고 응답받는 기능을 제공해야 한다.
- * 
+ * 구현 클래스는 페이지 지정 메서드만 구현하면 되며, 나머지는 기본 구현을 사용할 수 있다.
+ *
  * @see PublicDataPortalProvider
  * @author bangdeokjae
  */
 public interface WeatherProvider {
+    /** 페이지를 지정하지 않은 요청의 한 페이지 결과 수 (한 시각의 12개 카테고리) */
+    int DEFAULT_NUM_OF_ROWS = 12;
 
     /**
      * 외부 API를 호출하여 날씨 데이터를 가져온다.
      * <p>
      * 이 메서드는 baseDate, baseTime, nx, ny 좌표를 사용하여
-     * 날씨 데이터를 요청하고, 응답받은 데이터를 문자열 형태로 반환한다.
+     * 날씨 데이터의 첫 페이지({@link #DEFAULT_NUM_OF_ROWS}개)를 요청하고, 응답받은 데이터를 문자열 형태로 반환한다.
      * @param   baseDate
      *          발표일자
      * @param   baseTime
@@ -36,5 +48,80 @@ public interface WeatherProvider {
      * @throws  Exception
      *          API 호출 중 오류가 발생할 경우 예외를 던진다.
      */
-    String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny) throws Exception;
+    default String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny) throws Exception {
+        return fetchRawWeatherData(baseDate, baseTime, nx, ny, 1, DEFAULT_NUM_OF_ROWS);
+    }
+
+    /**
+     * 페이지 번호와 한 페이지 결과 수를 지정하여 외부 API를 호출한다.
+     *
+     * @param   baseDate
+     *          발표일자
+     * @param   baseTime
+     *          발표시각
+     * @param   nx
+     *          예보지점 x좌표
+     * @param   ny
+     *          예보지점 y좌표
+     * @param   pageNo
+     *          페이지 번호 (1부터)
+     * @param   numOfRows
+     *          한 페이지 결과 수
+     * @return  raw 날씨 데이터를 문자열 형태로 반환한다.
+     * @throws  Exception
+     *          API 호출 중 오류가 발생할 경우 예외를 던진다.
+     */
+    String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny,
+                               int pageNo, int numOfRows) throws Exception;
+
+    /**
+     * 외부 API를 비동기로 호출하여 날씨 데이터(첫 페이지)를 가져온다.
+     *
+     * @param   baseDate
+     *          발표일자
+     * @param   baseTime
+     *          발표시각
+     * @param   nx
+     *          예보지점 x좌표
+     * @param   ny
+     *          예보지점 y좌표
+     * @return  raw 날씨 데이터 문자열로 완료되는 CompletableFuture.
+     *          API 호출 중 오류가 발생하면 해당 예외로 예외 완료된다.
+     */
+    default CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny) {
+        return fetchRawWeatherDataAsync(baseDate, baseTime, nx, ny, 1, DEFAULT_NUM_OF_ROWS);
+    }
+
+    /**
+     * 페이지를 지정하여 외부 API를 비동기로 호출한다.
+     * <p>
+     * 기본 구현은 {@link #fetchRawWeatherData(String, String, String, String, int, int)}를
+     * {@link ProviderExecutors#shared()}에서 실행한다.
+     * 논블로킹 I/O를 지원하는 구현체는 이 메서드를 재정의하여 호출 스레드를 점유하지 않도록 해야 한다.
+     *
+     * @param   baseDate
+     *          발표일자
+     * @param   baseTime
+     *          발표시각
+     * @param   nx
+     *          예보지점 x좌표
+     * @param   ny
+     *          예보지점 y좌표
+     * @param   pageNo
+     *          페이지 번호 (1부터)
+     * @param   numOfRows
+     *          한 페이지 결과 수
+     * @return  raw 날씨 데이터 문자열로 완료되는 CompletableFuture.
+     *          API 호출 중 오류가 발생하면 해당 예외로 예외 완료된다.
+     */
+    default CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny,
+                                                               int pageNo, int numOfRows) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return fetchRawWeatherData(baseDate, baseTime, nx, ny, pageNo, numOfRows);
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, ProviderExecutors.shared());
+    }
 }
@@ -4,9 +4,14 @@ import java.net.http.HttpClient; // 클라이언트 클래스 객체 생성
 import java.net.http.HttpRequest; // 서버 GET요청 전송
 import java.net.http.HttpResponse; // 서버로부터 응답
 
+import com.bang9634.provider.ProviderExecutors;
+import com.bang9634.provider.WeatherApiException;
 import com.bang9634.provider.WeatherProvider;
 
 import java.net.URI; // GET요청문 Build
+import java.time.Duration; // 연결 및 요청 제한 시간
+import java.util.concurrent.CompletableFuture; // 비동기 응답
+import java.util.concurrent.Executor; // HttpClient 비동기 작업 실행기
 
 /**
  * PublicDataPortalProvider 클래스는 기상청의 공공 데이터 포털 API를 이용하여
@@ -18,6 +23,8 @@ import java.net.URI; // GET요청문 Build
  * <ul>
  *   <li>{@link #fetchRawWeatherData(String, String, String, String)}
  *       - 단기예보 데이터를 요청하고 응답받는다.</li>
+ *   <li>{@link #fetchRawWeatherDataAsync(String, String, String, String)}
+ *       - HttpClient.sendAsync로 스레드를 점유하지 않고 단기예보 데이터를 요청한다.</li>
  * </ul>
  * <p>
  * 이 클래스는 기상청 API의 단기예보 조회 서비스를 사용하여, 특정 날짜와 시간, 좌표에 대한 기상 정보를 요청한다.
@@ -32,6 +39,10 @@ import java.net.URI; // GET요청문 Build
  * 이 클래스는 기상청 API의 응답을 JSON 형식으로 처리하며,
  * 응답받은 데이터를 파싱하여 필요한 정보를 추출할 수 있다.
  * <p>
+ * HttpClient는 생성 시 스레드 풀과 셀렉터를 준비하고 연결을 재사용(keep-alive)하므로,
+ * 요청마다 새로 만들지 않고 {@link #sharedHttpClient()}가 반환하는 하나의 객체를 모든 Provider가 공유한다.
+ * 테스트나 별도 설정이 필요하면 HttpClient와 엔드포인트를 직접 주입할 수 있다.
+ * <p>
  * @see WeatherProvider
  * @see HttpClient
  * @see HttpRequest
@@ -40,8 +51,30 @@ import java.net.URI; // GET요청문 Build
  * @author bangdeokjae   
  */
 public class PublicDataPortalProvider implements WeatherProvider {
+    /** 단기예보조회 API 엔드포인트 */
+    public static final String DEFAULT_ENDPOINT = "http://apis.data.go.kr/1360000/VilageFcstInfoService_2.0/getVilageFcst";
+    /** 기본 연결 제한 시간 */
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    /** 기본 요청(응답 대기) 제한 시간 */
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    /**
+     * 모든 PublicDataPortalProvider가 공유하는 HttpClient.
+     * <p>
+     * AppController.isServiceKeyValid가 만드는 임시 Provider도 이 객체를 사용하므로,
+     * 검증 요청에서 맺은 연결을 이후 날씨 조회에서 그대로 재사용한다.
+     * 비동기 응답 처리는 {@link ProviderExecutors#shared()}에서 실행된다.
+     */
+    private static final HttpClient SHARED_HTTP_CLIENT = newHttpClient(DEFAULT_CONNECT_TIMEOUT, ProviderExecutors.shared());
+
     /** 인증키 값 */
     private final String serviceKey;
+    /** 요청에 사용할 HttpClient */
+    private final HttpClient httpClient;
+    /** 요청을 보낼 API 엔드포인트 */
+    private final String endpoint;
+    /** 요청 제한 시간 */
+    private final Duration requestTimeout;
 
     /** 
      * PublicDataPortalProvider 생성자 
@@ -54,7 +87,60 @@ public class PublicDataPortalProvider implements WeatherProvider {
      *          전달할 인증키 값
      */
     public PublicDataPortalProvider(String serviceKey) {
+        this(serviceKey, SHARED_HTTP_CLIENT, DEFAULT_ENDPOINT, DEFAULT_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * HttpClient와 엔드포인트, 요청 제한 시간을 지정하는 PublicDataPortalProvider 생성자
+     * <p>
+     * 로컬 스텁 서버를 대상으로 한 테스트나, 별도의 실행기(Executor)와 제한 시간이 필요한 경우에 사용한다.
+     * 
+     * @param   serviceKey
+     *          전달할 인증키 값
+     * @param   httpClient
+     *          요청에 사용할 HttpClient
+     * @param   endpoint
+     *          단기예보조회 API 엔드포인트
+     * @param   requestTimeout
+     *          요청 제한 시간
+     */
+    public PublicDataPortalProvider(String serviceKey, HttpClient httpClient, String endpoint, Duration requestTimeout) {
         this.serviceKey = serviceKey;
+        this.httpClient = httpClient;
+        this.endpoint = endpoint;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * 모든 Provider가 공유하는 HttpClient를 반환한다.
+     * 
+     * @return  공유 HttpClient 객체
+     */
+    public static HttpClient sharedHttpClient() {
+        return SHARED_HTTP_CLIENT;
+    }
+
+    /**
+     * 연결 제한 시간과 실행기를 지정하여 HttpClient를 생성한다.
+     * <p>
+     * 공공데이터포털 API는 http 엔드포인트이므로 HTTP/1.1로 고정하여 h2c 업그레이드 시도 없이
+     * keep-alive 연결을 재사용하도록 한다.
+     * 
+     * @param   connectTimeout
+     *          연결 제한 시간
+     * @param   executor
+     *          비동기 작업 실행기, null이면 HttpClient 기본 실행기를 사용한다.
+     * @return  생성된 HttpClient 객체
+     */
+    public static HttpClient newHttpClient(Duration connectTimeout, Executor executor) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        return builder.build();
     }
 
     /**
@@ -95,48 +181,208 @@ public class PublicDataPortalProvider implements WeatherProvider {
      */
     @Override
     public String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny) throws Exception {
+        return fetchRawWeatherData(baseDate, baseTime, nx, ny, 1, DEFAULT_NUM_OF_ROWS);
+    }
 
+    /**
+     * 페이지 번호와 한 페이지 결과 수를 지정하여 단기예보조회 API를 호출한다.
+     * <p>
+     * 한 발표시각의 전체 예보(최대 약 1000여 건)는 numOfRows를 크게 주거나 여러 페이지로 나누어 받을 수 있다.
+     * 
+     * @param   baseDate
+     *          발표일자 (yyyyMMdd)
+     * @param   baseTime
+     *          발표시각 (hhMM)
+     * @param   nx
+     *          예보지점 x 좌표
+     * @param   ny
+     *          예보지점 y 좌표
+     * @param   pageNo
+     *          페이지 번호 (1부터)
+     * @param   numOfRows
+     *          한 페이지 결과 수
+     * @return  json 타입의 기상 정보
+     * @throws Exception  API 호출 중 오류가 발생하면 예외를 던진다.
+     */
+    @Override
+    public String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny,
+                                      int pageNo, int numOfRows) throws Exception {
+        /** 공유 클라이언트가 서버에 GET요청 전송 후, send() 메서드는 서버의 Response을 반환, reponse 지역변수에 저장한다. */
+        HttpResponse<String> response = httpClient.send(
+                buildRequest(baseDate, baseTime, nx, ny, pageNo, numOfRows), HttpResponse.BodyHandlers.ofString());
+        return checkResponseBody(response.statusCode(), response.body());
+    }
+
+    /**
+     * 단기예보조회 API를 비동기로 호출한다.
+     * <p>
+     * HttpClient.sendAsync를 사용하므로 응답을 기다리는 동안 호출 스레드를 점유하지 않는다.
+     * 응답 검증은 {@link #fetchRawWeatherData(String, String, String, String)}와 동일하다.
+     * 
+     * @param   baseDate
+     *          발표일자 (yyyyMMdd)
+     * @param   baseTime
+     *          발표시각 (hhMM)
+     * @param   nx
+     *          예보지점 x 좌표
+     * @param   ny
+     *          예보지점 y 좌표
+     * @return  json 타입의 기상 정보로 완료되는 CompletableFuture
+     */
+    @Override
+    public CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny) {
+        return fetchRawWeatherDataAsync(baseDate, baseTime, nx, ny, 1, DEFAULT_NUM_OF_ROWS);
+    }
+
+    /**
+     * 페이지를 지정하여 단기예보조회 API를 비동기로 호출한다.
+     * <p>
+     * 반환된 future가 취소되거나 제한 시간 초과 등으로 먼저 예외 완료되면 진행 중인 HTTP 요청도 취소한다.
+     * 
+     * @param   baseDate
+     *          발표일자 (yyyyMMdd)
+     * @param   baseTime
+     *          발표시각 (hhMM)
+     * @param   nx
+     *          예보지점 x 좌표
+     * @param   ny
+     *          예보지점 y 좌표
+     * @param   pageNo
+     *          페이지 번호 (1부터)
+     * @param   numOfRows
+     *          한 페이지 결과 수
+     * @return  json 타입의 기상 정보로 완료되는 CompletableFuture
+     */
+    @Override
+    public CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny,
+                                                              int pageNo, int numOfRows) {
+        CompletableFuture<HttpResponse<String>> exchange = httpClient.sendAsync(
+                buildRequest(baseDate, baseTime, nx, ny, pageNo, numOfRows), HttpResponse.BodyHandlers.ofString());
+        CompletableFuture<String> result = exchange.thenApply(response -> checkResponseBody(response.statusCode(), response.body()));
+        /** 호출자가 결과를 더 이상 기다리지 않으면 HTTP 요청을 취소하여 연결과 스레드를 돌려받는다. */
+        result.whenComplete((body, e) -> {
+            if (e != null && !exchange.isDone()) exchange.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * 전달받은 정보로 단기예보조회 GET요청문을 build한다.
+     * 
+     * @param   baseDate
+     *          발표일자 (yyyyMMdd)
+     * @param   baseTime
+     *          발표시각 (hhMM)
+     * @param   nx
+     *          예보지점 x 좌표
+     * @param   ny
+     *          예보지점 y 좌표
+     * @param   pageNo
+     *          페이지 번호
+     * @param   numOfRows
+     *          한 페이지 결과 수
+     * @return  서버에 전송할 HttpRequest
+     */
+    private HttpRequest buildRequest(String baseDate, String baseTime, String nx, String ny, int pageNo, int numOfRows) {
         /** 전달할 정보를 포함한 요청메세지(url)를 선언한다. */
-        String url = "http://apis.data.go.kr/1360000/VilageFcstInfoService_2.0/getVilageFcst" // 단기예보조희 API
+        String url = endpoint // 단기예보조희 API
                    + "?serviceKey=" + serviceKey // 인증키
-                   + "&pageNo=1&" // 페이지 번호
-                   + "numOfRows=12" // 한 페이지 결과 수
+                   + "&pageNo=" + pageNo // 페이지 번호
+                   + "&numOfRows=" + numOfRows // 한 페이지 결과 수
                    + "&dataType=JSON"// 요청자료형식(XML/JSON)
                    + "&base_date=" + baseDate // 발표일자
                    + "&base_time=" + baseTime // 발표시각
                    + "&nx=" + nx // 예보지점 X 좌표
                    + "&ny=" + ny; // 예보지점 Y 좌표
 
-        /** 클라이언트 객체 생성한다. */
-        HttpClient client = HttpClient.newHttpClient();
-
         /** 서버에 전송할 GET요청문 build한다. */
-        HttpRequest request = HttpRequest.newBuilder()
+        return HttpRequest.newBuilder()
                 .uri(URI.create(url))
+                .timeout(requestTimeout)
                 .build();
+    }
 
-        /** 클라이언트 객체가 서버에 GET요청 전송 후, client.send() 메서드는 서버의 Response을 반환, reponse 지역변수에 저장한다. */
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-        String responseBody = response.body();
-
-        System.out.println("API 응답 : " + responseBody);
-
+    /**
+     * 응답 body를 검증하여 정상 JSON 응답이면 그대로 반환한다.
+     * <p>
+     * 공공데이터포털은 인증키 오류, 트래픽 초과 등 게이트웨이 오류를 XML(OpenAPI_ServiceResponse)로,
+     * 데이터 없음(NODATA) 등 서비스 오류를 요청한 형식(JSON) 또는 XML의 header.resultCode로 응답한다.
+     * 두 경우 모두 결과 코드를 읽어 {@link WeatherApiException}으로 분류한다.
+     * 
+     * @param   statusCode
+     *          HTTP 상태 코드
+     * @param   responseBody
+     *          서버 응답 body
+     * @return  단기예보 데이터를 담고 있는 JSON 문자열
+     * @throws  WeatherApiException
+     *          오류 응답인 경우 예외를 던진다.
+     */
+    private String checkResponseBody(int statusCode, String responseBody) {
         /** 
          * XML로 API응답이 왔을 경우,
          * SERVICE_KEY_IS_NOT_REGISTERED_ERROR 메세지가 포함되어있으면 예외를 던지고 인증키 에러 메세지를 출력한다.
-         * 그 외의 경우는 JSON 데이터 타입이 아니므로, 예외를 던지고 XML 에러 응답을 출력한다.
-         * 
-         * TODO: basetime이 아직 예보가 없는 경우와 같이 NODATA 에러도 XML로 옴. 예외처리 추가적으로 필요
+         * 그 외의 경우는 returnReasonCode(게이트웨이 오류) 또는 resultCode(NODATA 등 서비스 오류)로 오류를 분류한다.
          */
         if (responseBody.trim().startsWith("<")) {
             if (responseBody.contains("SERVICE_KEY_IS_NOT_REGISTERED_ERROR")) {
-                throw new IllegalArgumentException("API 호출 실패 : 인증키가 등록되지 않았거나 잘못되었습니다.");
-            }
-            else {
-                throw new IllegalArgumentException("API 호출 실패 : XML 에러 응답\n" + responseBody);
+                throw new WeatherApiException(WeatherApiException.ErrorType.SERVICE_KEY, xmlValue(responseBody, "returnReasonCode"),
+                        "API 호출 실패 : 인증키가 등록되지 않았거나 잘못되었습니다.");
             }
+            String resultCode = xmlValue(responseBody, "returnReasonCode");
+            if (resultCode == null) resultCode = xmlValue(responseBody, "resultCode");
+            throw new WeatherApiException(classify(statusCode, resultCode), resultCode,
+                    "API 호출 실패 : XML 에러 응답\n" + responseBody);
+        }
+
+        /** JSON 응답이라도 header의 resultCode가 "00"이 아니면 오류이다. (예: 03 NODATA_ERROR) */
+        String resultCode = jsonResultCode(responseBody);
+        if (resultCode != null && !"00".equals(resultCode)) {
+            throw new WeatherApiException(classify(statusCode, resultCode), resultCode,
+                    "API 호출 실패 : " + resultCode + "\n" + responseBody);
+        }
+        if (statusCode >= 500) {
+            throw new WeatherApiException(WeatherApiException.ErrorType.SERVER_ERROR, null,
+                    "API 호출 실패 : HTTP " + statusCode);
         }
         /** response에 단기예보 데이터를 담고 있는 body부분만 반환한다. */
         return responseBody;
     }
+
+    /**
+     * 결과 코드와 HTTP 상태로 오류를 분류한다. 결과 코드가 없으면 HTTP 5xx는 서버 오류로 본다.
+     */
+    private static WeatherApiException.ErrorType classify(int statusCode, String resultCode) {
+        WeatherApiException.ErrorType errorType = WeatherApiException.ErrorType.fromResultCode(resultCode);
+        if (errorType == WeatherApiException.ErrorType.UNKNOWN && statusCode >= 500) {
+            return WeatherApiException.ErrorType.SERVER_ERROR;
+        }
+        return errorType;
+    }
+
+    /**
+     * XML 응답에서 첫 번째 tag 요소의 값을 읽는다.
+     * 
+     * @return  요소의 값, 없으면 null
+     */
+    private static String xmlValue(String xml, String tag) {
+        int start = xml.indexOf("<" + tag + ">");
+        if (start < 0) return null;
+        start += tag.length() + 2;
+        int end = xml.indexOf("</" + tag + ">", start);
+        return end < 0 ? null : xml.substring(start, end).trim();
+    }
+
+    /**
+     * JSON 응답 앞부분의 header에서 resultCode 값을 읽는다. 본문 전체를 파싱하지 않는다.
+     * 
+     * @return  resultCode 값, 찾지 못하면 null
+     */
+    private static String jsonResultCode(String json) {
+        int field = json.indexOf("\"resultCode\"");
+        if (field < 0 || field > 256) return null;
+        int start = json.indexOf('"', json.indexOf(':', field) + 1);
+        if (start < 0) return null;
+        int end = json.indexOf('"', start + 1);
+        return end < 0 ? null : json.substring(start + 1, end);
+    }
 }
\ No newline at end of file
@@ -1,160 +1,248 @@
 package com.bang9634.provider.parser;
 
-import com.bang9634.model.FcstData;
-import com.bang9634.model.Item;
-import com.bang9634.util.constants.WeatherConstants;
-import com.bang9634.util.mapper.FcstCodeMapper;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.bang9634.model.FcstCategory;
+import com.bang9634.model.FcstSeries;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
 
 /**
  * 기상청 API로부터 받은 날씨 데이터를 파싱하는 클래스.
  * <p>
- * 이 클래스는 JSON 형태의 날씨 데이터를 파싱하여 FcstData 객체로 변환한다.
+ * 이 클래스는 JSON 형태의 날씨 데이터를 파싱하여 FcstSeries 객체로 변환한다.
+ * <p>
+ * JsonNode 트리를 만들거나 item 노드를 문자열로 다시 직렬화하지 않고, Jackson의 스트리밍 JsonParser로
+ * 응답을 한 번만 읽으면서 header의 resultCode를 확인하고 각 item을 FcstSeries의 카테고리별 배열에 바로 기록한다.
+ * 여러 페이지로 나누어 받은 전체 예보 기간은 {@link #parseInto(String, FcstSeries)}로 같은 series에 차례로 기록한다.
  * 
  * @author bangdeokjae
  */
 public class WeatherDataParser {
     /** 
-     * Jackson ObjectMapper를 사용하여 JSON 데이터를 파싱한다.
-     * <p>
-     * 이 객체는 JSON 문자열을 Java 객체로 변환하는 데 사용된다.
-     * <p>
-     * ObjectMapper는 JSON 데이터를 Java 객체로 변환하는 데 필요한 다양한 기능을 제공
-     * 예를 들어, JSON 문자열을 Item 객체의 리스트로 변환하거나, FcstData 객체로 변환하는 데 사용된다.
-     * 또한, JSON 파싱 시 알 수 없는 속성이 있을 경우 예외를 발생시키지 않도록 설정되어 있다.
+     * JsonParser를 생성하는 JsonFactory.
      * <p>
-     * ObjectMapper는 JSON 데이터를 Java 객체로 변환하는 데 필요한 다양한 기능을 제공한다.
-     * 예를 들어, JSON 문자열을 Item 객체의 리스트로 변환하거나, FcstData 객체로 변환하는 데 사용된다.
-     * 또한, JSON 파싱 시 알 수 없는 속성이 있을 경우 예외를 발생시키지 않도록 설정되어 있다.
-     * 이 설정은 API 응답의 형식이 변경되더라도 유연하게 대처할 수 있도록 도와준다.
-     * <p>
-     * 이 클래스는 WeatherDataParser를 사용하여 JSON 데이터를 파싱하고, FcstData 객체를 생성하는 역할을 한다.
-    */
-    private final ObjectMapper mapper = new ObjectMapper();
-
-    /**
-     * WeatherDataParser 생성자.
-     * <p>
-     * ObjectMapper의 설정을 초기화한다.
-     * 알 수 없는 속성이 있을 경우 예외를 발생시키지 않도록 설정한다.
+     * JsonFactory는 스레드 안전하며 내부 버퍼를 재사용하므로 하나의 객체를 공유한다.
      */
-    public WeatherDataParser() {
-        /** Jackson 라이브러리를 사용하여 JSON 데이터를 파싱하는 ObjectMapper 객체를 생성  
-         * <p>
-         * 이 객체는 JSON 문자열을 Java 객체로 변환하는 데 사용된다.
-         * <p>
-         * ObjectMapper는 JSON 데이터를 Java 객체로 변환하는 데 필요한 다양한 기능을 제공
-         * 예를 들어, JSON 문자열을 Item 객체의 리스트로 변환하거나, FcstData 객체로 변환하는 데 사용된다.
-         * 또한, JSON 파싱 시 알 수 없는 속성이 있을 경우 예외를 발생시키지 않도록 설정되어 있다.
-         * 이 설정은 API 응답의 형식이 변경되더라도 유연하게 대처할 수 있도록 도와준다.
-         */
-        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-    }
-    
+    private final JsonFactory jsonFactory = new JsonFactory();
+
     /**
-     * JSON 형태의 날씨 데이터를 파싱하여 FcstData 객체로 변환한다.
+     * JSON 형태의 날씨 데이터를 파싱하여 FcstSeries 객체로 변환한다.
      * <p>
-     * 이 메서드는 JSON 문자열을 받아서, 해당 문자열을 파싱하고 필요한 정보를 추출하여 FcstData 객체를 생성한다.
+     * 이 메서드는 JSON 문자열을 받아서, 해당 문자열을 파싱하고 응답에 포함된 모든 예보 시각의 값을 기록한 FcstSeries 객체를 생성한다.
+     * 화면 표시용 조회처럼 슬롯이 몇 개뿐인 응답을 캐시에 보관하므로, 배열은 슬롯 수에 맞게 줄여 반환한다.
      * 
      * @param   rawJson
      *          JSON 형태의 날씨 데이터 문자열
-     * @return  파싱된 FcstData 객체
+     * @return  파싱된 FcstSeries 객체
      * @throws  Exception
-     *          JSON 파싱 중 오류가 발생할 경우 예외를 던진다.
+     *          JSON 파싱 중 오류가 발생하거나 resultCode가 "00"이 아니거나 예보 항목이 없을 경우 예외를 던진다.
      */
-    public FcstData parse(String rawJson) throws Exception {
+    public FcstSeries parse(String rawJson) throws Exception {
         try {
-            JsonNode root = mapper.readTree(rawJson);
-            /**
-             * API 호출 결과의 상태 코드를 확인한다.
-             * <p>
-             * 상태 코드가 "00"이 아니면 API 호출이 실패한 것으로 간주하고,
-             * 예외를 던진다.
-             */
-            String resultCode = root.path("response").path("header").path("resultCode").asText();
-            String resultMsg = root.path("response").path("header").path("resultMsg").asText();
-            if (!"00".equals(resultCode)) {
-                throw new IllegalArgumentException("API 호출 실패: " + resultMsg + " (resultCode=" + resultCode + ")");
+            FcstSeries series = new FcstSeries();
+            read(rawJson, new ParseState(series));
+            if (series.isEmpty()) {
+                throw new IllegalArgumentException("응답에 예보 항목(item)이 없습니다.");
             }
-
-            /**
-             * JSON 데이터에서 "items" 노드를 찾아서, 그 안에 있는 "item" 노드를 파싱한다.
-             * <p>
-             * "item" 노드는 날씨 정보를 담고 있는 배열로, 각 요소는 Item 객체로 변환된다.
-             * 이 메서드는 Item 객체의 리스트를 반환한다.
-             */
-            List<Item> items = parseItem(root);
-
-            /**
-             * Item 객체의 리스트를 FcstData 객체로 변환한다.
-             */
-            return createFcstDataFromItems(items);
+            series.trimToSize();
+            return series;
         } catch (Exception e) {
             throw new Exception("데이터파싱 중 오류 발생", e);
         }
     }
 
     /**
-     * JSON 데이터에서 "items" 노드를 찾아서, 그 안에 있는 "item" 노드를 파싱한다.
+     * JSON 형태의 날씨 데이터의 모든 item을 예보일자/예보시각별로 나누어 FcstSeries에 기록한다.
      * <p>
-     * "item" 노드는 날씨 정보를 담고 있는 배열로, 각 요소는 Item 객체로 변환된다.
-     * 이 메서드는 Item 객체의 리스트를 반환한다.
+     * 여러 페이지로 나누어 받은 응답을 같은 series에 차례로 기록할 수 있도록, body의 totalCount를 반환한다.
      * 
-     * @param   root
-     *          JSON 데이터의 루트 노드
-     * @return  Item 객체의 리스트
-     * @throws  JsonProcessingException
-     *          JSON 파싱 중 오류가 발생할 경우 예외를 던진다.
+     * @param   rawJson
+     *          JSON 형태의 날씨 데이터 문자열 (한 페이지)
+     * @param   series
+     *          예보 값을 기록할 FcstSeries 객체
+     * @return  응답 body의 totalCount (전체 데이터 개수), 응답에 없으면 이 페이지의 item 수
+     * @throws  Exception
+     *          JSON 파싱 중 오류가 발생하거나 resultCode가 "00"이 아닐 경우 예외를 던진다.
      */
-    private List<Item> parseItem(JsonNode root) throws JsonProcessingException {
-        JsonNode itemNode = root
-            .path("response")
-            .path("body")
-            .path("items")
-            .path("item");
-        return mapper.readValue(
-            itemNode.toString(),
-            TypeFactory.defaultInstance().constructCollectionType(List.class, Item.class)
-        );
+    public int parseInto(String rawJson, FcstSeries series) throws Exception {
+        try {
+            ParseState state = new ParseState(series);
+            read(rawJson, state);
+            return state.totalCount >= 0 ? state.totalCount : state.itemCount;
+        } catch (Exception e) {
+            throw new Exception("데이터파싱 중 오류 발생", e);
+        }
     }
 
     /**
-     * Item 객체의 리스트를 FcstData 객체로 변환한다.
-     * <p>
-     * 이 메서드는 Item 객체의 리스트를 받아서, 각 Item 객체의 정보를 FcstData 객체에 매핑한다.
-     * 
-     * @param   items
-     *          Item 객체의 리스트
-     * @return  FcstData 객체
+     * 응답 전체를 한 번 읽어 state에 기록하고 결과 코드를 확인한다.
      */
-    private FcstData createFcstDataFromItems(List<Item> items) {
-        Map<String, String> data = new LinkedHashMap<>();
+    private void read(String rawJson, ParseState state) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(rawJson)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("JSON 객체 형식의 응답이 아닙니다.");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if ("response".equals(field)) {
+                    parseResponse(parser, state);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
 
         /**
-         * FcstData 객체에 기본 날짜와 시간을 설정한다.
-         */
-        data.put(WeatherConstants.LABEL_FCST_DATE, items.get(0).getFcstDate());
-        data.put(WeatherConstants.LABEL_FCST_TIME, items.get(0).getFcstTime());
-        /**
-         * Item 객체의 리스트를 순회하면서, 각 Item 객체의 카테고리 코드와 값을 FcstData 객체에 매핑한다.
+         * API 호출 결과의 상태 코드를 확인한다.
          * <p>
-         * FcstCodeMapper.CATEGORY_CODE_MAP을 사용하여 카테고리 코드를 매핑하고,
-         * FcstCodeMapper.getSubMappingTableValue(item)을 사용하여 해당 값을 가져온다.
+         * 상태 코드가 "00"이 아니면 API 호출이 실패한 것으로 간주하고,
+         * 예외를 던진다.
          */
-        for (Item item : items) { 
-            data.put(
-                FcstCodeMapper.CATEGORY_CODE_MAP.get(item.getCategory()), 
-                FcstCodeMapper.getSubMappingTableValue(item)
-            );
+        if (!"00".equals(state.resultCode)) {
+            throw new IllegalArgumentException("API 호출 실패: " + state.resultMsg + " (resultCode=" + state.resultCode + ")");
+        }
+    }
+
+    /**
+     * "response" 객체를 읽는다. "header"의 결과 코드와 "body"의 예보 항목을 처리한다.
+     */
+    private void parseResponse(JsonParser parser, ParseState state) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("header".equals(field) && token == JsonToken.START_OBJECT) {
+                parseHeader(parser, state);
+            } else if ("body".equals(field) && token == JsonToken.START_OBJECT) {
+                parseBody(parser, state);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * "header" 객체에서 resultCode와 resultMsg를 읽는다.
+     */
+    private void parseHeader(JsonParser parser, ParseState state) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            if ("resultCode".equals(field)) {
+                state.resultCode = parser.getValueAsString();
+            } else if ("resultMsg".equals(field)) {
+                state.resultMsg = parser.getValueAsString();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * "body" 객체에서 "totalCount"와 "items" -> "item"을 찾아 각 항목을 처리한다.
+     * <p>
+     * "item"은 보통 배열이지만, 단일 객체로 오는 경우도 처리한다.
+     */
+    private void parseBody(JsonParser parser, ParseState state) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if ("totalCount".equals(field) && token == JsonToken.VALUE_NUMBER_INT) {
+                state.totalCount = parser.getIntValue();
+                continue;
+            }
+            if (!"items".equals(field) || token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String itemsField = parser.currentName();
+                JsonToken itemToken = parser.nextToken();
+                if (!"item".equals(itemsField)) {
+                    parser.skipChildren();
+                } else if (itemToken == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        parseItem(parser, state);
+                    }
+                } else if (itemToken == JsonToken.START_OBJECT) {
+                    parseItem(parser, state);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * item 객체 하나를 읽어 FcstSeries에 기록한다.
+     * <p>
+     * 카테고리는 토큰의 문자 배열에서 {@link FcstCategory#fromChars}로 바로 찾으며, 알 수 없는 카테고리는 건너뛴다.
+     * 예보일자/예보시각도 문자 배열에서 숫자로 읽어 item의 슬롯에 기록한다.
+     */
+    private void parseItem(JsonParser parser, ParseState state) throws IOException {
+        FcstCategory category = null;
+        int fcstDate = -1;
+        int fcstTime = -1;
+        String fcstValue = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch (field) {
+                case "category" -> category = token == JsonToken.VALUE_STRING
+                        ? FcstCategory.fromChars(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength())
+                        : null;
+                case "fcstDate" -> fcstDate = readDigits(parser);
+                case "fcstTime" -> fcstTime = readDigits(parser);
+                case "fcstValue" -> fcstValue = parser.getValueAsString();
+                default -> parser.skipChildren();
+            }
+        }
+        if (category == null || fcstValue == null) return;
+        state.itemCount++;
+        if (fcstDate < 0 || fcstTime < 0) return;
+        state.series.put(fcstDate, fcstTime, category, fcstValue);
+    }
+
+    /**
+     * 현재 토큰의 문자 배열에서 0 이상의 정수를 읽는다. 숫자 토큰이면 그 값을 사용한다.
+     *
+     * @return  읽은 정수, 숫자가 아닌 문자가 있으면 -1
+     */
+    private static int readDigits(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT) return parser.getIntValue();
+        if (token != JsonToken.VALUE_STRING) return -1;
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+        if (length == 0 || length > 9) return -1;
+        int value = 0;
+        for (int i = offset; i < offset + length; i++) {
+            char ch = chars[i];
+            if (ch < '0' || ch > '9') return -1;
+            value = value * 10 + (ch - '0');
+        }
+        return value;
+    }
+
+    /**
+     * 한 번의 파싱 동안 읽은 결과 코드와 예보 값을 기록할 series를 보관한다.
+     */
+    private static class ParseState {
+        private final FcstSeries series;
+        private String resultCode;
+        private String resultMsg;
+        private int totalCount = -1;
+        private int itemCount;
+
+        private ParseState(FcstSeries series) {
+            this.series = series;
         }
-        return new FcstData(data);
     }
 }
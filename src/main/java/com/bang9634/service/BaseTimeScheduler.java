@@ -0,0 +1,201 @@
+package com.bang9634.service;
+
+import com.bang9634.model.ForecastKey;
+import com.bang9634.model.GridCell;
+import com.bang9634.util.constants.WeatherConstants;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 지금 조회할 수 있는 가장 최근의 단기예보 발표일자와 발표시각을 계산하는 클래스.
+ * <p>
+ * 단기예보는 0200부터 3시간 간격으로 하루 8회 발표되지만, 발표 시각 직후에는 자료가 아직 올라오지 않아
+ * NODATA_ERROR가 응답된다. 이 클래스는 발표 시각에 공개 지연({@link WeatherConstants#PUBLICATION_DELAY_MINUTES}분)을
+ * 더한 시각부터 해당 발표를 사용한다. 예를 들어 0210 이전에는 전날 2300 발표를, 0210부터는 0200 발표를 반환한다.
+ * <p>
+ * 계산한 발표({@link Announcement})는 다음 발표를 사용할 수 있게 되는 시각까지 그대로 재사용하므로,
+ * {@link #current()}는 대부분 시계를 한 번 읽고 비교하는 것으로 끝난다. 경계를 지나면 새 발표로 원자적으로 교체하며,
+ * 동시에 여러 스레드가 경계를 넘어도 같은 발표를 보게 된다.
+ * <p>
+ * 애플리케이션 전역에서는 {@link #shared()}가 반환하는 하나의 객체를 공유한다.
+ *
+ * @see WeatherService
+ * @author bangdeokjae
+ */
+public class BaseTimeScheduler {
+    private static final DateTimeFormatter BASE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter BASE_TIME_FORMAT = DateTimeFormatter.ofPattern("HHmm");
+    private static final DateTimeFormatter BASE_DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+    /** 하루의 첫 발표 시(0200) */
+    private static final int FIRST_ANNOUNCEMENT_HOUR = 2;
+
+    /**
+     * 한 번의 단기예보 발표.
+     *
+     * @param   baseDate
+     *          발표일자 (yyyyMMdd)
+     * @param   baseTime
+     *          발표시각 (HHmm)
+     * @param   availableAt
+     *          이 발표를 사용하기 시작하는 시각 (epoch millis)
+     * @param   nextAvailableAt
+     *          다음 발표를 사용하기 시작하는 시각 (epoch millis)
+     */
+    public record Announcement(String baseDate, String baseTime, long availableAt, long nextAvailableAt) {
+
+        /**
+         * 이 발표에서 격자의 예보를 식별하는 키를 반환한다.
+         *
+         * @param   cell
+         *          예보 격자
+         * @return  ForecastKey 객체
+         */
+        public ForecastKey keyFor(GridCell cell) {
+            return ForecastKey.of(baseDate, baseTime, cell);
+        }
+
+        /** @return  millis 시각에 이 발표가 가장 최근 발표이면 true */
+        boolean covers(long millis) {
+            return millis >= availableAt && millis < nextAvailableAt;
+        }
+    }
+
+    /** 지연 초기화 홀더 */
+    private static class Holder {
+        private static final BaseTimeScheduler SHARED = new BaseTimeScheduler();
+    }
+
+    private final Clock clock;
+    private final Duration publicationDelay;
+    private final AtomicReference<Announcement> current = new AtomicReference<>();
+    private final LongAdder transitions = new LongAdder();
+
+    /**
+     * 시스템 시계와 기본 공개 지연으로 BaseTimeScheduler를 생성한다.
+     */
+    public BaseTimeScheduler() {
+        this(Clock.system(WeatherConstants.KMA_ZONE));
+    }
+
+    /**
+     * 시계를 지정하여 BaseTimeScheduler를 생성한다.
+     *
+     * @param   clock
+     *          현재 시각을 읽을 시계
+     */
+    public BaseTimeScheduler(Clock clock) {
+        this(clock, Duration.ofMinutes(WeatherConstants.PUBLICATION_DELAY_MINUTES));
+    }
+
+    /**
+     * 시계와 공개 지연을 지정하여 BaseTimeScheduler를 생성한다.
+     *
+     * @param   clock
+     *          현재 시각을 읽을 시계
+     * @param   publicationDelay
+     *          발표 시각부터 자료를 조회할 수 있을 때까지의 지연
+     */
+    public BaseTimeScheduler(Clock clock, Duration publicationDelay) {
+        if (publicationDelay.isNegative() || publicationDelay.toHours() >= WeatherConstants.ANNOUNCEMENT_INTERVAL_HOURS) {
+            throw new IllegalArgumentException("publicationDelay는 0 이상, 발표 간격 미만이어야 합니다 : " + publicationDelay);
+        }
+        this.clock = clock;
+        this.publicationDelay = publicationDelay;
+    }
+
+    /**
+     * 애플리케이션 전역에서 공유하는 BaseTimeScheduler를 반환한다.
+     *
+     * @return  시스템 시계를 사용하는 공유 객체
+     */
+    public static BaseTimeScheduler shared() {
+        return Holder.SHARED;
+    }
+
+    /**
+     * 지금 조회할 수 있는 가장 최근의 발표를 반환한다.
+     *
+     * @return  현재 발표
+     */
+    public Announcement current() {
+        long now = clock.millis();
+        Announcement announcement = current.get();
+        if (announcement != null && announcement.covers(now)) return announcement;
+
+        Announcement computed = announcementAt(now);
+        /** 다른 스레드가 이미 같은 발표로 교체했으면 그 객체를 사용한다. */
+        while (true) {
+            Announcement previous = current.get();
+            if (previous != null && previous.covers(now)) return previous;
+            if (current.compareAndSet(previous, computed)) {
+                if (previous != null) transitions.increment();
+                return computed;
+            }
+        }
+    }
+
+    /**
+     * 주어진 시각에 조회할 수 있는 가장 최근의 발표를 계산한다.
+     *
+     * @param   millis
+     *          기준 시각 (epoch millis)
+     * @return  해당 시각의 발표
+     */
+    public Announcement announcementAt(long millis) {
+        LocalDateTime published = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), WeatherConstants.KMA_ZONE)
+            .minus(publicationDelay);
+        int hour = published.getHour();
+        LocalDateTime base;
+        if (hour < FIRST_ANNOUNCEMENT_HOUR) {
+            /** 0200 발표 전에는 전날 마지막(2300) 발표를 사용한다. */
+            base = published.toLocalDate().minusDays(1)
+                .atTime(24 - WeatherConstants.ANNOUNCEMENT_INTERVAL_HOURS + FIRST_ANNOUNCEMENT_HOUR, 0);
+        } else {
+            int interval = WeatherConstants.ANNOUNCEMENT_INTERVAL_HOURS;
+            base = published.toLocalDate()
+                .atTime(FIRST_ANNOUNCEMENT_HOUR + (hour - FIRST_ANNOUNCEMENT_HOUR) / interval * interval, 0);
+        }
+        LocalDateTime available = base.plus(publicationDelay);
+        return new Announcement(
+            base.format(BASE_DATE_FORMAT),
+            base.format(BASE_TIME_FORMAT),
+            available.atZone(WeatherConstants.KMA_ZONE).toInstant().toEpochMilli(),
+            available.plusHours(WeatherConstants.ANNOUNCEMENT_INTERVAL_HOURS)
+                .atZone(WeatherConstants.KMA_ZONE).toInstant().toEpochMilli()
+        );
+    }
+
+    /**
+     * 키의 다음 발표를 사용하기 시작하는 시각, 즉 키의 예보가 더 이상 최신이 아니게 되는 시각을 계산한다.
+     * <p>
+     * {@link #current()}가 반환하는 발표의 키라면 그 발표의 {@link Announcement#nextAvailableAt()}과 같다.
+     *
+     * @param   key
+     *          예보 키
+     * @return  다음 발표를 사용하기 시작하는 시각 (epoch millis)
+     */
+    public long nextAvailableAt(ForecastKey key) {
+        return LocalDateTime.parse(key.baseDate() + key.baseTime(), BASE_DATE_TIME_FORMAT)
+            .plusHours(WeatherConstants.ANNOUNCEMENT_INTERVAL_HOURS)
+            .plus(publicationDelay)
+            .atZone(WeatherConstants.KMA_ZONE)
+            .toInstant()
+            .toEpochMilli();
+    }
+
+    /** @return  발표 시각부터 자료를 조회할 수 있을 때까지의 지연 */
+    public Duration getPublicationDelay() {
+        return publicationDelay;
+    }
+
+    /** @return  지금까지 새 발표로 교체된 횟수 */
+    public long getTransitionCount() {
+        return transitions.sum();
+    }
+}
@@ -0,0 +1,33 @@
+package com.bang9634.service;
+
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.GridCell;
+
+/**
+ * 일괄 조회에서 격자 하나의 조회 결과를 담는 클래스.
+ * <p>
+ * 성공 시 series가, 실패 시 error가 채워지며 두 경우 모두 요청 시작부터 완료까지 걸린 시간을 기록한다.
+ *
+ * @param   cell
+ *          조회한 격자
+ * @param   series
+ *          조회된 예보 데이터, 실패 시 null
+ * @param   error
+ *          실패 원인, 성공 시 null
+ * @param   latencyNanos
+ *          요청 시작부터 완료까지 걸린 시간(나노초)
+ * @see     BatchWeatherFetcher
+ * @author  bangdeokjae
+ */
+public record BatchFetchResult(GridCell cell, FcstSeries series, Throwable error, long latencyNanos) {
+
+    /** @return  조회에 성공했으면 true */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /** @return  요청 시작부터 완료까지 걸린 시간(밀리초) */
+    public double latencyMillis() {
+        return latencyNanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,210 @@
+package com.bang9634.service;
+
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.GridCell;
+import com.bang9634.util.reader.GridCoordinateCatalog;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 여러 격자의 예보를 동시 요청 수와 초당 요청 수를 제한하여 일괄 조회하는 클래스.
+ * <p>
+ * 대시보드처럼 시/도 전체(또는 전국)의 예보가 필요할 때 사용한다.
+ * {@link WeatherService#getWeatherAsync(GridCell)}를 사용하므로 응답을 기다리는 동안 스레드를 점유하지 않으며,
+ * 동시에 진행 중인 요청은 최대 maxConcurrency개, 요청 시작 간격은 maxRequestsPerSecond로 제한된다.
+ * <p>
+ * 각 격자의 결과는 완료되는 순서대로 콜백으로 전달되고, 전체 결과는 반환된 future로 받는다.
+ * 한 격자의 실패는 다른 격자의 조회를 중단시키지 않는다.
+ * <p>
+ * 애플리케이션에서는 {@code AppController.createBatchWeatherFetcher}로 생성하여, 요청 한도에서
+ * BACKGROUND 우선순위로 허가를 받는 WeatherService를 사용한다. 따라서 일괄 조회가 화면 조회의 몫을 차지하지 않는다.
+ * <p>
+ * 사용 예시:
+ * <pre>
+ *     BatchWeatherFetcher fetcher = new BatchWeatherFetcher(weatherService, 16, 30);
+ *     fetcher.fetchRegion("서울특별시", result -> System.out.println(result.cell() + " " + result.latencyMillis()));
+ * </pre>
+ *
+ * @see BatchFetchResult
+ * @author bangdeokjae
+ */
+public class BatchWeatherFetcher {
+    /** 요청 시작을 지연시키는 데 사용하는 공유 스케줄러 */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "batch-weather-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final WeatherService weatherService;
+    private final int maxConcurrency;
+    /** 요청 시작 최소 간격(나노초). 0이면 제한하지 않는다. */
+    private final long intervalNanos;
+    /** 다음 요청을 시작할 수 있는 시각(System.nanoTime 기준) */
+    private long nextStartNanos = System.nanoTime();
+
+    /**
+     * BatchWeatherFetcher 생성자.
+     *
+     * @param   weatherService
+     *          예보를 조회할 WeatherService
+     * @param   maxConcurrency
+     *          동시에 진행할 최대 요청 수
+     * @param   maxRequestsPerSecond
+     *          초당 최대 요청 시작 수, 0 이하이면 제한하지 않는다.
+     */
+    public BatchWeatherFetcher(WeatherService weatherService, int maxConcurrency, double maxRequestsPerSecond) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency는 1 이상이어야 합니다 : " + maxConcurrency);
+        }
+        this.weatherService = weatherService;
+        this.maxConcurrency = maxConcurrency;
+        this.intervalNanos = maxRequestsPerSecond > 0 ? (long) (1_000_000_000L / maxRequestsPerSecond) : 0;
+    }
+
+    /**
+     * 시/도에 속한 모든 격자의 예보를 조회한다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @param   onResult
+     *          격자 하나의 조회가 끝날 때마다 호출되는 콜백, 필요 없으면 null
+     * @return  모든 격자의 결과(완료 순서)로 완료되는 CompletableFuture
+     */
+    public CompletableFuture<List<BatchFetchResult>> fetchRegion(String region, Consumer<BatchFetchResult> onResult) {
+        return fetchAll(GridCoordinateCatalog.getInstance().getCells(region), onResult);
+    }
+
+    /**
+     * 주어진 격자들의 예보를 조회한다.
+     *
+     * @param   cells
+     *          조회할 격자 목록
+     * @param   onResult
+     *          격자 하나의 조회가 끝날 때마다 호출되는 콜백, 필요 없으면 null
+     * @return  모든 격자의 결과(완료 순서)로 완료되는 CompletableFuture
+     */
+    public CompletableFuture<List<BatchFetchResult>> fetchAll(Collection<GridCell> cells, Consumer<BatchFetchResult> onResult) {
+        if (cells.isEmpty()) return CompletableFuture.completedFuture(Collections.emptyList());
+        Batch batch = new Batch(new ArrayList<>(cells), onResult);
+        for (int i = 0; i < Math.min(maxConcurrency, cells.size()); i++) {
+            launchNext(batch);
+        }
+        return batch.done;
+    }
+
+    /**
+     * 남은 격자가 있으면 다음 요청을 예약한다. 초당 요청 수 제한에 따라 시작을 지연시킨다.
+     * <p>
+     * 캐시 적중처럼 바로 완료된 요청은 콜백에서 다음 요청을 시작하지 않고 이 반복문에서 이어서 시작하므로,
+     * 대부분 캐시에 있는 많은 격자를 조회해도 호출 스택이 깊어지지 않는다.
+     */
+    private void launchNext(Batch batch) {
+        while (true) {
+            GridCell cell = batch.next();
+            if (cell == null) return;
+            long delay = reserveStartSlot();
+            if (delay > 0) {
+                SCHEDULER.schedule(() -> {
+                    if (start(batch, cell)) launchNext(batch);
+                }, delay, TimeUnit.NANOSECONDS);
+                return;
+            }
+            if (!start(batch, cell)) return;
+        }
+    }
+
+    /**
+     * 격자 하나의 조회를 시작한다. 완료되면 결과를 기록하고, 나중에 완료되는 경우에는 다음 요청도 시작한다.
+     *
+     * @return  조회가 바로 완료되어 호출자가 다음 요청을 시작해야 하면 true
+     */
+    private boolean start(Batch batch, GridCell cell) {
+        long startNanos = System.nanoTime();
+        CompletableFuture<FcstSeries> future;
+        try {
+            future = weatherService.getWeatherAsync(cell);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        if (future.isDone()) {
+            future.whenComplete((series, error) -> complete(batch, cell, series, error, startNanos));
+            return true;
+        }
+        future.whenComplete((series, error) -> {
+            complete(batch, cell, series, error, startNanos);
+            launchNext(batch);
+        });
+        return false;
+    }
+
+    /**
+     * 완료된 조회의 결과를 기록한다.
+     */
+    private static void complete(Batch batch, GridCell cell, FcstSeries series, Throwable error, long startNanos) {
+        Throwable cause = (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+        BatchFetchResult result = new BatchFetchResult(cell,
+            error == null ? series : null, cause, System.nanoTime() - startNanos);
+        batch.complete(result);
+    }
+
+    /**
+     * 다음 요청의 시작 시각을 예약하고, 지금부터 그 시각까지 남은 시간을 반환한다.
+     *
+     * @return  시작까지 기다려야 할 시간(나노초), 즉시 시작 가능하면 0 이하
+     */
+    private synchronized long reserveStartSlot() {
+        if (intervalNanos == 0) return 0;
+        long now = System.nanoTime();
+        long slot = Math.max(now, nextStartNanos);
+        nextStartNanos = slot + intervalNanos;
+        return slot - now;
+    }
+
+    /**
+     * 한 번의 일괄 조회 상태. 남은 격자와 완료된 결과를 보관한다.
+     */
+    private static class Batch {
+        private final Iterator<GridCell> pending;
+        private final Consumer<BatchFetchResult> onResult;
+        private final List<BatchFetchResult> results;
+        private final AtomicInteger remaining;
+        private final CompletableFuture<List<BatchFetchResult>> done = new CompletableFuture<>();
+
+        Batch(List<GridCell> cells, Consumer<BatchFetchResult> onResult) {
+            this.pending = cells.iterator();
+            this.onResult = onResult;
+            this.results = Collections.synchronizedList(new ArrayList<>(cells.size()));
+            this.remaining = new AtomicInteger(cells.size());
+        }
+
+        synchronized GridCell next() {
+            return pending.hasNext() ? pending.next() : null;
+        }
+
+        void complete(BatchFetchResult result) {
+            results.add(result);
+            if (onResult != null) {
+                try {
+                    onResult.accept(result);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            if (remaining.decrementAndGet() == 0) {
+                done.complete(new ArrayList<>(results));
+            }
+        }
+    }
+}
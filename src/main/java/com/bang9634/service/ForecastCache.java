@@ -0,0 +1,322 @@
+package com.bang9634.service;
+
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.ForecastKey;
+import com.bang9634.model.GridCell;
+import com.bang9634.storage.ForecastStore;
+import com.bang9634.util.constants.WeatherConstants;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 예보 조회 결과를 메모리에 보관하는 크기 제한 캐시 클래스.
+ * <p>
+ * 예보는 파싱된 {@link FcstSeries}를 그대로 보관하므로, 캐시에서 꺼낸 값은 문자열을 다시 변환하지 않고 바로 표시한다.
+ * <p>
+ * 기상청 단기예보는 하루 8회(0200, 0500, ..., 2300)만 갱신되므로, 같은 (baseDate, baseTime, nx, ny)의
+ * 응답은 다음 발표 시각까지 변하지 않는다. 이 캐시는 각 항목을 다음 발표를 조회할 수 있게 되는 시각
+ * (다음 발표 시각 + 공개 지연, {@link BaseTimeScheduler} 참고)에 만료시키고,
+ * 최대 항목 수를 넘으면 가장 오래 사용하지 않은(LRU) 항목부터 제거한다.
+ * <p>
+ * {@link ForecastStore}를 지정하면 저장하는 예보를 파일에도 남기고, 생성할 때 파일에서 만료되지 않은 예보를
+ * 불러온다. 따라서 프로그램을 다시 실행해도 같은 발표시각의 예보는 네트워크 요청 없이 바로 반환된다.
+ * 파일 입출력 오류는 메모리 캐시 동작에 영향을 주지 않는다.
+ * <p>
+ * 격자별로 마지막에 저장한 예보는 만료와 관계없이 따로 보관하여({@link #getLatest(GridCell)}),
+ * 외부 API가 응답하지 않는 동안 이전 발표시각의 예보라도 대신 표시할 수 있게 한다.
+ * <p>
+ * 모든 메서드는 스레드 안전하다.
+ *
+ * @see WeatherService
+ * @author bangdeokjae
+ */
+public class ForecastCache {
+    /** 기본 최대 항목 수 */
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+
+    /** 캐시 항목. 예보 데이터와 만료 시각(epoch millis)을 함께 보관한다. */
+    private record Entry(FcstSeries series, long expiresAt) {}
+    /** 격자의 마지막 예보. 발표시각(yyyyMMddHHmm)으로 더 최신인지 비교한다. */
+    private record Latest(String baseDateTime, FcstSeries series) {}
+
+    private final Clock clock;
+    /** 키의 만료 시각을 계산하는 스케줄러. WeatherService가 키를 만들 때와 같은 발표 규칙을 사용한다. */
+    private final BaseTimeScheduler scheduler;
+    /** 영속 저장소. 없으면 null이다. */
+    private final ForecastStore store;
+    private final LinkedHashMap<ForecastKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<GridCell, Latest> latest = new LinkedHashMap<>(16, 0.75f, true);
+    private int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * 기본 크기의 ForecastCache를 생성한다.
+     */
+    public ForecastCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * 최대 항목 수를 지정하여 ForecastCache를 생성한다.
+     *
+     * @param   maxEntries
+     *          보관할 최대 항목 수
+     */
+    public ForecastCache(int maxEntries) {
+        this(maxEntries, Clock.system(WeatherConstants.KMA_ZONE));
+    }
+
+    /**
+     * 최대 항목 수와 시계를 지정하여 ForecastCache를 생성한다.
+     *
+     * @param   maxEntries
+     *          보관할 최대 항목 수
+     * @param   clock
+     *          만료 판단에 사용할 시계
+     */
+    public ForecastCache(int maxEntries, Clock clock) {
+        this(maxEntries, clock, null);
+    }
+
+    /**
+     * 영속 저장소를 지정하여 ForecastCache를 생성한다.
+     * <p>
+     * 저장소에 남아 있는 만료되지 않은 예보를 즉시 불러온다.
+     *
+     * @param   maxEntries
+     *          보관할 최대 항목 수
+     * @param   store
+     *          예보를 파일에 보관할 ForecastStore 객체
+     */
+    public ForecastCache(int maxEntries, ForecastStore store) {
+        this(maxEntries, Clock.system(WeatherConstants.KMA_ZONE), store);
+    }
+
+    /**
+     * 최대 항목 수와 시계, 영속 저장소를 지정하여 ForecastCache를 생성한다.
+     *
+     * @param   maxEntries
+     *          보관할 최대 항목 수
+     * @param   clock
+     *          만료 판단에 사용할 시계
+     * @param   store
+     *          예보를 파일에 보관할 ForecastStore 객체, 없으면 null
+     */
+    public ForecastCache(int maxEntries, Clock clock, ForecastStore store) {
+        this(maxEntries, clock, store, new BaseTimeScheduler(clock));
+    }
+
+    /**
+     * 만료 시각을 계산할 BaseTimeScheduler까지 지정하여 ForecastCache를 생성한다.
+     * <p>
+     * 공개 지연을 바꾼 스케줄러를 WeatherService에 지정했다면 같은 스케줄러를 지정해야 만료 시각이 일치한다.
+     *
+     * @param   maxEntries
+     *          보관할 최대 항목 수
+     * @param   clock
+     *          만료 판단에 사용할 시계
+     * @param   store
+     *          예보를 파일에 보관할 ForecastStore 객체, 없으면 null
+     * @param   scheduler
+     *          키의 만료 시각을 계산할 BaseTimeScheduler
+     */
+    public ForecastCache(int maxEntries, Clock clock, ForecastStore store, BaseTimeScheduler scheduler) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries는 1 이상이어야 합니다 : " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.store = store;
+        if (store != null) {
+            loadFromStore();
+        }
+    }
+
+    /**
+     * 키에 해당하는 예보를 반환한다.
+     * <p>
+     * 항목이 없거나 다음 발표 시각이 지나 만료되었으면 null을 반환한다.
+     *
+     * @param   key
+     *          조회할 예보 키
+     * @return  캐시된 FcstSeries, 없으면 null
+     */
+    public synchronized FcstSeries get(ForecastKey key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.expiresAt() <= clock.millis()) {
+            entries.remove(key);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.series();
+    }
+
+    /**
+     * 예보를 캐시에 저장한다. 항목은 키의 다음 발표를 조회할 수 있게 되는 시각에 만료된다.
+     * <p>
+     * 키는 {@link BaseTimeScheduler#current()}의 발표로 만들어야 한다. 다음 발표가 이미 공개된 이전 발표의 키는
+     * 저장해도 바로 만료되므로 메모리 캐시와 파일에 남기지 않고, {@link #getLatest(GridCell)}에만 기록한다.
+     *
+     * @param   key
+     *          예보 키
+     * @param   series
+     *          저장할 예보 데이터
+     */
+    public void put(ForecastKey key, FcstSeries series) {
+        long expiresAt = scheduler.nextAvailableAt(key);
+        synchronized (this) {
+            rememberLatest(key, series);
+            if (expiresAt <= clock.millis()) return;
+            entries.put(key, new Entry(series, expiresAt));
+            trimToSize();
+        }
+        /** 파일 쓰기는 캐시 잠금 밖에서 하여 다른 스레드의 조회를 막지 않는다. */
+        if (store != null) {
+            try {
+                store.append(key, series, expiresAt);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 격자에 마지막으로 저장한 예보를 만료 여부와 관계없이 반환한다.
+     * <p>
+     * 외부 API 장애로 새 예보를 받을 수 없을 때 대신 표시하는 용도이며, 적중/미스 횟수에 포함하지 않는다.
+     *
+     * @param   cell
+     *          조회할 격자
+     * @return  가장 최근 발표시각의 FcstSeries, 없으면 null
+     */
+    public synchronized FcstSeries getLatest(GridCell cell) {
+        Latest entry = latest.get(cell);
+        return entry != null ? entry.series() : null;
+    }
+
+    /**
+     * 키에 해당하는 항목을 제거한다.
+     *
+     * @param   key
+     *          제거할 예보 키
+     */
+    public synchronized void invalidate(ForecastKey key) {
+        entries.remove(key);
+    }
+
+    /**
+     * 만료된 항목을 모두 제거한다.
+     * <p>
+     * 만료된 항목은 조회될 때 제거되므로, 발표시각이 바뀐 뒤 다시 조회되지 않는 이전 발표의 항목을
+     * 한꺼번에 정리할 때 사용한다.
+     *
+     * @return  제거한 항목 수
+     */
+    public synchronized int purgeExpired() {
+        long now = clock.millis();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        return before - entries.size();
+    }
+
+    /** 모든 항목을 제거한다. {@link #getLatest(GridCell)}가 반환하는 격자별 마지막 예보는 유지한다. */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * 최대 항목 수를 변경한다. 줄어든 경우 LRU 순서로 초과분을 즉시 제거한다.
+     *
+     * @param   maxEntries
+     *          보관할 최대 항목 수
+     */
+    public synchronized void setMaxEntries(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries는 1 이상이어야 합니다 : " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        trimToSize();
+    }
+
+    /** @return  최대 항목 수 */
+    public synchronized int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /** @return  현재 보관 중인 항목 수 (만료되었지만 아직 제거되지 않은 항목 포함) */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /** @return  캐시 적중 횟수 */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /** @return  캐시 미스 횟수 (만료된 항목 조회 포함) */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /** @return  크기 제한으로 제거된 항목 수 */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /** 
+     * 영속 저장소의 만료되지 않은 예보를 저장된 순서대로 불러온다.
+     * 오래된 항목부터 넣으므로 최대 항목 수를 넘으면 오래된 항목이 먼저 제거된다.
+     */
+    private void loadFromStore() {
+        try {
+            long now = clock.millis();
+            for (ForecastStore.Entry stored : store.load()) {
+                rememberLatest(stored.key(), stored.series());
+                if (stored.expiresAt() > now) {
+                    entries.put(stored.key(), new Entry(stored.series(), stored.expiresAt()));
+                }
+            }
+            trimToSize();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /** 키의 발표시각이 격자의 마지막 예보보다 같거나 최신이면 마지막 예보로 기록한다. */
+    private void rememberLatest(ForecastKey key, FcstSeries series) {
+        String baseDateTime = key.baseDate() + key.baseTime();
+        GridCell cell = key.cell();
+        Latest current = latest.get(cell);
+        if (current == null || current.baseDateTime().compareTo(baseDateTime) <= 0) {
+            latest.put(cell, new Latest(baseDateTime, series));
+        }
+        var iterator = latest.entrySet().iterator();
+        while (latest.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    /** 최대 항목 수를 넘는 만큼 가장 오래 사용하지 않은 항목부터 제거한다. */
+    private void trimToSize() {
+        var iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+}
@@ -1,15 +1,32 @@
 package com.bang9634.service;
 
+import com.bang9634.provider.ProviderExecutors;
+import com.bang9634.provider.WeatherApiException;
 import com.bang9634.provider.WeatherProvider;
 import com.bang9634.provider.parser.WeatherDataParser;
 import com.bang9634.util.constants.WeatherConstants;
-import com.bang9634.model.FcstData;
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.ForecastKey;
+import com.bang9634.model.GridCell;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * WeatherService 클래스는 날씨 정보를 제공하는 서비스로, 
  * WeatherProvider와 WeatherDataParser를 사용하여 날씨 데이터를 가져오고 파싱한다.
  * <p>
- * 이 클래스는 외부 API에서 날씨 정보를 가져오고, 이를 FcstData 객체로 변환하는 기능을 제공한다.
+ * 이 클래스는 외부 API에서 날씨 정보를 가져오고, 이를 FcstSeries 객체로 변환하는 기능을 제공한다.
  * 또한, 서비스 키의 유효성을 검사하는 메서드도 포함되어 있다.
  * 
  * @author bangdeokjae
@@ -18,11 +35,26 @@ public class WeatherService {
     /**
      * WeatherProvider와 WeatherDataParser를 사용하여 날씨 정보를 가져오고 파싱하는 서비스 클래스.
      * <p>
-     * 이 클래스는 외부 API에서 날씨 정보를 가져오고, 이를 FcstData 객체로 변환하는 기능을 제공한다.
+     * 이 클래스는 외부 API에서 날씨 정보를 가져오고, 이를 FcstSeries 객체로 변환하는 기능을 제공한다.
      * 또한, 서비스 키의 유효성을 검사하는 메서드도 포함되어 있다.
      */
     private final WeatherProvider weatherProvider;
     private final WeatherDataParser weatherDataParser;
+    /**
+     * (발표일자, 발표시각, 격자)별로 조회한 예보 데이터를 보관하는 캐시.
+     * <p>
+     * 같은 격자에 속한 동/읍/면은 예보가 같으므로, 격자를 키로 한 번만 조회하고 결과를 공유한다.
+     * 각 항목은 다음 발표 시각에 만료된다.
+     */
+    private final ForecastCache forecastCache;
+    /** 응답 파싱 등 후속 작업을 실행할 실행기 */
+    private final Executor fetchExecutor;
+    /** 조회할 발표일자와 발표시각을 정하는 스케줄러 */
+    private final BaseTimeScheduler baseTimeScheduler;
+    /** 마지막으로 사용한 발표. 발표가 바뀌면 이전 발표의 캐시 항목을 정리한다. */
+    private volatile BaseTimeScheduler.Announcement lastAnnouncement;
+    /** 진행 중인 요청. 같은 키의 동시 요청은 이 요청의 결과를 공유한다. */
+    private final Map<ForecastKey, InFlightRequest> inFlightRequests = new ConcurrentHashMap<>();
 
     /**
      * WeatherService 생성자.
@@ -35,53 +67,447 @@ public class WeatherService {
      *          날씨 데이터를 파싱하는 WeatherDataParser 객체
      */
     public WeatherService(WeatherProvider weatherprovider, WeatherDataParser weatherDataParser) {
+        this(weatherprovider, weatherDataParser, new ForecastCache());
+    }
+
+    /**
+     * 예보 캐시를 지정하는 WeatherService 생성자.
+     * <p>
+     * 캐시 크기를 설정하거나 여러 서비스가 캐시를 공유할 때 사용한다.
+     * 
+     * @param   weatherprovider
+     *          날씨 데이터를 제공하는 WeatherProvider 객체
+     * @param   weatherDataParser
+     *          날씨 데이터를 파싱하는 WeatherDataParser 객체
+     * @param   forecastCache
+     *          조회 결과를 보관할 ForecastCache 객체
+     */
+    public WeatherService(WeatherProvider weatherprovider, WeatherDataParser weatherDataParser, ForecastCache forecastCache) {
+        this(weatherprovider, weatherDataParser, forecastCache, ProviderExecutors.shared());
+    }
+
+    /**
+     * 예보 캐시와 실행기를 지정하는 WeatherService 생성자.
+     * 
+     * @param   weatherprovider
+     *          날씨 데이터를 제공하는 WeatherProvider 객체
+     * @param   weatherDataParser
+     *          날씨 데이터를 파싱하는 WeatherDataParser 객체
+     * @param   forecastCache
+     *          조회 결과를 보관할 ForecastCache 객체
+     * @param   fetchExecutor
+     *          비동기 조회의 후속 작업(파싱)을 실행할 실행기
+     */
+    public WeatherService(WeatherProvider weatherprovider, WeatherDataParser weatherDataParser,
+                          ForecastCache forecastCache, Executor fetchExecutor) {
+        this(weatherprovider, weatherDataParser, forecastCache, fetchExecutor, BaseTimeScheduler.shared());
+    }
+
+    /**
+     * 예보 캐시와 실행기, 발표시각 스케줄러를 지정하는 WeatherService 생성자.
+     * 
+     * @param   weatherprovider
+     *          날씨 데이터를 제공하는 WeatherProvider 객체
+     * @param   weatherDataParser
+     *          날씨 데이터를 파싱하는 WeatherDataParser 객체
+     * @param   forecastCache
+     *          조회 결과를 보관할 ForecastCache 객체
+     * @param   fetchExecutor
+     *          비동기 조회의 후속 작업(파싱)을 실행할 실행기
+     * @param   baseTimeScheduler
+     *          조회할 발표일자와 발표시각을 정하는 BaseTimeScheduler 객체
+     */
+    public WeatherService(WeatherProvider weatherprovider, WeatherDataParser weatherDataParser,
+                          ForecastCache forecastCache, Executor fetchExecutor, BaseTimeScheduler baseTimeScheduler) {
         this.weatherProvider = weatherprovider;
         this.weatherDataParser = weatherDataParser;
+        this.forecastCache = forecastCache;
+        this.fetchExecutor = fetchExecutor;
+        this.baseTimeScheduler = baseTimeScheduler;
     }
 
     /**
      * 주어진 좌표(nx, ny)에 대한 날씨 정보를 가져온다.
      * <p>
-     * 이 메서드는 외부 API를 호출하여 날씨 데이터를 가져오고, 이를 FcstData 객체로 변환한다.
+     * 이 메서드는 외부 API를 호출하여 날씨 데이터를 가져오고, 이를 FcstSeries 객체로 변환한다.
      * 
      * @param   nx
      *          예보지점 x좌표
      * @param   ny
      *          예보지점 y좌표
-     * @return  FcstData 객체로 변환된 날씨 정보
+     * @return  FcstSeries 객체로 변환된 날씨 정보
+     * @throws  Exception
+     *          외부 API 호출 중 오류가 발생할 경우 예외를 던진다.
+     */
+    public FcstSeries getWeather(String nx, String ny) throws Exception {
+        return getWeather(new GridCell(Integer.parseInt(nx), Integer.parseInt(ny)));
+    }
+
+    /**
+     * 주어진 격자에 대한 날씨 정보를 가져온다.
+     * <p>
+     * 발표일자와 발표시각은 {@link BaseTimeScheduler}가 정한 지금 조회할 수 있는 가장 최근 발표를 사용한다.
+     * 같은 발표시각에 이미 조회한 격자라면 외부 API를 호출하지 않고 캐시된 결과를 반환한다.
+     * 같은 격자를 조회 중인 다른 호출이 있으면 새로 요청하지 않고 그 결과를 함께 기다린다.
+     * 
+     * @param   cell
+     *          예보를 조회할 격자
+     * @return  FcstSeries 객체로 변환된 날씨 정보
      * @throws  Exception
      *          외부 API 호출 중 오류가 발생할 경우 예외를 던진다.
      */
-    public FcstData getWeather(String nx, String ny) throws Exception {
-        String rawJson;
+    public FcstSeries getWeather(GridCell cell) throws Exception {
         try {
-            rawJson = weatherProvider.fetchRawWeatherData(
-                WeatherConstants.BASE_DATE, 
-                WeatherConstants.BASE_TIME, 
-                nx, ny
+            return getWeatherAsync(cell).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
+        }
+    }
+
+    /**
+     * 주어진 격자에 대한 날씨 정보를 비동기로 가져온다.
+     * <p>
+     * 캐시에 결과가 있으면 즉시 완료된 future를 반환하고, 없으면 {@link WeatherProvider#fetchRawWeatherDataAsync}
+     * 완료 후 이어서 파싱한다. 대기 중에는 어떤 스레드도 점유하지 않으므로, 작은 스레드 풀로 많은 격자를
+     * 동시에 조회할 수 있다.
+     * <p>
+     * 같은 (발표일자, 발표시각, 격자)에 대한 요청이 이미 진행 중이면 새 요청을 보내지 않고
+     * 진행 중인 요청의 결과를 공유한다(single-flight). 따라서 동시에 몰린 호출자들은 HTTP 요청 한 번과
+     * 파싱 한 번의 결과를 함께 받는다. 호출자마다 별도의 future 사본을 반환하므로, 한 호출자가 취소해도
+     * 다른 호출자에게는 영향이 없다. 결과를 기다리는 호출자가 모두 취소하면 진행 중인 HTTP 요청도 취소한다.
+     * <p>
+     * 외부 API의 일시적 장애(서버 오류, 시간 초과, 회로 차단)로 조회에 실패하면, 캐시에 남아 있는
+     * 해당 격자의 마지막 예보(이전 발표시각일 수 있다)로 대신 완료한다. 이 예보는 새 키로 캐시하지 않는다.
+     * 
+     * @param   cell
+     *          예보를 조회할 격자
+     * @return  FcstSeries로 완료되는 CompletableFuture. 
+     *          API 호출 또는 파싱 중 오류가 발생하고 대신 표시할 예보도 없으면 예외 완료된다.
+     */
+    public CompletableFuture<FcstSeries> getWeatherAsync(GridCell cell) {
+        ForecastKey key = currentKey(cell);
+        FcstSeries cached = forecastCache.get(key);
+        if (cached != null) return CompletableFuture.completedFuture(cached);
+        CompletableFuture<FcstSeries> request = requestAsync(key);
+        CompletableFuture<FcstSeries> result = request.exceptionally(e -> {
+            FcstSeries stale = WeatherApiException.isTransientFailure(e) ? forecastCache.getLatest(cell) : null;
+            if (stale == null) {
+                throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+            }
+            return stale;
+        });
+        /** 호출자가 결과를 취소하면 요청에서도 빠진다. */
+        result.whenComplete((series, e) -> {
+            if (result.isCancelled()) request.cancel(true);
+        });
+        return result;
+    }
+
+    /**
+     * 캐시를 확인하지 않고 주어진 격자의 날씨 정보를 외부 API에서 비동기로 가져온다.
+     * <p>
+     * 서비스 키 검증처럼 실제 API 응답이 필요한 경우에 사용한다. 결과는 캐시에 저장되므로,
+     * 이어지는 {@link #getWeatherAsync(GridCell)} 호출은 외부 API를 다시 호출하지 않는다.
+     * 같은 키의 요청이 진행 중이면 그 결과를 공유한다.
+     * 
+     * @param   cell
+     *          예보를 조회할 격자
+     * @return  FcstSeries로 완료되는 CompletableFuture.
+     *          API 호출 또는 파싱 중 오류가 발생하면 예외 완료된다.
+     */
+    public CompletableFuture<FcstSeries> refreshWeatherAsync(GridCell cell) {
+        return requestAsync(currentKey(cell));
+    }
+
+    /**
+     * 지금 조회할 수 있는 가장 최근 발표에서 격자의 예보 키를 반환한다.
+     * <p>
+     * 발표가 바뀌었으면 만료된 이전 발표의 캐시 항목을 정리한다.
+     */
+    private ForecastKey currentKey(GridCell cell) {
+        BaseTimeScheduler.Announcement announcement = baseTimeScheduler.current();
+        if (announcement != lastAnnouncement) {
+            lastAnnouncement = announcement;
+            forecastCache.purgeExpired();
+        }
+        return announcement.keyFor(cell);
+    }
+
+    /**
+     * 진행 중인 요청이 있으면 공유하고, 없으면 새로 요청하여 결과를 캐시에 저장한다.
+     * <p>
+     * 반환한 사본이 취소되면 기다리는 호출자 수를 줄이고, 남은 호출자가 없으면 요청을 취소한다.
+     * 이미 모든 호출자가 떠난 요청에는 참여하지 않고 새로 요청한다.
+     */
+    private CompletableFuture<FcstSeries> requestAsync(ForecastKey key) {
+        InFlightRequest request;
+        while (true) {
+            InFlightRequest created = new InFlightRequest();
+            InFlightRequest existing = inFlightRequests.putIfAbsent(key, created);
+            if (existing == null) {
+                start(key, created);
+                request = created;
+                break;
+            }
+            if (existing.join()) {
+                request = existing;
+                break;
+            }
+            inFlightRequests.remove(key, existing);
+        }
+
+        CompletableFuture<FcstSeries> copy = request.result.copy();
+        copy.whenComplete((series, e) -> {
+            if (copy.isCancelled()) request.leave();
+        });
+        return copy;
+    }
+
+    /**
+     * 요청을 보내고, 완료되면 결과를 캐시에 저장한 뒤 기다리는 호출자들에게 전달한다.
+     */
+    private void start(ForecastKey key, InFlightRequest request) {
+        CompletableFuture<FcstSeries> fetch;
+        try {
+            fetch = fetchWeatherAsync(key);
+        } catch (RuntimeException e) {
+            /** 요청을 만들지도 못했으면 바로 실패시켜, 같은 키의 호출자가 끝나지 않는 요청에 참여하지 않도록 한다. */
+            fetch = CompletableFuture.failedFuture(new Exception("외부 API에서 데이터 가져오는 중 오류 발생", e));
+        }
+        request.fetch = fetch;
+        fetch.whenComplete((series, e) -> {
+            /** 캐시에 먼저 저장한 뒤 진행 중 목록에서 제거하여, 그 사이에 들어온 호출자가 중복 요청하지 않도록 한다. */
+            if (e == null) forecastCache.put(key, series);
+            inFlightRequests.remove(key, request);
+            if (e == null) {
+                request.result.complete(series);
+            } else {
+                request.result.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            }
+        });
+    }
+
+    /**
+     * 외부 API를 비동기로 호출하여 키에 해당하는 날씨 정보를 가져와 파싱한다.
+     * <p>
+     * API 호출 실패는 "외부 API에서 데이터 가져오는 중 오류 발생" 예외로, 파싱 실패는 파서의 예외 그대로 전달한다.
+     * 
+     * @param   key
+     *          조회할 발표일자, 발표시각, 격자
+     * @return  FcstSeries로 완료되는 CompletableFuture
+     */
+    private CompletableFuture<FcstSeries> fetchWeatherAsync(ForecastKey key) {
+        CompletableFuture<String> call = weatherProvider.fetchRawWeatherDataAsync(
+                key.baseDate(),
+                key.baseTime(),
+                String.valueOf(key.nx()), String.valueOf(key.ny())
             );
+        CompletableFuture<FcstSeries> parsed = call.handleAsync((rawJson, e) -> {
+                if (e != null) {
+                    Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+                    throw new CompletionException(new Exception("외부 API에서 데이터 가져오는 중 오류 발생", cause));
+                }
+                try {
+                    return weatherDataParser.parse(rawJson);
+                } catch (Exception parseException) {
+                    throw new CompletionException(parseException);
+                }
+            }, fetchExecutor);
+        /** 결과가 취소되면 Provider의 요청도 취소하여 HTTP 연결을 돌려받는다. */
+        parsed.whenComplete((series, e) -> {
+            if (e != null && !call.isDone()) call.cancel(true);
+        });
+        return parsed;
+    }
+
+    /**
+     * 주어진 격자의 전체 예보 기간(발표시각 기준 약 3일)을 비동기로 가져온다.
+     * <p>
+     * 첫 페이지를 {@link WeatherConstants#FULL_HORIZON_NUM_OF_ROWS}개 단위로 요청하여 대부분의 경우 한 번에 모두 받고,
+     * 응답의 totalCount가 더 크면 나머지 페이지를 동시에 요청한다.
+     * 각 페이지는 도착 순서와 관계없이 페이지 순서대로 같은 FcstSeries에 파싱된다.
+     * 한 페이지라도 실패하면 아직 진행 중인 나머지 페이지 요청을 취소하고, 실패한 페이지의 원인으로 예외 완료된다.
+     * 반환한 future를 취소해도 진행 중인 페이지 요청이 모두 취소된다.
+     * <p>
+     * 화면은 가장 이른 예보 시각 하나만 표시하므로 GUI는 이 메서드를 사용하지 않는다. 시계열 분석이나 일괄 수집처럼
+     * 화면 없이 전체 예보가 필요한 호출자를 위한 API이며, 결과는 화면 표시용 캐시({@link ForecastCache})에 저장하지 않는다.
+     * 
+     * @param   cell
+     *          예보를 조회할 격자
+     * @return  모든 예보 시각을 담은 FcstSeries로 완료되는 CompletableFuture.
+     *          API 호출 또는 파싱 중 오류가 발생하면 예외 완료된다.
+     */
+    public CompletableFuture<FcstSeries> getFullForecastAsync(GridCell cell) {
+        ForecastKey key = currentKey(cell);
+        int numOfRows = WeatherConstants.FULL_HORIZON_NUM_OF_ROWS;
+        FcstSeries series = new FcstSeries();
+        /** 요청한 모든 페이지. 결과가 예외 완료되면 남은 요청을 취소한다. */
+        List<CompletableFuture<String>> requested = new CopyOnWriteArrayList<>();
+        CompletableFuture<String> firstPage = fetchPageAsync(key, 1, numOfRows);
+        requested.add(firstPage);
+
+        CompletableFuture<FcstSeries> result = firstPage
+            .thenApplyAsync(rawJson -> parsePage(rawJson, series), fetchExecutor)
+            .thenCompose(totalCount -> {
+                int pageCount = (totalCount + numOfRows - 1) / numOfRows;
+                if (pageCount <= 1) return CompletableFuture.completedFuture(series);
+
+                /** 나머지 페이지는 동시에 요청하고, 모두 도착하면 페이지 순서대로 파싱한다. */
+                List<CompletableFuture<String>> pages = new ArrayList<>(pageCount - 1);
+                for (int pageNo = 2; pageNo <= pageCount; pageNo++) {
+                    CompletableFuture<String> page = fetchPageAsync(key, pageNo, numOfRows);
+                    pages.add(page);
+                    requested.add(page);
+                    /** 한 페이지가 실패하면 나머지 페이지는 기다릴 필요가 없다. */
+                    page.whenComplete((rawJson, e) -> {
+                        if (e != null) cancelAll(pages);
+                    });
+                }
+                return CompletableFuture.allOf(pages.toArray(new CompletableFuture<?>[0]))
+                    .handleAsync((ignored, e) -> {
+                        if (e != null) throw new CompletionException(firstFailure(pages, e));
+                        for (CompletableFuture<String> page : pages) {
+                            parsePage(page.join(), series);
+                        }
+                        return series;
+                    }, fetchExecutor);
+            });
+        result.whenComplete((fullSeries, e) -> {
+            if (e != null) cancelAll(requested);
+        });
+        return result;
+    }
+
+    /**
+     * 외부 API에서 한 페이지를 비동기로 가져온다. 실패하면 "외부 API에서 데이터 가져오는 중 오류 발생" 예외로 감싼다.
+     * 반환한 future가 취소되면 Provider의 요청도 취소하여 HTTP 연결을 돌려받는다.
+     */
+    private CompletableFuture<String> fetchPageAsync(ForecastKey key, int pageNo, int numOfRows) {
+        CompletableFuture<String> call = weatherProvider.fetchRawWeatherDataAsync(
+                key.baseDate(),
+                key.baseTime(),
+                String.valueOf(key.nx()), String.valueOf(key.ny()),
+                pageNo, numOfRows
+            );
+        CompletableFuture<String> page = call.exceptionally(e -> {
+                Throwable cause = (e instanceof CompletionException && e.getCause() != null) ? e.getCause() : e;
+                throw new CompletionException(new Exception("외부 API에서 데이터 가져오는 중 오류 발생", cause));
+            });
+        page.whenComplete((rawJson, e) -> {
+            if (e != null && !call.isDone()) call.cancel(true);
+        });
+        return page;
+    }
+
+    /** 아직 완료되지 않은 페이지 요청을 모두 취소한다. */
+    private static void cancelAll(List<CompletableFuture<String>> pages) {
+        for (CompletableFuture<String> page : pages) {
+            if (!page.isDone()) page.cancel(true);
+        }
+    }
+
+    /**
+     * 취소되지 않고 실패한 첫 페이지의 원인을 반환한다. 다른 페이지의 실패로 취소된 페이지는 원인이 아니다.
+     *
+     * @return  실패한 첫 페이지의 원인, 없으면 allOf가 전달한 원인
+     */
+    private static Throwable firstFailure(List<CompletableFuture<String>> pages, Throwable fallback) {
+        for (CompletableFuture<String> page : pages) {
+            if (page.state() == Future.State.FAILED) return page.exceptionNow();
+        }
+        return (fallback instanceof CompletionException && fallback.getCause() != null) ? fallback.getCause() : fallback;
+    }
+
+    /**
+     * 한 페이지를 series에 파싱하고 응답의 totalCount를 반환한다.
+     */
+    private int parsePage(String rawJson, FcstSeries series) {
+        try {
+            return weatherDataParser.parseInto(rawJson, series);
         } catch (Exception e) {
-            throw new Exception("외부 API에서 데이터 가져오는 중 오류 발생", e);
+            throw new CompletionException(e);
         }
-        return weatherDataParser.parse(rawJson);
+    }
+
+    /**
+     * 조회 결과를 보관하는 예보 캐시를 반환한다.
+     * <p>
+     * 캐시 적중/미스 횟수 확인이나 크기 변경에 사용한다.
+     * 
+     * @return  ForecastCache 객체
+     */
+    public ForecastCache getForecastCache() {
+        return forecastCache;
     }
 
     /**
      * 서비스 키의 유효성을 검증한다.
      * <p>
-     * 서비스 키를 검증하기 위해 임의의 파라미터로 getWeather 메소드를 호출한다.
-     * 만약 예외가 발생하지 않으면 유효한 서비스 키로 간주한다.
+     * {@link #validateServiceKeyAsync()}의 결과를 기다려 반환한다.
+     * 일시적 장애 등으로 검증하지 못한 경우에도 유효하다고 확인된 것은 아니므로 false를 반환한다.
      * 
      * @return  boolean
-     *          서비스 키가 유효하면 true, 그렇지 않으면 false를 반환한다.
+     *          서비스 키가 유효하다고 확인되면 true, 그렇지 않으면 false를 반환한다.
      */
     public boolean isServiceKeyValid() {
         try {
-            getWeather("60", "127");
-            return true;
-        } catch (Exception e) {
+            return validateServiceKeyAsync().join();
+        } catch (CompletionException | CancellationException e) {
             e.printStackTrace();
             return false;
         }
     }
+
+    /**
+     * 서비스 키의 유효성을 비동기로 검증한다.
+     * <p>
+     * 기본 위치(서울) 격자의 첫 페이지(12개 항목)를 캐시를 거치지 않고 요청하여, 예외가 발생하지 않으면
+     * 유효한 서비스 키로 간주한다. 검증에 사용한 응답은 예보 캐시에 저장되므로,
+     * 같은 캐시를 사용하는 서비스가 기본 위치를 처음 표시할 때 같은 요청을 다시 보내지 않는다.
+     * <p>
+     * 서비스 키 오류({@link WeatherApiException#isServiceKeyFailure})만 유효하지 않은 키로 판단한다.
+     * 일시적 장애, 요청 한도 초과, 회로 차단 등으로 실패하면 키의 유효성을 알 수 없으므로 그 예외로 완료한다.
+     * 
+     * @return  서비스 키가 유효하면 true, 서비스 키 오류이면 false로 완료되는 CompletableFuture.
+     *          그 밖의 이유로 검증하지 못하면 예외 완료된다.
+     */
+    public CompletableFuture<Boolean> validateServiceKeyAsync() {
+        return refreshWeatherAsync(new GridCell(WeatherConstants.DEFAULT_NX, WeatherConstants.DEFAULT_NY))
+            .handle((series, e) -> {
+                if (e == null) return true;
+                if (WeatherApiException.isServiceKeyFailure(e)) {
+                    e.printStackTrace();
+                    return false;
+                }
+                throw e instanceof CompletionException completionException ? completionException : new CompletionException(e);
+            });
+    }
+
+    /**
+     * 같은 키의 호출자들이 공유하는 진행 중인 요청과, 그 결과를 기다리는 호출자 수.
+     */
+    private static final class InFlightRequest {
+        /** 호출자들에게 전달할 결과 */
+        final CompletableFuture<FcstSeries> result = new CompletableFuture<>();
+        /** 결과를 기다리는 호출자 수. 0이 되면 요청을 취소하며 더 이상 참여할 수 없다. */
+        private final AtomicInteger waiters = new AtomicInteger(1);
+        /** Provider에 보낸 요청 */
+        volatile CompletableFuture<FcstSeries> fetch;
+
+        /** @return  아직 기다리는 호출자가 있어 참여했으면 true */
+        boolean join() {
+            int n;
+            do {
+                n = waiters.get();
+                if (n == 0) return false;
+            } while (!waiters.compareAndSet(n, n + 1));
+            return true;
+        }
+
+        /** 호출자 하나가 결과를 기다리지 않게 되었다. 마지막 호출자이면 요청을 취소한다. */
+        void leave() {
+            if (waiters.decrementAndGet() == 0) fetch.cancel(true);
+        }
+    }
 }
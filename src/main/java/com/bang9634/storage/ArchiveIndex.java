@@ -0,0 +1,212 @@
+package com.bang9634.storage;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link ForecastArchive}의 (발표일자, 발표시각, nx, ny) -> 레코드 위치 색인.
+ * <p>
+ * 메모리 맵 파일 위의 선형 탐사(open addressing) 해시 테이블이므로, 스냅샷 수와 관계없이 힙을 사용하지 않고
+ * O(1)에 조회한다. 사용률이 절반을 넘으면 두 배 크기의 임시 파일에 다시 넣은 뒤 원자적으로 교체한다.
+ * <pre>
+ *     header : MAGIC int, VERSION int, capacity int, size int, indexedRecords long, (예약 8바이트)
+ *     slot   : key long (0이면 빈 칸), value long
+ * </pre>
+ * indexedRecords는 색인에 반영된 레코드 수이다. 색인 갱신 전에 종료된 경우 다시 열 때 이후 레코드만 색인한다.
+ * <p>
+ * 이 클래스는 스레드 안전하지 않으며, ForecastArchive의 잠금 안에서만 사용한다.
+ *
+ * @author bangdeokjae
+ */
+class ArchiveIndex {
+    private static final int MAGIC = 0x46414958; // "FAIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 32;
+    private static final int SLOT_BYTES = 16;
+    private static final int CAPACITY_OFFSET = 8;
+    private static final int SIZE_OFFSET = 12;
+    private static final int INDEXED_RECORDS_OFFSET = 16;
+    private static final int MIN_CAPACITY = 1 << 10;
+    /** MappedByteBuffer 하나로 매핑할 수 있는 최대 칸 수 */
+    private static final int MAX_CAPACITY = 1 << 26;
+
+    private final Path file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int capacity;
+    private int size;
+
+    /**
+     * 색인 파일을 연다. 파일이 없거나 형식이 다르면 빈 색인을 만든다.
+     *
+     * @param   file
+     *          색인 파일 경로
+     * @throws  IOException
+     *          파일을 열거나 매핑하는 중 오류가 발생하면 예외를 던진다.
+     */
+    ArchiveIndex(Path file) throws IOException {
+        this.file = file;
+        if (Files.exists(file) && Files.size(file) >= HEADER_BYTES) {
+            map(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            capacity = buffer.getInt(CAPACITY_OFFSET);
+            long expectedBytes = HEADER_BYTES + (long) capacity * SLOT_BYTES;
+            if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION
+                    && Integer.bitCount(capacity) == 1 && channel.size() == expectedBytes) {
+                size = buffer.getInt(SIZE_OFFSET);
+                return;
+            }
+            close();
+        }
+        create(file, MIN_CAPACITY);
+        map(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        capacity = MIN_CAPACITY;
+        size = 0;
+    }
+
+    /**
+     * 키에 해당하는 값을 반환한다.
+     *
+     * @param   key
+     *          0이 아닌 키
+     * @return  값, 없으면 -1
+     */
+    long get(long key) {
+        int mask = capacity - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            long slotKey = buffer.getLong(slotOffset(i));
+            if (slotKey == key) return buffer.getLong(slotOffset(i) + 8);
+            if (slotKey == 0) return -1;
+        }
+    }
+
+    /**
+     * 키의 값을 기록한다. 같은 키가 있으면 값을 덮어쓴다.
+     *
+     * @param   key
+     *          0이 아닌 키
+     * @param   value
+     *          값
+     * @throws  IOException
+     *          색인을 늘리는 중 오류가 발생하면 예외를 던진다.
+     */
+    void put(long key, long value) throws IOException {
+        if ((size + 1) * 2L > capacity) {
+            grow();
+        }
+        if (insert(buffer, capacity, key, value)) {
+            size++;
+            buffer.putInt(SIZE_OFFSET, size);
+        }
+    }
+
+    /** @return  색인에 반영된 레코드 수 */
+    long indexedRecords() {
+        return buffer.getLong(INDEXED_RECORDS_OFFSET);
+    }
+
+    /**
+     * 색인에 반영된 레코드 수를 기록한다.
+     *
+     * @param   records
+     *          레코드 수
+     */
+    void setIndexedRecords(long records) {
+        buffer.putLong(INDEXED_RECORDS_OFFSET, records);
+    }
+
+    /** @return  색인된 키 수 */
+    int size() {
+        return size;
+    }
+
+    /** 변경 내용을 디스크에 반영한다. */
+    void force() {
+        buffer.force();
+    }
+
+    void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+        buffer = null;
+    }
+
+    /**
+     * 두 배 크기의 임시 색인에 모든 키를 다시 넣고, 원래 파일과 교체한다.
+     */
+    private void grow() throws IOException {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IOException("색인 크기 한도를 넘었습니다 : " + capacity);
+        }
+        int newCapacity = capacity * 2;
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        create(temp, newCapacity);
+        try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer newBuffer = tempChannel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    HEADER_BYTES + (long) newCapacity * SLOT_BYTES);
+            for (int i = 0; i < capacity; i++) {
+                long key = buffer.getLong(slotOffset(i));
+                if (key != 0) insert(newBuffer, newCapacity, key, buffer.getLong(slotOffset(i) + 8));
+            }
+            newBuffer.putInt(SIZE_OFFSET, size);
+            newBuffer.putLong(INDEXED_RECORDS_OFFSET, indexedRecords());
+            newBuffer.force();
+        }
+        close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map(FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        capacity = newCapacity;
+    }
+
+    private void map(FileChannel fileChannel) throws IOException {
+        channel = fileChannel;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    }
+
+    /**
+     * 빈 색인 파일을 만든다.
+     */
+    private static void create(Path path, int capacity) throws IOException {
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer header = out.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+            header.putInt(0, MAGIC).putInt(4, VERSION).putInt(CAPACITY_OFFSET, capacity).putInt(SIZE_OFFSET, 0);
+            header.putLong(INDEXED_RECORDS_OFFSET, 0L);
+            header.force();
+        }
+    }
+
+    /**
+     * @return  새 키를 넣었으면 true, 기존 키의 값을 덮어썼으면 false
+     */
+    private static boolean insert(MappedByteBuffer target, int capacity, long key, long value) {
+        int mask = capacity - 1;
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int offset = slotOffset(i);
+            long slotKey = target.getLong(offset);
+            if (slotKey == 0 || slotKey == key) {
+                target.putLong(offset, key);
+                target.putLong(offset + 8, value);
+                return slotKey == 0;
+            }
+        }
+    }
+
+    private static int slotOffset(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+
+    /** 인접한 키가 같은 칸에 몰리지 않도록 비트를 섞는다. */
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+}
@@ -0,0 +1,123 @@
+package com.bang9634.storage;
+
+import com.bang9634.model.FcstCategory;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link ForecastArchive}의 고정 길이 레코드 하나를 읽는 커서 클래스.
+ * <p>
+ * 레코드 하나는 한 스냅샷(발표일자, 발표시각, 격자)의 한 예보 시각(슬롯)에 해당한다.
+ * 순차 조회 중에는 같은 객체가 다음 레코드를 가리키도록 재사용되므로, 값을 보관하려면 복사해야 한다.
+ * <pre>
+ *     offset  0 : baseDate   int   (yyyyMMdd)
+ *     offset  4 : baseTime   short (HHmm)
+ *     offset  6 : nx         short
+ *     offset  8 : ny         short
+ *     offset 10 : fcstTime   short (HHmm)
+ *     offset 12 : fcstDate   int   (yyyyMMdd)
+ *     offset 16 : present    short (카테고리 ordinal별 값 존재 비트)
+ *     offset 18 : valid      short (카테고리 ordinal별 결측값이 아닌 값 비트)
+ *     offset 20 : values     float x 14 (카테고리 ordinal 순서)
+ *     offset 76 : slotIndex  short (스냅샷 내 슬롯 번호)
+ *     offset 78 : slotCount  short (스냅샷의 슬롯 수)
+ * </pre>
+ *
+ * @author bangdeokjae
+ */
+public final class ArchiveRecord {
+    /** 레코드 한 개의 바이트 수 */
+    static final int BYTES = 80;
+
+    static final int BASE_DATE = 0;
+    static final int BASE_TIME = 4;
+    static final int NX = 6;
+    static final int NY = 8;
+    static final int FCST_TIME = 10;
+    static final int FCST_DATE = 12;
+    static final int PRESENT = 16;
+    static final int VALID = 18;
+    static final int VALUES = 20;
+    static final int SLOT_INDEX = 76;
+    static final int SLOT_COUNT = 78;
+
+    private ByteBuffer buffer;
+    private int offset;
+
+    ArchiveRecord() {
+    }
+
+    /** 커서가 가리킬 레코드를 바꾼다. */
+    ArchiveRecord moveTo(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.offset = offset;
+        return this;
+    }
+
+    /** @return  발표일자 (yyyyMMdd) */
+    public int baseDate() {
+        return buffer.getInt(offset + BASE_DATE);
+    }
+
+    /** @return  발표시각 (HHmm) */
+    public int baseTime() {
+        return buffer.getShort(offset + BASE_TIME);
+    }
+
+    /** @return  예보지점 X 좌표 */
+    public int nx() {
+        return buffer.getShort(offset + NX);
+    }
+
+    /** @return  예보지점 Y 좌표 */
+    public int ny() {
+        return buffer.getShort(offset + NY);
+    }
+
+    /** @return  예보일자 (yyyyMMdd) */
+    public int fcstDate() {
+        return buffer.getInt(offset + FCST_DATE);
+    }
+
+    /** @return  예보시각 (HHmm) */
+    public int fcstTime() {
+        return buffer.getShort(offset + FCST_TIME);
+    }
+
+    /** @return  스냅샷 안에서 이 레코드의 슬롯 번호 (0부터) */
+    public int slotIndex() {
+        return buffer.getShort(offset + SLOT_INDEX);
+    }
+
+    /** @return  이 레코드가 속한 스냅샷의 슬롯 수 */
+    public int slotCount() {
+        return buffer.getShort(offset + SLOT_COUNT);
+    }
+
+    /**
+     * @param   category
+     *          카테고리
+     * @return  카테고리 값이 있으면 true (결측값 포함)
+     */
+    public boolean isPresent(FcstCategory category) {
+        return (buffer.getShort(offset + PRESENT) & (1 << category.ordinal())) != 0;
+    }
+
+    /**
+     * @param   category
+     *          카테고리
+     * @return  카테고리 값이 있고 결측값이 아니면 true
+     */
+    public boolean isValid(FcstCategory category) {
+        return (buffer.getShort(offset + VALID) & (1 << category.ordinal())) != 0;
+    }
+
+    /**
+     * @param   category
+     *          카테고리
+     * @return  카테고리 값, 값이 없으면 NaN
+     */
+    public float value(FcstCategory category) {
+        return isPresent(category) ? buffer.getFloat(offset + VALUES + category.ordinal() * Float.BYTES) : Float.NaN;
+    }
+}
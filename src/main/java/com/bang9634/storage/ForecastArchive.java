@@ -0,0 +1,357 @@
+package com.bang9634.storage;
+
+import com.bang9634.model.FcstCategory;
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.ForecastKey;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * 조회한 예보 스냅샷(발표시각별, 격자별)을 모두 보관하는 메모리 맵 아카이브 클래스.
+ * <p>
+ * 스냅샷 하나({@link FcstSeries})는 예보 시각마다 {@link ArchiveRecord#BYTES}바이트 고정 길이 레코드로 기록되며,
+ * 한 스냅샷의 레코드는 항상 같은 세그먼트 파일에 연속으로 놓인다. 세그먼트 파일은 일정한 레코드 수를 담는
+ * 메모리 맵 파일이고, 가득 차면 다음 세그먼트를 만든다.
+ * (발표일자, 발표시각, nx, ny) -> (첫 레코드 번호, 슬롯 수) 색인은 메모리 맵 해시 테이블({@link ArchiveIndex})이다.
+ * 따라서 레코드가 수백만 개여도 힙 사용량은 세그먼트 수에만 비례하며, 스냅샷 조회는 O(1)이다.
+ * <pre>
+ *     디렉토리
+ *       index.dat          : 색인
+ *       segment-00000.dat  : [MAGIC int][VERSION int][RECORD_BYTES int][capacity int][count int] ... 레코드*
+ *       segment-00001.dat
+ * </pre>
+ * 레코드를 모두 쓴 뒤 세그먼트의 count를, 그 다음 색인을 갱신한다. 도중에 종료되면 count 밖의 레코드는 무시되고,
+ * 색인에 반영되지 않은 레코드는 다시 열 때 세그먼트를 읽어 색인한다.
+ * 같은 키를 다시 보관하면 색인은 새 레코드를 가리키며, 이전 레코드는 순차 조회에서만 보인다.
+ * <p>
+ * PCP, SNO 같은 범주형 값은 {@link FcstSeries}의 대표값으로 보관된다.
+ * <p>
+ * 모든 메서드는 스레드 안전하다. 순차 조회는 시작 시점까지 기록된 레코드를 잠금 없이 읽는다.
+ *
+ * @author bangdeokjae
+ */
+public class ForecastArchive implements AutoCloseable {
+    /** 세그먼트 하나의 기본 레코드 수 (80MB) */
+    public static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private static final int MAGIC = 0x46415347; // "FASG"
+    private static final int VERSION = 1;
+    private static final int SEGMENT_HEADER_BYTES = 64;
+    private static final int COUNT_OFFSET = 16;
+    private static final String INDEX_FILENAME = "index.dat";
+    private static final String SEGMENT_FORMAT = "segment-%05d.dat";
+
+    /** 세그먼트 파일 하나. count는 기록이 끝난 레코드 수이다. */
+    private static final class Segment {
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private volatile int count;
+
+        private Segment(FileChannel channel, MappedByteBuffer buffer, int count) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.count = count;
+        }
+    }
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ArchiveIndex index;
+    /** 기록이 끝난 전체 레코드 수 */
+    private volatile long recordCount;
+
+    /**
+     * 기본 세그먼트 크기로 아카이브를 연다.
+     *
+     * @param   directory
+     *          아카이브 디렉토리. 없으면 만든다.
+     * @throws  IOException
+     *          파일을 열거나 매핑하는 중 오류가 발생하면 예외를 던진다.
+     */
+    public ForecastArchive(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    /**
+     * 세그먼트 크기를 지정하여 아카이브를 연다.
+     * <p>
+     * 기존 세그먼트가 있으면 그 크기를 따른다.
+     *
+     * @param   directory
+     *          아카이브 디렉토리. 없으면 만든다.
+     * @param   recordsPerSegment
+     *          새 세그먼트 하나의 레코드 수
+     * @throws  IOException
+     *          파일을 열거나 매핑하는 중 오류가 발생하면 예외를 던진다.
+     */
+    public ForecastArchive(Path directory, int recordsPerSegment) throws IOException {
+        if (recordsPerSegment <= 0 || (long) recordsPerSegment * ArchiveRecord.BYTES + SEGMENT_HEADER_BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("recordsPerSegment 범위를 벗어났습니다 : " + recordsPerSegment);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.recordsPerSegment = openSegments(recordsPerSegment);
+        this.index = new ArchiveIndex(directory.resolve(INDEX_FILENAME));
+        catchUpIndex();
+    }
+
+    /**
+     * 스냅샷을 보관한다.
+     *
+     * @param   key
+     *          스냅샷의 발표일자, 발표시각, 격자
+     * @param   series
+     *          보관할 예보
+     * @throws  IOException
+     *          세그먼트를 만들거나 색인을 늘리는 중 오류가 발생하면 예외를 던진다.
+     * @throws  IllegalArgumentException
+     *          슬롯 수가 세그먼트 크기보다 크거나, 키를 레코드에 담을 수 없는 경우
+     */
+    public synchronized void append(ForecastKey key, FcstSeries series) throws IOException {
+        int slots = series.size();
+        if (slots == 0) return;
+        if (slots > recordsPerSegment || slots > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("슬롯 수가 너무 많습니다 : " + slots);
+        }
+        long packedKey = packKey(key);
+
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (segment == null || segment.count + slots > recordsPerSegment) {
+            segment = createSegment(segments.size());
+        }
+        int baseDate = Integer.parseInt(key.baseDate());
+        int baseTime = Integer.parseInt(key.baseTime());
+        int first = segment.count;
+        for (int slot = 0; slot < slots; slot++) {
+            writeRecord(segment.buffer, recordOffset(first + slot), baseDate, baseTime, key, series, slot, slots);
+        }
+
+        segment.count = first + slots;
+        segment.buffer.putInt(COUNT_OFFSET, segment.count);
+        long firstRecord = (long) (segments.size() - 1) * recordsPerSegment + first;
+        index.put(packedKey, firstRecord << 16 | slots);
+        recordCount += slots;
+        index.setIndexedRecords(recordCount);
+    }
+
+    /**
+     * 키에 해당하는 스냅샷을 읽는다.
+     *
+     * @param   key
+     *          스냅샷의 발표일자, 발표시각, 격자
+     * @return  보관된 예보, 없으면 null
+     */
+    public FcstSeries get(ForecastKey key) {
+        FcstSeries series = new FcstSeries();
+        return scan(key, record -> {
+            for (FcstCategory category : FcstCategory.values()) {
+                if (record.isPresent(category)) {
+                    series.put(record.fcstDate(), record.fcstTime(), category, record.value(category));
+                }
+            }
+        }) ? series : null;
+    }
+
+    /**
+     * 키에 해당하는 스냅샷의 레코드를 예보 시각 순서로 순회한다.
+     *
+     * @param   key
+     *          스냅샷의 발표일자, 발표시각, 격자
+     * @param   visitor
+     *          각 레코드를 받을 함수. 전달되는 ArchiveRecord는 재사용된다.
+     * @return  스냅샷이 있으면 true
+     */
+    public boolean scan(ForecastKey key, Consumer<ArchiveRecord> visitor) {
+        long value;
+        synchronized (this) {
+            value = index.get(packKey(key));
+        }
+        if (value < 0) return false;
+        long firstRecord = value >>> 16;
+        int slots = (int) (value & 0xFFFF);
+        Segment segment = segments.get((int) (firstRecord / recordsPerSegment));
+        int first = (int) (firstRecord % recordsPerSegment);
+        ArchiveRecord record = new ArchiveRecord();
+        for (int i = first; i < first + slots; i++) {
+            visitor.accept(record.moveTo(segment.buffer, recordOffset(i)));
+        }
+        return true;
+    }
+
+    /**
+     * 보관된 모든 레코드를 기록된 순서대로 순회한다.
+     * <p>
+     * 호출 시점까지 기록된 레코드만 읽으며, 순회 중에도 다른 스레드는 계속 보관할 수 있다.
+     *
+     * @param   visitor
+     *          각 레코드를 받을 함수. 전달되는 ArchiveRecord는 재사용된다.
+     */
+    public void scan(Consumer<ArchiveRecord> visitor) {
+        ArchiveRecord record = new ArchiveRecord();
+        List<Segment> snapshot = List.copyOf(segments);
+        for (Segment segment : snapshot) {
+            int count = segment.count;
+            for (int i = 0; i < count; i++) {
+                visitor.accept(record.moveTo(segment.buffer, recordOffset(i)));
+            }
+        }
+    }
+
+    /** @return  보관된 전체 레코드 수 (덮어쓴 스냅샷의 레코드 포함) */
+    public long recordCount() {
+        return recordCount;
+    }
+
+    /** @return  색인된 스냅샷 수 */
+    public synchronized int snapshotCount() {
+        return index.size();
+    }
+
+    /** @return  아카이브 디렉토리 */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 매핑된 세그먼트와 색인의 변경 내용을 디스크에 반영한다.
+     */
+    public synchronized void force() {
+        for (Segment segment : segments) {
+            segment.buffer.force();
+        }
+        index.force();
+    }
+
+    /**
+     * 변경 내용을 디스크에 반영하고 파일을 닫는다.
+     *
+     * @throws  IOException
+     *          파일을 닫는 중 오류가 발생하면 예외를 던진다.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        for (Segment segment : segments) {
+            segment.channel.close();
+        }
+        index.close();
+    }
+
+    /**
+     * 디렉토리의 세그먼트를 번호 순서대로 연다.
+     *
+     * @return  사용할 세그먼트 크기
+     */
+    private int openSegments(int defaultRecordsPerSegment) throws IOException {
+        int perSegment = defaultRecordsPerSegment;
+        for (int n = 0; ; n++) {
+            Path path = directory.resolve(String.format(SEGMENT_FORMAT, n));
+            if (!Files.exists(path)) break;
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || buffer.getInt(8) != ArchiveRecord.BYTES) {
+                channel.close();
+                throw new IOException("아카이브 세그먼트 형식이 올바르지 않습니다 : " + path);
+            }
+            perSegment = buffer.getInt(12);
+            segments.add(new Segment(channel, buffer, buffer.getInt(COUNT_OFFSET)));
+            recordCount += buffer.getInt(COUNT_OFFSET);
+        }
+        return perSegment;
+    }
+
+    private Segment createSegment(int n) throws IOException {
+        Path path = directory.resolve(String.format(SEGMENT_FORMAT, n));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                SEGMENT_HEADER_BYTES + (long) recordsPerSegment * ArchiveRecord.BYTES);
+        buffer.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, ArchiveRecord.BYTES)
+              .putInt(12, recordsPerSegment).putInt(COUNT_OFFSET, 0);
+        Segment segment = new Segment(channel, buffer, 0);
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * 색인에 반영되지 않은 레코드가 있으면 세그먼트를 읽어 색인한다.
+     */
+    private void catchUpIndex() throws IOException {
+        long indexed = index.indexedRecords();
+        if (indexed == recordCount) return;
+        if (indexed > recordCount) indexed = 0;
+
+        long globalBase = 0;
+        for (int n = 0; n < segments.size(); n++) {
+            Segment segment = segments.get(n);
+            ArchiveRecord record = new ArchiveRecord();
+            for (int i = 0; i < segment.count; i++) {
+                if (globalBase + i < indexed) continue;
+                record.moveTo(segment.buffer, recordOffset(i));
+                if (record.slotIndex() != 0) continue;
+                long key = packKey(record.baseDate(), record.baseTime(), record.nx(), record.ny());
+                index.put(key, (n * (long) recordsPerSegment + i) << 16 | record.slotCount());
+            }
+            globalBase += segment.count;
+        }
+        index.setIndexedRecords(recordCount);
+    }
+
+    /**
+     * 예보의 슬롯 하나를 레코드로 기록한다.
+     */
+    private static void writeRecord(MappedByteBuffer buffer, int offset, int baseDate, int baseTime,
+                                    ForecastKey key, FcstSeries series, int slot, int slots) {
+        int present = 0;
+        int valid = 0;
+        for (FcstCategory category : FcstCategory.values()) {
+            int bit = 1 << category.ordinal();
+            float value = Float.NaN;
+            if (series.isPresent(category, slot)) {
+                value = series.value(category, slot);
+                present |= bit;
+                if (!series.isMissing(category, slot)) valid |= bit;
+            }
+            buffer.putFloat(offset + ArchiveRecord.VALUES + category.ordinal() * Float.BYTES, value);
+        }
+        buffer.putInt(offset + ArchiveRecord.BASE_DATE, baseDate);
+        buffer.putShort(offset + ArchiveRecord.BASE_TIME, (short) baseTime);
+        buffer.putShort(offset + ArchiveRecord.NX, (short) key.nx());
+        buffer.putShort(offset + ArchiveRecord.NY, (short) key.ny());
+        buffer.putShort(offset + ArchiveRecord.FCST_TIME, (short) series.fcstTimeAt(slot));
+        buffer.putInt(offset + ArchiveRecord.FCST_DATE, series.fcstDateAt(slot));
+        buffer.putShort(offset + ArchiveRecord.PRESENT, (short) present);
+        buffer.putShort(offset + ArchiveRecord.VALID, (short) valid);
+        buffer.putShort(offset + ArchiveRecord.SLOT_INDEX, (short) slot);
+        buffer.putShort(offset + ArchiveRecord.SLOT_COUNT, (short) slots);
+    }
+
+    private static int recordOffset(int record) {
+        return SEGMENT_HEADER_BYTES + record * ArchiveRecord.BYTES;
+    }
+
+    private static long packKey(ForecastKey key) {
+        return packKey(Integer.parseInt(key.baseDate()), Integer.parseInt(key.baseTime()), key.nx(), key.ny());
+    }
+
+    /**
+     * (발표일자, 발표시각, nx, ny)를 0이 아닌 long 하나로 묶는다.
+     * 발표일자 27비트, 발표시각 12비트, nx와 ny 각 8비트를 사용한다.
+     */
+    private static long packKey(int baseDate, int baseTime, int nx, int ny) {
+        if (baseDate <= 0 || baseDate >= 1 << 27 || baseTime < 0 || baseTime >= 1 << 12
+                || nx < 0 || nx > 0xFF || ny < 0 || ny > 0xFF) {
+            throw new IllegalArgumentException("아카이브에 담을 수 없는 키입니다 : "
+                    + baseDate + " " + baseTime + " " + nx + " " + ny);
+        }
+        return (long) baseDate << 28 | (long) baseTime << 16 | (long) nx << 8 | ny;
+    }
+}
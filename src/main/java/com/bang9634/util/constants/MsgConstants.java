@@ -26,6 +26,9 @@ public class MsgConstants {
     public static final String MSG_AUTH_FAIL = "인증 실패";
     public static final String MSG_MISSING_VALUE = "데이터 누락";
     public static final String MSG_KEEP_LOGIN = "로그인 유지";
+    public static final String MSG_WEATHER_LOADING = "날씨 정보를 불러오는 중";
+    public static final String MSG_WEATHER_LOAD_FAIL = "날씨 정보를 불러오지 못했습니다.\n잠시 후 다시 선택해 주세요.";
+    public static final String MSG_SEARCH_ADDRESS = "주소 검색 (예: 종로 ㅊㅅ) 후 Enter";
 
     
 }
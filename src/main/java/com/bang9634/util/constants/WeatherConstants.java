@@ -12,12 +12,27 @@ public class WeatherConstants {
     public static final String LABEL_FCST_DATE = "예보일자";
     public static final String LABEL_FCST_TIME = "예보시각";
 
-    /** 기기의 현재 LocalTime을 상수로 정의한다. 프로그램 실행 시 정의되어 고정된다. */
-    public static final String BASE_DATE = java.time.LocalDate.now()
-        .format(java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd"));
+    /** 첫 화면에 표시할 기본 지역(시/도)과 예보지점 좌표 */
+    public static final String DEFAULT_REGION = "서울특별시";
+    public static final int DEFAULT_NX = 60;
+    public static final int DEFAULT_NY = 127;
+
+    /** 단기예보 격자의 크기. nx는 1 ~ 149, ny는 1 ~ 253 범위이다. */
+    public static final int GRID_NX_MAX = 149;
+    public static final int GRID_NY_MAX = 253;
+
+    /** 기상청 발표 시각의 기준 시간대 */
+    public static final java.time.ZoneId KMA_ZONE = java.time.ZoneId.of("Asia/Seoul");
+
+    /** 단기예보 발표 간격(시간). 0200부터 3시간 간격으로 1일 8회 발표된다. */
+    public static final int ANNOUNCEMENT_INTERVAL_HOURS = 3;
+
+    /** 발표 시각부터 API에서 해당 발표 자료를 조회할 수 있을 때까지의 지연(분) */
+    public static final int PUBLICATION_DELAY_MINUTES = 10;
 
     /** 
-     * TODO: 추후 baseTime을 선택할 수 있는 기능 추후 추가
+     * 전체 예보 기간을 조회할 때 한 페이지에 요청할 결과 수.
+     * 한 발표시각의 단기예보는 최대 약 1000건이므로 대부분 한 번의 요청으로 모두 받는다.
      */
-    public static final String BASE_TIME = "0500";
+    public static final int FULL_HORIZON_NUM_OF_ROWS = 1000;
 }
@@ -1,13 +1,20 @@
 package com.bang9634.util.mapper;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map; // Map을 사용
 
+import com.bang9634.model.FcstCategory;
 import com.bang9634.model.Item;
 
 /**
  * FcstCodeMapper 클래스는 기상예보 데이터의 카테고리 코드와 해당 값을 매핑하는 상수들을 정의한다.
  * <p>
  * 이 클래스는 기상예보 데이터의 카테고리 코드와 해당 값을 일관되게 관리하기 위해 사용된다.
+ * <p>
+ * 파서가 item마다 호출하는 변환은 {@link #decode(FcstCategory, String)}를 사용한다.
+ * 카테고리 ordinal로 찾는 코드값 테이블과 코드값을 인덱스로 하는 표시 문자열 배열을 사용하므로,
+ * 문자열 비교나 Integer.parseInt, 박싱된 Map 조회 없이 배열 조회만으로 변환한다.
  * 
  * TODO: JSON과 같은 외부파일로 만들어 관리. 상수들도 properties 파일로 관리하기.
  * 
@@ -18,23 +25,9 @@ public class FcstCodeMapper {
      * 기상예보 데이터의 카테고리 코드와 해당 값을 매핑하는 테이블.
      * <p>
      * 이 테이블은 기상예보 데이터의 카테고리 코드와 해당 값을 일관되게 관리하기 위해 사용된다.
+     * 표시 이름은 {@link FcstCategory#label()}에서 가져온다.
      */
-    public static final Map<String, String> CATEGORY_CODE_MAP = Map.ofEntries(
-        Map.entry("POP", "강수확률(%)"),
-        Map.entry("PTY", "강수형태"), // 값의 매핑 테이블 존재
-        Map.entry("PCP", "1시간 강수량(범주:1mm)"),
-        Map.entry("REH", "습도(%)"),
-        Map.entry("SNO", "1시간 신적설(범주:1cm)"),
-        Map.entry("SKY", "하늘상태"), // 값의 매핑 테이블 존재
-        Map.entry("TMP", "1시간 기온(°C)"),
-        Map.entry("TMN", "일 최저기온(°C)"),
-        Map.entry("TMX", "일 최고기온(°C)"),
-        Map.entry("UUU", "풍속(동서성분)(m/s)"),
-        Map.entry("VVV", "풍속(남북성분)(m/s)"),
-        Map.entry("WAV", "파고(M)"),
-        Map.entry("VEC", "풍향(deg)"),
-        Map.entry("WSD", "풍속(m/s)")
-    );
+    public static final Map<String, String> CATEGORY_CODE_MAP = buildCategoryCodeMap();
 
     /**
      * PTY(강수형태) 코드값 매핑 테이블
@@ -60,6 +53,18 @@ public class FcstCodeMapper {
         Map.entry(4, "흐림")
     );
 
+    /**
+     * [카테고리 ordinal][코드값] 표시 문자열 테이블.
+     * <p>
+     * 코드값 매핑 테이블이 있는 카테고리(PTY, SKY)만 배열을 가지며, 나머지는 null이다.
+     */
+    private static final String[][] CODE_LABELS = new String[FcstCategory.count()][];
+
+    static {
+        CODE_LABELS[FcstCategory.PTY.ordinal()] = toTable(PTY_CODE_MAP);
+        CODE_LABELS[FcstCategory.SKY.ordinal()] = toTable(SKY_CODE_MAP);
+    }
+
     /**
      * 하위 매핑 테이블 값을 반환한다.
      * <p>
@@ -76,13 +81,95 @@ public class FcstCodeMapper {
      *          item의 category가 PTY 또는 SKY가 아닌 경우, fcstValue 값을 그대로 반환한다. 
      */
     public static String getSubMappingTableValue(Item item) {
-        String subMappingTableCode = item.getCategory();
-        if (subMappingTableCode.equals("PTY")) {
-            return PTY_CODE_MAP.get(Integer.parseInt(item.getFcstValue()));
+        return getSubMappingTableValue(item.getCategory(), item.getFcstValue());
+    }
+
+    /**
+     * 카테고리 코드와 예보 값으로 하위 매핑 테이블 값을 반환한다.
+     * <p>
+     * Item 객체를 만들지 않고 파서가 읽은 값을 바로 변환할 때 사용한다.
+     * 
+     * @param   category
+     *          카테고리 코드
+     * @param   fcstValue
+     *          예보 값
+     * @return  category가 PTY 또는 SKY인 경우 매핑 테이블의 값, 그 외에는 fcstValue 값을 그대로 반환한다.
+     */
+    public static String getSubMappingTableValue(String category, String fcstValue) {
+        FcstCategory fcstCategory = FcstCategory.fromCode(category);
+        return fcstCategory != null ? decode(fcstCategory, fcstValue) : fcstValue;
+    }
+
+    /**
+     * 카테고리와 예보 값으로 화면에 표시할 값을 반환한다.
+     * <p>
+     * 코드값 매핑 테이블이 있는 카테고리는 한 자리 코드를 문자로 바로 읽어 배열에서 찾는다.
+     * 
+     * @param   category
+     *          카테고리
+     * @param   fcstValue
+     *          예보 값
+     * @return  category가 PTY 또는 SKY인 경우 매핑 테이블의 값(없는 코드이면 null), 그 외에는 fcstValue 값을 그대로 반환한다.
+     */
+    public static String decode(FcstCategory category, String fcstValue) {
+        String[] labels = CODE_LABELS[category.ordinal()];
+        if (labels == null) return fcstValue;
+        return lookup(labels, parseCode(fcstValue));
+    }
+
+    /**
+     * 카테고리와 코드값으로 표시 문자열을 반환한다.
+     * 
+     * @param   category
+     *          카테고리 (PTY, SKY)
+     * @param   code
+     *          코드값
+     * @return  매핑 테이블의 값, 매핑 테이블이 없는 카테고리이거나 없는 코드이면 null
+     */
+    public static String decode(FcstCategory category, int code) {
+        String[] labels = CODE_LABELS[category.ordinal()];
+        return labels != null ? lookup(labels, code) : null;
+    }
+
+    /**
+     * 코드값 문자열을 정수로 변환한다. 응답의 코드값은 한 자리이므로 문자를 바로 읽는다.
+     * 
+     * @param   fcstValue
+     *          코드값 문자열
+     * @return  코드값
+     * @throws  NumberFormatException
+     *          정수가 아닌 경우
+     */
+    public static int parseCode(String fcstValue) {
+        if (fcstValue.length() == 1) {
+            char ch = fcstValue.charAt(0);
+            if (ch >= '0' && ch <= '9') return ch - '0';
+        }
+        return Integer.parseInt(fcstValue);
+    }
+
+    private static String lookup(String[] labels, int code) {
+        return code >= 0 && code < labels.length ? labels[code] : null;
+    }
+
+    /**
+     * 코드값 -> 표시 문자열 Map을 코드값을 인덱스로 하는 배열로 변환한다.
+     */
+    private static String[] toTable(Map<Integer, String> codeMap) {
+        int max = Collections.max(codeMap.keySet());
+        String[] table = new String[max + 1];
+        codeMap.forEach((code, label) -> table[code] = label);
+        return table;
+    }
+
+    /**
+     * FcstCategory의 선언 순서대로 카테고리 코드 -> 표시 이름 Map을 만든다.
+     */
+    private static Map<String, String> buildCategoryCodeMap() {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (FcstCategory category : FcstCategory.values()) {
+            map.put(category.name(), category.label());
         }
-        if (subMappingTableCode.equals("SKY")) {
-            return SKY_CODE_MAP.get(Integer.parseInt(item.getFcstValue()));
-        } 
-        return item.getFcstValue();
+        return Collections.unmodifiableMap(map);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,395 @@
+package com.bang9634.util.reader;
+
+import com.bang9634.model.GridCell;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 시/도, 시/군/구, 동/읍/면 이름을 검색하는 메모리 색인 클래스.
+ * <p>
+ * 검색어는 공백으로 나눈 토큰마다 주소의 한 단계 이름과 비교하며, 모든 토큰이 일치한 주소를 점수 순으로 반환한다.
+ * 토큰은 다음과 같이 일치할 수 있다.
+ * <ul>
+ *   <li>완성된 음절 - 같은 음절과 일치한다. ("창신" -> 창신제1동)</li>
+ *   <li>자음(초성) - 그 초성으로 시작하는 음절과 일치한다. ("ㅊㅅ" -> 창신동, "종ㄹ" -> 종로구)</li>
+ *   <li>토큰의 마지막 음절에 받침이 없으면 같은 초성, 중성의 받침 있는 음절과도 일치하여, 입력 중인 글자도 찾는다.
+ *       ("창시" -> 창신동)</li>
+ * </ul>
+ * 이름의 앞부분과 일치하면 가장 높은 점수를, 중간 부분과 일치하면 그보다 낮은 점수를, 글자가 순서대로만 나타나면
+ * (예: "창신동" -> 창신제1동) 가장 낮은 점수를 준다. 자음이나 입력 중인 음절로 일치하면 같은 위치의 완성된 음절
+ * 일치보다 조금 낮게 평가하며, 주소의 가장 아래 단계 이름과 일치한 주소를 그 하위 주소보다 먼저 반환한다.
+ * <p>
+ * 후보는 이름마다 초성으로 바꾼 문자열에 대한 1글자(unigram) 역색인에서 찾는다. 검색어의 모든 초성을 포함하는
+ * 이름만 실제로 비교하므로, 전체 이름을 순회하지 않는다. 생성 후에는 변경되지 않아 여러 스레드에서 동시에 사용할 수 있으며,
+ * Swing에 의존하지 않으므로 화면 없이도 사용할 수 있다.
+ * <p>
+ * 사용 예시:
+ * <pre>
+ *     AddressSearchIndex index = GridCoordinateCatalog.getInstance().getSearchIndex();
+ *     for (AddressSearchIndex.Result result : index.search("ㅊㅅ", 10)) {
+ *         System.out.println(result.address() + " " + result.cell());
+ *     }
+ * </pre>
+ *
+ * @see GridCoordinateCatalog#getSearchIndex()
+ * @author bangdeokjae
+ */
+public class AddressSearchIndex {
+    /** 초성 순서의 호환용 자모 */
+    private static final char[] CHOSEONG = {
+        'ㄱ', 'ㄲ', 'ㄴ', 'ㄷ', 'ㄸ', 'ㄹ', 'ㅁ', 'ㅂ', 'ㅃ', 'ㅅ', 'ㅆ', 'ㅇ', 'ㅈ', 'ㅉ', 'ㅊ', 'ㅋ', 'ㅌ', 'ㅍ', 'ㅎ'
+    };
+    private static final char HANGUL_BEGIN = '가';
+    private static final char HANGUL_END = '힣';
+    /** 초성 하나에 해당하는 음절 수 (중성 21 * 종성 28) */
+    private static final int SYLLABLES_PER_CHOSEONG = 21 * 28;
+    private static final int JONGSEONG_COUNT = 28;
+
+    /** 일치 종류별 점수 */
+    private static final int SCORE_EXACT = 100;
+    private static final int SCORE_PREFIX = 80;
+    private static final int SCORE_SUBSTRING = 50;
+    private static final int SCORE_SUBSEQUENCE = 20;
+    /** 자음이나 입력 중인 음절로 일치한 경우 감점 */
+    private static final int PENALTY_JAMO = 10;
+    /** 주소의 가장 아래 단계 이름과 일치한 경우 가산점 */
+    private static final int BONUS_DEEPEST = 30;
+    /** 정렬 키에서 점수가 차지하는 최댓값 (23비트) */
+    private static final int SCORE_KEY_MAX = 0x7FFFFF;
+
+    /**
+     * 검색 결과.
+     *
+     * @param   region
+     *          시/도 이름
+     * @param   city
+     *          시/군/구 이름, 시/도 자체이면 ""
+     * @param   street
+     *          동/읍/면 이름, 시/군/구 자체이면 ""
+     * @param   cell
+     *          예보 격자
+     * @param   score
+     *          일치 점수 (높을수록 가깝다)
+     */
+    public record Result(String region, String city, String street, GridCell cell, int score) {
+
+        /** @return  "시/도 시/군/구 동/읍/면" 형태의 주소 (빈 단계는 생략) */
+        public String address() {
+            return join(region, city, street);
+        }
+    }
+
+    /** 서로 다른 이름. 이름 번호로 참조한다. */
+    private final String[] names;
+    /** 비교용으로 정규화한 이름 */
+    private final char[][] nameChars;
+    /** 초성 -> 그 초성을 포함한 이름 번호 목록 (오름차순) */
+    private final Map<Character, int[]> postings;
+    /** 이름 번호 -> 그 이름을 어느 단계에든 포함한 주소 번호 목록 (오름차순) */
+    private final int[][] nameAddresses;
+
+    /** 주소별 단계 이름 번호. 빈 단계는 -1이다. [주소][0: 시/도, 1: 시/군/구, 2: 동/읍/면] */
+    private final int[][] addressNames;
+    /** 주소별 가장 아래 단계 (0, 1, 2) */
+    private final int[] addressDepth;
+    private final String[] addressText;
+    private final GridCell[] addressCells;
+
+    /**
+     * 지역 좌표 트리로 검색 색인을 만든다.
+     *
+     * @param   tree
+     *          지역(시/도) -> 시/군/구 -> 동/읍/면 -> 좌표 트리.
+     *          {@link GridCoordinateReader#getAddressCoordTree()}와 같은 형식이다.
+     */
+    public AddressSearchIndex(Map<String, Map<String, Map<String, int[]>>> tree) {
+        Map<String, Integer> nameIds = new HashMap<>();
+        List<String> nameList = new ArrayList<>();
+        List<int[]> addressNameList = new ArrayList<>();
+        List<String> addressTextList = new ArrayList<>();
+        List<GridCell> cellList = new ArrayList<>();
+
+        for (Map.Entry<String, Map<String, Map<String, int[]>>> region : tree.entrySet()) {
+            for (Map.Entry<String, Map<String, int[]>> city : region.getValue().entrySet()) {
+                for (Map.Entry<String, int[]> street : city.getValue().entrySet()) {
+                    String[] parts = {region.getKey().trim(), city.getKey().trim(), street.getKey().trim()};
+                    int[] ids = new int[parts.length];
+                    for (int level = 0; level < parts.length; level++) {
+                        ids[level] = parts[level].isEmpty() ? -1 : nameIds.computeIfAbsent(parts[level], name -> {
+                            nameList.add(name);
+                            return nameList.size() - 1;
+                        });
+                    }
+                    addressNameList.add(ids);
+                    addressTextList.add(join(parts[0], parts[1], parts[2]));
+                    cellList.add(GridCell.of(street.getValue()));
+                }
+            }
+        }
+
+        this.names = nameList.toArray(new String[0]);
+        this.nameChars = new char[names.length][];
+        Map<Character, List<Integer>> postingLists = new HashMap<>();
+        for (int n = 0; n < names.length; n++) {
+            nameChars[n] = normalize(names[n]);
+            char previous = 0;
+            char[] initials = initials(nameChars[n]);
+            Arrays.sort(initials);
+            for (char initial : initials) {
+                if (initial != previous) postingLists.computeIfAbsent(initial, c -> new ArrayList<>()).add(n);
+                previous = initial;
+            }
+        }
+        this.postings = new HashMap<>();
+        postingLists.forEach((initial, list) -> postings.put(initial, toArray(list)));
+
+        int addressCount = addressNameList.size();
+        this.addressNames = addressNameList.toArray(new int[0][]);
+        this.addressText = addressTextList.toArray(new String[0]);
+        this.addressCells = cellList.toArray(new GridCell[0]);
+        this.addressDepth = new int[addressCount];
+        List<List<Integer>> nameAddressLists = new ArrayList<>(names.length);
+        for (int n = 0; n < names.length; n++) nameAddressLists.add(new ArrayList<>());
+        for (int a = 0; a < addressCount; a++) {
+            for (int level = 0; level < 3; level++) {
+                int name = addressNames[a][level];
+                if (name < 0) continue;
+                addressDepth[a] = level;
+                List<Integer> list = nameAddressLists.get(name);
+                if (list.isEmpty() || list.get(list.size() - 1) != a) list.add(a);
+            }
+        }
+        this.nameAddresses = new int[names.length][];
+        for (int n = 0; n < names.length; n++) {
+            nameAddresses[n] = toArray(nameAddressLists.get(n));
+        }
+    }
+
+    /** @return  색인된 주소 수 */
+    public int size() {
+        return addressText.length;
+    }
+
+    /**
+     * 검색어와 일치하는 주소를 점수가 높은 순서로 반환한다.
+     * <p>
+     * 점수가 같으면 주소가 짧은 순서, 그다음 트리 순서를 따른다.
+     *
+     * @param   query
+     *          검색어. 공백으로 나눈 토큰이 모두 주소의 어느 단계와 일치해야 한다.
+     * @param   limit
+     *          반환할 최대 결과 수
+     * @return  검색 결과 목록, 검색어가 비어 있으면 빈 목록
+     */
+    public List<Result> search(String query, int limit) {
+        if (query == null || limit <= 0) return new ArrayList<>();
+        String[] tokens = query.trim().split("\\s+");
+        if (tokens[0].isEmpty()) return new ArrayList<>();
+
+        /** 토큰별 이름 점수. 일치하지 않는 이름은 0이다. */
+        int[][] tokenScores = new int[tokens.length][];
+        int narrowest = -1;
+        int narrowestCount = Integer.MAX_VALUE;
+        for (int t = 0; t < tokens.length; t++) {
+            tokenScores[t] = new int[names.length];
+            int matched = matchNames(normalize(tokens[t]), tokenScores[t]);
+            if (matched == 0) return new ArrayList<>();
+            if (matched < narrowestCount) {
+                narrowestCount = matched;
+                narrowest = t;
+            }
+        }
+
+        /** 가장 적은 이름과 일치한 토큰의 주소만 후보로 삼고, 나머지 토큰이 모두 일치하는지 확인한다. */
+        boolean[] visited = new boolean[addressText.length];
+        long[] ranked = new long[16];
+        int count = 0;
+        int[] scores = tokenScores[narrowest];
+        for (int n = 0; n < names.length; n++) {
+            if (scores[n] == 0) continue;
+            for (int a : nameAddresses[n]) {
+                if (visited[a]) continue;
+                visited[a] = true;
+                int score = scoreAddress(a, tokenScores);
+                if (score <= 0) continue;
+                if (count == ranked.length) ranked = Arrays.copyOf(ranked, count * 2);
+                /** 점수 내림차순, 주소 길이 오름차순, 주소 번호 오름차순으로 정렬되는 키 */
+                ranked[count++] = (long) (SCORE_KEY_MAX - Math.min(score, SCORE_KEY_MAX)) << 40
+                    | (long) Math.min(addressText[a].length(), 0xFFFFF) << 20 | a;
+            }
+        }
+        Arrays.sort(ranked, 0, count);
+
+        int size = Math.min(count, limit);
+        List<Result> results = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int a = (int) (ranked[i] & 0xFFFFF);
+            int score = SCORE_KEY_MAX - (int) (ranked[i] >>> 40);
+            String[] parts = new String[3];
+            for (int level = 0; level < 3; level++) {
+                parts[level] = addressNames[a][level] >= 0 ? names[addressNames[a][level]] : "";
+            }
+            results.add(new Result(parts[0], parts[1], parts[2], addressCells[a], score));
+        }
+        return results;
+    }
+
+    /**
+     * 토큰과 일치하는 이름의 점수를 scores에 기록한다.
+     *
+     * @return  일치한 이름 수
+     */
+    private int matchNames(char[] token, int[] scores) {
+        /** 토큰의 모든 초성을 포함하는 이름만 비교한다. 가장 짧은 역색인 목록을 기준으로 나머지를 확인한다. */
+        char[] initials = initials(token);
+        int[] shortest = null;
+        for (char initial : initials) {
+            int[] list = postings.get(initial);
+            if (list == null) return 0;
+            if (shortest == null || list.length < shortest.length) shortest = list;
+        }
+        int matched = 0;
+        for (int n : shortest) {
+            int score = score(token, nameChars[n]);
+            if (score > 0) {
+                scores[n] = score;
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    /**
+     * 모든 토큰이 주소의 어느 단계와 일치하면 점수의 합을 반환한다.
+     * 가장 아래 단계 이름과 일치한 토큰이 있으면 가산점을 더한다.
+     *
+     * @return  주소 점수, 일치하지 않는 토큰이 있으면 0
+     */
+    private int scoreAddress(int address, int[][] tokenScores) {
+        int[] levels = addressNames[address];
+        int deepest = levels[addressDepth[address]];
+        int total = 0;
+        boolean deepestMatched = false;
+        for (int[] scores : tokenScores) {
+            int best = 0;
+            for (int name : levels) {
+                if (name >= 0 && scores[name] > best) best = scores[name];
+            }
+            if (best == 0) return 0;
+            total += best;
+            if (scores[deepest] > 0) deepestMatched = true;
+        }
+        return deepestMatched ? total + BONUS_DEEPEST : total;
+    }
+
+    /**
+     * 토큰과 이름의 일치 점수를 계산한다.
+     *
+     * @return  일치 점수, 일치하지 않으면 0
+     */
+    static int score(char[] token, char[] name) {
+        if (token.length == 0 || token.length > name.length) return 0;
+        int best = 0;
+        for (int start = 0; start + token.length <= name.length; start++) {
+            int penalty = matchAt(token, name, start);
+            if (penalty < 0) continue;
+            int base = start == 0 ? (token.length == name.length ? SCORE_EXACT : SCORE_PREFIX) : SCORE_SUBSTRING;
+            best = Math.max(best, base - penalty);
+            if (start == 0) break;
+        }
+        if (best > 0) return best;
+
+        /** 글자가 순서대로만 나타나는지 확인한다. */
+        int penalty = 0;
+        int i = 0;
+        for (int j = 0; i < token.length && j < name.length; j++) {
+            int match = charMatch(token[i], name[j], i == token.length - 1);
+            if (match >= 0) {
+                if (match > 0) penalty = PENALTY_JAMO;
+                i++;
+            }
+        }
+        return i == token.length ? SCORE_SUBSEQUENCE - penalty : 0;
+    }
+
+    /**
+     * 이름의 start 위치부터 토큰이 연속으로 일치하는지 확인한다.
+     *
+     * @return  일치하면 감점(0 또는 PENALTY_JAMO), 일치하지 않으면 -1
+     */
+    private static int matchAt(char[] token, char[] name, int start) {
+        int penalty = 0;
+        for (int i = 0; i < token.length; i++) {
+            int match = charMatch(token[i], name[start + i], i == token.length - 1);
+            if (match < 0) return -1;
+            if (match > 0) penalty = PENALTY_JAMO;
+        }
+        return penalty;
+    }
+
+    /**
+     * 검색어의 한 글자가 이름의 한 글자와 일치하는지 확인한다.
+     *
+     * @param   q
+     *          검색어 글자
+     * @param   c
+     *          이름 글자
+     * @param   last
+     *          검색어 토큰의 마지막 글자인지 여부
+     * @return  같은 글자이면 0, 초성이나 입력 중인 음절로 일치하면 1, 일치하지 않으면 -1
+     */
+    private static int charMatch(char q, char c, boolean last) {
+        if (q == c) return 0;
+        if (!isSyllable(c)) return -1;
+        if (isChoseong(q)) return initial(c) == q ? 1 : -1;
+        if (last && isSyllable(q) && (q - HANGUL_BEGIN) % JONGSEONG_COUNT == 0) {
+            /** 받침 없는 마지막 음절은 같은 초성, 중성의 받침 있는 음절과도 일치한다. (입력 중인 글자) */
+            return (c - HANGUL_BEGIN) / JONGSEONG_COUNT == (q - HANGUL_BEGIN) / JONGSEONG_COUNT ? 1 : -1;
+        }
+        return -1;
+    }
+
+    /** 음절은 초성 자모로, 나머지 글자는 그대로 바꾼 배열을 반환한다. */
+    private static char[] initials(char[] text) {
+        char[] initials = new char[text.length];
+        for (int i = 0; i < text.length; i++) {
+            initials[i] = initial(text[i]);
+        }
+        return initials;
+    }
+
+    private static char initial(char c) {
+        return isSyllable(c) ? CHOSEONG[(c - HANGUL_BEGIN) / SYLLABLES_PER_CHOSEONG] : c;
+    }
+
+    private static boolean isSyllable(char c) {
+        return c >= HANGUL_BEGIN && c <= HANGUL_END;
+    }
+
+    private static boolean isChoseong(char c) {
+        return Arrays.binarySearch(CHOSEONG, c) >= 0;
+    }
+
+    /** 공백을 제거하고 영문을 소문자로 바꾼다. */
+    private static char[] normalize(String text) {
+        return text.replaceAll("\\s+", "").toLowerCase(Locale.ROOT).toCharArray();
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) array[i] = list.get(i);
+        return array;
+    }
+
+    private static String join(String region, String city, String street) {
+        StringBuilder sb = new StringBuilder(region);
+        if (!city.isEmpty()) sb.append(' ').append(city);
+        if (!street.isEmpty()) sb.append(' ').append(street);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,404 @@
+package com.bang9634.util.reader;
+
+import com.bang9634.model.GridCell;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 지역 좌표 트리를 필요할 때만 불러오는 지연 로딩(lazy) 카탈로그 클래스.
+ * <p>
+ * {@link GridCoordinateReader#getAddressCoordTree()}는 3단계 트리 전체를 만들지만,
+ * 사용자는 한 번에 하나의 시/도만 탐색한다. 이 클래스는 시/도 목록만 즉시 불러오고,
+ * 각 시/도의 시/군/구, 동/읍/면 하위 트리는 처음 접근할 때 {@link GridCoordinateIndex}에서 만들어 보관한다.
+ * 전국 격자 목록, 격자별 주소, 검색 색인처럼 모든 시/도를 순회하는 작업은 하위 트리를 만들지 않고
+ * 메모리 맵 인덱스를 직접 읽으므로, 이런 작업 뒤에도 전국 트리가 힙에 남지 않는다.
+ * <p>
+ * 좌표 인덱스가 없으면 {@link GridCoordinateReader#getAddressCoordTree()}로 대체한다.
+ * <p>
+ * 사용 예시:
+ * <pre>
+ *     GridCoordinateCatalog catalog = GridCoordinateCatalog.getInstance();
+ *     catalog.prefetch("서울특별시");
+ *     int[] coord = catalog.getCoordinate("서울특별시", "종로구", "창신제1동");
+ * </pre>
+ *
+ * @see GridCoordinateIndex
+ * @author bangdeokjae
+ */
+public class GridCoordinateCatalog {
+    /** 좌표 인덱스. 인덱스가 없어 엑셀 트리로 대체한 경우 null이다. */
+    private final GridCoordinateIndex index;
+    /** 시/도 이름 목록 (인덱스 순서) */
+    private final String[] regions;
+    /** 시/도 이름 -> 인덱스 상의 시/도 번호 */
+    private final Map<String, Integer> regionIds = new LinkedHashMap<>();
+    /** 한 번 만들어진 시/도별 하위 트리 (시/군/구 -> 동/읍/면 -> 좌표) */
+    private final Map<String, Map<String, Map<String, int[]>>> loadedRegions = new ConcurrentHashMap<>();
+    /** 격자 -> 해당 격자에 속한 주소 목록 역색인. 처음 조회할 때 만들어진다. */
+    private volatile Map<GridCell, List<String>> cellAddresses;
+    /** 전국 격자의 공간 인덱스. 처음 조회할 때 만들어진다. */
+    private volatile GridSpatialIndex spatialIndex;
+    /** 전국 주소 이름의 검색 색인. 처음 검색할 때 만들어진다. */
+    private volatile AddressSearchIndex searchIndex;
+
+    /**
+     * 지연 초기화 홀더. getInstance()가 처음 호출될 때 카탈로그를 생성한다.
+     */
+    private static class Holder {
+        private static final GridCoordinateCatalog INSTANCE = new GridCoordinateCatalog(GridCoordinateIndex.load());
+    }
+
+    /**
+     * 카탈로그 생성자.
+     * <p>
+     * 시/도 목록만 즉시 읽어 둔다.
+     *
+     * @param   index
+     *          좌표 인덱스, 없으면 null
+     */
+    GridCoordinateCatalog(GridCoordinateIndex index) {
+        this.index = index;
+        if (index != null) {
+            this.regions = new String[index.regionCount()];
+            for (int r = 0; r < regions.length; r++) {
+                regions[r] = index.regionName(r);
+                regionIds.put(regions[r], r);
+            }
+        } else {
+            this.regions = GridCoordinateReader.getAddressCoordTree().keySet().toArray(new String[0]);
+        }
+    }
+
+    /**
+     * 애플리케이션 전역에서 공유하는 카탈로그를 반환한다.
+     *
+     * @return  GridCoordinateCatalog 싱글톤 객체
+     */
+    public static GridCoordinateCatalog getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * 시/도 이름 목록을 반환한다.
+     *
+     * @return  시/도 이름 배열 (복사본)
+     */
+    public String[] getRegions() {
+        return regions.clone();
+    }
+
+    /**
+     * 시/도의 하위 트리를 반환한다. 처음 접근하는 시/도라면 이 시점에 트리를 만든다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @return  시/군/구 -> 동/읍/면 -> 좌표 트리, 존재하지 않는 시/도이면 빈 Map
+     */
+    public Map<String, Map<String, int[]>> getRegion(String region) {
+        if (region == null) return Collections.emptyMap();
+        return loadedRegions.computeIfAbsent(region, this::loadRegion);
+    }
+
+    /**
+     * 시/도에 속한 시/군/구 이름 목록을 반환한다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @return  시/군/구 이름 배열
+     */
+    public String[] getCities(String region) {
+        return getRegion(region).keySet().toArray(new String[0]);
+    }
+
+    /**
+     * 시/군/구에 속한 동/읍/면 이름 목록을 반환한다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @param   city
+     *          시/군/구 이름
+     * @return  동/읍/면 이름 배열
+     */
+    public String[] getStreets(String region, String city) {
+        Map<String, int[]> streetMap = getRegion(region).get(city);
+        if (streetMap == null) return new String[0];
+        return streetMap.keySet().toArray(new String[0]);
+    }
+
+    /**
+     * 시/도에 속한 시/군/구 이름 목록을 복사하지 않고 반환한다.
+     * <p>
+     * 좌표 인덱스가 있으면 인덱스의 시/군/구 구간을 그대로 읽는 읽기 전용 List를 반환하므로,
+     * 하위 트리를 만들거나 이름을 배열로 복사하지 않는다. 콤보박스 모델처럼 목록 전체를 보여줄 때 사용한다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @return  읽기 전용 시/군/구 이름 목록, 존재하지 않는 시/도이면 빈 목록
+     */
+    public List<String> getCityList(String region) {
+        Integer r = region != null ? regionIds.get(region) : null;
+        if (index == null || r == null) return List.of(getCities(region));
+        return new IndexNameList(index::cityName, index.cityStart(r), index.cityEnd(r));
+    }
+
+    /**
+     * 시/군/구에 속한 동/읍/면 이름 목록을 복사하지 않고 반환한다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @param   city
+     *          시/군/구 이름
+     * @return  읽기 전용 동/읍/면 이름 목록, 존재하지 않는 지역이면 빈 목록
+     * @see #getCityList(String)
+     */
+    public List<String> getStreetList(String region, String city) {
+        Integer r = region != null ? regionIds.get(region) : null;
+        if (index == null || r == null) return List.of(getStreets(region, city));
+        for (int c = index.cityStart(r); c < index.cityEnd(r); c++) {
+            if (index.cityName(c).equals(city)) {
+                return new IndexNameList(index::streetName, index.streetStart(c), index.streetEnd(c));
+            }
+        }
+        return List.of();
+    }
+
+    /**
+     * 동/읍/면의 격자 좌표를 반환한다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @param   city
+     *          시/군/구 이름
+     * @param   street
+     *          동/읍/면 이름
+     * @return  [nx, ny] 배열, 존재하지 않는 지역이면 null
+     */
+    public int[] getCoordinate(String region, String city, String street) {
+        Map<String, int[]> streetMap = getRegion(region).get(city);
+        if (streetMap == null) return null;
+        return streetMap.get(street);
+    }
+
+    /**
+     * 시/도에 속한 서로 다른 격자 목록을 반환한다.
+     * <p>
+     * 여러 동/읍/면이 같은 격자를 공유하므로, 시/도 전체의 예보를 조회할 때 요청 수를 격자 수로 줄일 수 있다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @return  중복 없는 격자 목록 (처음 등장한 순서)
+     */
+    public List<GridCell> getCells(String region) {
+        LinkedHashSet<GridCell> cells = new LinkedHashSet<>();
+        forEachAddress(region, (city, street, nx, ny) -> cells.add(new GridCell(nx, ny)));
+        return new ArrayList<>(cells);
+    }
+
+    /**
+     * 전국의 서로 다른 격자 목록을 반환한다.
+     *
+     * @return  중복 없는 격자 목록 (처음 등장한 순서)
+     */
+    public List<GridCell> getAllCells() {
+        LinkedHashSet<GridCell> cells = new LinkedHashSet<>();
+        for (String region : regions) {
+            cells.addAll(getCells(region));
+        }
+        return new ArrayList<>(cells);
+    }
+
+    /**
+     * 격자에 속한 모든 주소를 반환한다.
+     * <p>
+     * 같은 격자의 주소들은 예보가 같으므로, 한 번의 조회 결과를 공유할 수 있다.
+     * 역색인은 처음 호출될 때 전체 좌표를 한 번 순회하여 만든다.
+     *
+     * @param   cell
+     *          조회할 격자
+     * @return  "시/도 시/군/구 동/읍/면" 형태의 주소 목록, 해당 격자에 주소가 없으면 빈 목록
+     */
+    public List<String> getAddressesInCell(GridCell cell) {
+        Map<GridCell, List<String>> addresses = cellAddresses;
+        if (addresses == null) {
+            synchronized (this) {
+                addresses = cellAddresses;
+                if (addresses == null) {
+                    addresses = buildCellAddresses();
+                    cellAddresses = addresses;
+                }
+            }
+        }
+        return addresses.getOrDefault(cell, Collections.emptyList());
+    }
+
+    /**
+     * 전국 격자의 공간 인덱스를 반환한다.
+     * <p>
+     * 센서 위치나 지도 클릭처럼 임의의 (nx, ny)를 주소가 있는 가장 가까운 격자로 바꾸거나,
+     * 주변 격자를 찾을 때 사용한다. 인덱스는 처음 호출될 때 {@link #getAllCells()}로 만든다.
+     *
+     * @return  GridSpatialIndex 객체
+     */
+    public GridSpatialIndex getSpatialIndex() {
+        GridSpatialIndex result = spatialIndex;
+        if (result == null) {
+            synchronized (this) {
+                result = spatialIndex;
+                if (result == null) {
+                    result = new GridSpatialIndex(getAllCells());
+                    spatialIndex = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 전국 시/도, 시/군/구, 동/읍/면 이름의 검색 색인을 반환한다.
+     * <p>
+     * 색인은 처음 호출될 때 전국 트리로 한 번 만든다. 좌표 인덱스가 있으면 그 자리에서 복원한 트리를 색인 생성에만
+     * 사용하고 보관하지 않으므로, 색인을 만든 뒤에도 시/도별 하위 트리는 늘어나지 않는다.
+     *
+     * @return  AddressSearchIndex 객체
+     */
+    public AddressSearchIndex getSearchIndex() {
+        AddressSearchIndex result = searchIndex;
+        if (result == null) {
+            synchronized (this) {
+                result = searchIndex;
+                if (result == null) {
+                    result = new AddressSearchIndex(index != null ? index.toTree() : GridCoordinateReader.getAddressCoordTree());
+                    searchIndex = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 시/도의 하위 트리를 백그라운드 스레드에서 미리 만들어 둔다.
+     * <p>
+     * 첫 화면에서 사용할 기본 시/도를 네트워크 통신 등과 병행해 준비할 때 사용한다.
+     *
+     * @param   region
+     *          미리 불러올 시/도 이름
+     * @return  하위 트리 생성이 끝나면 완료되는 CompletableFuture
+     */
+    public CompletableFuture<Void> prefetch(String region) {
+        return CompletableFuture.runAsync(() -> getRegion(region));
+    }
+
+    /** 주소 하나를 전달받는 콜백 */
+    private interface AddressVisitor {
+        void visit(String city, String street, int nx, int ny);
+    }
+
+    /**
+     * 시/도에 속한 모든 주소를 순회한다.
+     * <p>
+     * 좌표 인덱스가 있으면 하위 트리를 만들지 않고 인덱스를 직접 읽는다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @param   visitor
+     *          주소마다 호출할 콜백
+     */
+    private void forEachAddress(String region, AddressVisitor visitor) {
+        if (index == null) {
+            for (Map.Entry<String, Map<String, int[]>> city : getRegion(region).entrySet()) {
+                for (Map.Entry<String, int[]> street : city.getValue().entrySet()) {
+                    visitor.visit(city.getKey(), street.getKey(), street.getValue()[0], street.getValue()[1]);
+                }
+            }
+            return;
+        }
+        Integer r = region != null ? regionIds.get(region) : null;
+        if (r == null) return;
+        for (int c = index.cityStart(r); c < index.cityEnd(r); c++) {
+            String city = index.cityName(c);
+            for (int s = index.streetStart(c); s < index.streetEnd(c); s++) {
+                visitor.visit(city, index.streetName(s), index.nx(s), index.ny(s));
+            }
+        }
+    }
+
+    /**
+     * 전체 좌표를 순회하여 격자 -> 주소 목록 역색인을 만든다.
+     *
+     * @return  읽기 전용 역색인
+     */
+    private Map<GridCell, List<String>> buildCellAddresses() {
+        Map<GridCell, List<String>> addresses = new HashMap<>();
+        for (String region : regions) {
+            forEachAddress(region, (city, street, nx, ny) -> {
+                String address = (region + " " + city + " " + street).trim();
+                addresses.computeIfAbsent(new GridCell(nx, ny), k -> new ArrayList<>()).add(address);
+            });
+        }
+        addresses.replaceAll((cell, list) -> Collections.unmodifiableList(list));
+        return addresses;
+    }
+
+    /**
+     * 좌표 인덱스에서 시/도 하나의 하위 트리를 만든다.
+     *
+     * @param   region
+     *          시/도 이름
+     * @return  읽기 전용 하위 트리
+     */
+    private Map<String, Map<String, int[]>> loadRegion(String region) {
+        if (index == null) {
+            Map<String, Map<String, int[]>> cityMap = GridCoordinateReader.getAddressCoordTree().get(region);
+            return cityMap != null ? Collections.unmodifiableMap(cityMap) : Collections.emptyMap();
+        }
+        Integer r = regionIds.get(region);
+        if (r == null) return Collections.emptyMap();
+
+        Map<String, Map<String, int[]>> cityMap = new LinkedHashMap<>();
+        for (int c = index.cityStart(r); c < index.cityEnd(r); c++) {
+            Map<String, int[]> streetMap = cityMap.computeIfAbsent(index.cityName(c), k -> new LinkedHashMap<>());
+            for (int s = index.streetStart(c); s < index.streetEnd(c); s++) {
+                streetMap.put(index.streetName(s), new int[]{index.nx(s), index.ny(s)});
+            }
+        }
+        return Collections.unmodifiableMap(cityMap);
+    }
+
+    /**
+     * 좌표 인덱스의 [start, end) 구간 이름을 읽는 읽기 전용 List.
+     * 이름 문자열은 인덱스가 한 번 디코딩한 뒤 재사용한다.
+     */
+    private static final class IndexNameList extends AbstractList<String> implements RandomAccess {
+        private final IntFunction<String> name;
+        private final int start;
+        private final int size;
+
+        IndexNameList(IntFunction<String> name, int start, int end) {
+            this.name = name;
+            this.start = start;
+            this.size = end - start;
+        }
+
+        @Override
+        public String get(int i) {
+            if (i < 0 || i >= size) throw new IndexOutOfBoundsException(i);
+            return name.apply(start + i);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
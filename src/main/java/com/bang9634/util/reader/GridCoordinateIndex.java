@@ -0,0 +1,333 @@
+package com.bang9634.util.reader;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * gridCoordinates.xlsx를 빌드 시점에 미리 변환해 둔 바이너리 좌표 인덱스 클래스.
+ * <p>
+ * 엑셀 파일을 Apache POI로 매번 파싱하는 대신, Maven 빌드 중 {@link GridCoordinateIndexGenerator}가
+ * 문자열 테이블과 int 배열로 압축한 gridCoordinates.idx 파일을 생성하고, 실행 시에는 이 파일을
+ * 메모리 맵(memory-mapped)으로 열어 필요한 값만 읽는다.
+ * <p>
+ * 파일 구조 (모든 정수는 big-endian int):
+ * <pre>
+ *   header      : MAGIC, VERSION, stringCount, blobLength, regionCount, cityCount, streetCount
+ *   strings     : stringOffsets[stringCount + 1], blob[blobLength] (UTF-8, 4바이트 정렬 패딩)
+ *   regions     : regionName[regionCount], regionCityStart[regionCount + 1]
+ *   cities      : cityName[cityCount], cityStreetStart[cityCount + 1]
+ *   streets     : streetName[streetCount], nx[streetCount], ny[streetCount]
+ * </pre>
+ * 지역(시/도) -> 시/군/구 -> 동/읍/면 계층은 시작 인덱스 배열로 표현된다.
+ * i번째 시/도의 시/군/구는 [regionCityStart[i], regionCityStart[i + 1]) 범위에 연속으로 저장된다.
+ *
+ * @see GridCoordinateReader
+ * @author bangdeokjae
+ */
+public class GridCoordinateIndex {
+    /** 클래스패스 상의 인덱스 리소스 경로 */
+    public static final String RESOURCE_NAME = "/gridCoordinates.idx";
+    /** 파일 식별자 ("GCI1") */
+    static final int MAGIC = 0x47434931;
+    /** 파일 포맷 버전 */
+    static final int VERSION = 1;
+    /** header 크기 (int 7개) */
+    private static final int HEADER_SIZE = 7 * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+    private final int stringCount;
+    private final int regionCount;
+    private final int cityCount;
+    private final int streetCount;
+
+    private final int stringOffsetsPos;
+    private final int blobPos;
+    private final int regionNamePos;
+    private final int regionCityStartPos;
+    private final int cityNamePos;
+    private final int cityStreetStartPos;
+    private final int streetNamePos;
+    private final int nxPos;
+    private final int nyPos;
+
+    /** 한 번 디코딩한 문자열을 보관하는 캐시. 같은 문자열은 같은 인스턴스를 공유한다. */
+    private final String[] stringCache;
+
+    /**
+     * 인덱스 버퍼를 받아 각 영역의 시작 위치를 계산한다.
+     *
+     * @param   buffer
+     *          인덱스 파일 전체를 담은 버퍼
+     * @throws  IOException
+     *          MAGIC 또는 VERSION이 일치하지 않을 경우 예외를 던진다.
+     */
+    private GridCoordinateIndex(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("지원하지 않는 좌표 인덱스 파일 형식입니다.");
+        }
+        this.stringCount = buffer.getInt(8);
+        int blobLength = buffer.getInt(12);
+        this.regionCount = buffer.getInt(16);
+        this.cityCount = buffer.getInt(20);
+        this.streetCount = buffer.getInt(24);
+
+        this.stringOffsetsPos = HEADER_SIZE;
+        this.blobPos = stringOffsetsPos + (stringCount + 1) * Integer.BYTES;
+        this.regionNamePos = blobPos + align(blobLength);
+        this.regionCityStartPos = regionNamePos + regionCount * Integer.BYTES;
+        this.cityNamePos = regionCityStartPos + (regionCount + 1) * Integer.BYTES;
+        this.cityStreetStartPos = cityNamePos + cityCount * Integer.BYTES;
+        this.streetNamePos = cityStreetStartPos + (cityCount + 1) * Integer.BYTES;
+        this.nxPos = streetNamePos + streetCount * Integer.BYTES;
+        this.nyPos = nxPos + streetCount * Integer.BYTES;
+        if (nyPos + streetCount * Integer.BYTES > buffer.limit()) {
+            throw new IOException("좌표 인덱스 파일이 손상되었습니다.");
+        }
+        this.stringCache = new String[stringCount];
+    }
+
+    /**
+     * 클래스패스에서 gridCoordinates.idx를 찾아 인덱스를 연다.
+     * <p>
+     * 리소스가 일반 파일이면 FileChannel로 메모리 맵하고, jar 내부에 있으면 힙 밖(direct) 버퍼로 복사한다.
+     * 리소스가 없거나 형식이 맞지 않으면 null을 반환하여 호출자가 엑셀 파싱으로 대체할 수 있게 한다.
+     *
+     * @return  열린 GridCoordinateIndex 객체, 사용할 수 없으면 null
+     */
+    public static GridCoordinateIndex load() {
+        URL url = GridCoordinateIndex.class.getResource(RESOURCE_NAME);
+        if (url == null) return null;
+        try {
+            if ("file".equals(url.getProtocol())) {
+                return open(Path.of(url.toURI()));
+            }
+            try (InputStream is = url.openStream()) {
+                byte[] bytes = is.readAllBytes();
+                ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+                direct.put(bytes).flip();
+                return new GridCoordinateIndex(direct);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * 파일 경로의 인덱스를 읽기 전용으로 메모리 맵하여 연다.
+     *
+     * @param   path
+     *          인덱스 파일 경로
+     * @return  열린 GridCoordinateIndex 객체
+     * @throws  IOException
+     *          파일을 열 수 없거나 형식이 맞지 않을 경우 예외를 던진다.
+     */
+    public static GridCoordinateIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new GridCoordinateIndex(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 지역 좌표 트리를 인덱스 파일 형식으로 기록한다.
+     * <p>
+     * 트리의 순회 순서(LinkedHashMap 삽입 순서)를 그대로 보존하며, 중복되는 이름은 문자열 테이블에 한 번만 저장한다.
+     *
+     * @param   tree
+     *          지역(시/도) -> 시/군/구 -> 동/읍/면 -> 좌표 트리
+     * @param   out
+     *          인덱스를 기록할 파일 경로
+     * @throws  IOException
+     *          파일 기록 중 오류가 발생할 경우 예외를 던진다.
+     */
+    public static void write(Map<String, Map<String, Map<String, int[]>>> tree, Path out) throws IOException {
+        Map<String, Integer> stringIds = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+
+        List<Integer> regionNames = new ArrayList<>();
+        List<Integer> regionCityStart = new ArrayList<>();
+        List<Integer> cityNames = new ArrayList<>();
+        List<Integer> cityStreetStart = new ArrayList<>();
+        List<Integer> streetNames = new ArrayList<>();
+        List<int[]> coords = new ArrayList<>();
+
+        for (Map.Entry<String, Map<String, Map<String, int[]>>> region : tree.entrySet()) {
+            regionNames.add(intern(region.getKey(), stringIds, strings));
+            regionCityStart.add(cityNames.size());
+            for (Map.Entry<String, Map<String, int[]>> city : region.getValue().entrySet()) {
+                cityNames.add(intern(city.getKey(), stringIds, strings));
+                cityStreetStart.add(streetNames.size());
+                for (Map.Entry<String, int[]> street : city.getValue().entrySet()) {
+                    streetNames.add(intern(street.getKey(), stringIds, strings));
+                    coords.add(street.getValue());
+                }
+            }
+        }
+        regionCityStart.add(cityNames.size());
+        cityStreetStart.add(streetNames.size());
+
+        int blobLength = 0;
+        for (byte[] s : strings) blobLength += s.length;
+
+        Files.createDirectories(out.toAbsolutePath().getParent());
+        try (OutputStream os = Files.newOutputStream(out);
+             DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(os))) {
+            dos.writeInt(MAGIC);
+            dos.writeInt(VERSION);
+            dos.writeInt(strings.size());
+            dos.writeInt(blobLength);
+            dos.writeInt(regionNames.size());
+            dos.writeInt(cityNames.size());
+            dos.writeInt(streetNames.size());
+
+            int offset = 0;
+            for (byte[] s : strings) {
+                dos.writeInt(offset);
+                offset += s.length;
+            }
+            dos.writeInt(offset);
+            for (byte[] s : strings) dos.write(s);
+            for (int i = blobLength; i < align(blobLength); i++) dos.writeByte(0);
+
+            for (int id : regionNames) dos.writeInt(id);
+            for (int start : regionCityStart) dos.writeInt(start);
+            for (int id : cityNames) dos.writeInt(id);
+            for (int start : cityStreetStart) dos.writeInt(start);
+            for (int id : streetNames) dos.writeInt(id);
+            for (int[] coord : coords) dos.writeInt(coord[0]);
+            for (int[] coord : coords) dos.writeInt(coord[1]);
+        }
+    }
+
+    /**
+     * 인덱스 전체를 GridCoordinateReader와 같은 Map 3단 중첩 트리로 복원한다.
+     *
+     * @return  지역 좌표 트리
+     */
+    public Map<String, Map<String, Map<String, int[]>>> toTree() {
+        Map<String, Map<String, Map<String, int[]>>> tree = new LinkedHashMap<>();
+        for (int r = 0; r < regionCount; r++) {
+            Map<String, Map<String, int[]>> cityMap = tree.computeIfAbsent(regionName(r), k -> new LinkedHashMap<>());
+            for (int c = cityStart(r); c < cityEnd(r); c++) {
+                Map<String, int[]> streetMap = cityMap.computeIfAbsent(cityName(c), k -> new LinkedHashMap<>());
+                for (int s = streetStart(c); s < streetEnd(c); s++) {
+                    streetMap.put(streetName(s), new int[]{nx(s), ny(s)});
+                }
+            }
+        }
+        return tree;
+    }
+
+    /** @return  시/도 개수 */
+    public int regionCount() {
+        return regionCount;
+    }
+
+    /** @return  전체 시/군/구 개수 */
+    public int cityCount() {
+        return cityCount;
+    }
+
+    /** @return  전체 동/읍/면 개수 */
+    public int streetCount() {
+        return streetCount;
+    }
+
+    /** @return  region번째 시/도 이름 */
+    public String regionName(int region) {
+        return string(buffer.getInt(regionNamePos + region * Integer.BYTES));
+    }
+
+    /** @return  region번째 시/도에 속한 첫 시/군/구 인덱스 */
+    public int cityStart(int region) {
+        return buffer.getInt(regionCityStartPos + region * Integer.BYTES);
+    }
+
+    /** @return  region번째 시/도에 속한 마지막 시/군/구 인덱스 + 1 */
+    public int cityEnd(int region) {
+        return buffer.getInt(regionCityStartPos + (region + 1) * Integer.BYTES);
+    }
+
+    /** @return  city번째 시/군/구 이름 */
+    public String cityName(int city) {
+        return string(buffer.getInt(cityNamePos + city * Integer.BYTES));
+    }
+
+    /** @return  city번째 시/군/구에 속한 첫 동/읍/면 인덱스 */
+    public int streetStart(int city) {
+        return buffer.getInt(cityStreetStartPos + city * Integer.BYTES);
+    }
+
+    /** @return  city번째 시/군/구에 속한 마지막 동/읍/면 인덱스 + 1 */
+    public int streetEnd(int city) {
+        return buffer.getInt(cityStreetStartPos + (city + 1) * Integer.BYTES);
+    }
+
+    /** @return  street번째 동/읍/면 이름 */
+    public String streetName(int street) {
+        return string(buffer.getInt(streetNamePos + street * Integer.BYTES));
+    }
+
+    /** @return  street번째 동/읍/면의 예보지점 X 좌표 */
+    public int nx(int street) {
+        return buffer.getInt(nxPos + street * Integer.BYTES);
+    }
+
+    /** @return  street번째 동/읍/면의 예보지점 Y 좌표 */
+    public int ny(int street) {
+        return buffer.getInt(nyPos + street * Integer.BYTES);
+    }
+
+    /**
+     * 문자열 테이블에서 id에 해당하는 문자열을 디코딩한다.
+     * <p>
+     * 한 번 디코딩한 문자열은 캐시에 보관하여 재사용한다.
+     * 캐시 갱신은 동기화하지 않지만, String은 불변이므로 여러 스레드가 동시에 디코딩해도 결과는 같다.
+     *
+     * @param   id
+     *          문자열 테이블 인덱스
+     * @return  디코딩된 문자열
+     */
+    private String string(int id) {
+        String cached = stringCache[id];
+        if (cached != null) return cached;
+        int start = buffer.getInt(stringOffsetsPos + id * Integer.BYTES);
+        int end = buffer.getInt(stringOffsetsPos + (id + 1) * Integer.BYTES);
+        byte[] bytes = new byte[end - start];
+        buffer.get(blobPos + start, bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        stringCache[id] = value;
+        return value;
+    }
+
+    /**
+     * 문자열을 문자열 테이블에 등록하고 id를 반환한다. 이미 등록된 문자열이면 기존 id를 반환한다.
+     */
+    private static int intern(String value, Map<String, Integer> stringIds, List<byte[]> strings) {
+        return stringIds.computeIfAbsent(value, v -> {
+            strings.add(v.getBytes(StandardCharsets.UTF_8));
+            return strings.size() - 1;
+        });
+    }
+
+    /** 길이를 4바이트 단위로 올림한다. */
+    private static int align(int length) {
+        return (length + 3) & ~3;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bang9634.util.reader;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * gridCoordinates.xlsx로부터 gridCoordinates.idx 바이너리 인덱스를 생성하는 빌드 도구 클래스.
+ * <p>
+ * Maven의 process-classes 단계에서 exec-maven-plugin으로 실행되며,
+ * {@link GridCoordinateReader#readAddressCoordinatesMapFromExcel()}로 엑셀을 한 번 파싱한 결과를
+ * {@link GridCoordinateIndex#write(Map, Path)}로 기록한다.
+ * GridCoordinateReader는 클래스 로딩 시점에 트리를 만들지 않으므로, 엑셀은 이 도구에서 한 번만 파싱된다.
+ * <p>
+ * 사용 예시:
+ * <pre>
+ *     java com.bang9634.util.reader.GridCoordinateIndexGenerator target/classes/gridCoordinates.idx
+ * </pre>
+ *
+ * @author bangdeokjae
+ */
+public class GridCoordinateIndexGenerator {
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            throw new IllegalArgumentException("사용법: GridCoordinateIndexGenerator <출력 파일 경로>");
+        }
+        Map<String, Map<String, Map<String, int[]>>> tree = GridCoordinateReader.readAddressCoordinatesMapFromExcel();
+        if (tree.isEmpty()) {
+            throw new IllegalStateException("gridCoordinates.xlsx에서 좌표 데이터를 읽지 못했습니다.");
+        }
+        Path out = Path.of(args[0]);
+        GridCoordinateIndex.write(tree, out);
+        System.out.println("좌표 인덱스 생성 완료 : " + out.toAbsolutePath());
+    }
+}
@@ -23,8 +23,44 @@ import java.util.Map;
  * 트리 구조는 Map 중첩을 통해 구현되며, 각 지역의 좌표(nx, ny)를 int 배열로 저장한다.
  */
 public class GridCoordinateReader {
-    /** 엑셀 파일에서 읽어온 지역 좌표 값을 Map 중첩으로 트리형 계층구조로 저장한다. */
-    public static final Map<String, Map<String, Map<String, int[]>>> ADDRESS_COORD_TREE = readAddressCoordinatesMapFromExcel();
+
+    /**
+     * 지연 초기화 홀더. {@link #getAddressCoordTree()}가 처음 호출될 때 트리를 만든다.
+     * <p>
+     * 클래스 로딩 시점에 트리를 만들지 않으므로, 인덱스 생성 도구가 {@link #readAddressCoordinatesMapFromExcel()}를
+     * 호출해도 엑셀을 한 번만 파싱하고, 좌표 인덱스를 사용하는 실행 환경에서는 트리를 만들지 않는다.
+     */
+    private static class Holder {
+        private static final Map<String, Map<String, Map<String, int[]>>> ADDRESS_COORD_TREE = loadAddressCoordinatesMap();
+    }
+
+    /**
+     * 좌표 인덱스(없으면 엑셀 파일)에서 읽어온 지역 좌표 트리를 반환한다. 처음 호출될 때 트리 전체를 만든다.
+     * <p>
+     * 전국 트리는 힙을 많이 차지하므로, 좌표 조회에는 필요한 시/도만 불러오는 {@link GridCoordinateCatalog}를 사용한다.
+     * 이 메서드는 좌표 인덱스가 없을 때 카탈로그의 대체 경로로 사용된다.
+     *
+     * @return  지역(시/도) -> 시/군/구 -> 동/읍/면 -> 좌표 트리
+     */
+    public static Map<String, Map<String, Map<String, int[]>>> getAddressCoordTree() {
+        return Holder.ADDRESS_COORD_TREE;
+    }
+
+    /**
+     * 지역 좌표 트리를 불러온다.
+     * <p>
+     * 빌드 시 생성된 gridCoordinates.idx가 있으면 이를 메모리 맵으로 열어 트리를 복원하고,
+     * 없으면(IDE에서 빌드 없이 실행한 경우 등) {@link #readAddressCoordinatesMapFromExcel()}로 대체한다.
+     * 
+     * @return  지역 좌표 데이터를 저장한 Map 3단 중첩 트리 구조를 반환한다.
+     */
+    private static Map<String, Map<String, Map<String, int[]>>> loadAddressCoordinatesMap() {
+        GridCoordinateIndex index = GridCoordinateIndex.load();
+        if (index != null) {
+            return index.toTree();
+        }
+        return readAddressCoordinatesMapFromExcel();
+    }
 
     /**
      * 엑셀 파일에서 지역 좌표 데이터를 읽어와 트리 형태로 만들어 반환한다. <p>
@@ -40,6 +76,8 @@ public class GridCoordinateReader {
      * 지역(시/도) -> 시/군/구 -> 동/읍/면 -> 좌표 계층구조로 구현되어 있다.
      * <p>
      * 이 메서드는 엑셀 파일을 읽어와 각 지역의 좌표(nx, ny)를 Map 중첩 구조로 저장한다.
+     * Apache POI로 엑셀 전체를 파싱하므로 비용이 크다. 실행 시에는 {@link GridCoordinateIndex}를 사용하고,
+     * 이 메서드는 인덱스 생성({@link GridCoordinateIndexGenerator})과 인덱스가 없을 때의 대체 경로로만 사용한다.
      * 
      * @return  지역 좌표 데이터를 저장한 Map 3단 중첩을 통해 구현한 트리 구조를 반환한다.
      */
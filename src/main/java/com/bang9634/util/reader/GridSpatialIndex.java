@@ -0,0 +1,330 @@
+package com.bang9634.util.reader;
+
+import com.bang9634.model.GridCell;
+import com.bang9634.util.constants.WeatherConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 주소가 있는 예보 격자를 좌표로 찾는 공간 인덱스 클래스.
+ * <p>
+ * 지역 좌표 트리는 시/도 -> 시/군/구 -> 동/읍/면 이름으로만 조회할 수 있어, 임의의 (nx, ny)에 가장 가까운
+ * 격자나 주변 격자를 찾으려면 전체를 순회해야 한다. 이 클래스는 149 x 253 격자를 8 x 8 칸 버킷으로 나누고,
+ * 격자들을 버킷 순서대로 int 배열에 모아(packed) 저장한다. 버킷 i의 격자는 [bucketStart[i], bucketStart[i + 1])
+ * 범위에 연속으로 놓이므로, 질의는 관련된 버킷의 배열 구간만 읽는다.
+ * <ul>
+ *   <li>{@link #cellAt(int, int)} - 격자 번호 테이블로 O(1) 역조회</li>
+ *   <li>{@link #nearest(int, int, int)} - 질의 지점의 버킷부터 바깥 고리(ring) 순서로 넓혀 가며 k개를 찾고,
+ *       다음 고리의 최소 거리가 k번째 거리보다 멀면 멈춘다.</li>
+ *   <li>{@link #withinBox(int, int, int, int)}, {@link #withinRadius(int, int, double)} - 범위와 겹치는 버킷만 확인한다.</li>
+ * </ul>
+ * 거리는 격자 단위(약 5km)의 유클리드 거리이다. 생성 후에는 변경되지 않으므로 여러 스레드에서 동시에 사용할 수 있다.
+ *
+ * @see GridCoordinateCatalog#getSpatialIndex()
+ * @author bangdeokjae
+ */
+public class GridSpatialIndex {
+    /** 버킷 한 변의 격자 수 (2^3 = 8) */
+    private static final int BUCKET_SHIFT = 3;
+    private static final int BUCKET_SIZE = 1 << BUCKET_SHIFT;
+    private static final int BUCKETS_X = (WeatherConstants.GRID_NX_MAX + BUCKET_SIZE - 1) >> BUCKET_SHIFT;
+    private static final int BUCKETS_Y = (WeatherConstants.GRID_NY_MAX + BUCKET_SIZE - 1) >> BUCKET_SHIFT;
+
+    /** 버킷 순서로 정렬된 격자 */
+    private final GridCell[] cells;
+    private final int[] xs;
+    private final int[] ys;
+    /** 버킷별 시작 위치. 길이는 버킷 수 + 1 */
+    private final int[] bucketStart = new int[BUCKETS_X * BUCKETS_Y + 1];
+    /** (ny - 1) * GRID_NX_MAX + (nx - 1) -> 격자 번호 + 1. 주소가 없는 격자는 0이다. */
+    private final int[] ordinals = new int[WeatherConstants.GRID_NX_MAX * WeatherConstants.GRID_NY_MAX];
+
+    /**
+     * 격자 목록으로 공간 인덱스를 만든다. 중복된 격자는 한 번만 포함한다.
+     *
+     * @param   gridCells
+     *          색인할 격자 목록
+     * @throws  IllegalArgumentException
+     *          격자 범위(1 ~ 149, 1 ~ 253)를 벗어난 격자가 있을 경우 예외를 던진다.
+     */
+    public GridSpatialIndex(Collection<GridCell> gridCells) {
+        GridCell[] distinct = new LinkedHashSet<>(gridCells).toArray(new GridCell[0]);
+        for (GridCell cell : distinct) {
+            if (!inGrid(cell.nx(), cell.ny())) {
+                throw new IllegalArgumentException("격자 범위를 벗어난 좌표입니다 : " + cell);
+            }
+            bucketStart[bucketOf(cell.nx(), cell.ny()) + 1]++;
+        }
+        for (int b = 0; b < BUCKETS_X * BUCKETS_Y; b++) {
+            bucketStart[b + 1] += bucketStart[b];
+        }
+
+        /** 버킷별 개수로 위치를 정하는 계수 정렬(counting sort) */
+        int[] next = Arrays.copyOf(bucketStart, bucketStart.length - 1);
+        this.cells = new GridCell[distinct.length];
+        this.xs = new int[distinct.length];
+        this.ys = new int[distinct.length];
+        for (GridCell cell : distinct) {
+            int i = next[bucketOf(cell.nx(), cell.ny())]++;
+            cells[i] = cell;
+            xs[i] = cell.nx();
+            ys[i] = cell.ny();
+            ordinals[tableIndex(cell.nx(), cell.ny())] = i + 1;
+        }
+    }
+
+    /** @return  색인된 격자 수 */
+    public int size() {
+        return cells.length;
+    }
+
+    /**
+     * 좌표에 해당하는 색인된 격자를 반환한다.
+     *
+     * @param   nx
+     *          예보지점 X 좌표
+     * @param   ny
+     *          예보지점 Y 좌표
+     * @return  해당 GridCell, 주소가 없는 격자이면 null
+     */
+    public GridCell cellAt(int nx, int ny) {
+        if (!inGrid(nx, ny)) return null;
+        int ordinal = ordinals[tableIndex(nx, ny)];
+        return ordinal != 0 ? cells[ordinal - 1] : null;
+    }
+
+    /**
+     * 좌표에서 가장 가까운 격자를 반환한다. 좌표 자체가 색인된 격자이면 그 격자를 반환한다.
+     *
+     * @param   nx
+     *          예보지점 X 좌표 (격자 범위 밖이어도 된다)
+     * @param   ny
+     *          예보지점 Y 좌표 (격자 범위 밖이어도 된다)
+     * @return  가장 가까운 GridCell, 색인이 비어 있으면 null
+     */
+    public GridCell nearest(int nx, int ny) {
+        GridCell exact = cellAt(nx, ny);
+        if (exact != null) return exact;
+        int[] best = new int[1];
+        return search(nx, ny, best) > 0 ? cells[best[0]] : null;
+    }
+
+    /**
+     * 좌표에서 가까운 순서로 k개의 격자를 반환한다. 거리가 같으면 버킷 순서를 따른다.
+     *
+     * @param   nx
+     *          예보지점 X 좌표 (격자 범위 밖이어도 된다)
+     * @param   ny
+     *          예보지점 Y 좌표 (격자 범위 밖이어도 된다)
+     * @param   k
+     *          반환할 최대 격자 수
+     * @return  가까운 순서의 격자 목록 (색인된 격자가 k개보다 적으면 전부)
+     */
+    public List<GridCell> nearest(int nx, int ny, int k) {
+        if (k <= 0) throw new IllegalArgumentException("k는 1 이상이어야 합니다 : " + k);
+        int[] best = new int[Math.min(k, cells.length)];
+        int count = search(nx, ny, best);
+        List<GridCell> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(cells[best[i]]);
+        }
+        return result;
+    }
+
+    /**
+     * 사각형 범위(경계 포함) 안의 격자를 반환한다.
+     *
+     * @param   minNx
+     *          최소 X 좌표
+     * @param   minNy
+     *          최소 Y 좌표
+     * @param   maxNx
+     *          최대 X 좌표
+     * @param   maxNy
+     *          최대 Y 좌표
+     * @return  범위 안의 격자 목록 (버킷 순서)
+     */
+    public List<GridCell> withinBox(int minNx, int minNy, int maxNx, int maxNy) {
+        List<GridCell> result = new ArrayList<>();
+        minNx = Math.max(minNx, 1);
+        minNy = Math.max(minNy, 1);
+        maxNx = Math.min(maxNx, WeatherConstants.GRID_NX_MAX);
+        maxNy = Math.min(maxNy, WeatherConstants.GRID_NY_MAX);
+        if (minNx > maxNx || minNy > maxNy) return result;
+
+        for (int by = (minNy - 1) >> BUCKET_SHIFT; by <= (maxNy - 1) >> BUCKET_SHIFT; by++) {
+            for (int bx = (minNx - 1) >> BUCKET_SHIFT; bx <= (maxNx - 1) >> BUCKET_SHIFT; bx++) {
+                int b = by * BUCKETS_X + bx;
+                for (int i = bucketStart[b]; i < bucketStart[b + 1]; i++) {
+                    if (xs[i] >= minNx && xs[i] <= maxNx && ys[i] >= minNy && ys[i] <= maxNy) {
+                        result.add(cells[i]);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 좌표에서 반경(격자 단위) 안의 격자를 가까운 순서로 반환한다.
+     *
+     * @param   nx
+     *          중심 X 좌표
+     * @param   ny
+     *          중심 Y 좌표
+     * @param   radius
+     *          반경 (격자 단위, 1 = 약 5km)
+     * @return  반경 안의 격자 목록 (가까운 순서)
+     */
+    public List<GridCell> withinRadius(int nx, int ny, double radius) {
+        if (!(radius >= 0)) return new ArrayList<>();
+        /** 격자 전체를 덮는 반경보다 크면 잘라 좌표 계산이 넘치지 않게 한다. */
+        long reach = (long) Math.min(Math.floor(radius), 0x1p33);
+        long limit = squareLimit(radius);
+        int minNx = (int) Math.max(nx - reach, 1);
+        int minNy = (int) Math.max(ny - reach, 1);
+        int maxNx = (int) Math.min(nx + reach, WeatherConstants.GRID_NX_MAX);
+        int maxNy = (int) Math.min(ny + reach, WeatherConstants.GRID_NY_MAX);
+        if (minNx > maxNx || minNy > maxNy) return new ArrayList<>();
+
+        /** (거리², 격자 번호) 쌍으로 모아 정렬하면 거리 순, 같은 거리는 버킷 순이 된다. */
+        long[] found = new long[16];
+        int count = 0;
+        boolean packable = true;
+        for (int by = (minNy - 1) >> BUCKET_SHIFT; by <= (maxNy - 1) >> BUCKET_SHIFT; by++) {
+            for (int bx = (minNx - 1) >> BUCKET_SHIFT; bx <= (maxNx - 1) >> BUCKET_SHIFT; bx++) {
+                int b = by * BUCKETS_X + bx;
+                for (int i = bucketStart[b]; i < bucketStart[b + 1]; i++) {
+                    long d = distance(nx, ny, i);
+                    if (Long.compareUnsigned(d, limit) <= 0) {
+                        if (count == found.length) found = Arrays.copyOf(found, count * 2);
+                        packable &= d <= Integer.MAX_VALUE;
+                        found[count++] = (packable ? d << 32 : 0) | i;
+                    }
+                }
+            }
+        }
+        List<GridCell> result = new ArrayList<>(count);
+        if (packable) {
+            /** 거리²가 31비트 안이면 (거리² << 32 | 격자 번호) 하나의 long으로 정렬한다. */
+            Arrays.sort(found, 0, count);
+            for (int i = 0; i < count; i++) {
+                result.add(cells[(int) found[i]]);
+            }
+            return result;
+        }
+
+        /** 격자 범위에서 아주 먼 질의는 거리²가 커서 하나의 long에 담을 수 없으므로 쌍으로 비교한다. */
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) found[i];
+        }
+        Arrays.sort(order, (i1, i2) -> {
+            int c = Long.compareUnsigned(distance(nx, ny, i1), distance(nx, ny, i2));
+            return c != 0 ? c : Integer.compare(i1, i2);
+        });
+        for (int i : order) {
+            result.add(cells[i]);
+        }
+        return result;
+    }
+
+    /**
+     * 질의 지점의 버킷부터 고리 단위로 넓혀 가며 가까운 격자를 best에 채운다.
+     * <p>
+     * best는 격자 번호를 (거리², 격자 번호) 오름차순으로 보관하고, 거리²는 같은 위치의 dists에 둔다.
+     * 고리 r(r >= 1)의 격자는 질의 지점과 적어도 한 축으로 (r - 1) * 8 + 1칸 떨어져 있으므로,
+     * best가 가득 찼고 이 하한이 가장 먼 후보보다 멀면 더 볼 필요가 없다.
+     *
+     * @return  찾은 격자 수
+     */
+    private int search(int nx, int ny, int[] best) {
+        int k = best.length;
+        if (k == 0) return 0;
+        long[] dists = new long[k];
+        int qbx = Math.clamp((nx - 1) >> BUCKET_SHIFT, 0, BUCKETS_X - 1);
+        int qby = Math.clamp((ny - 1) >> BUCKET_SHIFT, 0, BUCKETS_Y - 1);
+        int maxRing = Math.max(Math.max(qbx, BUCKETS_X - 1 - qbx), Math.max(qby, BUCKETS_Y - 1 - qby));
+        int count = 0;
+
+        for (int r = 0; r <= maxRing; r++) {
+            if (count == k && r > 0) {
+                long bound = (long) (r - 1) * BUCKET_SIZE + 1;
+                if (Long.compareUnsigned(bound * bound, dists[k - 1]) > 0) break;
+            }
+            for (int by = qby - r; by <= qby + r; by++) {
+                if (by < 0 || by >= BUCKETS_Y) continue;
+                /** 고리의 위, 아래 변은 전부, 나머지 행은 양 끝 버킷만 확인한다. */
+                int step = (by == qby - r || by == qby + r) ? 1 : Math.max(2 * r, 1);
+                for (int bx = qbx - r; bx <= qbx + r; bx += step) {
+                    if (bx < 0 || bx >= BUCKETS_X) continue;
+                    int b = by * BUCKETS_X + bx;
+                    for (int i = bucketStart[b]; i < bucketStart[b + 1]; i++) {
+                        long d = distance(nx, ny, i);
+                        if (count == k && !precedes(d, i, dists[k - 1], best[k - 1])) continue;
+                        count = insert(dists, best, count, k, d, i);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * (거리², 격자 번호) 순으로 정렬된 dists, indexes에 (d, i)를 삽입한다.
+     * 배열이 capacity만큼 차 있으면 가장 먼 후보를 밀어낸다.
+     *
+     * @return  삽입 후 후보 수
+     */
+    private static int insert(long[] dists, int[] indexes, int count, int capacity, long d, int i) {
+        int pos = count < capacity ? count++ : capacity - 1;
+        while (pos > 0 && precedes(d, i, dists[pos - 1], indexes[pos - 1])) {
+            dists[pos] = dists[pos - 1];
+            indexes[pos] = indexes[pos - 1];
+            pos--;
+        }
+        dists[pos] = d;
+        indexes[pos] = i;
+        return count;
+    }
+
+    /** @return  (d1, i1)이 (d2, i2)보다 앞서면 true. 거리²는 부호 없는 값으로 비교한다. */
+    private static boolean precedes(long d1, int i1, long d2, int i2) {
+        int c = Long.compareUnsigned(d1, d2);
+        return c < 0 || (c == 0 && i1 < i2);
+    }
+
+    /**
+     * 좌표와 i번째 격자 사이 거리의 제곱을 부호 없는 long으로 반환한다.
+     * 격자 범위 밖의 int 좌표라도 각 축의 차이는 2^32보다 작으므로 합은 2^64를 넘지 않는다.
+     */
+    private long distance(int nx, int ny, int i) {
+        long dx = Math.abs((long) xs[i] - nx);
+        long dy = Math.abs((long) ys[i] - ny);
+        return dx * dx + dy * dy;
+    }
+
+    /** @return  floor(radius²)를 부호 없는 long으로 나타낸 값. 2^64 이상이면 부호 없는 최댓값 */
+    private static long squareLimit(double radius) {
+        double square = Math.floor(radius * radius);
+        if (square >= 0x1p64) return -1L;
+        if (square >= 0x1p63) return (long) (square - 0x1p63) | Long.MIN_VALUE;
+        return (long) square;
+    }
+
+    private static boolean inGrid(int nx, int ny) {
+        return nx >= 1 && nx <= WeatherConstants.GRID_NX_MAX && ny >= 1 && ny <= WeatherConstants.GRID_NY_MAX;
+    }
+
+    private static int bucketOf(int nx, int ny) {
+        return ((ny - 1) >> BUCKET_SHIFT) * BUCKETS_X + ((nx - 1) >> BUCKET_SHIFT);
+    }
+
+    private static int tableIndex(int nx, int ny) {
+        return (ny - 1) * WeatherConstants.GRID_NX_MAX + (nx - 1);
+    }
+}
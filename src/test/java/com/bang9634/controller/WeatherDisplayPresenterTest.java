@@ -0,0 +1,419 @@
+package com.bang9634.controller;
+
+import com.bang9634.gui.NameListComboBoxModel;
+import com.bang9634.gui.WeatherDisplayView;
+import com.bang9634.model.FcstSeries;
+import com.bang9634.provider.RateLimiter;
+import com.bang9634.provider.ResilientWeatherProvider;
+import com.bang9634.provider.StubKmaServer;
+import com.bang9634.provider.WeatherProvider;
+import com.bang9634.provider.impl.PublicDataPortalProvider;
+import com.bang9634.provider.parser.WeatherDataParser;
+import com.bang9634.service.WeatherService;
+import com.bang9634.util.constants.MsgConstants;
+import com.bang9634.util.constants.WeatherConstants;
+import com.bang9634.util.reader.GridCoordinateCatalog;
+
+import javax.swing.JComboBox;
+import javax.swing.SwingUtilities;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 콤보박스 선택에 따라 WeatherDisplayPresenter가 외부 API를 몇 번 호출하는지 센다.
+ * <p>
+ * 실제 창 없이 확인할 수 있도록, WeatherDisplayGUI와 같은 콤보박스 모델과 리스너를 가진 View를 사용한다.
+ * <ul>
+ *   <li>초기 로드 - 호출 1번</li>
+ *   <li>'시/도' 변경 - 모델 교체 1번, 하위 콤보박스의 ActionEvent 0번, 호출 1번</li>
+ *   <li>'시/군/구', '동/읍/면' 변경 - 새 격자일 때만 호출 1번</li>
+ *   <li>debounce - '동/읍/면'을 연달아 바꾸면 마지막 격자만 호출 1번</li>
+ *   <li>취소 - 응답 전에 다른 격자를 선택하면 이전 요청이 Provider까지 취소되고, 마지막 결과만 그려진다.</li>
+ *   <li>주소 검색 - 찾은 주소로 콤보박스 모델만 교체되고(ActionEvent 0번), 그 격자를 많아야 한 번 조회한다.</li>
+ *   <li>실제 Provider 체인 - 스텁 서버에 요청하는 PublicDataPortalProvider를 요청 한도가 있는 ResilientWeatherProvider로
+ *       감싸 사용한다. 응답 전에 다른 격자를 선택하면 데코레이터를 거쳐 HTTP 요청까지 취소되고,
+ *       조회가 실패하면 로딩 상태 대신 오류 상태가 표시된다.</li>
+ * </ul>
+ */
+public class WeatherDisplayPresenterTest {
+    private static final long TIMEOUT_MILLIS = 5000;
+    private static final int DEBOUNCE_MILLIS = 50;
+
+    public static void main(String[] args) throws Exception {
+        CountingProvider provider = new CountingProvider();
+        WeatherDisplayPresenter presenter = new WeatherDisplayPresenter(
+            new WeatherService(provider, new WeatherDataParser()), DEBOUNCE_MILLIS);
+        ComboBoxView view = new ComboBoxView(presenter);
+        presenter.setView(view);
+
+        SwingUtilities.invokeAndWait(presenter::loadInitialData);
+        view.awaitWeather(1);
+        check(provider.calls.get() == 1, "초기 로드는 한 번만 조회해야 한다 : " + provider.calls);
+        check(WeatherConstants.DEFAULT_REGION.equals(view.region.getSelectedItem()), "초기 '시/도'가 선택되어야 한다.");
+        check(view.street.getSelectedItem() != null, "초기 '동/읍/면'이 선택되어야 한다.");
+
+        /** '시/도' 변경 */
+        String region = "부산광역시";
+        view.resetEventCounts();
+        SwingUtilities.invokeAndWait(() -> view.region.setSelectedItem(region));
+        view.awaitWeather(2);
+        List<String> cities = GridCoordinateCatalog.getInstance().getCityList(region);
+        check(cities.get(0).equals(view.city.getSelectedItem()), "첫 '시/군/구'가 선택되어야 한다 : " + view.city.getSelectedItem());
+        check(view.city.getItemCount() == cities.size(), "'시/군/구' 목록 크기가 다르다 : " + view.city.getItemCount());
+        check(view.cityModelSwaps == 1 && view.streetModelSwaps == 1,
+            "모델은 한 번씩만 교체되어야 한다 : " + view.cityModelSwaps + ", " + view.streetModelSwaps);
+        check(view.cityEvents == 0 && view.streetEvents == 0,
+            "목록 교체 중 ActionEvent가 발생했다 : " + view.cityEvents + ", " + view.streetEvents);
+        check(provider.calls.get() == 2, "'시/도' 변경은 한 번만 조회해야 한다 : " + provider.calls);
+
+        /** '시/군/구', '동/읍/면' 변경 : 새 격자일 때만 조회한다. */
+        for (String city : cities.subList(1, Math.min(cities.size(), 6))) {
+            int before = provider.calls.get();
+            int cellsBefore = provider.cells.size();
+            int shown = view.weatherCount.get();
+            SwingUtilities.invokeAndWait(() -> view.city.setSelectedItem(city));
+            view.awaitWeather(shown + 1);
+            int expected = provider.cells.size() - cellsBefore;
+            check(provider.calls.get() - before == expected && expected <= 1,
+                city + " 선택 후 조회 횟수가 다르다 : " + (provider.calls.get() - before));
+        }
+        String lastStreet = view.street.getItemAt(view.street.getItemCount() - 1);
+        int before = provider.calls.get();
+        int shown = view.weatherCount.get();
+        SwingUtilities.invokeAndWait(() -> view.street.setSelectedItem(lastStreet));
+        view.awaitWeather(shown + 1);
+        check(provider.calls.get() - before <= 1, "'동/읍/면' 변경은 많아야 한 번 조회해야 한다.");
+
+        /** 같은 '시/도'를 다시 선택해도 이미 조회한 격자는 다시 조회하지 않는다. */
+        before = provider.calls.get();
+        shown = view.weatherCount.get();
+        SwingUtilities.invokeAndWait(() -> view.region.setSelectedItem(region));
+        view.awaitWeather(shown + 1);
+        check(provider.calls.get() == before, "이미 조회한 격자를 다시 조회했다 : " + (provider.calls.get() - before));
+
+        check(provider.calls.get() == provider.cells.size(), "같은 격자를 두 번 조회했다 : " + provider.calls + ", " + provider.cells.size());
+
+        debounce(view, provider);
+        cancellation(view, provider);
+        search(presenter, view, provider);
+        System.out.printf("provider calls=%d, cells=%d%n", provider.calls.get(), provider.cells.size());
+        realProviderChain();
+        System.out.println("OK");
+    }
+
+    /**
+     * 아직 조회하지 않은 격자의 동/읍/면이 count개 이상인 '시/군/구'를 골라 선택하고,
+     * 격자가 서로 다른 동/읍/면 이름을 반환한다.
+     */
+    private static List<String> selectUnfetchedStreets(ComboBoxView view, Set<String> fetchedCells, int count) throws Exception {
+        GridCoordinateCatalog catalog = GridCoordinateCatalog.getInstance();
+        for (String region : catalog.getRegions()) {
+            for (String city : catalog.getCityList(region)) {
+                Set<String> seen = new HashSet<>();
+                List<String> streets = new ArrayList<>();
+                for (String street : catalog.getStreetList(region, city)) {
+                    int[] coord = catalog.getCoordinate(region, city, street);
+                    String cell = coord[0] + "," + coord[1];
+                    if (!fetchedCells.contains(cell) && seen.add(cell)) streets.add(street);
+                }
+                /** 첫 동/읍/면은 '시/군/구' 선택 때 조회되므로 제외한다. */
+                String first = catalog.getStreetList(region, city).get(0);
+                streets.remove(first);
+                if (streets.size() < count) continue;
+
+                int shown = view.weatherCount.get();
+                SwingUtilities.invokeAndWait(() -> {
+                    view.region.setSelectedItem(region);
+                    view.city.setSelectedItem(city);
+                });
+                view.awaitWeather(shown + 1);
+                return streets.subList(0, count);
+            }
+        }
+        throw new IllegalStateException("격자가 서로 다른 동/읍/면이 " + count + "개 이상인 '시/군/구'가 없다.");
+    }
+
+    private static void debounce(ComboBoxView view, CountingProvider provider) throws Exception {
+        List<String> streets = selectUnfetchedStreets(view, provider.cells, 5);
+        int before = provider.calls.get();
+        int shown = view.weatherCount.get();
+        SwingUtilities.invokeAndWait(() -> streets.forEach(view.street::setSelectedItem));
+        view.awaitWeather(shown + 1);
+        Thread.sleep(DEBOUNCE_MILLIS * 4);
+        check(provider.calls.get() - before == 1, "연달아 선택하면 한 번만 조회해야 한다 : " + (provider.calls.get() - before));
+        check(view.weatherCount.get() == shown + 1, "결과는 한 번만 그려져야 한다 : " + (view.weatherCount.get() - shown));
+        String last = streets.get(streets.size() - 1);
+        int[] coord = GridCoordinateCatalog.getInstance().getCoordinate(
+            (String) view.region.getSelectedItem(), (String) view.city.getSelectedItem(), last);
+        check(provider.lastCell.equals(coord[0] + "," + coord[1]), "마지막 선택의 격자를 조회해야 한다 : " + provider.lastCell);
+    }
+
+    private static void cancellation(ComboBoxView view, CountingProvider provider) throws Exception {
+        List<String> streets = selectUnfetchedStreets(view, provider.cells, 2);
+        provider.hold = true;
+        int shown = view.weatherCount.get();
+
+        SwingUtilities.invokeAndWait(() -> view.street.setSelectedItem(streets.get(0)));
+        CompletableFuture<String> first = provider.awaitHeld(1);
+        SwingUtilities.invokeAndWait(() -> view.street.setSelectedItem(streets.get(1)));
+        check(first.isCancelled(), "이전 요청이 Provider까지 취소되어야 한다.");
+        CompletableFuture<String> second = provider.awaitHeld(2);
+
+        /** 취소된 요청의 응답이 늦게 도착해도 그리지 않는다. */
+        first.complete(StubKmaServer.responseBody(1, WeatherProvider.DEFAULT_NUM_OF_ROWS, "1", "1"));
+        second.complete(StubKmaServer.responseBody(1, WeatherProvider.DEFAULT_NUM_OF_ROWS, "2", "2"));
+        view.awaitWeather(shown + 1);
+        Thread.sleep(DEBOUNCE_MILLIS * 4);
+        check(view.weatherCount.get() == shown + 1, "마지막 결과만 그려져야 한다 : " + (view.weatherCount.get() - shown));
+        provider.hold = false;
+    }
+
+    private static void search(WeatherDisplayPresenter presenter, ComboBoxView view, CountingProvider provider) throws Exception {
+        view.resetEventCounts();
+        int before = provider.calls.get();
+        boolean[] found = new boolean[2];
+        SwingUtilities.invokeAndWait(() -> {
+            found[0] = presenter.onSearch("종로 ㅊㅅ");
+            found[1] = presenter.onSearch("없는지명ㅋㅋㅋ");
+        });
+        check(found[0] && !found[1], "검색 결과 여부가 다르다 : " + found[0] + ", " + found[1]);
+        check("서울특별시".equals(view.region.getSelectedItem()) && "종로구".equals(view.city.getSelectedItem()),
+            "검색한 '시/도', '시/군/구'가 선택되어야 한다 : " + view.region.getSelectedItem() + " " + view.city.getSelectedItem());
+        String street = (String) view.street.getSelectedItem();
+        check(street != null && street.startsWith("창신"), "검색한 '동/읍/면'이 선택되어야 한다 : " + street);
+        check(view.cityEvents == 0 && view.streetEvents == 0,
+            "검색 중 ActionEvent가 발생했다 : " + view.cityEvents + ", " + view.streetEvents);
+        Thread.sleep(DEBOUNCE_MILLIS * 4);
+        int[] coord = GridCoordinateCatalog.getInstance().getCoordinate("서울특별시", "종로구", street);
+        check(provider.calls.get() - before <= 1, "검색은 많아야 한 번 조회해야 한다 : " + (provider.calls.get() - before));
+        check(provider.cells.contains(coord[0] + "," + coord[1]), "검색한 주소의 격자를 조회해야 한다.");
+    }
+
+    /**
+     * 화면 조회와 같은 Provider 체인(요청 한도가 있는 ResilientWeatherProvider -> PublicDataPortalProvider)으로
+     * 취소와 오류 표시를 확인한다. 스텁 서버는 응답을 늦게 보내므로 응답 전에 다른 격자를 선택할 수 있다.
+     */
+    private static void realProviderChain() throws Exception {
+        /** Provider가 응답마다 출력하는 로그를 숨긴다. */
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (StubKmaServer server = new StubKmaServer()) {
+            server.setLatencyMillis(DEBOUNCE_MILLIS * 6);
+            RecordingProvider http = new RecordingProvider(new PublicDataPortalProvider("test-key",
+                HttpClient.newHttpClient(), server.endpoint(), Duration.ofSeconds(10)));
+            RateLimiter limiter = new RateLimiter(100, 10, 0, Duration.ofSeconds(10), Clock.systemUTC());
+            WeatherProvider chain = new ResilientWeatherProvider(http, ResilientWeatherProvider.Policy.defaults(),
+                limiter, RateLimiter.Priority.INTERACTIVE);
+            WeatherDisplayPresenter presenter = new WeatherDisplayPresenter(
+                new WeatherService(chain, new WeatherDataParser()), DEBOUNCE_MILLIS);
+            ComboBoxView view = new ComboBoxView(presenter);
+            presenter.setView(view);
+
+            SwingUtilities.invokeAndWait(presenter::loadInitialData);
+            view.awaitWeather(1);
+
+            /** 응답 전에 다른 격자를 선택하면 HTTP 요청까지 취소되고 마지막 결과만 그려진다. */
+            List<String> streets = selectUnfetchedStreets(view, http.cells, 2);
+            int shown = view.weatherCount.get();
+            int sent = http.requests.size();
+            SwingUtilities.invokeAndWait(() -> view.street.setSelectedItem(streets.get(0)));
+            CompletableFuture<String> first = http.awaitRequest(sent + 1);
+            SwingUtilities.invokeAndWait(() -> view.street.setSelectedItem(streets.get(1)));
+            http.awaitRequest(sent + 2);
+            check(isAborted(first), "이전 HTTP 요청이 데코레이터를 거쳐 취소되어야 한다 : " + first);
+            view.awaitWeather(shown + 1);
+            Thread.sleep(DEBOUNCE_MILLIS * 8);
+            check(view.weatherCount.get() == shown + 1, "마지막 결과만 그려져야 한다 : " + (view.weatherCount.get() - shown));
+            check(view.errorCount.get() == 0, "취소된 요청은 오류로 표시하지 않아야 한다 : " + view.errorCount.get());
+
+            /** 조회가 실패하면 로딩 상태에 머물지 않고 오류 상태를 표시한다. */
+            String failing = selectUnfetchedStreets(view, http.cells, 1).get(0);
+            server.setErrorResultCode("03");
+            shown = view.weatherCount.get();
+            SwingUtilities.invokeAndWait(() -> view.street.setSelectedItem(failing));
+            view.awaitError(1);
+            check(MsgConstants.MSG_WEATHER_LOAD_FAIL.equals(view.lastError), "오류 메시지가 다르다 : " + view.lastError);
+            check(view.weatherCount.get() == shown, "실패한 조회의 결과를 그리지 않아야 한다.");
+            out.printf("real chain: http requests=%d, aborted=%s, errors=%d%n",
+                http.requests.size(), isAborted(first), view.errorCount.get());
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * HTTP 요청이 취소되었는지 확인한다. HttpClient의 future는 취소되면 CancellationException으로 예외 완료된다.
+     */
+    private static boolean isAborted(CompletableFuture<String> request) {
+        return request.isCancelled()
+            || (request.isCompletedExceptionally() && request.exceptionNow() instanceof CancellationException);
+    }
+
+    /** 실제 Provider가 반환한 future와 조회한 격자를 기록하는 Provider. */
+    private static class RecordingProvider implements WeatherProvider {
+        final WeatherProvider delegate;
+        final Set<String> cells = ConcurrentHashMap.newKeySet();
+        final List<CompletableFuture<String>> requests = new CopyOnWriteArrayList<>();
+
+        RecordingProvider(WeatherProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny,
+                                          int pageNo, int numOfRows) throws Exception {
+            return delegate.fetchRawWeatherData(baseDate, baseTime, nx, ny, pageNo, numOfRows);
+        }
+
+        @Override
+        public CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny,
+                                                                  int pageNo, int numOfRows) {
+            cells.add(nx + "," + ny);
+            CompletableFuture<String> request = delegate.fetchRawWeatherDataAsync(baseDate, baseTime, nx, ny, pageNo, numOfRows);
+            requests.add(request);
+            return request;
+        }
+
+        CompletableFuture<String> awaitRequest(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (requests.size() < count) {
+                check(System.currentTimeMillis() < deadline, "HTTP 요청이 보내지지 않았다 : " + requests.size() + " < " + count);
+                Thread.sleep(5);
+            }
+            return requests.get(count - 1);
+        }
+    }
+
+    /** 호출 횟수와 조회한 격자를 기록하고 스텁 응답을 반환하는 Provider. hold이면 응답을 보류한다. */
+    private static class CountingProvider implements WeatherProvider {
+        final AtomicInteger calls = new AtomicInteger();
+        final Set<String> cells = ConcurrentHashMap.newKeySet();
+        final List<CompletableFuture<String>> held = new CopyOnWriteArrayList<>();
+        volatile String lastCell;
+        volatile boolean hold;
+
+        @Override
+        public String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny,
+                                          int pageNo, int numOfRows) {
+            return StubKmaServer.responseBody(pageNo, numOfRows, nx, ny);
+        }
+
+        @Override
+        public CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny,
+                                                                  int pageNo, int numOfRows) {
+            calls.incrementAndGet();
+            lastCell = nx + "," + ny;
+            cells.add(lastCell);
+            if (!hold) return CompletableFuture.completedFuture(fetchRawWeatherData(baseDate, baseTime, nx, ny, pageNo, numOfRows));
+            CompletableFuture<String> pending = new CompletableFuture<>();
+            held.add(pending);
+            return pending;
+        }
+
+        CompletableFuture<String> awaitHeld(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (held.size() < count) {
+                check(System.currentTimeMillis() < deadline, "요청이 보내지지 않았다 : " + held.size() + " < " + count);
+                Thread.sleep(5);
+            }
+            return held.get(count - 1);
+        }
+    }
+
+    /** WeatherDisplayGUI와 같은 방식으로 콤보박스를 갱신하고 선택을 Presenter로 전달하는 View. */
+    private static class ComboBoxView implements WeatherDisplayView {
+        final List<String> regions = Arrays.asList(GridCoordinateCatalog.getInstance().getRegions());
+        final JComboBox<String> region = new JComboBox<>(new NameListComboBoxModel(regions, regions.get(0)));
+        final JComboBox<String> city = new JComboBox<>(new NameListComboBoxModel(List.of(), null));
+        final JComboBox<String> street = new JComboBox<>(new NameListComboBoxModel(List.of(), null));
+        final AtomicInteger weatherCount = new AtomicInteger();
+        final AtomicInteger errorCount = new AtomicInteger();
+        volatile String lastError;
+        int cityModelSwaps;
+        int streetModelSwaps;
+        int cityEvents;
+        int streetEvents;
+
+        ComboBoxView(WeatherDisplayPresenter presenter) {
+            region.addActionListener(e -> presenter.onRegionSelected((String) region.getSelectedItem()));
+            city.addActionListener(e -> {
+                cityEvents++;
+                presenter.onCitySelected((String) region.getSelectedItem(), (String) city.getSelectedItem());
+            });
+            street.addActionListener(e -> {
+                streetEvents++;
+                presenter.onLocationChanged((String) region.getSelectedItem(), (String) city.getSelectedItem(),
+                    (String) street.getSelectedItem());
+            });
+        }
+
+        void resetEventCounts() throws Exception {
+            SwingUtilities.invokeAndWait(() -> cityModelSwaps = streetModelSwaps = cityEvents = streetEvents = 0);
+        }
+
+        void awaitWeather(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (weatherCount.get() < count) {
+                check(System.currentTimeMillis() < deadline, "날씨가 표시되지 않았다 : " + weatherCount.get() + " < " + count);
+                Thread.sleep(5);
+            }
+        }
+
+        void awaitError(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+            while (errorCount.get() < count) {
+                check(System.currentTimeMillis() < deadline, "오류가 표시되지 않았다 : " + errorCount.get() + " < " + count);
+                Thread.sleep(5);
+            }
+        }
+
+        @Override
+        public void setWeatherData(FcstSeries series) {
+            weatherCount.incrementAndGet();
+        }
+
+        @Override
+        public void showErrorState(String message) {
+            lastError = message;
+            errorCount.incrementAndGet();
+        }
+
+        @Override
+        public void showLoadingState() {
+        }
+
+        @Override
+        public void showRegion(String name) {
+            region.setModel(new NameListComboBoxModel(regions, name));
+        }
+
+        @Override
+        public void showCities(List<String> cities, String selected) {
+            cityModelSwaps++;
+            city.setModel(new NameListComboBoxModel(cities, selected));
+        }
+
+        @Override
+        public void showStreets(List<String> streets, String selected) {
+            streetModelSwaps++;
+            street.setModel(new NameListComboBoxModel(streets, selected));
+        }
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+}
@@ -0,0 +1,125 @@
+package com.bang9634.model;
+
+import com.bang9634.provider.StubKmaServer;
+import com.bang9634.provider.parser.WeatherDataParser;
+import com.bang9634.util.constants.WeatherConstants;
+import com.bang9634.util.mapper.FcstCodeMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 전체 예보 기간을 보관하는 두 방식의 기록 비용과 "앞으로 24시간의 최고 기온" 질의 비용을 비교한다.
+ * <ul>
+ *   <li>timeline - 이전 방식(FcstTimeline). "yyyyMMddHHmm" -> 슬롯별 (라벨 -> 변환된 문자열) Map의 TreeMap</li>
+ *   <li>series - FcstSeries. 카테고리별 float 배열과 비트 집합</li>
+ * </ul>
+ * 응답은 StubKmaServer의 4일치 1160개 항목이며, 기록 비용은 JSON 파싱을 제외하고 항목 배열에서 잰다.
+ * <pre>
+ *     mvn test-compile
+ *     java -cp target/test-classes:target/classes:(의존성) org.openjdk.jmh.Main FcstSeriesBenchmark -prof gc
+ * </pre>
+ * 보관 크기는 -prof gc의 gc.alloc.rate.norm(build 벤치마크의 할당량)으로 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FcstSeriesBenchmark {
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 10, 18, 9, 0);
+    private static final Duration DAY = Duration.ofHours(24);
+    private static final String TMP_LABEL = FcstCodeMapper.CATEGORY_CODE_MAP.get("TMP");
+
+    private Item[] items;
+    private TreeMap<String, Map<String, String>> timeline;
+    private FcstSeries series;
+
+    @Setup
+    public void setUp() throws Exception {
+        String response = StubKmaServer.responseBody(1, StubKmaServer.totalCount(), "60", "127");
+        JsonNode itemNode = new ObjectMapper().readTree(response).path("response").path("body").path("items").path("item");
+        items = new Item[itemNode.size()];
+        for (int i = 0; i < items.length; i++) {
+            JsonNode node = itemNode.get(i);
+            items[i] = new Item(node.path("fcstDate").asText(), node.path("fcstTime").asText(),
+                node.path("category").asText(), node.path("fcstValue").asText());
+        }
+        timeline = buildTimeline();
+        series = new FcstSeries();
+        new WeatherDataParser().parseInto(response, series);
+    }
+
+    @Benchmark
+    public TreeMap<String, Map<String, String>> buildTimeline() {
+        TreeMap<String, Map<String, String>> slots = new TreeMap<>();
+        for (Item item : items) {
+            String key = item.getFcstDate() + item.getFcstTime();
+            Map<String, String> slot = slots.get(key);
+            if (slot == null) {
+                slot = new LinkedHashMap<>();
+                slot.put(WeatherConstants.LABEL_FCST_DATE, item.getFcstDate());
+                slot.put(WeatherConstants.LABEL_FCST_TIME, item.getFcstTime());
+                slots.put(key, slot);
+            }
+            slot.put(FcstCodeMapper.CATEGORY_CODE_MAP.get(item.getCategory()), FcstCodeMapper.getSubMappingTableValue(item));
+        }
+        return slots;
+    }
+
+    @Benchmark
+    public FcstSeries buildSeries() {
+        FcstSeries built = new FcstSeries();
+        for (Item item : items) {
+            FcstCategory category = FcstCategory.fromCode(item.getCategory());
+            if (category != null) built.put(item.getFcstDate(), item.getFcstTime(), category, item.getFcstValue());
+        }
+        return built;
+    }
+
+    /** 이전 방식은 구간의 슬롯마다 기온 문자열을 다시 숫자로 바꾸고 결측값을 걸러야 한다. */
+    @Benchmark
+    public double maxTmp24hTimeline() {
+        String fromKey = key(FROM);
+        String toKey = key(FROM.plus(DAY));
+        double max = Double.NaN;
+        for (Map<String, String> slot : timeline.subMap(fromKey, true, toKey, false).values()) {
+            String text = slot.get(TMP_LABEL);
+            if (text == null) continue;
+            try {
+                double value = Double.parseDouble(text);
+                if (value > -900 && value < 900 && !(value <= max)) max = value;
+            } catch (NumberFormatException e) {
+                /** 숫자가 아닌 값은 건너뛴다. */
+            }
+        }
+        return max;
+    }
+
+    @Benchmark
+    public float maxTmp24hSeries() {
+        return series.max(FcstCategory.TMP, FROM, DAY);
+    }
+
+    private static String key(LocalDateTime dateTime) {
+        return String.format("%04d%02d%02d%02d%02d", dateTime.getYear(), dateTime.getMonthValue(),
+            dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute());
+    }
+}
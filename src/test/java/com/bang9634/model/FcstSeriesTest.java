@@ -0,0 +1,96 @@
+package com.bang9634.model;
+
+import com.bang9634.provider.StubKmaServer;
+import com.bang9634.provider.parser.WeatherDataParser;
+import com.bang9634.util.constants.MsgConstants;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * StubKmaServer 응답 전체를 FcstSeries에 기록하고 예보 기간과 구간 집계 질의를 확인한다.
+ * <p>
+ * 스텁 응답은 2026-10-18 06:00부터 96시간이며, 기온(TMP)은 시간마다 10~21도를 반복하고
+ * 일 최저(TMN)는 06시, 일 최고(TMX)는 15시에만, 파고(WAV)는 항상 결측값(-999)으로 온다.
+ * <ul>
+ *   <li>예보 기간 - 슬롯 수, 첫/마지막 일시, 기간 밖 일시의 슬롯 번호</li>
+ *   <li>구간 집계 - 앞으로 24시간의 최고/최저 기온, 일부 구간, 값이 없는 구간</li>
+ *   <li>결측값과 범주형 값 - 결측값은 집계에서 제외하고 누락으로 표시하며, PCP는 원래 문자열과 대표값을 함께 보관한다.</li>
+ *   <li>순서 - 시간 순서가 아닌 값도 정렬된 슬롯에 기록된다.</li>
+ * </ul>
+ */
+public class FcstSeriesTest {
+    private static final LocalDateTime FIRST = LocalDateTime.of(2026, 10, 18, 6, 0);
+    private static final int HOURS = 96;
+
+    public static void main(String[] args) throws Exception {
+        FcstSeries series = new FcstSeries();
+        /** 두 페이지로 나누어 같은 series에 기록한다. */
+        int half = StubKmaServer.totalCount() / 2;
+        int total = new WeatherDataParser().parseInto(StubKmaServer.responseBody(1, half, "60", "127"), series);
+        new WeatherDataParser().parseInto(StubKmaServer.responseBody(2, half, "60", "127"), series);
+        check(total == StubKmaServer.totalCount(), "totalCount가 다르다 : " + total);
+
+        /** 예보 기간 */
+        check(series.size() == HOURS, "슬롯 수가 다르다 : " + series.size());
+        check(series.dateTimeAt(0).equals(FIRST), "첫 슬롯 일시가 다르다 : " + series.dateTimeAt(0));
+        check(series.dateTimeAt(HOURS - 1).equals(FIRST.plusHours(HOURS - 1)),
+            "마지막 슬롯 일시가 다르다 : " + series.dateTimeAt(HOURS - 1));
+        check(series.fcstDateAt(18) == 20261019 && series.fcstTimeAt(18) == 0, "자정 이후 슬롯이 다르다.");
+        check(series.indexOf(FIRST.minusDays(1)) == 0, "기간 이전 일시는 0번 슬롯이어야 한다.");
+        check(series.indexOf(FIRST.plusHours(HOURS)) == HOURS, "기간 이후 일시는 size()여야 한다.");
+        check(series.indexOf(FIRST.plusMinutes(90)) == 2, "정각이 아닌 일시는 다음 슬롯이어야 한다.");
+
+        /** 구간 집계 */
+        Duration day = Duration.ofHours(24);
+        check(series.max(FcstCategory.TMP, FIRST, day) == 21f, "24시간 최고 기온이 다르다 : " + series.max(FcstCategory.TMP, FIRST, day));
+        check(series.min(FcstCategory.TMP, FIRST, day) == 10f, "24시간 최저 기온이 다르다 : " + series.min(FcstCategory.TMP, FIRST, day));
+        LocalDateTime noon = FIRST.plusHours(6);
+        check(series.max(FcstCategory.TMP, noon, Duration.ofHours(3)) == 18f
+                && series.min(FcstCategory.TMP, noon, Duration.ofHours(3)) == 16f,
+            "12시부터 3시간의 기온 범위가 다르다.");
+        check(series.max(FcstCategory.TMX, FIRST, day) == 19f, "일 최고기온이 다르다 : " + series.max(FcstCategory.TMX, FIRST, day));
+        check(Float.isNaN(series.max(FcstCategory.TMP, FIRST.plusHours(HOURS), day)), "기간 밖 구간은 NaN이어야 한다.");
+        check(Float.isNaN(series.max(FcstCategory.TMN, FIRST.plusHours(1), Duration.ofHours(3))),
+            "값이 없는 구간은 NaN이어야 한다.");
+        check(series.max(FcstCategory.TMP, 0, HOURS) == 21f && series.max(FcstCategory.TMP, -5, HOURS * 2) == 21f,
+            "슬롯 구간은 범위를 벗어나도 잘라서 집계해야 한다.");
+
+        /** 결측값과 범주형 값 */
+        check(series.isPresent(FcstCategory.TMN, 0) && !series.isPresent(FcstCategory.TMN, 1), "TMN은 06시에만 있어야 한다.");
+        check(Float.isNaN(series.value(FcstCategory.TMN, 1)), "값이 없으면 NaN이어야 한다.");
+        check(series.isMissing(FcstCategory.WAV, 0) && series.value(FcstCategory.WAV, 0) == -999f, "WAV는 결측값이어야 한다.");
+        check(Float.isNaN(series.max(FcstCategory.WAV, FIRST, day)), "결측값은 집계에서 제외해야 한다.");
+        check("1.0mm".equals(series.text(FcstCategory.PCP, 0)) && series.value(FcstCategory.PCP, 0) == 1f,
+            "PCP 원래 문자열과 대표값이 다르다.");
+        check("강수없음".equals(series.text(FcstCategory.PCP, 1)) && series.value(FcstCategory.PCP, 1) == 0f,
+            "강수없음은 0이어야 한다.");
+        check(series.text(FcstCategory.TMP, 0) == null, "범주형이 아닌 카테고리는 원래 문자열이 없어야 한다.");
+        check("10".equals(series.format(FcstCategory.TMP, 0)), "format의 기온이 다르다 : " + series.format(FcstCategory.TMP, 0));
+        check(MsgConstants.MSG_MISSING_VALUE.equals(series.format(FcstCategory.WAV, 0)), "결측값은 누락으로 표시해야 한다.");
+        check("1.0mm".equals(series.format(FcstCategory.PCP, 0)), "PCP는 원래 문자열로 표시해야 한다.");
+        check(series.format(FcstCategory.TMN, 1) == null, "값이 없으면 null이어야 한다.");
+        series.trimToSize();
+        check(series.size() == HOURS && "10".equals(series.format(FcstCategory.TMP, 0)), "trimToSize 후에도 값이 같아야 한다.");
+
+        /** 시간 순서가 아닌 값 */
+        FcstSeries unordered = new FcstSeries();
+        unordered.put("20261018", "0900", FcstCategory.TMP, "3");
+        unordered.put("20261018", "0700", FcstCategory.TMP, "1");
+        unordered.put("20261018", "0800", FcstCategory.TMP, "2");
+        unordered.put("20261018", "0700", FcstCategory.REH, "70");
+        check(unordered.size() == 3 && unordered.fcstTimeAt(0) == 700 && unordered.fcstTimeAt(2) == 900,
+            "슬롯이 시간 순서로 정렬되어야 한다.");
+        check(unordered.value(FcstCategory.TMP, 1) == 2f && unordered.value(FcstCategory.REH, 0) == 70f,
+            "끼워 넣은 슬롯의 값이 다르다.");
+        check(!unordered.isPresent(FcstCategory.REH, 1), "끼워 넣은 슬롯에 다른 슬롯의 값이 없어야 한다.");
+
+        System.out.printf("slots=%d, TMP 24h=%.0f~%.0f%n", series.size(),
+            series.min(FcstCategory.TMP, FIRST, day), series.max(FcstCategory.TMP, FIRST, day));
+        System.out.println("OK");
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+}
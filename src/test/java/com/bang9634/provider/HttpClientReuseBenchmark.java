@@ -0,0 +1,55 @@
+package com.bang9634.provider;
+
+import com.bang9634.provider.impl.PublicDataPortalProvider;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpClient;
+
+/**
+ * 요청마다 HttpClient를 새로 만드는 방식과 공유 HttpClient를 재사용하는 방식의
+ * 요청당 지연 시간과 호출 스레드 할당량을 로컬 스텁 서버에서 비교한다.
+ */
+public class HttpClientReuseBenchmark {
+    private static final int WARMUP = 200;
+    private static final int REQUESTS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        com.sun.management.ThreadMXBean threadBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        PrintStream out = System.out;
+
+        try (StubKmaServer server = new StubKmaServer()) {
+            /** Provider의 응답 로그 출력이 측정에 섞이지 않도록 표준 출력을 비활성화한다. */
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            for (String mode : new String[]{"per-request", "shared"}) {
+                run(mode, server, WARMUP, threadBean);
+                long[] result = run(mode, server, REQUESTS, threadBean);
+                out.printf("%-12s avg=%.3fms alloc=%dKB/request%n",
+                    mode, result[0] / 1e6 / REQUESTS, result[1] / 1024 / REQUESTS);
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static long[] run(String mode, StubKmaServer server, int requests,
+                              com.sun.management.ThreadMXBean threadBean) throws Exception {
+        long threadId = Thread.currentThread().threadId();
+        long allocBefore = threadBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        PublicDataPortalProvider shared = new PublicDataPortalProvider("stub",
+            PublicDataPortalProvider.sharedHttpClient(), server.endpoint(),
+            PublicDataPortalProvider.DEFAULT_REQUEST_TIMEOUT);
+        for (int i = 0; i < requests; i++) {
+            PublicDataPortalProvider provider = "shared".equals(mode) ? shared
+                : new PublicDataPortalProvider("stub", HttpClient.newHttpClient(), server.endpoint(),
+                    PublicDataPortalProvider.DEFAULT_REQUEST_TIMEOUT);
+            provider.fetchRawWeatherData("20261018", "0500", "60", "127");
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - allocBefore;
+        return new long[]{elapsed, allocated};
+    }
+}
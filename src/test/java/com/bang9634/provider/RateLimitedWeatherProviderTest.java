@@ -0,0 +1,244 @@
+package com.bang9634.provider;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 가짜 Provider로 RateLimitedWeatherProvider를 동시 부하에서 확인한다.
+ * <ul>
+ *   <li>처리율 - 64개 가상 스레드가 동시에 요청해도 초당 허가 수와 버킷 크기를 넘지 않는다.</li>
+ *   <li>우선순위 - BACKGROUND 요청이 밀려 있어도 INTERACTIVE 요청은 그 뒤에 줄 서지 않는다.</li>
+ *   <li>일일 할당량 - 할당량을 넘는 요청은 Provider를 호출하지 않고 거절된다.</li>
+ *   <li>취소와 예외 - 허가 전에 취소하거나 인터럽트된 요청과 Provider가 바로 예외를 던진 요청은
+ *       할당량에서 차감하지 않고, 예외는 호출자에게 전달된다.</li>
+ *   <li>설정 - DAILY_QUOTA가 0 이하이면 할당량을 제한하지 않고, 저장한 오늘의 사용량은 다시 불러와 이어서 센다.</li>
+ * </ul>
+ * 외부 API를 호출하지 않으므로 네트워크 없이 실행할 수 있다.
+ */
+public class RateLimitedWeatherProviderTest {
+    /** 호출 시각을 기록하고 즉시 응답하는 가짜 Provider */
+    private static class FakeProvider implements WeatherProvider {
+        final ConcurrentLinkedQueue<Long> callNanos = new ConcurrentLinkedQueue<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public String fetchRawWeatherData(String baseDate, String baseTime, String nx, String ny,
+                                          int pageNo, int numOfRows) {
+            callNanos.add(System.nanoTime());
+            calls.incrementAndGet();
+            return "{}";
+        }
+
+        @Override
+        public CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny,
+                                                                  int pageNo, int numOfRows) {
+            return CompletableFuture.completedFuture(fetchRawWeatherData(baseDate, baseTime, nx, ny, pageNo, numOfRows));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        throughput();
+        priority();
+        dailyQuota();
+        cancellationAndErrors();
+        quotaConfig();
+        System.out.println("OK");
+    }
+
+    /** 초당 200개, 버킷 20개로 400개를 동시에 요청하면 약 (400 - 20) / 200 = 1.9초가 걸려야 한다. */
+    private static void throughput() throws Exception {
+        FakeProvider fake = new FakeProvider();
+        RateLimiter limiter = new RateLimiter(200, 20, 0, Duration.ofSeconds(10), Clock.systemUTC());
+        WeatherProvider provider = new RateLimitedWeatherProvider(fake, limiter, RateLimiter.Priority.INTERACTIVE);
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 400; i++) {
+                boolean async = i % 2 == 0;
+                executor.submit(() -> {
+                    if (async) return provider.fetchRawWeatherDataAsync("20250101", "0500", "60", "127").join();
+                    return provider.fetchRawWeatherData("20250101", "0500", "60", "127");
+                });
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        int maxInWindow = maxCallsWithin(fake.callNanos, 100_000_000L);
+        System.out.printf("throughput: calls=%d elapsed=%.2fs max/100ms=%d granted=%d delayed=%d rejected=%d%n",
+                fake.calls.get(), seconds, maxInWindow,
+                limiter.getGrantedCount(), limiter.getDelayedCount(), limiter.getRejectedCount());
+        check(fake.calls.get() == 400, "모든 요청이 허가되어야 한다.");
+        check(seconds >= 1.8, "초당 허가 수를 넘지 않아야 한다 : " + seconds);
+        /** 100ms 동안 최대 버킷 20개 + 20개(초당 200개)까지 허용된다. 타이머 오차를 감안해 여유를 둔다. */
+        check(maxInWindow <= 45, "100ms 동안 허가 수가 너무 많다 : " + maxInWindow);
+    }
+
+    /** BACKGROUND 요청 200개가 밀려 있는 동안 보낸 INTERACTIVE 요청은 한 자리 간격 안에 허가되어야 한다. */
+    private static void priority() throws Exception {
+        FakeProvider fake = new FakeProvider();
+        RateLimiter limiter = new RateLimiter(50, 8, 0, Duration.ofSeconds(30), Clock.systemUTC());
+        WeatherProvider background = new RateLimitedWeatherProvider(fake, limiter, RateLimiter.Priority.BACKGROUND);
+        WeatherProvider interactive = new RateLimitedWeatherProvider(fake, limiter, RateLimiter.Priority.INTERACTIVE);
+
+        List<CompletableFuture<String>> backlog = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            backlog.add(background.fetchRawWeatherDataAsync("20250101", "0500", "60", "127"));
+        }
+        Thread.sleep(500);
+
+        long worstMillis = 0;
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            interactive.fetchRawWeatherData("20250101", "0500", "60", "127");
+            worstMillis = Math.max(worstMillis, (System.nanoTime() - start) / 1_000_000);
+            Thread.sleep(100);
+        }
+        long pending = backlog.stream().filter(future -> !future.isDone()).count();
+        CompletableFuture.allOf(backlog.toArray(new CompletableFuture[0])).join();
+        System.out.printf("priority: interactive worst=%dms while background pending=%d, granted=%d%n",
+                worstMillis, pending, limiter.getGrantedCount());
+        check(pending > 0, "INTERACTIVE 요청을 보내는 동안 BACKGROUND 요청이 밀려 있어야 한다.");
+        /** 한 자리 간격은 20ms이다. 밀린 BACKGROUND 요청(약 4초 분량) 뒤에 줄 서지 않았는지 확인한다. */
+        check(worstMillis < 100, "INTERACTIVE 요청이 BACKGROUND 요청 뒤에 줄 섰다 : " + worstMillis + "ms");
+    }
+
+    /** 일일 할당량 100개 중 BACKGROUND는 95개까지, INTERACTIVE는 나머지 5개까지 허가된다. */
+    private static void dailyQuota() throws Exception {
+        FakeProvider fake = new FakeProvider();
+        RateLimiter limiter = new RateLimiter(10_000, 1_000, 100, Duration.ofSeconds(1), Clock.systemUTC());
+        WeatherProvider background = new RateLimitedWeatherProvider(fake, limiter, RateLimiter.Priority.BACKGROUND);
+        WeatherProvider interactive = new RateLimitedWeatherProvider(fake, limiter, RateLimiter.Priority.INTERACTIVE);
+
+        AtomicInteger backgroundRejected = new AtomicInteger();
+        AtomicInteger interactiveRejected = new AtomicInteger();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 150; i++) {
+                executor.submit(() -> call(background, backgroundRejected));
+            }
+        }
+        for (int i = 0; i < 10; i++) {
+            call(interactive, interactiveRejected);
+        }
+        System.out.printf("quota: calls=%d used=%d background rejected=%d interactive rejected=%d%n",
+                fake.calls.get(), limiter.getQuotaUsedToday(), backgroundRejected.get(), interactiveRejected.get());
+        check(fake.calls.get() == 100, "할당량만큼만 호출해야 한다 : " + fake.calls.get());
+        check(backgroundRejected.get() == 55, "BACKGROUND는 95개까지 허가되어야 한다 : " + backgroundRejected.get());
+        check(interactiveRejected.get() == 5, "INTERACTIVE는 남은 5개까지 허가되어야 한다 : " + interactiveRejected.get());
+    }
+
+    private static void cancellationAndErrors() throws Exception {
+        FakeProvider fake = new FakeProvider();
+        /** 초당 1개, 버킷 1개이므로 두 번째 요청부터 약 1초씩 기다린다. */
+        RateLimiter limiter = new RateLimiter(1, 1, 100, Duration.ofSeconds(30), Clock.systemUTC());
+        WeatherProvider provider = new RateLimitedWeatherProvider(fake, limiter, RateLimiter.Priority.INTERACTIVE);
+        provider.fetchRawWeatherDataAsync("20250101", "0500", "60", "127").join();
+
+        CompletableFuture<String> waiting = provider.fetchRawWeatherDataAsync("20250101", "0500", "60", "127");
+        check(limiter.getQuotaUsedToday() == 2, "대기 중인 요청도 할당량을 차감해야 한다.");
+        waiting.cancel(true);
+        Thread.sleep(1500);
+        check(fake.calls.get() == 1, "취소한 요청은 보내지 않아야 한다 : " + fake.calls.get());
+        check(limiter.getQuotaUsedToday() == 1, "취소한 요청의 할당량은 되돌려야 한다 : " + limiter.getQuotaUsedToday());
+
+        WeatherProvider throwing = new RateLimitedWeatherProvider(new FakeProvider() {
+            @Override
+            public CompletableFuture<String> fetchRawWeatherDataAsync(String baseDate, String baseTime, String nx, String ny,
+                                                                      int pageNo, int numOfRows) {
+                throw new IllegalArgumentException("잘못된 서비스 키");
+            }
+        }, limiter, RateLimiter.Priority.INTERACTIVE);
+        try {
+            throwing.fetchRawWeatherDataAsync("20250101", "0500", "60", "127").get(5, TimeUnit.SECONDS);
+            check(false, "Provider의 예외가 전달되어야 한다.");
+        } catch (ExecutionException e) {
+            check(e.getCause() instanceof IllegalArgumentException, "Provider의 예외가 그대로 전달되어야 한다 : " + e.getCause());
+        }
+        System.out.printf("cancel: calls=%d used=%d%n", fake.calls.get(), limiter.getQuotaUsedToday());
+        check(limiter.getQuotaUsedToday() == 1, "보내지 못한 요청의 할당량은 되돌려야 한다 : " + limiter.getQuotaUsedToday());
+
+        /** 동기 허가를 기다리다 인터럽트되면 예외를 다시 던지고 할당량을 되돌린다. */
+        RateLimiter blocking = new RateLimiter(0.5, 1, 100, Duration.ofSeconds(30), Clock.systemUTC());
+        blocking.acquire(RateLimiter.Priority.INTERACTIVE);
+        AtomicInteger interrupted = new AtomicInteger();
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            try {
+                blocking.acquire(RateLimiter.Priority.INTERACTIVE);
+            } catch (InterruptedException e) {
+                interrupted.incrementAndGet();
+            } catch (RateLimitExceededException e) {
+                e.printStackTrace();
+            }
+        });
+        Thread.sleep(200);
+        waiter.interrupt();
+        waiter.join(5_000);
+        check(interrupted.get() == 1, "대기 중 인터럽트되면 InterruptedException을 던져야 한다.");
+        check(blocking.getQuotaUsedToday() == 1 && blocking.getGrantedCount() == 1,
+            "인터럽트된 요청의 할당량은 되돌려야 한다 : " + blocking.getQuotaUsedToday());
+    }
+
+    private static void quotaConfig() throws Exception {
+        check(RateLimiter.dailyQuotaValue("0") == 0 && RateLimiter.dailyQuotaValue("-1") == 0,
+            "DAILY_QUOTA가 0 이하이면 할당량을 제한하지 않아야 한다.");
+        check(RateLimiter.dailyQuotaValue("") == RateLimiter.DEFAULT_DAILY_QUOTA
+                && RateLimiter.dailyQuotaValue("abc") == RateLimiter.DEFAULT_DAILY_QUOTA,
+            "DAILY_QUOTA가 없거나 숫자가 아니면 기본값을 사용해야 한다.");
+        check(RateLimiter.dailyQuotaValue("500") == 500, "DAILY_QUOTA 값을 사용해야 한다.");
+
+        RateLimiter unlimited = new RateLimiter(10_000, 1_000, RateLimiter.dailyQuotaValue("0"), Duration.ofSeconds(1),
+            Clock.systemUTC());
+        for (int i = 0; i < 500; i++) unlimited.acquire(RateLimiter.Priority.BACKGROUND);
+        check(unlimited.getRejectedCount() == 0, "할당량이 없으면 거절하지 않아야 한다 : " + unlimited.getRejectedCount());
+
+        /** 저장한 사용량을 새 RateLimiter가 이어서 센다. 다른 날짜의 값은 무시한다. */
+        RateLimiter before = new RateLimiter(10_000, 1_000, 100, Duration.ofSeconds(1), Clock.systemUTC());
+        for (int i = 0; i < 30; i++) before.acquire(RateLimiter.Priority.INTERACTIVE);
+        String saved = before.usageValue();
+        RateLimiter after = new RateLimiter(10_000, 1_000, 100, Duration.ofSeconds(1), Clock.systemUTC());
+        after.restoreUsage(saved);
+        check(after.getQuotaUsedToday() == 30, "저장한 사용량을 불러와야 한다 : " + saved + " -> " + after.getQuotaUsedToday());
+        for (int i = 0; i < 70; i++) after.acquire(RateLimiter.Priority.INTERACTIVE);
+        try {
+            after.acquire(RateLimiter.Priority.INTERACTIVE);
+            check(false, "불러온 사용량을 포함하여 할당량을 넘으면 거절해야 한다.");
+        } catch (RateLimitExceededException expected) {
+        }
+        RateLimiter stale = new RateLimiter(10_000, 1_000, 100, Duration.ofSeconds(1), Clock.systemUTC());
+        stale.restoreUsage("1:50");
+        stale.restoreUsage("잘못된 값");
+        check(stale.getQuotaUsedToday() == 0, "다른 날짜나 올바르지 않은 사용량은 무시해야 한다 : " + stale.getQuotaUsedToday());
+        System.out.printf("config: saved=%s used=%d%n", saved, after.getQuotaUsedToday());
+    }
+
+    private static void call(WeatherProvider provider, AtomicInteger rejected) {
+        try {
+            provider.fetchRawWeatherData("20250101", "0500", "60", "127");
+        } catch (RateLimitExceededException e) {
+            rejected.incrementAndGet();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static int maxCallsWithin(ConcurrentLinkedQueue<Long> callNanos, long windowNanos) {
+        long[] sorted = callNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        int max = 0;
+        for (int lo = 0, hi = 0; hi < sorted.length; hi++) {
+            while (sorted[hi] - sorted[lo] >= windowNanos) lo++;
+            max = Math.max(max, hi - lo + 1);
+        }
+        return max;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+}
@@ -0,0 +1,251 @@
+package com.bang9634.provider;
+
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.ForecastKey;
+import com.bang9634.model.GridCell;
+import com.bang9634.provider.impl.PublicDataPortalProvider;
+import com.bang9634.provider.parser.WeatherDataParser;
+import com.bang9634.service.ForecastCache;
+import com.bang9634.service.WeatherService;
+
+import java.io.PrintStream;
+import java.io.OutputStream;
+import java.net.http.HttpClient;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 장애를 주입하는 StubKmaServer로 ResilientWeatherProvider를 확인한다.
+ * <ul>
+ *   <li>재시도 - 30% 실패율에서 재시도 없는 호출과 성공률을 비교한다.</li>
+ *   <li>헤징 - 3%의 요청이 1초 늦게 응답할 때 p50/p99 지연을 비교한다.</li>
+ *   <li>NODATA - JSON resultCode 03 응답은 다시 시도하지 않는다.</li>
+ *   <li>회로 차단기 - 서버가 모든 요청에 실패하면 요청을 보내지 않고, WeatherService는 마지막 예보를 대신 반환한다.</li>
+ *   <li>시험 요청 반납 - 시험 요청이 취소되어도 HALF_OPEN에 머무르지 않고, 다음 요청으로 다시 닫힌다.</li>
+ *   <li>요청 한도 - 허가를 기다린 시간은 시도별 제한 시간에 포함되지 않고, 허가받지 못한 요청은
+ *       RateLimitExceededException으로 바로 실패하며 회로 차단기에 기록되지 않는다.</li>
+ *   <li>서비스 키 검증 - 서비스 키 오류만 유효하지 않은 키로 판단하고, 서버 장애나 회로 차단으로 실패하면
+ *       검증하지 못한 것으로 예외 완료된다.</li>
+ * </ul>
+ */
+public class ResilientWeatherProviderTest {
+    private static final int CALLS = 200;
+
+    public static void main(String[] args) throws Exception {
+        /** Provider가 응답마다 출력하는 로그를 숨긴다. */
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try (StubKmaServer server = new StubKmaServer()) {
+            WeatherProvider plain = new PublicDataPortalProvider("test-key", HttpClient.newHttpClient(),
+                    server.endpoint(), Duration.ofSeconds(10));
+
+            retry(out, server, plain);
+            hedging(out, server, plain);
+            noData(out, server, plain);
+            circuitBreaker(out, server, plain);
+            probeRelease(out, server, plain);
+            rateLimited(out, plain);
+            keyValidation(out, server, plain);
+        } finally {
+            System.setOut(out);
+        }
+        System.out.println("OK");
+    }
+
+    private static void retry(PrintStream out, StubKmaServer server, WeatherProvider plain) {
+        server.setFailureRate(0.3);
+        ResilientWeatherProvider resilient = new ResilientWeatherProvider(plain, new ResilientWeatherProvider.Policy(
+                Duration.ofSeconds(2), 5, Duration.ofMillis(10), Duration.ofMillis(100),
+                false, Duration.ofMillis(10), 1000, Duration.ofSeconds(1)));
+
+        int plainOk = countSuccesses(plain);
+        int resilientOk = countSuccesses(resilient);
+        out.printf("retry: plain %d/%d, resilient %d/%d (attempts=%d retries=%d)%n",
+                plainOk, CALLS, resilientOk, CALLS, resilient.getAttemptCount(), resilient.getRetryCount());
+        check(resilientOk >= CALLS * 0.98, "재시도 후 성공률이 너무 낮다 : " + resilientOk);
+        server.setFailureRate(0);
+    }
+
+    private static void hedging(PrintStream out, StubKmaServer server, WeatherProvider plain) {
+        server.setLatencyMillis(20);
+        ResilientWeatherProvider hedged = new ResilientWeatherProvider(plain, new ResilientWeatherProvider.Policy(
+                Duration.ofSeconds(5), 1, Duration.ofMillis(10), Duration.ofMillis(100),
+                true, Duration.ofMillis(30), 1000, Duration.ofSeconds(1)));
+        /** 헤징 기준(p95)을 계산할 만큼 응답 지연을 먼저 모은다. */
+        latencies(hedged);
+        server.setTailLatency(0.03, 1000);
+
+        long[] plainLatency = latencies(plain);
+        long[] hedgedLatency = latencies(hedged);
+        out.printf("hedging: plain p50=%dms p99=%dms, hedged p50=%dms p99=%dms (hedges=%d wins=%d delay=%dms)%n",
+                percentile(plainLatency, 0.5), percentile(plainLatency, 0.99),
+                percentile(hedgedLatency, 0.5), percentile(hedgedLatency, 0.99),
+                hedged.getHedgeCount(), hedged.getHedgeWinCount(), hedged.getHedgeDelayMillis());
+        check(percentile(hedgedLatency, 0.99) < 500, "헤징 후 p99가 너무 크다 : " + percentile(hedgedLatency, 0.99));
+        server.setLatencyMillis(0);
+        server.setTailLatency(0, 0);
+    }
+
+    private static void noData(PrintStream out, StubKmaServer server, WeatherProvider plain) throws Exception {
+        server.setErrorResultCode("03");
+        ResilientWeatherProvider resilient = new ResilientWeatherProvider(plain);
+        try {
+            resilient.fetchRawWeatherData("20261018", "0500", "60", "127");
+            check(false, "NODATA 응답은 실패해야 한다.");
+        } catch (WeatherApiException e) {
+            out.printf("nodata: %s attempts=%d%n", e.getErrorType(), resilient.getAttemptCount());
+            check(e.getErrorType() == WeatherApiException.ErrorType.NO_DATA, "NODATA로 분류되어야 한다 : " + e.getErrorType());
+            check(resilient.getAttemptCount() == 1, "NODATA는 다시 시도하지 않아야 한다.");
+        }
+        server.setErrorResultCode(null);
+    }
+
+    private static void circuitBreaker(PrintStream out, StubKmaServer server, WeatherProvider plain) throws Exception {
+        ResilientWeatherProvider resilient = new ResilientWeatherProvider(plain, new ResilientWeatherProvider.Policy(
+                Duration.ofSeconds(1), 2, Duration.ofMillis(10), Duration.ofMillis(50),
+                false, Duration.ofMillis(10), 3, Duration.ofSeconds(30)));
+        ForecastCache cache = new ForecastCache(16);
+        WeatherService service = new WeatherService(resilient, new WeatherDataParser(), cache);
+        GridCell cell = new GridCell(60, 127);
+
+        /** 이전 발표시각에 받은 예보가 캐시에 남아 있다고 가정한다. */
+        FcstSeries previous = new WeatherDataParser().parse(StubKmaServer.responseBody(1, 12, "60", "127"));
+        cache.put(new ForecastKey("20000101", "2300", 60, 127), previous);
+
+        server.setFailureRate(1.0);
+        int before = server.requestCount();
+        List<FcstSeries> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(service.getWeatherAsync(cell).join());
+        }
+        int sent = server.requestCount() - before;
+        out.printf("circuit: state=%s sent=%d shortCircuited=%d stale=%b%n",
+                resilient.getCircuitBreaker().getState(), sent, resilient.getShortCircuitCount(),
+                results.stream().allMatch(data -> data == previous));
+        check(resilient.getCircuitBreaker().getState() == CircuitBreaker.State.OPEN, "회로 차단기가 열려야 한다.");
+        check(sent <= 3, "회로 차단기가 열린 뒤에는 요청을 보내지 않아야 한다 : " + sent);
+        check(results.stream().allMatch(data -> data == previous), "마지막 예보를 대신 반환해야 한다.");
+        server.setFailureRate(0);
+    }
+
+    private static void probeRelease(PrintStream out, StubKmaServer server, WeatherProvider plain) throws Exception {
+        ResilientWeatherProvider resilient = new ResilientWeatherProvider(plain, new ResilientWeatherProvider.Policy(
+                Duration.ofSeconds(1), 1, Duration.ofMillis(10), Duration.ofMillis(50),
+                false, Duration.ofMillis(10), 2, Duration.ofMillis(100)));
+        server.setFailureRate(1.0);
+        for (int i = 0; i < 2; i++) {
+            resilient.fetchRawWeatherDataAsync("20261018", "0500", "60", "127").handle((body, e) -> null).join();
+        }
+        check(resilient.getCircuitBreaker().getState() == CircuitBreaker.State.OPEN, "회로 차단기가 열려야 한다.");
+        server.setFailureRate(0);
+        server.setLatencyMillis(300);
+        Thread.sleep(150);
+
+        /** 시험 요청을 보내자마자 취소한다. */
+        CompletableFuture<String> probe = resilient.fetchRawWeatherDataAsync("20261018", "0500", "60", "127");
+        check(resilient.getCircuitBreaker().getState() == CircuitBreaker.State.HALF_OPEN, "시험 요청 중에는 HALF_OPEN이어야 한다.");
+        probe.cancel(true);
+        Thread.sleep(50);
+        CircuitBreaker.State afterCancel = resilient.getCircuitBreaker().getState();
+        server.setLatencyMillis(0);
+        String body = resilient.fetchRawWeatherDataAsync("20261018", "0500", "60", "127").join();
+        out.printf("probe: afterCancel=%s afterSuccess=%s%n", afterCancel, resilient.getCircuitBreaker().getState());
+        check(afterCancel == CircuitBreaker.State.OPEN, "취소된 시험 요청은 반납되어야 한다 : " + afterCancel);
+        check(body != null && resilient.getCircuitBreaker().getState() == CircuitBreaker.State.CLOSED, "다음 시험 요청으로 닫혀야 한다.");
+    }
+
+    private static void rateLimited(PrintStream out, WeatherProvider plain) throws Exception {
+        /** 초당 2개, 버킷 1개이므로 다섯 번째 요청은 약 2초를 기다린다. 시도별 제한 시간은 300ms이다. */
+        RateLimiter limiter = new RateLimiter(2, 1, 0, Duration.ofSeconds(30), Clock.systemUTC());
+        ResilientWeatherProvider.Policy policy = new ResilientWeatherProvider.Policy(
+                Duration.ofMillis(300), 3, Duration.ofMillis(10), Duration.ofMillis(50),
+                false, Duration.ofMillis(10), 2, Duration.ofSeconds(30));
+        ResilientWeatherProvider resilient = new ResilientWeatherProvider(plain, policy, limiter, RateLimiter.Priority.INTERACTIVE);
+        List<CompletableFuture<String>> calls = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            calls.add(resilient.fetchRawWeatherDataAsync("20261018", "0500", "60", "127"));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+        out.printf("rateLimited: attempts=%d timeouts=%d state=%s%n",
+                resilient.getAttemptCount(), resilient.getTimeoutCount(), resilient.getCircuitBreaker().getState());
+        check(resilient.getTimeoutCount() == 0 && resilient.getAttemptCount() == 5, "허가 대기가 제한 시간에 포함되었다.");
+
+        /** 허가까지 maxWait보다 오래 기다려야 하면 다시 시도하지 않고 RateLimitExceededException으로 실패한다. */
+        RateLimiter strict = new RateLimiter(1, 1, 0, Duration.ofMillis(100), Clock.systemUTC());
+        ResilientWeatherProvider limited = new ResilientWeatherProvider(plain, policy, strict, RateLimiter.Priority.INTERACTIVE);
+        int rejected = 0;
+        for (int i = 0; i < 4; i++) {
+            try {
+                limited.fetchRawWeatherDataAsync("20261018", "0500", "60", "127").join();
+            } catch (CompletionException e) {
+                check(e.getCause() instanceof RateLimitExceededException, "요청 한도 초과로 실패해야 한다 : " + e.getCause());
+                rejected++;
+            }
+        }
+        check(rejected == 3 && limited.getAttemptCount() == 1, "거절된 요청은 보내지 않아야 한다 : " + limited.getAttemptCount());
+        check(limited.getCircuitBreaker().getState() == CircuitBreaker.State.CLOSED, "요청 한도 초과는 회로 차단기에 기록하지 않아야 한다.");
+    }
+
+    private static void keyValidation(PrintStream out, StubKmaServer server, WeatherProvider plain) {
+        ResilientWeatherProvider resilient = new ResilientWeatherProvider(plain, new ResilientWeatherProvider.Policy(
+                Duration.ofSeconds(1), 2, Duration.ofMillis(10), Duration.ofMillis(50),
+                false, Duration.ofMillis(10), 2, Duration.ofSeconds(30)));
+        WeatherService service = new WeatherService(resilient, new WeatherDataParser(), new ForecastCache(16));
+        check(service.validateServiceKeyAsync().join(), "정상 응답이면 유효한 키여야 한다.");
+
+        /** 30 : SERVICE_KEY_IS_NOT_REGISTERED_ERROR */
+        server.setErrorResultCode("30");
+        check(!service.validateServiceKeyAsync().join(), "서비스 키 오류이면 유효하지 않은 키여야 한다.");
+        check(!service.isServiceKeyValid(), "서비스 키 오류이면 false를 반환해야 한다.");
+        server.setErrorResultCode(null);
+
+        /** 서버 장애로 실패하고 이어서 회로 차단기가 열려도 키가 잘못되었다고 판단하지 않는다. */
+        server.setFailureRate(1.0);
+        int unverified = 0;
+        for (int i = 0; i < 3; i++) {
+            try {
+                service.validateServiceKeyAsync().join();
+                check(false, "검증하지 못하면 예외 완료되어야 한다.");
+            } catch (CompletionException e) {
+                check(!WeatherApiException.isServiceKeyFailure(e), "서비스 키 오류로 분류되면 안 된다 : " + e.getCause());
+                unverified++;
+            }
+        }
+        check(!service.isServiceKeyValid(), "검증하지 못한 키는 유효하다고 확인된 것이 아니다.");
+        out.printf("keyValidation: unverified=%d state=%s%n", unverified, resilient.getCircuitBreaker().getState());
+        check(resilient.getCircuitBreaker().getState() == CircuitBreaker.State.OPEN, "회로 차단기가 열려야 한다.");
+        server.setFailureRate(0);
+    }
+
+    private static int countSuccesses(WeatherProvider provider) {
+        List<CompletableFuture<Boolean>> calls = new ArrayList<>();
+        for (int i = 0; i < CALLS; i++) {
+            calls.add(provider.fetchRawWeatherDataAsync("20261018", "0500", "60", "127").handle((body, e) -> e == null));
+        }
+        return (int) calls.stream().filter(CompletableFuture::join).count();
+    }
+
+    private static long[] latencies(WeatherProvider provider) {
+        long[] millis = new long[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            long start = System.nanoTime();
+            provider.fetchRawWeatherDataAsync("20261018", "0500", "60", "127").join();
+            millis[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[(int) Math.ceil(sorted.length * p) - 1];
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+}
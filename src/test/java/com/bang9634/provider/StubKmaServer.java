@@ -0,0 +1,209 @@
+package com.bang9634.provider;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 기상청 단기예보조회 API를 흉내내는 로컬 스텁 서버.
+ * <p>
+ * 벤치마크와 테스트에서 실제 apis.data.go.kr 대신 사용한다.
+ * pageNo, numOfRows 파라미터에 맞춰 4일치(시간당 12개 카테고리, 총 1160개 항목) 예보 중 해당 페이지를 JSON으로 응답하며,
+ * 응답 지연과 실패 비율, 일부 요청만 느리게 응답하는 꼬리 지연, 오류 resultCode를 설정할 수 있다.
+ */
+public class StubKmaServer implements AutoCloseable {
+    /** 시간당 카테고리 (단기예보 응답 순서) */
+    private static final String[] CATEGORIES = {
+        "TMP", "UUU", "VVV", "VEC", "WSD", "SKY", "PTY", "POP", "WAV", "PCP", "REH", "SNO"
+    };
+    /** 예보 시간대 수 (4일치) */
+    private static final int HOURS = 96;
+
+    private final HttpServer server;
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile long latencyMillis;
+    private volatile double failureRate;
+    private volatile double tailRate;
+    private volatile long tailLatencyMillis;
+    private volatile String errorResultCode;
+
+    /**
+     * 임의의 빈 포트로 스텁 서버를 시작한다.
+     *
+     * @throws  IOException
+     *          서버 소켓을 열 수 없을 경우 예외를 던진다.
+     */
+    public StubKmaServer() throws IOException {
+        /** keep-alive 연결에서 Nagle 알고리즘과 지연 ACK가 겹쳐 생기는 40ms 지연을 막는다. */
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/getVilageFcst", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    /** @return  Provider에 전달할 엔드포인트 URL */
+    public String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/getVilageFcst";
+    }
+
+    /** @return  지금까지 받은 요청 수 */
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    /** 응답 전 지연 시간을 설정한다. */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /** 503 응답을 보낼 확률(0~1)을 설정한다. */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    /** tailRate 비율의 요청을 tailLatencyMillis만큼 더 늦게 응답한다. */
+    public void setTailLatency(double tailRate, long tailLatencyMillis) {
+        this.tailRate = tailRate;
+        this.tailLatencyMillis = tailLatencyMillis;
+    }
+
+    /** null이 아니면 예보 대신 해당 resultCode의 JSON 오류 응답을 보낸다. (예: "03" NODATA_ERROR) */
+    public void setErrorResultCode(String errorResultCode) {
+        this.errorResultCode = errorResultCode;
+    }
+
+    /** @return  전체 예보 항목 수 (시간당 12개 + 일별 TMN, TMX) */
+    public static int totalCount() {
+        return HOURS * CATEGORIES.length + 2 * (HOURS / 24);
+    }
+
+    /**
+     * 요청한 페이지의 단기예보 JSON 응답을 만든다.
+     *
+     * @param   pageNo
+     *          페이지 번호 (1부터)
+     * @param   numOfRows
+     *          한 페이지 결과 수
+     * @param   nx
+     *          예보지점 X 좌표
+     * @param   ny
+     *          예보지점 Y 좌표
+     * @return  단기예보조회 API 형식의 JSON 문자열
+     */
+    public static String responseBody(int pageNo, int numOfRows, String nx, String ny) {
+        int total = totalCount();
+        int from = Math.min((pageNo - 1) * numOfRows, total);
+        int to = Math.min(from + numOfRows, total);
+        StringBuilder sb = new StringBuilder(256 + (to - from) * 160);
+        sb.append("{\"response\":{\"header\":{\"resultCode\":\"00\",\"resultMsg\":\"NORMAL_SERVICE\"},")
+            .append("\"body\":{\"dataType\":\"JSON\",\"items\":{\"item\":[");
+        int row = 0;
+        boolean first = true;
+        for (int hour = 0; hour < HOURS && row < to; hour++) {
+            int fcstHour = (6 + hour) % 24;
+            String fcstDate = String.valueOf(20261018 + (6 + hour) / 24);
+            String fcstTime = String.format("%02d00", fcstHour);
+            for (int c = 0; c <= CATEGORIES.length; c++) {
+                String category;
+                if (c < CATEGORIES.length) {
+                    category = CATEGORIES[c];
+                } else if (fcstHour == 6) {
+                    category = "TMN";
+                } else if (fcstHour == 15) {
+                    category = "TMX";
+                } else {
+                    continue;
+                }
+                if (row >= from && row < to) {
+                    if (!first) sb.append(',');
+                    first = false;
+                    sb.append("{\"baseDate\":\"20261018\",\"baseTime\":\"0500\",\"category\":\"").append(category)
+                        .append("\",\"fcstDate\":\"").append(fcstDate)
+                        .append("\",\"fcstTime\":\"").append(fcstTime)
+                        .append("\",\"fcstValue\":\"").append(value(category, hour))
+                        .append("\",\"nx\":").append(nx).append(",\"ny\":").append(ny).append('}');
+                }
+                row++;
+            }
+        }
+        sb.append("]},\"pageNo\":").append(pageNo)
+            .append(",\"numOfRows\":").append(numOfRows)
+            .append(",\"totalCount\":").append(total).append("}}}");
+        return sb.toString();
+    }
+
+    private static String value(String category, int hour) {
+        return switch (category) {
+            case "SKY" -> String.valueOf(1 + (hour % 3) * (hour % 2 == 0 ? 1 : 0) + (hour % 5 == 0 ? 2 : 0));
+            case "PTY" -> String.valueOf(hour % 7 == 0 ? 1 : 0);
+            case "PCP" -> hour % 7 == 0 ? "1.0mm" : "강수없음";
+            case "SNO" -> "적설없음";
+            case "TMP", "TMN", "TMX" -> String.valueOf(10 + hour % 12);
+            case "UUU", "VVV" -> String.valueOf((hour % 9 - 4) / 2.0);
+            case "WAV" -> "-999";
+            default -> String.valueOf(hour % 100);
+        };
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        Map<String, String> query = parseQuery(exchange.getRequestURI());
+        try {
+            if (latencyMillis > 0) Thread.sleep(latencyMillis);
+            if (tailRate > 0 && Math.random() < tailRate) Thread.sleep(tailLatencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body;
+        int status;
+        if (failureRate > 0 && Math.random() < failureRate) {
+            status = 503;
+            body = "<OpenAPI_ServiceResponse><cmmMsgHeader><errMsg>SERVICE ERROR</errMsg><returnAuthMsg>SERVICE_TIMEOUT_ERROR</returnAuthMsg></cmmMsgHeader></OpenAPI_ServiceResponse>"
+                .getBytes(StandardCharsets.UTF_8);
+        } else if (errorResultCode != null) {
+            status = 200;
+            body = ("{\"response\":{\"header\":{\"resultCode\":\"" + errorResultCode + "\",\"resultMsg\":\"NO_DATA\"}}}")
+                .getBytes(StandardCharsets.UTF_8);
+        } else {
+            status = 200;
+            body = responseBody(
+                Integer.parseInt(query.getOrDefault("pageNo", "1")),
+                Integer.parseInt(query.getOrDefault("numOfRows", "12")),
+                query.getOrDefault("nx", "60"),
+                query.getOrDefault("ny", "127")
+            ).getBytes(StandardCharsets.UTF_8);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(URI uri) {
+        Map<String, String> query = new HashMap<>();
+        String raw = uri.getRawQuery();
+        if (raw == null) return query;
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) query.put(pair.substring(0, eq), pair.substring(eq + 1));
+        }
+        return query;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        ((java.util.concurrent.ExecutorService) server.getExecutor()).shutdownNow();
+    }
+}
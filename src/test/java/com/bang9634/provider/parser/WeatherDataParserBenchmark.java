@@ -0,0 +1,86 @@
+package com.bang9634.provider.parser;
+
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.Item;
+import com.bang9634.provider.StubKmaServer;
+import com.bang9634.util.constants.WeatherConstants;
+import com.bang9634.util.mapper.FcstCodeMapper;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 스트리밍 파서와 기존 readTree -> toString -> readValue 방식의 처리량과 파싱당 할당량을 비교한다.
+ * <p>
+ * 응답은 StubKmaServer가 만드는 단기예보 응답 형식을 사용하며, 항목 수는 12, 290, 1160개이다.
+ * <pre>
+ *     mvn test-compile
+ *     java -cp target/test-classes:target/classes:(의존성) org.openjdk.jmh.Main WeatherDataParserBenchmark -prof gc
+ * </pre>
+ * 파싱당 할당 바이트는 -prof gc의 gc.alloc.rate.norm 값으로 확인한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WeatherDataParserBenchmark {
+    @Param({"12", "290", "1160"})
+    public int items;
+
+    private String response;
+    private WeatherDataParser streamingParser;
+    private ObjectMapper mapper;
+
+    @Setup
+    public void setUp() {
+        response = StubKmaServer.responseBody(1, items, "60", "127");
+        streamingParser = new WeatherDataParser();
+        mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Benchmark
+    public FcstSeries streaming() throws Exception {
+        return streamingParser.parse(response);
+    }
+
+    @Benchmark
+    public Map<String, String> treeRoundTrip() throws Exception {
+        JsonNode root = mapper.readTree(response);
+        String resultCode = root.path("response").path("header").path("resultCode").asText();
+        if (!"00".equals(resultCode)) {
+            throw new IllegalArgumentException(resultCode);
+        }
+        JsonNode itemNode = root.path("response").path("body").path("items").path("item");
+        List<Item> itemList = mapper.readValue(
+            itemNode.toString(),
+            TypeFactory.defaultInstance().constructCollectionType(List.class, Item.class)
+        );
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put(WeatherConstants.LABEL_FCST_DATE, itemList.get(0).getFcstDate());
+        data.put(WeatherConstants.LABEL_FCST_TIME, itemList.get(0).getFcstTime());
+        for (Item item : itemList) {
+            data.put(FcstCodeMapper.CATEGORY_CODE_MAP.get(item.getCategory()), FcstCodeMapper.getSubMappingTableValue(item));
+        }
+        return data;
+    }
+}
@@ -0,0 +1,56 @@
+package com.bang9634.service;
+
+import com.bang9634.model.GridCell;
+import com.bang9634.provider.StubKmaServer;
+import com.bang9634.provider.impl.PublicDataPortalProvider;
+import com.bang9634.provider.parser.WeatherDataParser;
+import com.bang9634.util.reader.GridCoordinateCatalog;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * 로컬 스텁 서버를 대상으로 시/도 전체 격자를 동시 요청 수별로 일괄 조회하여
+ * 처리량과 격자별 지연 시간 분포, 실패 수를 출력한다.
+ */
+public class BatchWeatherFetchBenchmark {
+    public static void main(String[] args) throws Exception {
+        String region = args.length > 0 ? args[0] : "경기도";
+        List<GridCell> cells = GridCoordinateCatalog.getInstance().getCells(region);
+        PrintStream out = System.out;
+
+        try (StubKmaServer server = new StubKmaServer()) {
+            server.setLatencyMillis(50);
+            server.setFailureRate(0.01);
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            out.printf("region=%s cells=%d (stub latency 50ms, failure 1%%)%n", region, cells.size());
+            for (int concurrency : new int[]{1, 8, 32, 128}) {
+                /** 캐시 적중을 피하기 위해 매 실행마다 새 WeatherService를 사용한다. */
+                WeatherService service = new WeatherService(
+                    new PublicDataPortalProvider("stub", PublicDataPortalProvider.sharedHttpClient(),
+                        server.endpoint(), PublicDataPortalProvider.DEFAULT_REQUEST_TIMEOUT),
+                    new WeatherDataParser());
+                BatchWeatherFetcher fetcher = new BatchWeatherFetcher(service, concurrency, 0);
+
+                long start = System.nanoTime();
+                List<BatchFetchResult> results = fetcher.fetchAll(cells, null).join();
+                double seconds = (System.nanoTime() - start) / 1e9;
+
+                double[] latencies = results.stream().mapToDouble(BatchFetchResult::latencyMillis).sorted().toArray();
+                long failures = results.stream().filter(r -> !r.isSuccess()).count();
+                out.printf("concurrency=%-4d %.1f cells/s p50=%.1fms p95=%.1fms max=%.1fms failures=%d%n",
+                    concurrency, results.size() / seconds,
+                    percentile(latencies, 0.50), percentile(latencies, 0.95),
+                    latencies[latencies.length - 1], failures);
+            }
+        } finally {
+            System.setOut(out);
+        }
+    }
+
+    private static double percentile(double[] sorted, double p) {
+        if (sorted.length == 0) return Double.NaN;
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+}
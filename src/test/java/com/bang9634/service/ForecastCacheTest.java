@@ -0,0 +1,135 @@
+package com.bang9634.service;
+
+import com.bang9634.model.FcstCategory;
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.ForecastKey;
+import com.bang9634.model.GridCell;
+import com.bang9634.util.constants.WeatherConstants;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * BaseTimeScheduler가 고른 발표의 키로 ForecastCache가 적중하고, 다음 발표가 공개되면 만료되는지 확인한다.
+ * <ul>
+ *   <li>현재 발표의 키는 저장 후 다음 발표 공개 직전까지 적중한다.</li>
+ *   <li>다음 발표가 공개되면 만료되고, 새 발표의 키로 다시 저장된다.</li>
+ *   <li>이미 지난 발표의 키는 저장되지 않지만 격자의 마지막 예보로는 남는다.</li>
+ *   <li>0210 이전에는 전날 2300 발표를 사용하고, 월말과 연말에도 전날이 올바르게 계산된다.</li>
+ * </ul>
+ */
+public class ForecastCacheTest {
+
+    /** 테스트에서 시각을 옮길 수 있는 시계 */
+    private static class MutableClock extends Clock {
+        private long millis;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            millis = time.atZone(WeatherConstants.KMA_ZONE).toInstant().toEpochMilli();
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return WeatherConstants.KMA_ZONE;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    public static void main(String[] args) {
+        MutableClock clock = new MutableClock(LocalDateTime.of(2026, 10, 18, 9, 30));
+        BaseTimeScheduler scheduler = new BaseTimeScheduler(clock);
+        ForecastCache cache = new ForecastCache(16, clock, null, scheduler);
+        GridCell cell = new GridCell(60, 127);
+        FcstSeries data = series(15);
+
+        ForecastKey key = scheduler.current().keyFor(cell);
+        check(key.baseDate().equals("20261018") && key.baseTime().equals("0800"), "09:30에는 0800 발표를 사용해야 한다 : " + key);
+        cache.put(key, data);
+        check(cache.get(key) == data, "현재 발표의 키는 적중해야 한다.");
+
+        clock.set(LocalDateTime.of(2026, 10, 18, 11, 9));
+        check(scheduler.current().keyFor(cell).equals(key), "11:09에는 아직 0800 발표를 사용해야 한다.");
+        check(cache.get(key) == data, "다음 발표 공개 전까지 적중해야 한다.");
+
+        clock.set(LocalDateTime.of(2026, 10, 18, 11, 10));
+        ForecastKey next = scheduler.current().keyFor(cell);
+        check(next.baseTime().equals("1100"), "11:10에는 1100 발표를 사용해야 한다 : " + next);
+        check(cache.get(key) == null, "다음 발표가 공개되면 만료되어야 한다.");
+        FcstSeries nextData = series(17);
+        cache.put(next, nextData);
+        check(cache.get(next) == nextData, "새 발표의 키로 다시 저장되어야 한다.");
+
+        /** 고정된 이전 발표의 키는 저장되지 않지만, 더 최신 예보가 없으면 마지막 예보로 남는다. */
+        GridCell other = new GridCell(98, 76);
+        ForecastKey stale = ForecastKey.of("20261017", "0500", other);
+        cache.put(stale, data);
+        check(cache.get(stale) == null, "지난 발표의 키는 저장되지 않아야 한다.");
+        check(cache.getLatest(other) == data, "지난 발표의 예보도 마지막 예보로 남아야 한다.");
+        check(cache.getLatest(cell) == nextData, "격자의 마지막 예보는 최신 발표여야 한다.");
+
+        checkRollover(scheduler);
+        System.out.println("OK");
+    }
+
+    /** 자정부터 첫 발표(0200)가 공개되기 전까지는 전날 2300 발표를 사용하는지 확인한다. */
+    private static void checkRollover(BaseTimeScheduler scheduler) {
+        checkAnnouncement(scheduler, LocalDateTime.of(2026, 10, 18, 0, 0), "20261017", "2300");
+        checkAnnouncement(scheduler, LocalDateTime.of(2026, 10, 18, 1, 0), "20261017", "2300");
+        checkAnnouncement(scheduler, LocalDateTime.of(2026, 10, 18, 2, 9, 59), "20261017", "2300");
+        checkAnnouncement(scheduler, LocalDateTime.of(2026, 10, 18, 2, 10), "20261018", "0200");
+        checkAnnouncement(scheduler, LocalDateTime.of(2026, 10, 17, 23, 9), "20261017", "2000");
+        checkAnnouncement(scheduler, LocalDateTime.of(2026, 10, 17, 23, 10), "20261017", "2300");
+
+        /** 월과 연의 경계에서도 전날 2300 발표를 사용한다. */
+        checkAnnouncement(scheduler, LocalDateTime.of(2026, 11, 1, 1, 0), "20261031", "2300");
+        checkAnnouncement(scheduler, LocalDateTime.of(2027, 3, 1, 2, 9), "20270228", "2300");
+        checkAnnouncement(scheduler, LocalDateTime.of(2028, 3, 1, 0, 30), "20280229", "2300");
+        checkAnnouncement(scheduler, LocalDateTime.of(2027, 1, 1, 0, 0), "20261231", "2300");
+        checkAnnouncement(scheduler, LocalDateTime.of(2027, 1, 1, 2, 10), "20270101", "0200");
+
+        /** 전날 2300 발표는 당일 0210까지 사용하고, 그때 다음 발표로 넘어간다. */
+        BaseTimeScheduler.Announcement lastOfYear = scheduler.announcementAt(millis(LocalDateTime.of(2027, 1, 1, 1, 0)));
+        check(lastOfYear.availableAt() == millis(LocalDateTime.of(2026, 12, 31, 23, 10)),
+                "전날 2300 발표는 23:10부터 사용해야 한다 : " + lastOfYear);
+        check(lastOfYear.nextAvailableAt() == millis(LocalDateTime.of(2027, 1, 1, 2, 10)),
+                "다음 발표는 02:10부터 사용해야 한다 : " + lastOfYear);
+        check(scheduler.nextAvailableAt(lastOfYear.keyFor(new GridCell(60, 127))) == lastOfYear.nextAvailableAt(),
+                "키로 계산한 다음 발표 시각이 발표와 같아야 한다 : " + lastOfYear);
+    }
+
+    private static void checkAnnouncement(BaseTimeScheduler scheduler, LocalDateTime time, String baseDate, String baseTime) {
+        BaseTimeScheduler.Announcement announcement = scheduler.announcementAt(millis(time));
+        check(announcement.baseDate().equals(baseDate) && announcement.baseTime().equals(baseTime),
+                time + "에는 " + baseDate + " " + baseTime + " 발표를 사용해야 한다 : " + announcement);
+    }
+
+    private static long millis(LocalDateTime time) {
+        return time.atZone(WeatherConstants.KMA_ZONE).toInstant().toEpochMilli();
+    }
+
+    /** @return  2026-10-18 12:00의 기온 하나만 있는 예보 */
+    private static FcstSeries series(float tmp) {
+        FcstSeries series = new FcstSeries();
+        series.put(20261018, 1200, FcstCategory.TMP, tmp);
+        return series;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+}
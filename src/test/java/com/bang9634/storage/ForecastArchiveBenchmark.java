@@ -0,0 +1,109 @@
+package com.bang9634.storage;
+
+import com.bang9634.model.FcstCategory;
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.ForecastKey;
+import com.bang9634.provider.StubKmaServer;
+import com.bang9634.provider.parser.WeatherDataParser;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * ForecastArchive의 보관(ingest) 속도, 임의 조회 속도, 순차 조회 속도와 힙 사용량을 측정한다.
+ * <p>
+ * 임의 조회는 FcstSeries로 읽는 get()과 레코드를 그대로 순회하는 scan(key)를 각각 측정한다.
+ * <p>
+ * StubKmaServer의 3~4일치 응답(96개 슬롯)을 스냅샷 하나로 하여, 발표일자/발표시각/격자를 바꿔 가며 보관한다.
+ * 기본값 20000개 스냅샷은 약 192만 개 레코드이다.
+ * <pre>
+ *     java ... ForecastArchiveBenchmark [스냅샷 수] [임의 조회 수]
+ * </pre>
+ */
+public class ForecastArchiveBenchmark {
+    private static final String[] BASE_TIMES = {"0200", "0500", "0800", "1100", "1400", "1700", "2000", "2300"};
+    private static final DateTimeFormatter BASE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    public static void main(String[] args) throws Exception {
+        int snapshots = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int lookups = args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+        FcstSeries series = new FcstSeries();
+        new WeatherDataParser().parseInto(
+            StubKmaServer.responseBody(1, StubKmaServer.totalCount(), "60", "127"), series);
+
+        Path directory = Files.createTempDirectory("forecast-archive");
+        try {
+            long heapBefore = usedHeap();
+            try (ForecastArchive archive = new ForecastArchive(directory)) {
+                long start = System.nanoTime();
+                for (int i = 0; i < snapshots; i++) {
+                    archive.append(keyOf(i), series);
+                }
+                double ingestSeconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("ingest: %d snapshots, %d records, %.2fs, %.0f records/s%n",
+                    snapshots, archive.recordCount(), ingestSeconds, archive.recordCount() / ingestSeconds);
+
+                Random random = new Random(42);
+                float checksum = 0;
+                start = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    FcstSeries found = archive.get(keyOf(random.nextInt(snapshots)));
+                    checksum += found.value(FcstCategory.TMP, 0);
+                }
+                double lookupSeconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("random get: %d lookups, %.0f lookups/s (checksum %.0f)%n",
+                    lookups, lookups / lookupSeconds, checksum);
+
+                int[] visited = {0};
+                start = System.nanoTime();
+                for (int i = 0; i < lookups; i++) {
+                    archive.scan(keyOf(random.nextInt(snapshots)), record -> visited[0]++);
+                }
+                lookupSeconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("random scan(key): %.0f lookups/s (%d records)%n", lookups / lookupSeconds, visited[0]);
+
+                float[] max = {Float.NEGATIVE_INFINITY};
+                start = System.nanoTime();
+                archive.scan(record -> {
+                    if (record.isValid(FcstCategory.TMP)) max[0] = Math.max(max[0], record.value(FcstCategory.TMP));
+                });
+                double scanSeconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("scan: %.0f records/s (max TMP %.1f)%n", archive.recordCount() / scanSeconds, max[0]);
+                System.out.printf("heap: %dKB%n", (usedHeap() - heapBefore) / 1024);
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    /** i번째 스냅샷의 키. 발표시각, 격자, 발표일자 순으로 바뀐다. */
+    private static ForecastKey keyOf(int i) {
+        String baseTime = BASE_TIMES[i % BASE_TIMES.length];
+        int cell = i / BASE_TIMES.length;
+        int nx = 1 + cell % 149;
+        int ny = 1 + (cell / 149) % 253;
+        String baseDate = LocalDate.of(2024, 1, 1).plusDays(cell / (149 * 253)).format(BASE_DATE_FORMAT);
+        return new ForecastKey(baseDate, baseTime, nx, ny);
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.bang9634.storage;
+
+import com.bang9634.model.FcstCategory;
+import com.bang9634.model.FcstSeries;
+import com.bang9634.model.ForecastKey;
+import com.bang9634.model.GridCell;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * ForecastStore가 저장한 예보를 다시 읽고, 손상된 마지막 레코드 앞까지는 살려 두는지 확인한다.
+ * <ul>
+ *   <li>저장한 예보는 새 저장소에서 같은 값과 순서로 다시 읽힌다.</li>
+ *   <li>쓰기 도중 종료되어 마지막 레코드가 잘리면 그 앞의 예보는 남고, 파일은 다시 쓰여 이어서 저장할 수 있다.</li>
+ *   <li>마지막 레코드의 CRC가 맞지 않아도 그 앞의 예보는 남는다.</li>
+ *   <li>compaction 후에도 살아 있는 예보만 그대로 남는다.</li>
+ * </ul>
+ */
+public class ForecastStoreTest {
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-18T00:00:00Z"), ZoneOffset.UTC);
+    private static final long EXPIRES_AT = CLOCK.millis() + 3_600_000;
+    private static final GridCell[] CELLS = {new GridCell(60, 127), new GridCell(98, 76), new GridCell(55, 124)};
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Files.createTempDirectory("forecast-store-test");
+        try {
+            roundTrip(dir.resolve("round-trip"));
+            truncatedTail(dir.resolve("truncated"));
+            corruptedTail(dir.resolve("corrupted"));
+            compaction(dir.resolve("compaction"));
+        } finally {
+            try (var files = Files.list(dir)) {
+                for (Path file : files.toList()) Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(dir);
+        }
+        System.out.println("OK");
+    }
+
+    private static void roundTrip(Path file) throws IOException {
+        writeAll(file);
+        List<ForecastStore.Entry> entries = new ForecastStore(file, 16, CLOCK).load();
+        check(entries.size() == CELLS.length, "저장한 예보를 모두 읽어야 한다 : " + entries.size());
+        for (int i = 0; i < CELLS.length; i++) {
+            checkEntry(entries.get(i), i);
+        }
+        /** 범주형 카테고리는 원래 문자열까지 되살아나야 한다. */
+        FcstSeries series = entries.get(0).series();
+        check("강수없음".equals(series.text(FcstCategory.PCP, 0)), "PCP 문자열이 다르다 : " + series.text(FcstCategory.PCP, 0));
+        check(series.isMissing(FcstCategory.WSD, 0), "누락값 표시가 유지되어야 한다.");
+    }
+
+    private static void truncatedTail(Path file) throws IOException {
+        writeAll(file);
+        long size = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 5);
+        }
+        ForecastStore store = new ForecastStore(file, 16, CLOCK);
+        List<ForecastStore.Entry> entries = store.load();
+        check(entries.size() == CELLS.length - 1, "잘린 레코드 앞의 예보는 남아야 한다 : " + entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            checkEntry(entries.get(i), i);
+        }
+
+        /** 잘린 부분은 다시 쓰여 사라지므로, 이어서 저장한 예보도 다시 읽힌다. */
+        store.append(key(2), series(2), EXPIRES_AT);
+        store.close();
+        entries = new ForecastStore(file, 16, CLOCK).load();
+        check(entries.size() == CELLS.length, "복구 후 저장한 예보도 읽어야 한다 : " + entries.size());
+        checkEntry(entries.get(CELLS.length - 1), CELLS.length - 1);
+    }
+
+    private static void corruptedTail(Path file) throws IOException {
+        writeAll(file);
+        long size = Files.size(file);
+        /** 마지막 레코드 payload의 마지막 바이트를 뒤집어 CRC가 맞지 않게 한다. */
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[(int) size - 1] ^= 0x5A;
+        Files.write(file, bytes);
+
+        List<ForecastStore.Entry> entries = new ForecastStore(file, 16, CLOCK).load();
+        check(entries.size() == CELLS.length - 1, "CRC가 맞지 않는 레코드 앞의 예보는 남아야 한다 : " + entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            checkEntry(entries.get(i), i);
+        }
+        check(Files.size(file) < size, "손상된 레코드는 다시 쓸 때 버려야 한다 : " + Files.size(file) + " / " + size);
+        check(new ForecastStore(file, 16, CLOCK).load().size() == CELLS.length - 1, "다시 쓴 파일을 읽어야 한다.");
+    }
+
+    private static void compaction(Path file) throws IOException {
+        ForecastStore store = new ForecastStore(file, 16, CLOCK);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < CELLS.length; i++) {
+                store.append(key(i), series(i), EXPIRES_AT);
+            }
+        }
+        store.append(ForecastKey.of("20261017", "2300", CELLS[0]), series(0), CLOCK.millis() - 1);
+        long before = Files.size(file);
+        store.compact();
+        store.close();
+        check(Files.size(file) < before, "compaction 후 파일이 줄어야 한다 : " + Files.size(file) + " / " + before);
+        List<ForecastStore.Entry> entries = new ForecastStore(file, 16, CLOCK).load();
+        check(entries.size() == CELLS.length, "만료된 예보와 이전 레코드는 버려야 한다 : " + entries.size());
+        for (int i = 0; i < CELLS.length; i++) {
+            checkEntry(entries.get(i), i);
+        }
+    }
+
+    private static void writeAll(Path file) throws IOException {
+        ForecastStore store = new ForecastStore(file, 16, CLOCK);
+        for (int i = 0; i < CELLS.length; i++) {
+            store.append(key(i), series(i), EXPIRES_AT);
+        }
+        store.close();
+    }
+
+    private static ForecastKey key(int i) {
+        return ForecastKey.of("20261018", "0800", CELLS[i]);
+    }
+
+    /** @return  i번째 격자의 기온, 강수량, 누락된 풍속이 있는 예보 */
+    private static FcstSeries series(int i) {
+        FcstSeries series = new FcstSeries();
+        series.put(20261018, 900, FcstCategory.TMP, 10 + i);
+        series.put(20261018, 900, FcstCategory.PCP, "강수없음");
+        series.put(20261018, 900, FcstCategory.WSD, "-999");
+        series.put(20261018, 1000, FcstCategory.TMP, 11 + i);
+        return series;
+    }
+
+    private static void checkEntry(ForecastStore.Entry entry, int i) {
+        check(entry.key().equals(key(i)), "키가 다르다 : " + entry.key());
+        check(entry.expiresAt() == EXPIRES_AT, "만료 시각이 다르다 : " + entry.key());
+        FcstSeries series = entry.series();
+        check(series.size() == 2 && series.fcstTimeAt(1) == 1000, "슬롯이 다르다 : " + entry.key());
+        check(series.value(FcstCategory.TMP, 0) == 10 + i && series.value(FcstCategory.TMP, 1) == 11 + i,
+                "기온이 다르다 : " + entry.key());
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+}
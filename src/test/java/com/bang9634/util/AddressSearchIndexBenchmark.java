@@ -0,0 +1,75 @@
+package com.bang9634.util;
+
+import com.bang9634.util.reader.AddressSearchIndex;
+import com.bang9634.util.reader.GridCoordinateCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주소 검색을 전체 주소 문자열 순회(String.contains)와 AddressSearchIndex로 비교한다.
+ * <p>
+ * 색인은 모든 후보의 점수를 매겨 정렬하므로, 순회도 앞의 LIMIT개에서 멈추지 않고 전체를 확인한다.
+ * 순회는 완성된 음절의 부분 문자열만 찾으므로 초성, 여러 단계 검색어에서는 결과가 없고 순회 비용만 비교된다.
+ * <pre>
+ *     mvn test-compile
+ *     java -cp target/test-classes:target/classes:(의존성) org.openjdk.jmh.Main AddressSearchIndexBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AddressSearchIndexBenchmark {
+    private static final int LIMIT = 20;
+
+    @Param({"창신", "서울", "ㅊㅅ", "종로 ㅊㅅ"})
+    private String query;
+
+    private String[] addresses;
+    private AddressSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        GridCoordinateCatalog catalog = GridCoordinateCatalog.getInstance();
+        List<String> list = new ArrayList<>();
+        for (String region : catalog.getRegions()) {
+            for (Map.Entry<String, Map<String, int[]>> city : catalog.getRegion(region).entrySet()) {
+                for (String street : city.getValue().keySet()) {
+                    list.add(region + " " + city.getKey() + " " + street);
+                }
+            }
+        }
+        addresses = list.toArray(new String[0]);
+        index = catalog.getSearchIndex();
+    }
+
+    @Benchmark
+    public List<String> scan() {
+        List<String> results = new ArrayList<>();
+        for (String address : addresses) {
+            if (address.contains(query)) results.add(address);
+        }
+        return results.size() > LIMIT ? results.subList(0, LIMIT) : results;
+    }
+
+    @Benchmark
+    public List<AddressSearchIndex.Result> searchIndex() {
+        return index.search(query, LIMIT);
+    }
+}
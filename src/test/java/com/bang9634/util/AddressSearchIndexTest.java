@@ -0,0 +1,93 @@
+package com.bang9634.util;
+
+import com.bang9634.util.reader.AddressSearchIndex;
+import com.bang9634.util.reader.GridCoordinateCatalog;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * AddressSearchIndex의 초성, 앞부분, 입력 중인 음절, 여러 단계 검색과 점수 순서를 확인한다.
+ * <p>
+ * 결과 순서를 정확히 비교할 수 있도록 작은 주소 트리로 확인한 뒤, 실제 좌표 카탈로그의 색인으로도 한 번 검색한다.
+ */
+public class AddressSearchIndexTest {
+
+    public static void main(String[] args) {
+        Map<String, Map<String, Map<String, int[]>>> tree = new LinkedHashMap<>();
+        add(tree, "서울특별시", "", "", 60, 127);
+        add(tree, "서울특별시", "종로구", "", 60, 127);
+        add(tree, "서울특별시", "종로구", "청운효자동", 60, 127);
+        add(tree, "서울특별시", "종로구", "창신제1동", 61, 127);
+        add(tree, "서울특별시", "종로구", "창신제2동", 60, 127);
+        add(tree, "서울특별시", "중구", "", 60, 127);
+        add(tree, "서울특별시", "중구", "신당동", 61, 127);
+        add(tree, "충청남도", "천안시서북구", "", 63, 112);
+        add(tree, "충청남도", "천안시서북구", "성정1동", 63, 112);
+        add(tree, "부산광역시", "", "", 98, 76);
+        AddressSearchIndex index = new AddressSearchIndex(tree);
+        check(index.size() == 10, "색인된 주소 수가 다르다 : " + index.size());
+
+        /** 초성 */
+        List<AddressSearchIndex.Result> results = index.search("ㅊㅅ", 10);
+        check(results.size() >= 2 && results.get(0).street().equals("창신제1동") && results.get(1).street().equals("창신제2동"),
+            "\"ㅊㅅ\"는 창신제1동, 창신제2동 순서로 찾아야 한다 : " + results);
+        check(first(index, "ㅈㄹㄱ").address().equals("서울특별시 종로구"), "\"ㅈㄹㄱ\"는 종로구를 찾아야 한다.");
+
+        /** 앞부분 : 이름이 가장 아래 단계인 주소가 하위 주소보다 먼저 나온다. */
+        results = index.search("종로", 10);
+        check(results.get(0).address().equals("서울특별시 종로구") && results.size() == 4,
+            "\"종로\"는 종로구와 하위 동 3개를 찾아야 한다 : " + results);
+        check(results.get(0).score() > results.get(1).score(), "종로구 자체가 하위 동보다 점수가 높아야 한다 : " + results);
+        check(first(index, "부산").address().equals("부산광역시"), "\"부산\"은 부산광역시를 찾아야 한다.");
+
+        /** 자모와 음절이 섞인 입력, 입력 중인 음절, 글자가 순서대로만 나타나는 이름 */
+        check(first(index, "종ㄹ").address().equals("서울특별시 종로구"), "\"종ㄹ\"은 종로구를 찾아야 한다.");
+        check(first(index, "창시").street().equals("창신제1동"), "\"창시\"는 창신제1동을 찾아야 한다.");
+        check(first(index, "창신동").street().equals("창신제1동"), "\"창신동\"은 창신제1동을 찾아야 한다.");
+        results = index.search("종로 창ㅅ", 10);
+        check(results.size() == 2 && results.get(0).street().equals("창신제1동") && results.get(0).cell().nx() == 61,
+            "\"종로 창ㅅ\"는 종로구의 창신동만 찾아야 한다 : " + results);
+        check(index.search("중구 ㅊㅅ", 10).isEmpty(), "모든 토큰이 일치해야 한다.");
+
+        /** 점수 : 완성된 이름 > 앞부분 > 입력 중인 음절 > 초성 > 순서대로만 나타나는 글자 */
+        int exact = first(index, "창신제1동").score();
+        int prefix = first(index, "창신").score();
+        int typing = first(index, "창시").score();
+        int choseong = first(index, "ㅊㅅ").score();
+        int subsequence = first(index, "창신동").score();
+        check(exact > prefix && prefix > typing && typing >= choseong && choseong > subsequence,
+            String.format("점수 순서가 다르다 : %d, %d, %d, %d, %d", exact, prefix, typing, choseong, subsequence));
+
+        check(index.search("", 10).isEmpty() && index.search("   ", 10).isEmpty() && index.search(null, 10).isEmpty(),
+            "빈 검색어는 빈 목록을 반환해야 한다.");
+        check(index.search("종로", 2).size() == 2 && index.search("종로", 0).isEmpty(), "limit를 지켜야 한다.");
+        check(index.search("ㅋㅋ", 10).isEmpty(), "일치하지 않으면 빈 목록을 반환해야 한다.");
+
+        /** 실제 카탈로그 */
+        AddressSearchIndex catalogIndex = GridCoordinateCatalog.getInstance().getSearchIndex();
+        AddressSearchIndex.Result changsin = first(catalogIndex, "종로 ㅊㅅ");
+        check(changsin.city().equals("종로구") && changsin.street().startsWith("창신"),
+            "카탈로그에서 \"종로 ㅊㅅ\"는 종로구 창신동을 찾아야 한다 : " + changsin);
+        System.out.printf("addresses=%d, \"종로 ㅊㅅ\" -> %s %s%n", catalogIndex.size(), changsin.address(), changsin.cell());
+        System.out.println("OK");
+    }
+
+    private static void add(Map<String, Map<String, Map<String, int[]>>> tree,
+                            String region, String city, String street, int nx, int ny) {
+        tree.computeIfAbsent(region, k -> new LinkedHashMap<>())
+            .computeIfAbsent(city, k -> new LinkedHashMap<>())
+            .put(street, new int[]{nx, ny});
+    }
+
+    private static AddressSearchIndex.Result first(AddressSearchIndex index, String query) {
+        List<AddressSearchIndex.Result> results = index.search(query, 1);
+        check(!results.isEmpty(), "\"" + query + "\"의 검색 결과가 없다.");
+        return results.get(0);
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+}
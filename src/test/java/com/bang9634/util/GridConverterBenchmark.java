@@ -0,0 +1,72 @@
+package com.bang9634.util;
+
+import com.bang9634.model.GridCell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 위도/경도 -> 격자 변환의 처리량을 단일 변환과 배열 변환으로 측정한다.
+ * <p>
+ * 한 번의 호출에서 한반도 범위의 임의 좌표 {@value #POINTS}개를 변환하며, 결과는 점 하나당 평균 시간이다.
+ * <pre>
+ *     mvn test-compile
+ *     java -cp target/test-classes:target/classes:(의존성) org.openjdk.jmh.Main GridConverterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridConverterBenchmark {
+    private static final int POINTS = 65536;
+
+    private double[] lat;
+    private double[] lon;
+    private int[] nx;
+    private int[] ny;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        lat = new double[POINTS];
+        lon = new double[POINTS];
+        nx = new int[POINTS];
+        ny = new int[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            lat[i] = 33.0 + random.nextDouble() * 5.5;
+            lon[i] = 124.5 + random.nextDouble() * 7.0;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public void scalar(Blackhole bh) {
+        for (int i = 0; i < POINTS; i++) {
+            GridCell cell = GridConverter.toGrid(lat[i], lon[i]);
+            bh.consume(cell.nx());
+            bh.consume(cell.ny());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public int[] batch() {
+        GridConverter.toGrid(lat, lon, nx, ny);
+        return nx;
+    }
+}
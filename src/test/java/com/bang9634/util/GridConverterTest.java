@@ -0,0 +1,84 @@
+package com.bang9634.util;
+
+import com.bang9634.model.GridCell;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * gridCoordinates.xlsx의 경도(초/100), 위도(초/100) 열을 GridConverter로 변환하여 격자 X, 격자 Y 열과 비교한다.
+ * <p>
+ * 위치가 갱신된 일부 행은 표의 격자가 갱신 전 위치 기준이라 인접 격자로 변환되므로,
+ * 모든 행이 한 칸 이내이고 98% 이상이 정확히 일치하는지 확인한다. 배열 API와 단일 변환의 결과도 비교한다.
+ */
+public class GridConverterTest {
+    /** 열 번호 (0부터) */
+    private static final int COL_NX = 5;
+    private static final int COL_NY = 6;
+    private static final int COL_LON = 13;
+    private static final int COL_LAT = 14;
+
+    public static void main(String[] args) throws Exception {
+        List<double[]> rows = new ArrayList<>();
+        try (InputStream is = GridConverterTest.class.getResourceAsStream("/gridCoordinates.xlsx");
+             Workbook workbook = new XSSFWorkbook(is)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            for (Row row : sheet) {
+                if (row.getRowNum() == 0) continue;
+                double lon = numeric(row.getCell(COL_LON));
+                double lat = numeric(row.getCell(COL_LAT));
+                /** 좌표가 비어 있는 행(이어도 등)은 건너뛴다. */
+                if (lat == 0 || lon == 0) continue;
+                rows.add(new double[]{lat, lon, numeric(row.getCell(COL_NX)), numeric(row.getCell(COL_NY))});
+            }
+        }
+
+        int n = rows.size();
+        double[] lat = new double[n];
+        double[] lon = new double[n];
+        for (int i = 0; i < n; i++) {
+            lat[i] = rows.get(i)[0];
+            lon[i] = rows.get(i)[1];
+        }
+        int[] nx = new int[n];
+        int[] ny = new int[n];
+        GridConverter.toGrid(lat, lon, nx, ny);
+
+        int exact = 0;
+        for (int i = 0; i < n; i++) {
+            int expectedNx = (int) rows.get(i)[2];
+            int expectedNy = (int) rows.get(i)[3];
+            GridCell cell = GridConverter.toGrid(lat[i], lon[i]);
+            check(cell.nx() == nx[i] && cell.ny() == ny[i], "배열 변환과 단일 변환 결과가 다르다 : " + i);
+            check(Math.abs(nx[i] - expectedNx) <= 1 && Math.abs(ny[i] - expectedNy) <= 1,
+                String.format("(%f, %f) -> (%d, %d), 표 (%d, %d)", lat[i], lon[i], nx[i], ny[i], expectedNx, expectedNy));
+            if (nx[i] == expectedNx && ny[i] == expectedNy) exact++;
+        }
+        System.out.printf("rows=%d exact=%d (%.1f%%)%n", n, exact, exact * 100.0 / n);
+        check(exact >= n * 0.98, "정확히 일치하는 행이 너무 적다 : " + exact);
+
+        GridCell seoul = GridConverter.toGrid(37.5635694444444, 126.980008333333);
+        check(seoul.nx() == 60 && seoul.ny() == 127, "서울특별시는 (60, 127)이어야 한다 : " + seoul);
+        System.out.println("OK");
+    }
+
+    private static double numeric(Cell cell) {
+        if (cell == null) return 0;
+        if (cell.getCellType() == CellType.NUMERIC) return cell.getNumericCellValue();
+        if (cell.getCellType() == CellType.STRING && CommonUtils.isNumeric(cell.getStringCellValue().trim())) {
+            return Double.parseDouble(cell.getStringCellValue().trim());
+        }
+        return 0;
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+}
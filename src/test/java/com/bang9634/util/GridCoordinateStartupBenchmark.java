@@ -0,0 +1,49 @@
+package com.bang9634.util;
+
+import com.bang9634.util.reader.GridCoordinateIndex;
+import com.bang9634.util.reader.GridCoordinateReader;
+
+import java.util.Map;
+
+/**
+ * 좌표 트리 로딩 방식별 소요 시간과 잔존 힙 크기를 비교한다.
+ * <p>
+ * 각 방식은 JVM 시작 직후의 비용을 보기 위해 별도 JVM으로 실행하는 것을 권장한다.
+ * <pre>
+ *     java ... GridCoordinateStartupBenchmark index
+ *     java ... GridCoordinateStartupBenchmark excel
+ * </pre>
+ */
+public class GridCoordinateStartupBenchmark {
+    public static void main(String[] args) {
+        String mode = args.length > 0 ? args[0] : "index";
+        long heapBefore = usedHeap();
+        long start = System.nanoTime();
+
+        Object retained;
+        if ("excel".equals(mode)) {
+            retained = GridCoordinateReader.readAddressCoordinatesMapFromExcel();
+        } else {
+            GridCoordinateIndex index = GridCoordinateIndex.load();
+            if (index == null) {
+                System.out.println("gridCoordinates.idx가 없습니다. mvn process-classes를 먼저 실행하세요.");
+                return;
+            }
+            retained = "tree".equals(mode) ? index.toTree() : index;
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long heapAfter = usedHeap();
+        System.out.printf("mode=%s load=%.1fms retainedHeap=%dKB%n",
+            mode, elapsed / 1e6, (heapAfter - heapBefore) / 1024);
+        if (retained instanceof Map<?, ?> map) {
+            System.out.println("regions=" + map.size());
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
@@ -0,0 +1,105 @@
+package com.bang9634.util;
+
+import com.bang9634.model.GridCell;
+import com.bang9634.util.constants.WeatherConstants;
+import com.bang9634.util.reader.GridCoordinateCatalog;
+import com.bang9634.util.reader.GridSpatialIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 임의의 격자 좌표에 대한 최근접/k-최근접/반경 질의를 전체 순회와 GridSpatialIndex로 비교한다.
+ * <p>
+ * 질의 지점은 격자 범위 전체에서 고르게 뽑으므로, 주소가 없는 바다 위 지점도 포함된다.
+ * <pre>
+ *     mvn test-compile
+ *     java -cp target/test-classes:target/classes:(의존성) org.openjdk.jmh.Main GridSpatialIndexBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridSpatialIndexBenchmark {
+    private static final int QUERIES = 1024;
+
+    private GridCell[] cells;
+    private GridSpatialIndex index;
+    private int[] queryNx;
+    private int[] queryNy;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<GridCell> allCells = GridCoordinateCatalog.getInstance().getAllCells();
+        cells = allCells.toArray(new GridCell[0]);
+        index = new GridSpatialIndex(allCells);
+        Random random = new Random(42);
+        queryNx = new int[QUERIES];
+        queryNy = new int[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queryNx[i] = 1 + random.nextInt(WeatherConstants.GRID_NX_MAX);
+            queryNy[i] = 1 + random.nextInt(WeatherConstants.GRID_NY_MAX);
+        }
+    }
+
+    @Benchmark
+    public GridCell nearestScan() {
+        int q = next++ & (QUERIES - 1);
+        GridCell best = null;
+        long bestDistance = Long.MAX_VALUE;
+        for (GridCell cell : cells) {
+            long dx = cell.nx() - queryNx[q];
+            long dy = cell.ny() - queryNy[q];
+            long d = dx * dx + dy * dy;
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = cell;
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public GridCell nearestIndex() {
+        int q = next++ & (QUERIES - 1);
+        return index.nearest(queryNx[q], queryNy[q]);
+    }
+
+    @Benchmark
+    public List<GridCell> nearest10Index() {
+        int q = next++ & (QUERIES - 1);
+        return index.nearest(queryNx[q], queryNy[q], 10);
+    }
+
+    @Benchmark
+    public void radius5Scan(Blackhole bh) {
+        int q = next++ & (QUERIES - 1);
+        for (GridCell cell : cells) {
+            long dx = cell.nx() - queryNx[q];
+            long dy = cell.ny() - queryNy[q];
+            if (dx * dx + dy * dy <= 25) bh.consume(cell);
+        }
+    }
+
+    @Benchmark
+    public List<GridCell> radius5Index() {
+        int q = next++ & (QUERIES - 1);
+        return index.withinRadius(queryNx[q], queryNy[q], 5);
+    }
+}
@@ -0,0 +1,96 @@
+package com.bang9634.util;
+
+import com.bang9634.model.GridCell;
+import com.bang9634.util.constants.WeatherConstants;
+import com.bang9634.util.reader.GridCoordinateCatalog;
+import com.bang9634.util.reader.GridSpatialIndex;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * GridSpatialIndex의 최근접/k-최근접/반경 질의 결과를 전체 순회와 비교한다.
+ * <p>
+ * 격자 안의 임의 지점과 함께 격자에서 아주 먼 지점(int 범위 끝 포함)도 질의하여, 거리²가 커도
+ * 가까운 순서가 유지되는지 확인한다. 같은 거리의 순서는 색인 내부 순서를 따르므로 거리 열로 비교한다.
+ */
+public class GridSpatialIndexTest {
+    private static final int RANDOM_QUERIES = 500;
+    private static final int K = 8;
+
+    public static void main(String[] args) {
+        List<GridCell> cells = GridCoordinateCatalog.getInstance().getAllCells();
+        GridSpatialIndex index = new GridSpatialIndex(cells);
+        check(index.size() == new HashSet<>(cells).size(), "색인 크기가 다르다 : " + index.size());
+
+        List<int[]> queries = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < RANDOM_QUERIES; i++) {
+            queries.add(new int[]{1 + random.nextInt(WeatherConstants.GRID_NX_MAX), 1 + random.nextInt(WeatherConstants.GRID_NY_MAX)});
+        }
+        int[] far = {Integer.MIN_VALUE, -1_000_000, -70_000, 70_000, 1_000_000, Integer.MAX_VALUE};
+        for (int x : far) {
+            for (int y : far) {
+                queries.add(new int[]{x, y});
+            }
+            queries.add(new int[]{x, 127});
+            queries.add(new int[]{60, x});
+        }
+
+        for (int[] q : queries) {
+            int nx = q[0];
+            int ny = q[1];
+            List<GridCell> sorted = new ArrayList<>(cells);
+            sorted.sort(Comparator.comparing(cell -> distance(cell, nx, ny)));
+            String at = "(" + nx + ", " + ny + ")";
+
+            GridCell nearest = index.nearest(nx, ny);
+            check(distance(nearest, nx, ny).equals(distance(sorted.get(0), nx, ny)), "최근접 격자가 다르다 : " + at + " " + nearest);
+
+            List<GridCell> nearestK = index.nearest(nx, ny, K);
+            check(nearestK.size() == K, "k-최근접 개수가 다르다 : " + at);
+            for (int i = 0; i < K; i++) {
+                check(distance(nearestK.get(i), nx, ny).equals(distance(sorted.get(i), nx, ny)),
+                        "k-최근접 " + i + "번째 거리가 다르다 : " + at);
+            }
+
+            /** 가장 가까운 격자까지 거리 + 3칸 반경이면 격자 밖 질의도 몇 개의 격자를 포함한다. */
+            double radius = Math.sqrt(distance(sorted.get(0), nx, ny).doubleValue()) + 3;
+            BigInteger limit = new BigDecimal(Math.floor(radius * radius)).toBigInteger();
+            List<GridCell> expected = new ArrayList<>();
+            for (GridCell cell : sorted) {
+                if (distance(cell, nx, ny).compareTo(limit) <= 0) expected.add(cell);
+            }
+            List<GridCell> within = index.withinRadius(nx, ny, radius);
+            check(new HashSet<>(within).equals(new HashSet<>(expected)) && within.size() == expected.size(),
+                    "반경 질의 결과가 다르다 : " + at + " " + within.size() + " / " + expected.size());
+            for (int i = 1; i < within.size(); i++) {
+                check(distance(within.get(i - 1), nx, ny).compareTo(distance(within.get(i), nx, ny)) <= 0,
+                        "반경 질의 결과가 가까운 순서가 아니다 : " + at);
+            }
+        }
+
+        check(index.withinRadius(60, 127, -1).isEmpty(), "음수 반경은 빈 목록이어야 한다");
+        check(index.withinRadius(60, 127, Double.NaN).isEmpty(), "NaN 반경은 빈 목록이어야 한다");
+        check(index.withinRadius(Integer.MIN_VALUE, Integer.MIN_VALUE, Double.MAX_VALUE).size() == index.size(),
+                "무한에 가까운 반경은 모든 격자를 포함해야 한다");
+        System.out.println("queries=" + queries.size() + " cells=" + index.size());
+        System.out.println("OK");
+    }
+
+    /** @return  오버플로 없이 계산한 거리의 제곱 */
+    private static BigInteger distance(GridCell cell, int nx, int ny) {
+        BigInteger dx = BigInteger.valueOf((long) cell.nx() - nx);
+        BigInteger dy = BigInteger.valueOf((long) cell.ny() - ny);
+        return dx.multiply(dx).add(dy.multiply(dy));
+    }
+
+    private static void check(boolean condition, String message) {
+        if (!condition) throw new IllegalStateException(message);
+    }
+}
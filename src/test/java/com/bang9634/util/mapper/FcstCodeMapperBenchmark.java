@@ -0,0 +1,106 @@
+package com.bang9634.util.mapper;
+
+import com.bang9634.model.FcstCategory;
+import com.bang9634.provider.StubKmaServer;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 3일치 단기예보 응답(1160개 항목)의 카테고리/값 변환을 기존 방식과 열거형 테이블 방식으로 비교한다.
+ * <p>
+ * 기존 방식은 카테고리 문자열로 Map을 조회하고, PTY/SKY 값은 문자열 비교 후 Integer.parseInt와
+ * 박싱된 Map 조회로 변환한다. 열거형 방식은 토큰의 문자 배열에서 카테고리를 찾고 ordinal 테이블로 변환한다.
+ * <pre>
+ *     mvn test-compile
+ *     java -cp target/test-classes:target/classes:(의존성) org.openjdk.jmh.Main FcstCodeMapperBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FcstCodeMapperBenchmark {
+    /** 기존 CATEGORY_CODE_MAP과 같은 Map.ofEntries 테이블 */
+    private static final Map<String, String> LEGACY_CATEGORY_CODE_MAP = Map.ofEntries(
+        Map.entry("POP", "강수확률(%)"),
+        Map.entry("PTY", "강수형태"),
+        Map.entry("PCP", "1시간 강수량(범주:1mm)"),
+        Map.entry("REH", "습도(%)"),
+        Map.entry("SNO", "1시간 신적설(범주:1cm)"),
+        Map.entry("SKY", "하늘상태"),
+        Map.entry("TMP", "1시간 기온(°C)"),
+        Map.entry("TMN", "일 최저기온(°C)"),
+        Map.entry("TMX", "일 최고기온(°C)"),
+        Map.entry("UUU", "풍속(동서성분)(m/s)"),
+        Map.entry("VVV", "풍속(남북성분)(m/s)"),
+        Map.entry("WAV", "파고(M)"),
+        Map.entry("VEC", "풍향(deg)"),
+        Map.entry("WSD", "풍속(m/s)")
+    );
+
+    /** 응답의 카테고리 코드 문자열 (기존 방식 입력) */
+    private String[] categories;
+    /** 응답의 카테고리 코드 문자 배열 (파서 토큰 버퍼에 해당) */
+    private char[][] categoryChars;
+    /** 응답의 예보 값 */
+    private String[] values;
+
+    @Setup
+    public void setUp() throws Exception {
+        String response = StubKmaServer.responseBody(1, StubKmaServer.totalCount(), "60", "127");
+        JsonNode items = new ObjectMapper().readTree(response).path("response").path("body").path("items").path("item");
+        categories = new String[items.size()];
+        categoryChars = new char[items.size()][];
+        values = new String[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            categories[i] = new String(items.get(i).get("category").asText());
+            categoryChars[i] = categories[i].toCharArray();
+            values[i] = items.get(i).get("fcstValue").asText();
+        }
+    }
+
+    @Benchmark
+    public void legacy(Blackhole blackhole) {
+        for (int i = 0; i < categories.length; i++) {
+            blackhole.consume(LEGACY_CATEGORY_CODE_MAP.get(categories[i]));
+            blackhole.consume(legacySubMappingTableValue(categories[i], values[i]));
+        }
+    }
+
+    @Benchmark
+    public void enumTables(Blackhole blackhole) {
+        for (int i = 0; i < categoryChars.length; i++) {
+            char[] chars = categoryChars[i];
+            FcstCategory category = FcstCategory.fromChars(chars, 0, chars.length);
+            blackhole.consume(category.label());
+            blackhole.consume(FcstCodeMapper.decode(category, values[i]));
+        }
+    }
+
+    /** 기존 FcstCodeMapper.getSubMappingTableValue 구현 */
+    private static String legacySubMappingTableValue(String category, String fcstValue) {
+        if (category.equals("PTY")) {
+            return FcstCodeMapper.PTY_CODE_MAP.get(Integer.parseInt(fcstValue));
+        }
+        if (category.equals("SKY")) {
+            return FcstCodeMapper.SKY_CODE_MAP.get(Integer.parseInt(fcstValue));
+        }
+        return fcstValue;
+    }
+}